@@ -53,6 +53,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
   protected RpcConnectionPool pool;
   protected InetSocketAddress catalogServerAddr;
   protected TajoConf conf;
+  /** null if the client-side cache is disabled */
+  private final CatalogMetadataCache cache;
 
   abstract CatalogProtocolService.BlockingInterface getStub(NettyClientBase client);
 
@@ -61,6 +63,12 @@ public abstract class AbstractCatalogClient implements CatalogService {
     this.catalogServerAddr = catalogServerAddr;
     this.serviceTracker = ServiceTrackerFactory.get(conf);
     this.conf = conf;
+    if (conf.getBoolVar(TajoConf.ConfVars.CATALOG_CLIENT_CACHE_ENABLED)) {
+      this.cache = new CatalogMetadataCache(
+          conf.getLongVar(TajoConf.ConfVars.CATALOG_CLIENT_CACHE_VALIDATION_INTERVAL_MS));
+    } else {
+      this.cache = null;
+    }
   }
 
   private InetSocketAddress getCatalogServerAddr() {
@@ -76,10 +84,43 @@ public abstract class AbstractCatalogClient implements CatalogService {
     }
   }
 
+  /**
+   * Checks the catalog version if the validation interval has elapsed, and drops cached entries loaded under an
+   * older version.
+   *
+   * @return The catalog version that results fetched from now on will be cached under.
+   */
+  private long validateCache() {
+    if (cache.needsValidation()) {
+      try {
+        cache.validate(fetchCatalogVersion());
+      } catch (ServiceException e) {
+        LOG.warn("Cannot get the catalog version, so the catalog cache is cleared: " + e.getMessage());
+        cache.invalidate();
+      }
+    }
+    return cache.getVersion();
+  }
+
+  private long fetchCatalogVersion() throws ServiceException {
+    return new ServerCallable<Long>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      public Long call(NettyClientBase client) throws ServiceException {
+        CatalogProtocolService.BlockingInterface stub = getStub(client);
+        return stub.getCatalogVersion(null, ProtoUtil.NULL_PROTO).getValue();
+      }
+    }.withRetries();
+  }
+
+  private void invalidateCache() {
+    if (cache != null) {
+      cache.invalidate();
+    }
+  }
+
   @Override
   public final Boolean createTablespace(final String tablespaceName, final String tablespaceUri) {
     try {
-      return new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
 
@@ -89,6 +130,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.createTablespace(null, builder.build()).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return Boolean.FALSE;
@@ -98,12 +141,14 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public final Boolean dropTablespace(final String tablespaceName) {
     try {
-      return new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.dropTablespace(null, ProtoUtil.convertString(tablespaceName)).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return Boolean.FALSE;
@@ -177,12 +222,14 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public Boolean alterTablespace(final AlterTablespaceProto alterTablespace) {
     try {
-      return new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.alterTablespace(null, alterTablespace).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -192,7 +239,7 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public final Boolean createDatabase(final String databaseName, @Nullable final String tablespaceName) {
     try {
-      return new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
 
@@ -204,6 +251,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.createDatabase(null, builder.build()).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return Boolean.FALSE;
@@ -213,12 +262,14 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public final Boolean dropDatabase(final String databaseName) {
     try {
-      return new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.dropDatabase(null, ProtoUtil.convertString(databaseName)).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return Boolean.FALSE;
@@ -276,17 +327,33 @@ public abstract class AbstractCatalogClient implements CatalogService {
 
   @Override
   public final TableDesc getTableDesc(final String databaseName, final String tableName) {
+    String cacheKey = null;
+    long version = 0;
+    if (cache != null) {
+      version = validateCache();
+      cacheKey = CatalogMetadataCache.tableKey(databaseName, tableName);
+      TableDescProto cached = cache.getTableDesc(cacheKey);
+      if (cached != null) {
+        return CatalogUtil.newTableDesc(cached);
+      }
+    }
+
     try {
-      return new ServerCallable<TableDesc>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
-        public TableDesc call(NettyClientBase client) throws ServiceException {
+      TableDescProto descProto = new ServerCallable<TableDescProto>(this.pool, getCatalogServerAddr(),
+          CatalogProtocol.class, false) {
+        public TableDescProto call(NettyClientBase client) throws ServiceException {
           TableIdentifierProto.Builder builder = TableIdentifierProto.newBuilder();
           builder.setDatabaseName(databaseName);
           builder.setTableName(tableName);
 
           CatalogProtocolService.BlockingInterface stub = getStub(client);
-          return CatalogUtil.newTableDesc(stub.getTableDesc(null, builder.build()));
+          return stub.getTableDesc(null, builder.build());
         }
       }.withRetries();
+      if (cache != null) {
+        cache.putTableDesc(version, cacheKey, descProto);
+      }
+      return CatalogUtil.newTableDesc(descProto);
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return null;
@@ -373,18 +440,34 @@ public abstract class AbstractCatalogClient implements CatalogService {
 
   @Override
   public final PartitionMethodDesc getPartitionMethod(final String databaseName, final String tableName) {
+    String cacheKey = null;
+    long version = 0;
+    if (cache != null) {
+      version = validateCache();
+      cacheKey = CatalogMetadataCache.tableKey(databaseName, tableName);
+      PartitionMethodProto cached = cache.getPartitionMethod(cacheKey);
+      if (cached != null) {
+        return CatalogUtil.newPartitionMethodDesc(cached);
+      }
+    }
+
     try {
-      return new ServerCallable<PartitionMethodDesc>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
-        public PartitionMethodDesc call(NettyClientBase client) throws ServiceException {
+      PartitionMethodProto methodProto = new ServerCallable<PartitionMethodProto>(this.pool,
+          getCatalogServerAddr(), CatalogProtocol.class, false) {
+        public PartitionMethodProto call(NettyClientBase client) throws ServiceException {
 
           TableIdentifierProto.Builder builder = TableIdentifierProto.newBuilder();
           builder.setDatabaseName(databaseName);
           builder.setTableName(tableName);
 
           CatalogProtocolService.BlockingInterface stub = getStub(client);
-          return CatalogUtil.newPartitionMethodDesc(stub.getPartitionMethodByTableName(null,  builder.build()));
+          return stub.getPartitionMethodByTableName(null,  builder.build());
         }
       }.withRetries();
+      if (cache != null) {
+        cache.putPartitionMethod(version, cacheKey, methodProto);
+      }
+      return CatalogUtil.newPartitionMethodDesc(methodProto);
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return null;
@@ -393,8 +476,19 @@ public abstract class AbstractCatalogClient implements CatalogService {
 
   @Override
   public final boolean existPartitionMethod(final String databaseName, final String tableName) {
+    String cacheKey = null;
+    long version = 0;
+    if (cache != null) {
+      version = validateCache();
+      cacheKey = CatalogMetadataCache.tableKey(databaseName, tableName);
+      Boolean cached = cache.existPartitionMethod(cacheKey);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      boolean exists = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
 
           TableIdentifierProto.Builder builder = TableIdentifierProto.newBuilder();
@@ -405,6 +499,10 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.existPartitionMethod(null, builder.build()).getValue();
         }
       }.withRetries();
+      if (cache != null) {
+        cache.putPartitionMethodExistence(version, cacheKey, exists);
+      }
+      return exists;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -472,6 +570,71 @@ public abstract class AbstractCatalogClient implements CatalogService {
     }
   }
 
+  @Override
+  public final boolean addPartitions(final String databaseName, final String tableName,
+                                     final List<PartitionDescProto> partitions, final boolean ifNotExists) {
+    try {
+      Boolean result = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+        public Boolean call(NettyClientBase client) throws ServiceException {
+          AddPartitionsRequest.Builder builder = AddPartitionsRequest.newBuilder();
+          builder.setTableIdentifier(TableIdentifierProto.newBuilder()
+              .setDatabaseName(databaseName).setTableName(tableName));
+          builder.addAllPartition(partitions);
+          builder.setIfNotExists(ifNotExists);
+
+          CatalogProtocolService.BlockingInterface stub = getStub(client);
+          return stub.addPartitions(null, builder.build()).getValue();
+        }
+      }.withRetries();
+      invalidateCache();
+      return result;
+    } catch (ServiceException e) {
+      LOG.error(e.getMessage(), e);
+      return false;
+    }
+  }
+
+  @Override
+  public final boolean dropPartitions(final String databaseName, final String tableName,
+                                      final List<String> partitionNames, final boolean ifExists) {
+    try {
+      Boolean result = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+        public Boolean call(NettyClientBase client) throws ServiceException {
+          DropPartitionsRequest.Builder builder = DropPartitionsRequest.newBuilder();
+          builder.setTableIdentifier(TableIdentifierProto.newBuilder()
+              .setDatabaseName(databaseName).setTableName(tableName));
+          builder.addAllPartitionName(partitionNames);
+          builder.setIfExists(ifExists);
+
+          CatalogProtocolService.BlockingInterface stub = getStub(client);
+          return stub.dropPartitions(null, builder.build()).getValue();
+        }
+      }.withRetries();
+      invalidateCache();
+      return result;
+    } catch (ServiceException e) {
+      LOG.error(e.getMessage(), e);
+      return false;
+    }
+  }
+
+  @Override
+  public final List<PartitionDescProto> getPartitions(final GetPartitionsRequest request) {
+    try {
+      return new ServerCallable<List<PartitionDescProto>>(this.pool, getCatalogServerAddr(), CatalogProtocol.class,
+          false) {
+        public List<PartitionDescProto> call(NettyClientBase client) throws ServiceException {
+          CatalogProtocolService.BlockingInterface stub = getStub(client);
+          PartitionsProto response = stub.getPartitionsByFilter(null, request);
+          return response.getPartitionList();
+        }
+      }.withRetries();
+    } catch (ServiceException e) {
+      LOG.error(e.getMessage(), e);
+      return null;
+    }
+  }
+
   @Override
   public final Collection<String> getAllTableNames(final String databaseName) {
     try {
@@ -518,12 +681,14 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public final boolean createTable(final TableDesc desc) {
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.createTable(null, desc.getProto()).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -537,7 +702,7 @@ public abstract class AbstractCatalogClient implements CatalogService {
     final String simpleName = splitted[1];
 
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
 
           TableIdentifierProto.Builder builder = TableIdentifierProto.newBuilder();
@@ -548,6 +713,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.dropTable(null, builder.build()).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -560,8 +727,20 @@ public abstract class AbstractCatalogClient implements CatalogService {
       throw new IllegalArgumentException(
           "tableName cannot be composed of multiple parts, but it is \"" + tableName + "\"");
     }
+
+    String cacheKey = null;
+    long version = 0;
+    if (cache != null) {
+      version = validateCache();
+      cacheKey = CatalogMetadataCache.tableKey(databaseName, tableName);
+      Boolean cached = cache.existsTable(cacheKey);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      boolean exists = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
 
           TableIdentifierProto.Builder builder = TableIdentifierProto.newBuilder();
@@ -572,6 +751,10 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.existsTable(null, builder.build()).getValue();
         }
       }.withRetries();
+      if (cache != null) {
+        cache.putTableExistence(version, cacheKey, exists);
+      }
+      return exists;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -586,12 +769,14 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public final boolean createIndex(final IndexDesc index) {
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.createIndex(null, index.getProto()).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -683,7 +868,7 @@ public abstract class AbstractCatalogClient implements CatalogService {
   public boolean dropIndex(final String databaseName,
                            final String indexName) {
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
 
           IndexNameProto.Builder builder = IndexNameProto.newBuilder();
@@ -694,6 +879,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.dropIndex(null, builder.build()).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -721,12 +908,14 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public final boolean createFunction(final FunctionDesc funcDesc) {
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.createFunction(null, funcDesc.getProto()).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -736,7 +925,7 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public final boolean dropFunction(final String signature) {
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           UnregisterFunctionRequest.Builder builder = UnregisterFunctionRequest.newBuilder();
           builder.setSignature(signature);
@@ -745,6 +934,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.dropFunction(null, builder.build()).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -767,7 +958,18 @@ public abstract class AbstractCatalogClient implements CatalogService {
       builder.addParameterTypes(type);
     }
 
+    String cacheKey = null;
+    long version = 0;
     FunctionDescProto descProto = null;
+    if (cache != null) {
+      version = validateCache();
+      cacheKey = CatalogMetadataCache.functionKey(signature, funcType, paramTypes);
+      descProto = cache.getFunction(cacheKey);
+      if (descProto != null) {
+        return newFunctionDesc(descProto, signature, paramTypes);
+      }
+    }
+
     try {
       descProto = new ServerCallable<FunctionDescProto>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public FunctionDescProto call(NettyClientBase client) throws ServiceException {
@@ -793,6 +995,13 @@ public abstract class AbstractCatalogClient implements CatalogService {
       throw new NoSuchFunctionException(signature, paramTypes);
     }
 
+    if (cache != null) {
+      cache.putFunction(version, cacheKey, descProto);
+    }
+    return newFunctionDesc(descProto, signature, paramTypes);
+  }
+
+  private FunctionDesc newFunctionDesc(FunctionDescProto descProto, String signature, DataType... paramTypes) {
     try {
       return new FunctionDesc(descProto);
     } catch (ClassNotFoundException e) {
@@ -818,13 +1027,28 @@ public abstract class AbstractCatalogClient implements CatalogService {
       builder.addParameterTypes(type);
     }
 
+    String cacheKey = null;
+    long version = 0;
+    if (cache != null) {
+      version = validateCache();
+      cacheKey = CatalogMetadataCache.functionKey(signature, funcType, paramTypes);
+      Boolean cached = cache.containFunction(cacheKey);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      boolean contained = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.containFunction(null, builder.build()).getValue();
         }
       }.withRetries();
+      if (cache != null) {
+        cache.putFunctionExistence(version, cacheKey, contained);
+      }
+      return contained;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -834,12 +1058,14 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public final boolean alterTable(final AlterTableDesc desc) {
     try {
-      return new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(this.pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.alterTable(null, desc.getProto()).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -849,15 +1075,27 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public boolean updateTableStats(final UpdateTableStatsProto updateTableStatsProto) {
     try {
-      return new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      Boolean result = new ServerCallable<Boolean>(pool, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.updateTableStats(null, updateTableStatsProto).getValue();
         }
       }.withRetries();
+      invalidateCache();
+      return result;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
     }
   }
+
+  @Override
+  public final long getCatalogVersion() {
+    try {
+      return fetchCatalogVersion();
+    } catch (ServiceException e) {
+      LOG.error(e.getMessage(), e);
+      return -1;
+    }
+  }
 }
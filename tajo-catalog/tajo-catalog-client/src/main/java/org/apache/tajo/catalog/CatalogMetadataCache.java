@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.catalog;
+
+import org.apache.tajo.catalog.proto.CatalogProtos.FunctionDescProto;
+import org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
+import org.apache.tajo.catalog.proto.CatalogProtos.PartitionMethodProto;
+import org.apache.tajo.catalog.proto.CatalogProtos.TableDescProto;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Client-side cache of catalog lookups. Entries are kept as protos so that every hit can hand out a fresh,
+ * mutable descriptor. The whole cache is dropped whenever the catalog version observed from the server changes,
+ * which the server bumps on every DDL.
+ */
+class CatalogMetadataCache {
+  private static final long UNKNOWN_VERSION = -1;
+
+  private final long validationIntervalMs;
+  private final ConcurrentMap<String, TableDescProto> tableDescs = new ConcurrentHashMap<String, TableDescProto>();
+  private final ConcurrentMap<String, Boolean> tableExistence = new ConcurrentHashMap<String, Boolean>();
+  private final ConcurrentMap<String, PartitionMethodProto> partitionMethods =
+      new ConcurrentHashMap<String, PartitionMethodProto>();
+  private final ConcurrentMap<String, Boolean> partitionMethodExistence = new ConcurrentHashMap<String, Boolean>();
+  private final ConcurrentMap<String, FunctionDescProto> functions = new ConcurrentHashMap<String, FunctionDescProto>();
+  private final ConcurrentMap<String, Boolean> functionExistence = new ConcurrentHashMap<String, Boolean>();
+
+  private volatile long version = UNKNOWN_VERSION;
+  private volatile long lastValidated = 0;
+
+  CatalogMetadataCache(long validationIntervalMs) {
+    this.validationIntervalMs = validationIntervalMs;
+  }
+
+  /**
+   * @return True if the catalog version should be fetched before the next lookup is served from the cache.
+   */
+  boolean needsValidation() {
+    return version == UNKNOWN_VERSION || System.currentTimeMillis() - lastValidated >= validationIntervalMs;
+  }
+
+  /**
+   * Records the catalog version just read from the server, and drops all entries if it differs from the version
+   * the cached entries were loaded under.
+   */
+  synchronized void validate(long currentVersion) {
+    if (currentVersion != version) {
+      clear();
+      version = currentVersion;
+    }
+    lastValidated = System.currentTimeMillis();
+  }
+
+  /**
+   * Drops all entries and forces a version check on the next lookup.
+   */
+  synchronized void invalidate() {
+    clear();
+    version = UNKNOWN_VERSION;
+  }
+
+  private void clear() {
+    tableDescs.clear();
+    tableExistence.clear();
+    partitionMethods.clear();
+    partitionMethodExistence.clear();
+    functions.clear();
+    functionExistence.clear();
+  }
+
+  /**
+   * @return The catalog version the current entries were loaded under. Lookups pass it back when they store the
+   * result, so that a result fetched before an invalidation is not cached under the new version.
+   */
+  long getVersion() {
+    return version;
+  }
+
+  static String tableKey(String databaseName, String tableName) {
+    return databaseName + CatalogConstants.IDENTIFIER_DELIMITER + tableName;
+  }
+
+  static String functionKey(String signature, FunctionType funcType, DataType... paramTypes) {
+    StringBuilder sb = new StringBuilder(signature).append('/').append(funcType);
+    for (DataType type : paramTypes) {
+      sb.append('/').append(type.getType());
+      if (type.hasLength()) {
+        sb.append(':').append(type.getLength());
+      }
+    }
+    return sb.toString();
+  }
+
+  TableDescProto getTableDesc(String key) {
+    return tableDescs.get(key);
+  }
+
+  synchronized void putTableDesc(long loadedVersion, String key, TableDescProto proto) {
+    if (loadedVersion == version) {
+      tableDescs.put(key, proto);
+      tableExistence.put(key, Boolean.TRUE);
+    }
+  }
+
+  Boolean existsTable(String key) {
+    return tableExistence.get(key);
+  }
+
+  synchronized void putTableExistence(long loadedVersion, String key, boolean exists) {
+    if (loadedVersion == version) {
+      tableExistence.put(key, exists);
+    }
+  }
+
+  PartitionMethodProto getPartitionMethod(String key) {
+    return partitionMethods.get(key);
+  }
+
+  synchronized void putPartitionMethod(long loadedVersion, String key, PartitionMethodProto proto) {
+    if (loadedVersion == version) {
+      partitionMethods.put(key, proto);
+      partitionMethodExistence.put(key, Boolean.TRUE);
+    }
+  }
+
+  Boolean existPartitionMethod(String key) {
+    return partitionMethodExistence.get(key);
+  }
+
+  synchronized void putPartitionMethodExistence(long loadedVersion, String key, boolean exists) {
+    if (loadedVersion == version) {
+      partitionMethodExistence.put(key, exists);
+    }
+  }
+
+  FunctionDescProto getFunction(String key) {
+    return functions.get(key);
+  }
+
+  synchronized void putFunction(long loadedVersion, String key, FunctionDescProto proto) {
+    if (loadedVersion == version) {
+      functions.put(key, proto);
+    }
+  }
+
+  Boolean containFunction(String key) {
+    return functionExistence.get(key);
+  }
+
+  synchronized void putFunctionExistence(long loadedVersion, String key, boolean exists) {
+    if (loadedVersion == version) {
+      functionExistence.put(key, exists);
+    }
+  }
+}
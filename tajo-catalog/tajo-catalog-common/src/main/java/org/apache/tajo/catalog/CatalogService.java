@@ -191,6 +191,29 @@ public interface CatalogService {
 
   List<TablePartitionProto> getAllPartitions();
 
+  /**
+   * Add many partitions of a table at once.
+   *
+   * @param ifNotExists If true, partitions which already exist are skipped instead of failing the whole call.
+   * @return True if the partitions are added
+   */
+  boolean addPartitions(String databaseName, String tableName, List<CatalogProtos.PartitionDescProto> partitions,
+                        boolean ifNotExists);
+
+  /**
+   * Drop many partitions of a table at once.
+   *
+   * @param ifExists If true, partitions which do not exist are skipped instead of failing the whole call.
+   * @return True if the partitions are dropped
+   */
+  boolean dropPartitions(String databaseName, String tableName, List<String> partitionNames, boolean ifExists);
+
+  /**
+   * Get a page of the partitions of a table which match the given key ranges. Partitions are ordered by their names,
+   * so the next page starts after the last partition name of the previous one.
+   */
+  List<CatalogProtos.PartitionDescProto> getPartitions(CatalogProtos.GetPartitionsRequest request);
+
   boolean createIndex(IndexDesc index);
 
   boolean existIndexByName(String databaseName, String indexName);
@@ -226,6 +249,13 @@ public interface CatalogService {
 
   boolean updateTableStats(UpdateTableStatsProto stats);
 
+  /**
+   * The version of the catalog. It is changed whenever any catalog object is created, dropped or altered.
+   *
+   * @return The current catalog version, or a negative value if it cannot be known
+   */
+  long getCatalogVersion();
+
 
 
 }
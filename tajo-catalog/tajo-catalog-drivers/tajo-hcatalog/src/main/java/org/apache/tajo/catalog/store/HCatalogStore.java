@@ -952,6 +952,22 @@ public class HCatalogStore extends CatalogConstants implements CatalogStore {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void addPartitions(CatalogProtos.AddPartitionsRequest request) throws CatalogException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void dropPartitions(CatalogProtos.DropPartitionsRequest request) throws CatalogException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public List<CatalogProtos.PartitionDescProto> getPartitions(CatalogProtos.GetPartitionsRequest request)
+      throws CatalogException {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public List<TableOptionProto> getAllTableOptions() throws CatalogException {
     throw new UnsupportedOperationException();
@@ -43,6 +43,7 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.rpc.BlockingRpcServer;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.BoolProto;
+import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.LongProto;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.NullProto;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.StringProto;
 import org.apache.tajo.util.NetUtils;
@@ -55,6 +56,8 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -77,6 +80,14 @@ public class CatalogServer extends AbstractService {
   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
   private final Lock rlock = lock.readLock();
   private final Lock wlock = lock.writeLock();
+  // Table, partition and index operations take the catalog read lock above and then the lock of their database.
+  // Tablespace and database DDL take the catalog write lock. The store gives each thread its own connection, so
+  // operations on different databases do not wait for each other.
+  private final ConcurrentMap<String, ReentrantReadWriteLock> databaseLocks =
+      new ConcurrentHashMap<String, ReentrantReadWriteLock>();
+  // bumped on every successful DDL so that clients can validate their cached metadata. It starts from the startup
+  // time, so that a restarted catalog does not reuse the versions which clients have already cached.
+  private final AtomicLong catalogVersion = new AtomicLong(System.currentTimeMillis());
 
   private CatalogStore store;
   private Map<String, List<FunctionDescProto>> functions = new ConcurrentHashMap<String,
@@ -220,6 +231,46 @@ public class CatalogServer extends AbstractService {
     return this.bindAddress;
   }
 
+  private ReentrantReadWriteLock getDatabaseLock(String databaseName) {
+    ReentrantReadWriteLock databaseLock = databaseLocks.get(databaseName);
+    if (databaseLock == null) {
+      ReentrantReadWriteLock newLock = new ReentrantReadWriteLock();
+      databaseLock = databaseLocks.putIfAbsent(databaseName, newLock);
+      if (databaseLock == null) {
+        databaseLock = newLock;
+      }
+    }
+    return databaseLock;
+  }
+
+  private void readLock() {
+    rlock.lock();
+  }
+
+  private void readUnlock() {
+    rlock.unlock();
+  }
+
+  private void readLock(String databaseName) {
+    rlock.lock();
+    getDatabaseLock(databaseName).readLock().lock();
+  }
+
+  private void readUnlock(String databaseName) {
+    getDatabaseLock(databaseName).readLock().unlock();
+    rlock.unlock();
+  }
+
+  private void writeLock(String databaseName) {
+    rlock.lock();
+    getDatabaseLock(databaseName).writeLock().lock();
+  }
+
+  private void writeUnlock(String databaseName) {
+    getDatabaseLock(databaseName).writeLock().unlock();
+    rlock.unlock();
+  }
+
   public class CatalogProtocolHandler implements CatalogProtocolService.BlockingInterface {
 
     @Override
@@ -235,6 +286,7 @@ public class CatalogServer extends AbstractService {
 
         store.createTablespace(tablespaceName, uri);
         LOG.info(String.format("tablespace \"%s\" (%s) is created", tablespaceName, uri));
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
 
       } catch (Exception e) {
@@ -260,6 +312,7 @@ public class CatalogServer extends AbstractService {
         }
 
         store.dropTablespace(tablespaceName);
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
 
       } catch (Exception e) {
@@ -274,7 +327,7 @@ public class CatalogServer extends AbstractService {
     public BoolProto existTablespace(RpcController controller, StringProto request) throws ServiceException {
       String tablespaceName = request.getValue();
 
-      rlock.lock();
+      readLock();
       try {
         if (store.existTablespace(tablespaceName)) {
           return ProtoUtil.TRUE;
@@ -285,45 +338,45 @@ public class CatalogServer extends AbstractService {
         LOG.error(e);
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
 
     @Override
     public StringListProto getAllTablespaceNames(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return ProtoUtil.convertStrings(store.getAllDatabaseNames());
       } catch (Exception e) {
         LOG.error(e);
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
     
     @Override
     public GetTablespacesProto getAllTablespaces(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return GetTablespacesProto.newBuilder().addAllTablespace(store.getTablespaces()).build();
       } catch (Exception e) {
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
 
     @Override
     public TablespaceProto getTablespace(RpcController controller, StringProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return store.getTablespace(request.getValue());
       } catch (Exception e) {
         LOG.error(e);
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
 
@@ -350,6 +403,7 @@ public class CatalogServer extends AbstractService {
         }
 
         store.alterTablespace(request);
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
       } catch (Exception e) {
         LOG.error(e);
@@ -376,6 +430,7 @@ public class CatalogServer extends AbstractService {
 
         store.createDatabase(databaseName, tablespaceName);
         LOG.info(String.format("database \"%s\" is created", databaseName));
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
       } catch (Exception e) {
         LOG.error(e);
@@ -388,18 +443,19 @@ public class CatalogServer extends AbstractService {
     @Override
     public BoolProto updateTableStats(RpcController controller, UpdateTableStatsProto proto) throws
       ServiceException {
-      wlock.lock();
+      String [] split = CatalogUtil.splitTableName(proto.getTableName());
+      writeLock(split[0]);
       try {
-        String [] split = CatalogUtil.splitTableName(proto.getTableName());
         if (!store.existTable(split[0], split[1])) {
           throw new NoSuchTableException(proto.getTableName());
         }
         store.updateTableStats(proto);
+        catalogVersion.incrementAndGet();
       } catch (Exception e) {
         LOG.error(e.getMessage(), e);
         return BOOL_FALSE;
       } finally {
-        wlock.unlock();
+        writeUnlock(split[0]);
         LOG.info("Table " + proto.getTableName() + " is updated in the catalog ("
           + bindAddressStr + ")");
       }
@@ -414,17 +470,18 @@ public class CatalogServer extends AbstractService {
         throw new ServiceException(split[0] + " is a system database.");
       }
       
-      wlock.lock();
+      writeLock(split[0]);
       try {
         if (!store.existTable(split[0], split[1])) {
           throw new NoSuchTableException(proto.getTableName());
         }
         store.alterTable(proto);
+        catalogVersion.incrementAndGet();
       } catch (Exception e) {
         LOG.error(e.getMessage(), e);
         return BOOL_FALSE;
       } finally {
-        wlock.unlock();
+        writeUnlock(split[0]);
         LOG.info("Table " + proto.getTableName() + " is altered in the catalog ("
             + bindAddressStr + ")");
       }
@@ -446,6 +503,8 @@ public class CatalogServer extends AbstractService {
         }
 
         store.dropDatabase(databaseName);
+        databaseLocks.remove(databaseName);
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
 
       } catch (Exception e) {
@@ -461,7 +520,7 @@ public class CatalogServer extends AbstractService {
       String databaseName = request.getValue();
 
       if (!metaDictionary.isSystemDatabase(databaseName)) {
-        rlock.lock();
+        readLock();
         try {
           if (store.existDatabase(databaseName)) {
             return ProtoUtil.TRUE;
@@ -472,7 +531,7 @@ public class CatalogServer extends AbstractService {
           LOG.error(e);
           throw new ServiceException(e);
         } finally {
-          rlock.unlock();
+          readUnlock();
         }
       } else {
         return ProtoUtil.TRUE;
@@ -481,7 +540,7 @@ public class CatalogServer extends AbstractService {
 
     @Override
     public StringListProto getAllDatabaseNames(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         StringListProto.Builder builder = StringListProto.newBuilder();
         builder.addAllValues(store.getAllDatabaseNames());
@@ -491,19 +550,19 @@ public class CatalogServer extends AbstractService {
         LOG.error(e);
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
     
     @Override
     public GetDatabasesProto getAllDatabases(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return GetDatabasesProto.newBuilder().addAllDatabase(store.getAllDatabases()).build();
       } catch (Exception e) {
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
 
@@ -516,7 +575,7 @@ public class CatalogServer extends AbstractService {
       if (metaDictionary.isSystemDatabase(databaseName)){
         return metaDictionary.getTableDesc(tableName);
       } else {
-        rlock.lock();
+        readLock(databaseName);
         try {
           boolean contain;
 
@@ -536,7 +595,7 @@ public class CatalogServer extends AbstractService {
           LOG.error(e);
           throw new ServiceException(e);
         } finally {
-          rlock.unlock();
+          readUnlock(databaseName);
         }
       }
     }
@@ -550,7 +609,7 @@ public class CatalogServer extends AbstractService {
       if (metaDictionary.isSystemDatabase(databaseName)) {
         return ProtoUtil.convertStrings(metaDictionary.getAllSystemTables());
       } else {
-        rlock.lock();
+        readLock(databaseName);
         try {
           if (store.existDatabase(databaseName)) {
             return ProtoUtil.convertStrings(store.getAllTableNames(databaseName));
@@ -561,7 +620,7 @@ public class CatalogServer extends AbstractService {
           LOG.error(e);
           throw new ServiceException(e);
         } finally {
-          rlock.unlock();
+          readUnlock(databaseName);
         }
       }
     }
@@ -591,7 +650,7 @@ public class CatalogServer extends AbstractService {
         throw new ServiceException(databaseName + " is a system database.");
       }
       
-      wlock.lock();
+      writeLock(databaseName);
       try {
 
         boolean contain = store.existDatabase(databaseName);
@@ -602,6 +661,7 @@ public class CatalogServer extends AbstractService {
           }
 
           store.createTable(request);
+          catalogVersion.incrementAndGet();
           LOG.info(String.format("relation \"%s\" is added to the catalog (%s)",
               CatalogUtil.getCanonicalTableName(databaseName, tableName), bindAddressStr));
         } else {
@@ -611,7 +671,7 @@ public class CatalogServer extends AbstractService {
         LOG.error(e.getMessage(), e);
         return ProtoUtil.FALSE;
       } finally {
-        wlock.unlock();
+        writeUnlock(databaseName);
       }
 
       return ProtoUtil.TRUE;
@@ -627,7 +687,7 @@ public class CatalogServer extends AbstractService {
         throw new ServiceException(databaseName + " is a system database.");
       }
 
-      wlock.lock();
+      writeLock(databaseName);
       try {
         boolean contain = store.existDatabase(databaseName);
 
@@ -637,6 +697,7 @@ public class CatalogServer extends AbstractService {
           }
 
           store.dropTable(databaseName, tableName);
+          catalogVersion.incrementAndGet();
           LOG.info(String.format("relation \"%s\" is deleted from the catalog (%s)",
               CatalogUtil.getCanonicalTableName(databaseName, tableName), bindAddressStr));
         } else {
@@ -646,7 +707,7 @@ public class CatalogServer extends AbstractService {
         LOG.error(e.getMessage(), e);
         return BOOL_FALSE;
       } finally {
-        wlock.unlock();
+        writeUnlock(databaseName);
       }
 
       return BOOL_TRUE;
@@ -659,7 +720,7 @@ public class CatalogServer extends AbstractService {
       String tableName = request.getTableName();
 
       if (!metaDictionary.isSystemDatabase(databaseName)) {
-        rlock.lock();
+        readLock(databaseName);
         try {
 
           boolean contain = store.existDatabase(databaseName);
@@ -677,7 +738,7 @@ public class CatalogServer extends AbstractService {
           LOG.error(e);
           throw new ServiceException(e);
         } finally {
-          rlock.unlock();
+          readUnlock(databaseName);
         }
       } else {
         if (metaDictionary.existTable(tableName)) {
@@ -691,49 +752,49 @@ public class CatalogServer extends AbstractService {
     
     @Override
     public GetTablesProto getAllTables(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return GetTablesProto.newBuilder().addAllTable(store.getAllTables()).build();
       } catch (Exception e) {
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
     
     @Override
     public GetTableOptionsProto getAllTableOptions(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return GetTableOptionsProto.newBuilder().addAllTableOption(store.getAllTableOptions()).build();
       } catch (Exception e) {
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
     
     @Override
     public GetTableStatsProto getAllTableStats(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return GetTableStatsProto.newBuilder().addAllStat(store.getAllTableStats()).build();
       } catch (Exception e) {
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
     
     @Override
     public GetColumnsProto getAllColumns(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return GetColumnsProto.newBuilder().addAllColumn(store.getAllColumns()).build();
       } catch (Exception e) {
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
 
@@ -748,7 +809,7 @@ public class CatalogServer extends AbstractService {
         throw new ServiceException(databaseName + " is a system databsae. It does not contain any partitioned tables.");
       }
       
-      rlock.lock();
+      readLock(databaseName);
       try {
         boolean contain;
 
@@ -772,7 +833,7 @@ public class CatalogServer extends AbstractService {
         LOG.error(e);
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock(databaseName);
       }
     }
 
@@ -786,7 +847,7 @@ public class CatalogServer extends AbstractService {
         throw new ServiceException(databaseName + " is a system database. Partition Method does not support yet.");
       }
 
-      rlock.lock();
+      readLock(databaseName);
       try {
         boolean contain;
 
@@ -810,7 +871,7 @@ public class CatalogServer extends AbstractService {
         LOG.error(e);
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock(databaseName);
       }
     }
 
@@ -831,7 +892,7 @@ public class CatalogServer extends AbstractService {
         throw new ServiceException(databaseName + " is a system databsae. It does not contain any partitioned tables.");
       }
 
-      rlock.lock();
+      readLock(databaseName);
       try {
         boolean contain;
 
@@ -859,7 +920,7 @@ public class CatalogServer extends AbstractService {
         LOG.error(e);
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock(databaseName);
       }
     }
 
@@ -873,7 +934,7 @@ public class CatalogServer extends AbstractService {
         throw new ServiceException(databaseName + " is a system databsae. It does not contain any partitioned tables.");
       }
 
-      rlock.lock();
+      readLock(databaseName);
       try {
         boolean contain;
 
@@ -901,19 +962,104 @@ public class CatalogServer extends AbstractService {
         LOG.error(e);
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock(databaseName);
       }
     }
 
     @Override
     public GetTablePartitionsProto getAllPartitions(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return GetTablePartitionsProto.newBuilder().addAllPart(store.getAllPartitions()).build();
       } catch (Exception e) {
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
+      }
+    }
+
+    @Override
+    public BoolProto addPartitions(RpcController controller, AddPartitionsRequest request) throws ServiceException {
+      String databaseName = request.getTableIdentifier().getDatabaseName();
+      String tableName = request.getTableIdentifier().getTableName();
+
+      if (metaDictionary.isSystemDatabase(databaseName)) {
+        throw new ServiceException(databaseName + " is a system database.");
+      }
+
+      writeLock(databaseName);
+      try {
+        checkPartitionedTable(databaseName, tableName);
+        store.addPartitions(request);
+        catalogVersion.incrementAndGet();
+        LOG.info(String.format("%d partitions are added to \"%s\"", request.getPartitionCount(),
+            CatalogUtil.getCanonicalTableName(databaseName, tableName)));
+      } catch (Exception e) {
+        LOG.error(e.getMessage(), e);
+        return BOOL_FALSE;
+      } finally {
+        writeUnlock(databaseName);
+      }
+      return BOOL_TRUE;
+    }
+
+    @Override
+    public BoolProto dropPartitions(RpcController controller, DropPartitionsRequest request) throws ServiceException {
+      String databaseName = request.getTableIdentifier().getDatabaseName();
+      String tableName = request.getTableIdentifier().getTableName();
+
+      if (metaDictionary.isSystemDatabase(databaseName)) {
+        throw new ServiceException(databaseName + " is a system database.");
+      }
+
+      writeLock(databaseName);
+      try {
+        checkPartitionedTable(databaseName, tableName);
+        store.dropPartitions(request);
+        catalogVersion.incrementAndGet();
+        LOG.info(String.format("%d partitions are dropped from \"%s\"", request.getPartitionNameCount(),
+            CatalogUtil.getCanonicalTableName(databaseName, tableName)));
+      } catch (Exception e) {
+        LOG.error(e.getMessage(), e);
+        return BOOL_FALSE;
+      } finally {
+        writeUnlock(databaseName);
+      }
+      return BOOL_TRUE;
+    }
+
+    @Override
+    public PartitionsProto getPartitionsByFilter(RpcController controller, GetPartitionsRequest request)
+        throws ServiceException {
+      String databaseName = request.getTableIdentifier().getDatabaseName();
+      String tableName = request.getTableIdentifier().getTableName();
+
+      if (metaDictionary.isSystemDatabase(databaseName)) {
+        throw new ServiceException(databaseName + " is a system databsae. It does not contain any partitioned tables.");
+      }
+
+      readLock(databaseName);
+      try {
+        checkPartitionedTable(databaseName, tableName);
+        return PartitionsProto.newBuilder().addAllPartition(store.getPartitions(request)).build();
+      } catch (Exception e) {
+        LOG.error(e);
+        throw new ServiceException(e);
+      } finally {
+        readUnlock(databaseName);
+      }
+    }
+
+    private void checkPartitionedTable(String databaseName, String tableName)
+        throws CatalogException, NoPartitionedTableException {
+      if (!store.existDatabase(databaseName)) {
+        throw new NoSuchDatabaseException(databaseName);
+      }
+      if (!store.existTable(databaseName, tableName)) {
+        throw new NoSuchTableException(databaseName, tableName);
+      }
+      if (!store.existPartitionMethod(databaseName, tableName)) {
+        throw new NoPartitionedTableException(databaseName, tableName);
       }
     }
 
@@ -922,7 +1068,7 @@ public class CatalogServer extends AbstractService {
         throws ServiceException {
       String databaseName = indexDesc.getTableIdentifier().getDatabaseName();
       
-      rlock.lock();
+      writeLock(databaseName);
       try {
         if (store.existIndexByName(
             databaseName,
@@ -930,12 +1076,13 @@ public class CatalogServer extends AbstractService {
           throw new AlreadyExistsIndexException(indexDesc.getIndexName());
         }
         store.createIndex(indexDesc);
+        catalogVersion.incrementAndGet();
       } catch (Exception e) {
         LOG.error("ERROR : cannot add index " + indexDesc.getIndexName(), e);
         LOG.error(indexDesc);
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        writeUnlock(databaseName);
       }
 
       return BOOL_TRUE;
@@ -947,14 +1094,14 @@ public class CatalogServer extends AbstractService {
       String databaseName = request.getDatabaseName();
       String indexName = request.getIndexName();
 
-      rlock.lock();
+      readLock(databaseName);
       try {
         return store.existIndexByName(databaseName, indexName) ? ProtoUtil.TRUE : ProtoUtil.FALSE;
       } catch (Exception e) {
         LOG.error(e, e);
         return BoolProto.newBuilder().setValue(false).build();
       } finally {
-        rlock.unlock();
+        readUnlock(databaseName);
       }
     }
 
@@ -967,7 +1114,7 @@ public class CatalogServer extends AbstractService {
       String tableName = identifier.getTableName();
       String columnName = request.getColumnName();
 
-      rlock.lock();
+      readLock(databaseName);
       try {
         return store.existIndexByColumn(databaseName, tableName, columnName) ?
             ProtoUtil.TRUE : ProtoUtil.FALSE;
@@ -975,7 +1122,7 @@ public class CatalogServer extends AbstractService {
         LOG.error(e, e);
         return BoolProto.newBuilder().setValue(false).build();
       } finally {
-        rlock.unlock();
+        readUnlock(databaseName);
       }
     }
 
@@ -986,7 +1133,7 @@ public class CatalogServer extends AbstractService {
       String databaseName = request.getDatabaseName();
       String indexName = request.getIndexName();
 
-      rlock.lock();
+      readLock(databaseName);
       try {
         if (!store.existIndexByName(databaseName, indexName)) {
           throw new NoSuchIndexException(databaseName, indexName);
@@ -996,7 +1143,7 @@ public class CatalogServer extends AbstractService {
         LOG.error("ERROR : cannot get index " + indexName, e);
         return null;
       } finally {
-        rlock.unlock();
+        readUnlock(databaseName);
       }
     }
 
@@ -1009,7 +1156,7 @@ public class CatalogServer extends AbstractService {
       String tableName = identifier.getTableName();
       String columnName = request.getColumnName();
 
-      rlock.lock();
+      readLock(databaseName);
       try {
         if (!store.existIndexByColumn(databaseName, tableName, columnName)) {
           throw new NoSuchIndexException(databaseName, columnName);
@@ -1019,7 +1166,7 @@ public class CatalogServer extends AbstractService {
         LOG.error("ERROR : cannot get index for " + tableName + "." + columnName, e);
         return null;
       } finally {
-        rlock.unlock();
+        readUnlock(databaseName);
       }
     }
 
@@ -1030,16 +1177,17 @@ public class CatalogServer extends AbstractService {
       String databaseName = request.getDatabaseName();
       String indexName = request.getIndexName();
 
-      wlock.lock();
+      writeLock(databaseName);
       try {
         if (!store.existIndexByName(databaseName, indexName)) {
           throw new NoSuchIndexException(indexName);
         }
         store.dropIndex(databaseName, indexName);
+        catalogVersion.incrementAndGet();
       } catch (Exception e) {
         LOG.error(e, e);
       } finally {
-        wlock.unlock();
+        writeUnlock(databaseName);
       }
 
       return BOOL_TRUE;
@@ -1047,13 +1195,13 @@ public class CatalogServer extends AbstractService {
     
     @Override
     public GetIndexesProto getAllIndexes(RpcController controller, NullProto request) throws ServiceException {
-      rlock.lock();
+      readLock();
       try {
         return GetIndexesProto.newBuilder().addAllIndex(store.getAllIndexes()).build();
       } catch (Exception e) {
         throw new ServiceException(e);
       } finally {
-        rlock.unlock();
+        readUnlock();
       }
     }
 
@@ -1197,6 +1345,7 @@ public class CatalogServer extends AbstractService {
       }
 
       TUtil.putToNestedList(functions, funcDesc.getSignature().getName(), funcDesc);
+      catalogVersion.incrementAndGet();
       if (LOG.isDebugEnabled()) {
         LOG.info("Function " + signature + " is registered.");
       }
@@ -1213,6 +1362,7 @@ public class CatalogServer extends AbstractService {
       }
 
       functions.remove(request.getSignature());
+      catalogVersion.incrementAndGet();
       LOG.info(request.getSignature() + " is dropped.");
 
       return BOOL_TRUE;
@@ -1249,6 +1399,11 @@ public class CatalogServer extends AbstractService {
       }
       return BoolProto.newBuilder().setValue(returnValue).build();
     }
+
+    @Override
+    public LongProto getCatalogVersion(RpcController controller, NullProto request) throws ServiceException {
+      return LongProto.newBuilder().setValue(catalogVersion.get()).build();
+    }
   }
 
   private static class FunctionSignature {
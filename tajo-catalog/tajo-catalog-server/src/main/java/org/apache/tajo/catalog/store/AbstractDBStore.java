@@ -48,6 +48,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.tajo.catalog.proto.CatalogProtos.AlterTablespaceProto.AlterTablespaceCommand;
 import static org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.KeyValueProto;
@@ -60,7 +61,14 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
   protected final String connectionPassword;
   protected final String catalogUri;
 
-  private Connection conn;
+  /** the maximum number of values bound to a single IN clause of partition queries */
+  private static final int PARTITION_IN_CLAUSE_SIZE = 100;
+
+  // Each thread has its own connection, so that the transaction of a thread does not block or expose
+  // its uncommitted changes to the operations of the other threads.
+  private final ThreadLocal<Connection> connections = new ThreadLocal<Connection>();
+  private final Set<Connection> allConnections =
+      Collections.newSetFromMap(new ConcurrentHashMap<Connection, Boolean>());
   
   protected Map<String, Boolean> baseTableMaps = new HashMap<String, Boolean>();
   
@@ -131,7 +139,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
 
     try {
       LOG.info("Trying to connect database (" + catalogUri + ")");
-      conn = createConnection(conf);
+      setConnection(createConnection(conf));
       LOG.info("Connected to database (" + catalogUri + ")");
     } catch (SQLException e) {
       throw new CatalogException("Cannot connect to database (" + catalogUri
@@ -185,24 +193,56 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
     boolean isValid = false;
 
     try {
-      isValid = conn.isValid(timeout);
+      Connection conn = connections.get();
+      isValid = conn != null && conn.isValid(timeout);
     } catch (SQLException e) {
       e.printStackTrace();
     }
     return isValid;
   }
 
+  /**
+   * @return the connection of the current thread
+   */
   public Connection getConnection() {
     try {
       boolean isValid = isConnValid(100);
       if (!isValid) {
-        CatalogUtil.closeQuietly(conn);
-        conn = createConnection(conf);
+        Connection conn = connections.get();
+        if (conn != null) {
+          allConnections.remove(conn);
+          CatalogUtil.closeQuietly(conn);
+        }
+        setConnection(createConnection(conf));
       }
     } catch (SQLException e) {
       e.printStackTrace();
     }
-    return conn;
+    return connections.get();
+  }
+
+  private void setConnection(Connection conn) {
+    connections.set(conn);
+    allConnections.add(conn);
+  }
+
+  /**
+   * Ends a transaction which was started on a connection in the given auto-commit mode. If it is the outermost
+   * transaction, it is rolled back unless it has been committed, and the auto-commit mode is restored, so that
+   * the later statements of the thread do not run in a stale transaction.
+   */
+  private void endTransaction(Connection conn, boolean autoCommit) {
+    if (conn == null || !autoCommit) {
+      return;
+    }
+    try {
+      if (!conn.isClosed() && !conn.getAutoCommit()) {
+        conn.rollback();
+        conn.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      LOG.error(e, e);
+    }
   }
 
   private int getSchemaVersion() {
@@ -277,11 +317,13 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
   @Override
   public void createTablespace(String spaceName, String spaceUri) throws CatalogException {
     Connection conn = null;
+    boolean autoCommit = true;
     PreparedStatement pstmt = null;
     ResultSet res = null;
 
     try {
       conn = getConnection();
+      autoCommit = conn.getAutoCommit();
       conn.setAutoCommit(false);
       String sql = String.format("INSERT INTO %s (SPACE_NAME, SPACE_URI) VALUES (?, ?)", TB_SPACES);
 
@@ -305,6 +347,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       }
       throw new CatalogException(se);
     } finally {
+      endTransaction(conn, autoCommit);
       CatalogUtil.closeQuietly(pstmt, res);
     }
   }
@@ -342,12 +385,14 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
 
 
     Connection conn = null;
+    boolean autoCommit = true;
     PreparedStatement pstmt = null;
     try {
       TableSpaceInternal tableSpace = getTableSpaceInfo(tableSpaceName);
       Collection<String> databaseNames = getAllDatabaseNamesInternal(COL_TABLESPACE_PK + " = " + tableSpace.spaceId);
 
       conn = getConnection();
+      autoCommit = conn.getAutoCommit();
       conn.setAutoCommit(false);
 
       for (String databaseName : databaseNames) {
@@ -369,6 +414,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       }
       throw new CatalogException(String.format("Failed to drop tablespace \"%s\"", tableSpaceName), se);
     } finally {
+      endTransaction(conn, autoCommit);
       CatalogUtil.closeQuietly(pstmt);
     }
   }
@@ -499,6 +545,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
   @Override
   public void createDatabase(String databaseName, String tablespaceName) throws CatalogException {
     Connection conn = null;
+    boolean autoCommit = true;
     PreparedStatement pstmt = null;
     ResultSet res = null;
 
@@ -512,6 +559,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       }
 
       conn = getConnection();
+      autoCommit = conn.getAutoCommit();
       conn.setAutoCommit(false);
       pstmt = conn.prepareStatement(sql);
       pstmt.setString(1, databaseName);
@@ -529,6 +577,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       }
       throw new CatalogException(se);
     } finally {
+      endTransaction(conn, autoCommit);
       CatalogUtil.closeQuietly(pstmt, res);
     }
   }
@@ -566,9 +615,11 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
     Collection<String> tableNames = getAllTableNames(databaseName);
 
     Connection conn = null;
+    boolean autoCommit = true;
     PreparedStatement pstmt = null;
     try {
       conn = getConnection();
+      autoCommit = conn.getAutoCommit();
       conn.setAutoCommit(false);
 
       for (String tableName : tableNames) {
@@ -590,6 +641,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       }
       throw new CatalogException(String.format("Failed to drop database \"%s\"", databaseName), se);
     } finally {
+      endTransaction(conn, autoCommit);
       CatalogUtil.closeQuietly(pstmt);
     }
   }
@@ -737,11 +789,13 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
   @Override
   public void createTable(final CatalogProtos.TableDescProto table) throws CatalogException {
     Connection conn = null;
+    boolean autoCommit = true;
     PreparedStatement pstmt = null;
     ResultSet res = null;
 
     try {
       conn = getConnection();
+      autoCommit = conn.getAutoCommit();
       conn.setAutoCommit(false);
 
       String[] splitted = CatalogUtil.splitTableName(table.getTableName());
@@ -891,6 +945,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       }
       throw new CatalogException(se);
     } finally {
+      endTransaction(conn, autoCommit);
       CatalogUtil.closeQuietly(pstmt, res);
     }
   }
@@ -899,11 +954,13 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
   public void updateTableStats(final CatalogProtos.UpdateTableStatsProto statsProto) throws
     CatalogException {
     Connection conn = null;
+    boolean autoCommit = true;
     PreparedStatement pstmt = null;
     ResultSet res = null;
 
     try {
       conn = getConnection();
+      autoCommit = conn.getAutoCommit();
       conn.setAutoCommit(false);
 
       String[] splitted = CatalogUtil.splitTableName(statsProto.getTableName());
@@ -959,6 +1016,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       }
       throw new CatalogException(se);
     } finally {
+      endTransaction(conn, autoCommit);
       CatalogUtil.closeQuietly(pstmt, res);
     }
   }
@@ -1067,13 +1125,15 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       LOG.debug(insertNewColumnSql);
     }
 
-    Connection conn;
+    Connection conn = null;
+    boolean autoCommit = true;
     PreparedStatement pstmt = null;
     ResultSet resultSet = null;
 
     try {
 
       conn = getConnection();
+      autoCommit = conn.getAutoCommit();
       conn.setAutoCommit(false);
 
       //SELECT COLUMN
@@ -1123,6 +1183,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
     } catch (SQLException sqlException) {
       throw new CatalogException(sqlException);
     } finally {
+      endTransaction(conn, autoCommit);
       CatalogUtil.closeQuietly(pstmt,resultSet);
     }
   }
@@ -1445,8 +1506,10 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
   @Override
   public void dropTable(String databaseName, final String tableName) throws CatalogException {
     Connection conn = null;
+    boolean autoCommit = true;
     try {
       conn = getConnection();
+      autoCommit = conn.getAutoCommit();
       conn.setAutoCommit(false);
       dropTableInternal(conn, databaseName, tableName);
       conn.commit();
@@ -1457,7 +1520,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
         LOG.error(e, e);
       }
     } finally {
-      CatalogUtil.closeQuietly(conn);
+      endTransaction(conn, autoCommit);
     }
   }
 
@@ -2040,41 +2103,9 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
 
   @Override
   public List<PartitionDescProto> getPartitions(String databaseName, String tableName) throws CatalogException {
-    Connection conn = null;
-    ResultSet res = null;
-    PreparedStatement pstmt = null;
-    PartitionDescProto.Builder builder = null;
-    List<PartitionDescProto> partitions = new ArrayList<PartitionDescProto>();
-
-    try {
-      String sql = "SELECT PATH, PARTITION_NAME, " + COL_PARTITIONS_PK + " FROM "
-        + TB_PARTTIONS +" WHERE " + COL_TABLES_PK + " = ?  ";
-
-      if (LOG.isDebugEnabled()) {
-        LOG.debug(sql);
-      }
-
-      int databaseId = getDatabaseId(databaseName);
-      int tableId = getTableId(databaseId, databaseName, tableName);
-
-      conn = getConnection();
-      pstmt = conn.prepareStatement(sql);
-      pstmt.setInt(1, tableId);
-      res = pstmt.executeQuery();
-
-      while (res.next()) {
-        builder = PartitionDescProto.newBuilder();
-        builder.setPath(res.getString("PATH"));
-        builder.setPartitionName(res.getString("PARTITION_NAME"));
-        setPartitionKeys(res.getInt(COL_PARTITIONS_PK), builder);
-        partitions.add(builder.build());
-      }
-    } catch (SQLException se) {
-      throw new CatalogException(se);
-    } finally {
-      CatalogUtil.closeQuietly(pstmt, res);
-    }
-    return partitions;
+    GetPartitionsRequest.Builder request = GetPartitionsRequest.newBuilder();
+    request.setTableIdentifier(TableIdentifierProto.newBuilder().setDatabaseName(databaseName).setTableName(tableName));
+    return getPartitions(request.build());
   }
 
   @Override
@@ -2111,10 +2142,373 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
     return partitions;
   }
 
+  @Override
+  public void addPartitions(AddPartitionsRequest request) throws CatalogException {
+    String databaseName = request.getTableIdentifier().getDatabaseName();
+    String tableName = request.getTableIdentifier().getTableName();
+
+    final String ADD_PARTITION_SQL =
+      "INSERT INTO " + TB_PARTTIONS
+        + " (" + COL_TABLES_PK + ", PARTITION_NAME, PATH) VALUES (?,?,?)";
+
+    final String ADD_PARTITION_KEYS_SQL =
+      "INSERT INTO " + TB_PARTTION_KEYS + " (" + COL_PARTITIONS_PK + ", " + COL_COLUMN_NAME + ", "
+      + COL_PARTITION_VALUE + ") VALUES (?,?,?)";
+
+    Connection conn = null;
+    boolean autoCommit = true;
+    PreparedStatement pstmt = null;
+
+    try {
+      int databaseId = getDatabaseId(databaseName);
+      int tableId = getTableId(databaseId, databaseName, tableName);
+
+      Map<String, PartitionDescProto> partitions = new LinkedHashMap<String, PartitionDescProto>();
+      for (PartitionDescProto partition : request.getPartitionList()) {
+        partitions.put(partition.getPartitionName(), partition);
+      }
+
+      conn = getConnection();
+      autoCommit = conn.getAutoCommit();
+      conn.setAutoCommit(false);
+
+      for (String existingName : getPartitionIds(conn, tableId, partitions.keySet()).keySet()) {
+        if (!request.getIfNotExists()) {
+          throw new AlreadyExistsPartitionException(databaseName, tableName, existingName);
+        }
+        partitions.remove(existingName);
+      }
+      if (partitions.isEmpty()) {
+        return;
+      }
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(ADD_PARTITION_SQL);
+      }
+
+      pstmt = conn.prepareStatement(ADD_PARTITION_SQL);
+      for (PartitionDescProto partition : partitions.values()) {
+        pstmt.setInt(1, tableId);
+        pstmt.setString(2, partition.getPartitionName());
+        pstmt.setString(3, partition.getPath());
+        pstmt.addBatch();
+        pstmt.clearParameters();
+      }
+      pstmt.executeBatch();
+      pstmt.close();
+
+      // generated keys of batched inserts are not available from every driver, so they are read back at once
+      Map<String, Integer> partitionIds = getPartitionIds(conn, tableId, partitions.keySet());
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(ADD_PARTITION_KEYS_SQL);
+      }
+
+      pstmt = conn.prepareStatement(ADD_PARTITION_KEYS_SQL);
+      boolean hasKeys = false;
+      for (PartitionDescProto partition : partitions.values()) {
+        addPartitionKeys(pstmt, partitionIds.get(partition.getPartitionName()), partition);
+        hasKeys |= partition.getPartitionKeysCount() > 0;
+      }
+      if (hasKeys) {
+        pstmt.executeBatch();
+      }
+      conn.commit();
+    } catch (SQLException se) {
+      if (conn != null) {
+        try {
+          conn.rollback();
+        } catch (SQLException e) {
+          LOG.error(e, e);
+        }
+      }
+      throw new CatalogException(se);
+    } finally {
+      endTransaction(conn, autoCommit);
+      CatalogUtil.closeQuietly(pstmt);
+    }
+  }
+
+  @Override
+  public void dropPartitions(DropPartitionsRequest request) throws CatalogException {
+    String databaseName = request.getTableIdentifier().getDatabaseName();
+    String tableName = request.getTableIdentifier().getTableName();
+
+    String sqlDeletePartitionKeys = "DELETE FROM " + TB_PARTTION_KEYS + " WHERE " + COL_PARTITIONS_PK + " = ? ";
+    String sqlDeletePartition = "DELETE FROM " + TB_PARTTIONS + " WHERE " + COL_PARTITIONS_PK + " = ? ";
+
+    Connection conn = null;
+    boolean autoCommit = true;
+    PreparedStatement pstmt = null;
+
+    try {
+      int databaseId = getDatabaseId(databaseName);
+      int tableId = getTableId(databaseId, databaseName, tableName);
+
+      conn = getConnection();
+      autoCommit = conn.getAutoCommit();
+      conn.setAutoCommit(false);
+
+      Map<String, Integer> partitionIds = getPartitionIds(conn, tableId, request.getPartitionNameList());
+      if (!request.getIfExists()) {
+        for (String partitionName : request.getPartitionNameList()) {
+          if (!partitionIds.containsKey(partitionName)) {
+            throw new NoSuchPartitionException(databaseName, tableName, partitionName);
+          }
+        }
+      }
+      if (partitionIds.isEmpty()) {
+        return;
+      }
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(sqlDeletePartitionKeys);
+      }
+
+      pstmt = conn.prepareStatement(sqlDeletePartitionKeys);
+      for (int partitionId : partitionIds.values()) {
+        pstmt.setInt(1, partitionId);
+        pstmt.addBatch();
+      }
+      pstmt.executeBatch();
+      pstmt.close();
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(sqlDeletePartition);
+      }
+
+      pstmt = conn.prepareStatement(sqlDeletePartition);
+      for (int partitionId : partitionIds.values()) {
+        pstmt.setInt(1, partitionId);
+        pstmt.addBatch();
+      }
+      pstmt.executeBatch();
+      conn.commit();
+    } catch (SQLException se) {
+      if (conn != null) {
+        try {
+          conn.rollback();
+        } catch (SQLException e) {
+          LOG.error(e, e);
+        }
+      }
+      throw new CatalogException(se);
+    } finally {
+      endTransaction(conn, autoCommit);
+      CatalogUtil.closeQuietly(pstmt);
+    }
+  }
+
+  @Override
+  public List<PartitionDescProto> getPartitions(GetPartitionsRequest request) throws CatalogException {
+    String databaseName = request.getTableIdentifier().getDatabaseName();
+    String tableName = request.getTableIdentifier().getTableName();
+    List<PartitionDescProto> partitions = new ArrayList<PartitionDescProto>();
+
+    PartitionKeyRanges ranges = new PartitionKeyRanges(
+        request.getKeyRangeCount() > 0 ? getPartitionMethod(databaseName, tableName) : null,
+        request.getKeyRangeList());
+    int maxPartitions = request.getMaxPartitions();
+    String startAfter = request.hasStartAfter() ? request.getStartAfter() : null;
+
+    Connection conn = null;
+    try {
+      int databaseId = getDatabaseId(databaseName);
+      int tableId = getTableId(databaseId, databaseName, tableName);
+      conn = getConnection();
+
+      if (ranges.getTypedRanges().isEmpty()) {
+        for (PartitionDescProto.Builder builder :
+            getPartitionPage(conn, tableId, ranges.getTextRanges(), startAfter, maxPartitions)) {
+          partitions.add(builder.build());
+        }
+        return partitions;
+      }
+
+      // typed ranges are evaluated over the keys of each page, until the page is filled
+      int pageSize = maxPartitions > 0 ? Math.max(maxPartitions, PARTITION_IN_CLAUSE_SIZE) : 0;
+      while (true) {
+        Collection<PartitionDescProto.Builder> page =
+            getPartitionPage(conn, tableId, ranges.getTextRanges(), startAfter, pageSize);
+        for (PartitionDescProto.Builder builder : page) {
+          startAfter = builder.getPartitionName();
+          if (ranges.matchesTypedRanges(builder)) {
+            partitions.add(builder.build());
+            if (maxPartitions > 0 && partitions.size() >= maxPartitions) {
+              return partitions;
+            }
+          }
+        }
+        if (pageSize == 0 || page.size() < pageSize) {
+          return partitions;
+        }
+      }
+    } catch (SQLException se) {
+      throw new CatalogException(se);
+    }
+  }
+
+  /**
+   * Reads the partitions of a table in the order of their names, with their keys.
+   *
+   * @param textRanges the key ranges compared as strings
+   * @param startAfter the last partition name of the previous page, or null
+   * @param maxPartitions the maximum number of partitions, or 0 for no limit
+   */
+  private Collection<PartitionDescProto.Builder> getPartitionPage(Connection conn, int tableId,
+                                                                  List<PartitionKeyRangeProto> textRanges,
+                                                                  String startAfter, int maxPartitions)
+      throws SQLException {
+    ResultSet res = null;
+    PreparedStatement pstmt = null;
+    Map<Integer, PartitionDescProto.Builder> builders = new LinkedHashMap<Integer, PartitionDescProto.Builder>();
+
+    try {
+      // each key range is a correlated lookup on PARTITION_KEYS_IDX, and the page is read along (TID, PARTITION_NAME)
+      StringBuilder sql = new StringBuilder();
+      sql.append("SELECT P.").append(COL_PARTITIONS_PK).append(", P.PARTITION_NAME, P.PATH FROM ")
+          .append(TB_PARTTIONS).append(" P WHERE P.").append(COL_TABLES_PK).append(" = ?");
+      if (startAfter != null) {
+        sql.append(" AND P.PARTITION_NAME > ?");
+      }
+      for (PartitionKeyRangeProto range : textRanges) {
+        sql.append(" AND EXISTS (SELECT 1 FROM ").append(TB_PARTTION_KEYS).append(" K WHERE K.")
+            .append(COL_PARTITIONS_PK).append(" = P.").append(COL_PARTITIONS_PK)
+            .append(" AND K.").append(COL_COLUMN_NAME).append(" = ?");
+        if (range.hasLowerBound()) {
+          sql.append(" AND K.").append(COL_PARTITION_VALUE).append(" >= ?");
+        }
+        if (range.hasUpperBound()) {
+          sql.append(" AND K.").append(COL_PARTITION_VALUE).append(" <= ?");
+        }
+        sql.append(")");
+      }
+      sql.append(" ORDER BY P.PARTITION_NAME");
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(sql.toString());
+      }
+
+      pstmt = conn.prepareStatement(sql.toString());
+      int index = 1;
+      pstmt.setInt(index++, tableId);
+      if (startAfter != null) {
+        pstmt.setString(index++, startAfter);
+      }
+      for (PartitionKeyRangeProto range : textRanges) {
+        pstmt.setString(index++, range.getColumnName());
+        if (range.hasLowerBound()) {
+          pstmt.setString(index++, range.getLowerBound());
+        }
+        if (range.hasUpperBound()) {
+          pstmt.setString(index++, range.getUpperBound());
+        }
+      }
+      if (maxPartitions > 0) {
+        pstmt.setMaxRows(maxPartitions);
+      }
+      res = pstmt.executeQuery();
+
+      while (res.next()) {
+        PartitionDescProto.Builder builder = PartitionDescProto.newBuilder();
+        builder.setPath(res.getString("PATH"));
+        builder.setPartitionName(res.getString("PARTITION_NAME"));
+        builders.put(res.getInt(COL_PARTITIONS_PK), builder);
+      }
+      CatalogUtil.closeQuietly(pstmt, res);
+      pstmt = null;
+      res = null;
+
+      setPartitionKeys(conn, builders);
+    } finally {
+      CatalogUtil.closeQuietly(pstmt, res);
+    }
+    return builders.values();
+  }
+
+  /**
+   * Reads the keys of many partitions with a few IN queries instead of one query per partition.
+   */
+  private void setPartitionKeys(Connection conn, Map<Integer, PartitionDescProto.Builder> partitions)
+      throws SQLException {
+    List<Integer> partitionIds = new ArrayList<Integer>(partitions.keySet());
+
+    for (int start = 0; start < partitionIds.size(); start += PARTITION_IN_CLAUSE_SIZE) {
+      List<Integer> chunk = partitionIds.subList(start, Math.min(start + PARTITION_IN_CLAUSE_SIZE,
+          partitionIds.size()));
+      String sql = "SELECT " + COL_PARTITIONS_PK + ", " + COL_COLUMN_NAME + ", " + COL_PARTITION_VALUE
+        + " FROM " + TB_PARTTION_KEYS + " WHERE " + COL_PARTITIONS_PK + " IN (" + getParameterList(chunk.size()) + ")";
+
+      PreparedStatement pstmt = null;
+      ResultSet res = null;
+      try {
+        pstmt = conn.prepareStatement(sql);
+        for (int i = 0; i < chunk.size(); i++) {
+          pstmt.setInt(i + 1, chunk.get(i));
+        }
+        res = pstmt.executeQuery();
+
+        while (res.next()) {
+          PartitionKeyProto.Builder builder = PartitionKeyProto.newBuilder();
+          builder.setColumnName(res.getString(COL_COLUMN_NAME));
+          builder.setPartitionValue(res.getString(COL_PARTITION_VALUE));
+          partitions.get(res.getInt(COL_PARTITIONS_PK)).addPartitionKeys(builder);
+        }
+      } finally {
+        CatalogUtil.closeQuietly(pstmt, res);
+      }
+    }
+  }
+
+  /**
+   * @return The ids of the given partitions of a table which exist, keyed by partition name
+   */
+  private Map<String, Integer> getPartitionIds(Connection conn, int tableId, Collection<String> partitionNames)
+      throws SQLException {
+    Map<String, Integer> partitionIds = new HashMap<String, Integer>();
+    List<String> names = new ArrayList<String>(partitionNames);
+
+    for (int start = 0; start < names.size(); start += PARTITION_IN_CLAUSE_SIZE) {
+      List<String> chunk = names.subList(start, Math.min(start + PARTITION_IN_CLAUSE_SIZE, names.size()));
+      String sql = "SELECT " + COL_PARTITIONS_PK + ", PARTITION_NAME FROM " + TB_PARTTIONS
+        + " WHERE " + COL_TABLES_PK + " = ? AND PARTITION_NAME IN (" + getParameterList(chunk.size()) + ")";
+
+      PreparedStatement pstmt = null;
+      ResultSet res = null;
+      try {
+        pstmt = conn.prepareStatement(sql);
+        pstmt.setInt(1, tableId);
+        for (int i = 0; i < chunk.size(); i++) {
+          pstmt.setString(i + 2, chunk.get(i));
+        }
+        res = pstmt.executeQuery();
+
+        while (res.next()) {
+          partitionIds.put(res.getString("PARTITION_NAME"), res.getInt(COL_PARTITIONS_PK));
+        }
+      } finally {
+        CatalogUtil.closeQuietly(pstmt, res);
+      }
+    }
+    return partitionIds;
+  }
+
+  private static String getParameterList(int size) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(",");
+      }
+      sb.append("?");
+    }
+    return sb.toString();
+  }
+
 
   @Override
   public void createIndex(final IndexDescProto proto) throws CatalogException {
     Connection conn = null;
+    boolean autoCommit = true;
     PreparedStatement pstmt = null;
 
     String databaseName = proto.getTableIdentifier().getDatabaseName();
@@ -2135,6 +2529,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       }
 
       conn = getConnection();
+      autoCommit = conn.getAutoCommit();
       conn.setAutoCommit(false);
 
       pstmt = conn.prepareStatement(sql);
@@ -2152,6 +2547,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
     } catch (SQLException se) {
       throw new CatalogException(se);
     } finally {
+      endTransaction(conn, autoCommit);
       CatalogUtil.closeQuietly(pstmt);
     }
   }
@@ -2509,7 +2905,10 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
 
 
   public void close() {
-    CatalogUtil.closeQuietly(conn);
+    for (Connection conn : allConnections) {
+      CatalogUtil.closeQuietly(conn);
+    }
+    allConnections.clear();
     LOG.info("Shutdown database (" + catalogUri + ")");
   }
 
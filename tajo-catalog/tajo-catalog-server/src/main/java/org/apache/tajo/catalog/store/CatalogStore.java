@@ -115,6 +115,19 @@ public interface CatalogStore extends Closeable {
 
   List<TablePartitionProto> getAllPartitions() throws CatalogException;
 
+  void addPartitions(CatalogProtos.AddPartitionsRequest request) throws CatalogException;
+
+  void dropPartitions(CatalogProtos.DropPartitionsRequest request) throws CatalogException;
+
+  /**
+   * Get the partitions of a table which match all key ranges of the request, ordered by partition names
+   * @param request the table, key ranges and page of partitions to get
+   * @return
+   * @throws CatalogException
+   */
+  List<CatalogProtos.PartitionDescProto> getPartitions(CatalogProtos.GetPartitionsRequest request)
+      throws CatalogException;
+
   /**************************** INDEX *******************************/
   void createIndex(IndexDescProto proto) throws CatalogException;
   
@@ -40,6 +40,7 @@ import org.apache.tajo.catalog.proto.CatalogProtos.TableDescriptorProto;
 import org.apache.tajo.catalog.proto.CatalogProtos.TableOptionProto;
 import org.apache.tajo.catalog.proto.CatalogProtos.TablePartitionProto;
 import org.apache.tajo.catalog.proto.CatalogProtos.TableStatsProto;
+import org.apache.tajo.common.TajoDataTypes.DataType;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.KeyValueProto;
 import org.apache.tajo.util.TUtil;
 
@@ -50,8 +51,8 @@ import static org.apache.tajo.catalog.proto.CatalogProtos.AlterTablespaceProto.A
 import static org.apache.tajo.catalog.proto.CatalogProtos.TablespaceProto;
 
 /**
- * CatalogServer guarantees that all operations are thread-safe.
- * So, we don't need to consider concurrency problem here.
+ * CatalogServer only serializes the operations within a database, so all operations are synchronized
+ * on the store because the maps below are shared by all databases.
  */
 public class MemStore implements CatalogStore {
   private final Map<String, String> tablespaces = Maps.newHashMap();
@@ -59,21 +60,26 @@ public class MemStore implements CatalogStore {
   private final Map<String, CatalogProtos.FunctionDescProto> functions = Maps.newHashMap();
   private final Map<String, Map<String, IndexDescProto>> indexes = Maps.newHashMap();
   private final Map<String, Map<String, IndexDescProto>> indexesByColumn = Maps.newHashMap();
-  private final Map<String, Map<String, CatalogProtos.PartitionDescProto>> partitions = Maps.newHashMap();
+  // Partitions are keyed by qualified table names, so that tables in different databases do not share them.
+  private final Map<String, TreeMap<String, CatalogProtos.PartitionDescProto>> partitions = Maps.newConcurrentMap();
+  // partition names of each table, indexed by partition key column and then by key value
+  private final Map<String, Map<String, TreeMap<String, Set<String>>>> partitionKeyIndexes =
+      Maps.newConcurrentMap();
 
   public MemStore(Configuration conf) {
   }
 
   
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
     databases.clear();
     functions.clear();
     indexes.clear();
     partitions.clear();
+    partitionKeyIndexes.clear();
   }
 
   @Override
-  public void createTablespace(String spaceName, String spaceUri) throws CatalogException {
+  public synchronized void createTablespace(String spaceName, String spaceUri) throws CatalogException {
     if (tablespaces.containsKey(spaceName)) {
       throw new AlreadyExistsTablespaceException(spaceName);
     }
@@ -82,12 +88,12 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public boolean existTablespace(String spaceName) throws CatalogException {
+  public synchronized boolean existTablespace(String spaceName) throws CatalogException {
     return tablespaces.containsKey(spaceName);
   }
 
   @Override
-  public void dropTablespace(String spaceName) throws CatalogException {
+  public synchronized void dropTablespace(String spaceName) throws CatalogException {
     if (!tablespaces.containsKey(spaceName)) {
       throw new NoSuchTablespaceException(spaceName);
     }
@@ -95,12 +101,12 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public Collection<String> getAllTablespaceNames() throws CatalogException {
+  public synchronized Collection<String> getAllTablespaceNames() throws CatalogException {
     return tablespaces.keySet();
   }
   
   @Override
-  public List<TablespaceProto> getTablespaces() throws CatalogException {
+  public synchronized List<TablespaceProto> getTablespaces() throws CatalogException {
     List<TablespaceProto> tablespaceList = TUtil.newList();
     int tablespaceId = 0;
     
@@ -116,7 +122,7 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public TablespaceProto getTablespace(String spaceName) throws CatalogException {
+  public synchronized TablespaceProto getTablespace(String spaceName) throws CatalogException {
     if (!tablespaces.containsKey(spaceName)) {
       throw new NoSuchTablespaceException(spaceName);
     }
@@ -128,7 +134,7 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public void alterTablespace(CatalogProtos.AlterTablespaceProto alterProto) throws CatalogException {
+  public synchronized void alterTablespace(CatalogProtos.AlterTablespaceProto alterProto) throws CatalogException {
     if (!tablespaces.containsKey(alterProto.getSpaceName())) {
       throw new NoSuchTablespaceException(alterProto.getSpaceName());
     }
@@ -144,7 +150,7 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public void createDatabase(String databaseName, String tablespaceName) throws CatalogException {
+  public synchronized void createDatabase(String databaseName, String tablespaceName) throws CatalogException {
     if (databases.containsKey(databaseName)) {
       throw new AlreadyExistsDatabaseException(databaseName);
     }
@@ -153,12 +159,12 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public boolean existDatabase(String databaseName) throws CatalogException {
+  public synchronized boolean existDatabase(String databaseName) throws CatalogException {
     return databases.containsKey(databaseName);
   }
 
   @Override
-  public void dropDatabase(String databaseName) throws CatalogException {
+  public synchronized void dropDatabase(String databaseName) throws CatalogException {
     if (!databases.containsKey(databaseName)) {
       throw new NoSuchDatabaseException(databaseName);
     }
@@ -166,12 +172,12 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public Collection<String> getAllDatabaseNames() throws CatalogException {
+  public synchronized Collection<String> getAllDatabaseNames() throws CatalogException {
     return databases.keySet();
   }
   
   @Override
-  public List<DatabaseProto> getAllDatabases() throws CatalogException {
+  public synchronized List<DatabaseProto> getAllDatabases() throws CatalogException {
     List<DatabaseProto> databaseList = new ArrayList<DatabaseProto>();
     int dbId = 0;
     
@@ -201,7 +207,7 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public void createTable(CatalogProtos.TableDescProto request) throws CatalogException {
+  public synchronized void createTable(CatalogProtos.TableDescProto request) throws CatalogException {
     String [] splitted = CatalogUtil.splitTableName(request.getTableName());
     if (splitted.length == 1) {
       throw new IllegalArgumentException("createTable() requires a qualified table name, but it is \""
@@ -220,7 +226,7 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public void updateTableStats(CatalogProtos.UpdateTableStatsProto request) throws CatalogException {
+  public synchronized void updateTableStats(CatalogProtos.UpdateTableStatsProto request) throws CatalogException {
     String [] splitted = CatalogUtil.splitTableName(request.getTableName());
     if (splitted.length == 1) {
       throw new IllegalArgumentException("createTable() requires a qualified table name, but it is \""
@@ -237,18 +243,21 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public boolean existTable(String dbName, String tbName) throws CatalogException {
+  public synchronized boolean existTable(String dbName, String tbName) throws CatalogException {
     Map<String, CatalogProtos.TableDescProto> database = checkAndGetDatabaseNS(databases, dbName);
 
     return database.containsKey(tbName);
   }
 
   @Override
-  public void dropTable(String dbName, String tbName) throws CatalogException {
+  public synchronized void dropTable(String dbName, String tbName) throws CatalogException {
     Map<String, CatalogProtos.TableDescProto> database = checkAndGetDatabaseNS(databases, dbName);
 
     if (database.containsKey(tbName)) {
       database.remove(tbName);
+      String qualifiedName = CatalogUtil.buildFQName(dbName, tbName);
+      partitions.remove(qualifiedName);
+      partitionKeyIndexes.remove(qualifiedName);
     } else {
       throw new NoSuchTableException(tbName);
     }
@@ -258,7 +267,7 @@ public class MemStore implements CatalogStore {
    * @see CatalogStore#alterTable(AlterTableDesc)
    */
   @Override
-  public void alterTable(CatalogProtos.AlterTableDescProto alterTableDescProto) throws CatalogException {
+  public synchronized void alterTable(CatalogProtos.AlterTableDescProto alterTableDescProto) throws CatalogException {
 
     String[] split = CatalogUtil.splitTableName(alterTableDescProto.getTableName());
     if (split.length == 1) {
@@ -313,41 +322,19 @@ public class MemStore implements CatalogStore {
         partitionDesc = alterTableDescProto.getPartitionDesc();
         partitionName = partitionDesc.getPartitionName();
 
-        if (partitions.containsKey(tableName) && partitions.get(tableName).containsKey(partitionName)) {
+        if (getPartitionMap(databaseName, tableName).containsKey(partitionName)) {
           throw new AlreadyExistsPartitionException(databaseName, tableName, partitionName);
         } else {
-          CatalogProtos.PartitionDescProto.Builder builder = CatalogProtos.PartitionDescProto.newBuilder();
-          builder.setPartitionName(partitionName);
-          builder.setPath(partitionDesc.getPath());
-
-          if (partitionDesc.getPartitionKeysCount() > 0) {
-            int i = 0;
-            for (CatalogProtos.PartitionKeyProto eachKey : partitionDesc.getPartitionKeysList()) {
-              CatalogProtos.PartitionKeyProto.Builder keyBuilder = CatalogProtos.PartitionKeyProto.newBuilder();
-              keyBuilder.setColumnName(eachKey.getColumnName());
-              keyBuilder.setPartitionValue(eachKey.getPartitionValue());
-              builder.setPartitionKeys(i, keyBuilder.build());
-              i++;
-            }
-          }
-
-          Map<String, CatalogProtos.PartitionDescProto> protoMap = null;
-          if (!partitions.containsKey(tableName)) {
-            protoMap = Maps.newHashMap();
-          } else {
-            protoMap = partitions.get(tableName);
-          }
-          protoMap.put(partitionName, builder.build());
-          partitions.put(tableName, protoMap);
+          addPartition(databaseName, tableName, partitionDesc);
         }
         break;
       case DROP_PARTITION:
         partitionDesc = alterTableDescProto.getPartitionDesc();
         partitionName = partitionDesc.getPartitionName();
-        if(!partitions.containsKey(tableName)) {
+        if (!getPartitionMap(databaseName, tableName).containsKey(partitionName)) {
           throw new NoSuchPartitionException(databaseName, tableName, partitionName);
         } else {
-          partitions.remove(partitionName);
+          removePartition(databaseName, tableName, partitionName);
         }
         break;
       default:
@@ -369,7 +356,7 @@ public class MemStore implements CatalogStore {
    * @see CatalogStore#getTable(java.lang.String)
    */
   @Override
-  public CatalogProtos.TableDescProto getTable(String databaseName, String tableName)
+  public synchronized CatalogProtos.TableDescProto getTable(String databaseName, String tableName)
       throws CatalogException {
     Map<String, CatalogProtos.TableDescProto> database = checkAndGetDatabaseNS(databases, databaseName);
 
@@ -390,13 +377,13 @@ public class MemStore implements CatalogStore {
    * @see CatalogStore#getAllTableNames()
    */
   @Override
-  public List<String> getAllTableNames(String databaseName) throws CatalogException {
+  public synchronized List<String> getAllTableNames(String databaseName) throws CatalogException {
     Map<String, CatalogProtos.TableDescProto> database = checkAndGetDatabaseNS(databases, databaseName);
     return new ArrayList<String>(database.keySet());
   }
   
   @Override
-  public List<TableDescriptorProto> getAllTables() throws CatalogException {
+  public synchronized List<TableDescriptorProto> getAllTables() throws CatalogException {
     List<TableDescriptorProto> tableList = new ArrayList<CatalogProtos.TableDescriptorProto>();
     int dbId = 0, tableId = 0;
     
@@ -426,7 +413,7 @@ public class MemStore implements CatalogStore {
   }
   
   @Override
-  public List<TableOptionProto> getAllTableOptions() throws CatalogException {
+  public synchronized List<TableOptionProto> getAllTableOptions() throws CatalogException {
     List<TableOptionProto> optionList = new ArrayList<CatalogProtos.TableOptionProto>();
     int tid = 0;
     
@@ -455,7 +442,7 @@ public class MemStore implements CatalogStore {
   }
   
   @Override
-  public List<TableStatsProto> getAllTableStats() throws CatalogException {
+  public synchronized List<TableStatsProto> getAllTableStats() throws CatalogException {
     List<TableStatsProto> statList = new ArrayList<CatalogProtos.TableStatsProto>();
     int tid = 0;
     
@@ -481,7 +468,7 @@ public class MemStore implements CatalogStore {
   }
   
   @Override
-  public List<ColumnProto> getAllColumns() throws CatalogException {
+  public synchronized List<ColumnProto> getAllColumns() throws CatalogException {
     List<ColumnProto> columnList = new ArrayList<CatalogProtos.ColumnProto>();
     int tid = 0;
     
@@ -508,12 +495,12 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public void addPartitionMethod(CatalogProtos.PartitionMethodProto partitionMethodProto) throws CatalogException {
+  public synchronized void addPartitionMethod(CatalogProtos.PartitionMethodProto partitionMethodProto) throws CatalogException {
     throw new RuntimeException("not supported!");
   }
 
   @Override
-  public CatalogProtos.PartitionMethodProto getPartitionMethod(String databaseName, String tableName)
+  public synchronized CatalogProtos.PartitionMethodProto getPartitionMethod(String databaseName, String tableName)
       throws CatalogException {
     Map<String, CatalogProtos.TableDescProto> database = checkAndGetDatabaseNS(databases, databaseName);
 
@@ -526,7 +513,7 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public boolean existPartitionMethod(String databaseName, String tableName)
+  public synchronized boolean existPartitionMethod(String databaseName, String tableName)
       throws CatalogException {
     Map<String, CatalogProtos.TableDescProto> database = checkAndGetDatabaseNS(databases, databaseName);
 
@@ -539,33 +526,27 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public void dropPartitionMethod(String databaseName, String tableName) throws CatalogException {
+  public synchronized void dropPartitionMethod(String databaseName, String tableName) throws CatalogException {
     throw new RuntimeException("not supported!");
   }
 
   @Override
-  public List<CatalogProtos.PartitionDescProto> getPartitions(String databaseName, String tableName) throws CatalogException {
-    List<CatalogProtos.PartitionDescProto> protos = new ArrayList<CatalogProtos.PartitionDescProto>();
-
-    if (partitions.containsKey(tableName)) {
-      for (CatalogProtos.PartitionDescProto proto : partitions.get(tableName).values()) {
-        protos.add(proto);
-      }
-    }
-    return protos;
+  public synchronized List<CatalogProtos.PartitionDescProto> getPartitions(String databaseName, String tableName) throws CatalogException {
+    return new ArrayList<CatalogProtos.PartitionDescProto>(getPartitionMap(databaseName, tableName).values());
   }
 
   @Override
-  public CatalogProtos.PartitionDescProto getPartition(String databaseName, String tableName,
+  public synchronized CatalogProtos.PartitionDescProto getPartition(String databaseName, String tableName,
                                                        String partitionName) throws CatalogException {
-    if (partitions.containsKey(tableName) && partitions.get(tableName).containsKey(partitionName)) {
-      return partitions.get(tableName).get(partitionName);
+    CatalogProtos.PartitionDescProto partition = getPartitionMap(databaseName, tableName).get(partitionName);
+    if (partition != null) {
+      return partition;
     } else {
       throw new NoSuchPartitionException(partitionName);
     }
   }
 
-  public List<TablePartitionProto> getAllPartitions() throws CatalogException {
+  public synchronized List<TablePartitionProto> getAllPartitions() throws CatalogException {
     List<TablePartitionProto> protos = new ArrayList<TablePartitionProto>();
     Set<String> tables = partitions.keySet();
     for (String table : tables) {
@@ -589,12 +570,168 @@ public class MemStore implements CatalogStore {
     }
     return protos;
   }
+  @Override
+  public synchronized void addPartitions(CatalogProtos.AddPartitionsRequest request) throws CatalogException {
+    String databaseName = request.getTableIdentifier().getDatabaseName();
+    String tableName = request.getTableIdentifier().getTableName();
+    Map<String, CatalogProtos.PartitionDescProto> tablePartitions = getPartitionMap(databaseName, tableName);
+
+    if (!request.getIfNotExists()) {
+      for (CatalogProtos.PartitionDescProto partition : request.getPartitionList()) {
+        if (tablePartitions.containsKey(partition.getPartitionName())) {
+          throw new AlreadyExistsPartitionException(databaseName, tableName, partition.getPartitionName());
+        }
+      }
+    }
+    for (CatalogProtos.PartitionDescProto partition : request.getPartitionList()) {
+      if (!tablePartitions.containsKey(partition.getPartitionName())) {
+        addPartition(databaseName, tableName, partition);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void dropPartitions(CatalogProtos.DropPartitionsRequest request) throws CatalogException {
+    String databaseName = request.getTableIdentifier().getDatabaseName();
+    String tableName = request.getTableIdentifier().getTableName();
+    Map<String, CatalogProtos.PartitionDescProto> tablePartitions = getPartitionMap(databaseName, tableName);
+
+    if (!request.getIfExists()) {
+      for (String partitionName : request.getPartitionNameList()) {
+        if (!tablePartitions.containsKey(partitionName)) {
+          throw new NoSuchPartitionException(databaseName, tableName, partitionName);
+        }
+      }
+    }
+    for (String partitionName : request.getPartitionNameList()) {
+      removePartition(databaseName, tableName, partitionName);
+    }
+  }
+
+  @Override
+  public synchronized List<CatalogProtos.PartitionDescProto> getPartitions(CatalogProtos.GetPartitionsRequest request)
+      throws CatalogException {
+    String databaseName = request.getTableIdentifier().getDatabaseName();
+    String tableName = request.getTableIdentifier().getTableName();
+    String qualifiedName = CatalogUtil.buildFQName(databaseName, tableName);
+    List<CatalogProtos.PartitionDescProto> protos = new ArrayList<CatalogProtos.PartitionDescProto>();
+
+    NavigableMap<String, CatalogProtos.PartitionDescProto> candidates = getPartitionMap(databaseName, tableName);
+    if (request.hasStartAfter()) {
+      candidates = candidates.tailMap(request.getStartAfter(), false);
+    }
+
+    // intersect the partitions matched by each key range through the key index, which is ordered by the key type
+    PartitionKeyRanges ranges = new PartitionKeyRanges(
+        request.getKeyRangeCount() > 0 ? getPartitionMethod(databaseName, tableName) : null,
+        request.getKeyRangeList());
+    Set<String> matched = null;
+    Map<String, TreeMap<String, Set<String>>> keyIndex = partitionKeyIndexes.get(qualifiedName);
+    for (CatalogProtos.PartitionKeyRangeProto range : request.getKeyRangeList()) {
+      Set<String> names = new HashSet<String>();
+      NavigableMap<String, Set<String>> values = keyIndex == null ? null : keyIndex.get(range.getColumnName());
+      if (values != null) {
+        if (range.hasLowerBound()) {
+          values = values.tailMap(range.getLowerBound(), true);
+        }
+        if (range.hasUpperBound()) {
+          values = values.headMap(range.getUpperBound(), true);
+        }
+        DataType type = ranges.getType(range.getColumnName());
+        for (Map.Entry<String, Set<String>> entry : values.entrySet()) {
+          if (type == null || !PartitionKeyRanges.isNull(type, entry.getKey())) {
+            names.addAll(entry.getValue());
+          }
+        }
+      }
+      if (matched == null) {
+        matched = names;
+      } else {
+        matched.retainAll(names);
+      }
+    }
+
+    for (CatalogProtos.PartitionDescProto partition : candidates.values()) {
+      if (request.getMaxPartitions() > 0 && protos.size() >= request.getMaxPartitions()) {
+        break;
+      }
+      if (matched == null || matched.contains(partition.getPartitionName())) {
+        protos.add(partition);
+      }
+    }
+    return protos;
+  }
+
+  private TreeMap<String, CatalogProtos.PartitionDescProto> getPartitionMap(String databaseName, String tableName) {
+    TreeMap<String, CatalogProtos.PartitionDescProto> tablePartitions =
+        partitions.get(CatalogUtil.buildFQName(databaseName, tableName));
+    return tablePartitions == null ? new TreeMap<String, CatalogProtos.PartitionDescProto>() : tablePartitions;
+  }
+
+  private void addPartition(String databaseName, String tableName, CatalogProtos.PartitionDescProto partition) {
+    String qualifiedName = CatalogUtil.buildFQName(databaseName, tableName);
+
+    TreeMap<String, CatalogProtos.PartitionDescProto> tablePartitions = partitions.get(qualifiedName);
+    if (tablePartitions == null) {
+      tablePartitions = new TreeMap<String, CatalogProtos.PartitionDescProto>();
+      partitions.put(qualifiedName, tablePartitions);
+    }
+    tablePartitions.put(partition.getPartitionName(), partition);
+
+    Map<String, TreeMap<String, Set<String>>> keyIndex = partitionKeyIndexes.get(qualifiedName);
+    if (keyIndex == null) {
+      keyIndex = Maps.newHashMap();
+      partitionKeyIndexes.put(qualifiedName, keyIndex);
+    }
+    PartitionKeyRanges keyTypes = null;
+    for (CatalogProtos.PartitionKeyProto key : partition.getPartitionKeysList()) {
+      TreeMap<String, Set<String>> values = keyIndex.get(key.getColumnName());
+      if (values == null) {
+        if (keyTypes == null) {
+          keyTypes = new PartitionKeyRanges(getPartitionMethod(databaseName, tableName),
+              new ArrayList<CatalogProtos.PartitionKeyRangeProto>());
+        }
+        // the values of a key column are ordered by its type, so that 9 comes before 10
+        DataType type = keyTypes.getType(key.getColumnName());
+        Comparator<String> order = type == null ? null : PartitionKeyRanges.newComparator(type);
+        values = new TreeMap<String, Set<String>>(order);
+        keyIndex.put(key.getColumnName(), values);
+      }
+      Set<String> partitionNames = values.get(key.getPartitionValue());
+      if (partitionNames == null) {
+        partitionNames = new HashSet<String>();
+        values.put(key.getPartitionValue(), partitionNames);
+      }
+      partitionNames.add(partition.getPartitionName());
+    }
+  }
+
+  private void removePartition(String databaseName, String tableName, String partitionName) {
+    String qualifiedName = CatalogUtil.buildFQName(databaseName, tableName);
+
+    TreeMap<String, CatalogProtos.PartitionDescProto> tablePartitions = partitions.get(qualifiedName);
+    CatalogProtos.PartitionDescProto partition = tablePartitions == null ? null : tablePartitions.remove(partitionName);
+    if (partition == null) {
+      return;
+    }
+
+    Map<String, TreeMap<String, Set<String>>> keyIndex = partitionKeyIndexes.get(qualifiedName);
+    for (CatalogProtos.PartitionKeyProto key : partition.getPartitionKeysList()) {
+      TreeMap<String, Set<String>> values = keyIndex.get(key.getColumnName());
+      Set<String> partitionNames = values.get(key.getPartitionValue());
+      partitionNames.remove(partitionName);
+      if (partitionNames.isEmpty()) {
+        values.remove(key.getPartitionValue());
+      }
+    }
+  }
+
 
   /* (non-Javadoc)
    * @see CatalogStore#createIndex(nta.catalog.proto.CatalogProtos.IndexDescProto)
    */
   @Override
-  public void createIndex(IndexDescProto proto) throws CatalogException {
+  public synchronized void createIndex(IndexDescProto proto) throws CatalogException {
     final String databaseName = proto.getTableIdentifier().getDatabaseName();
 
     Map<String, IndexDescProto> index = checkAndGetDatabaseNS(indexes, databaseName);
@@ -613,7 +750,7 @@ public class MemStore implements CatalogStore {
    * @see CatalogStore#dropIndex(java.lang.String)
    */
   @Override
-  public void dropIndex(String databaseName, String indexName) throws CatalogException {
+  public synchronized void dropIndex(String databaseName, String indexName) throws CatalogException {
     Map<String, IndexDescProto> index = checkAndGetDatabaseNS(indexes, databaseName);
     if (!index.containsKey(indexName)) {
       throw new NoSuchIndexException(indexName);
@@ -625,7 +762,7 @@ public class MemStore implements CatalogStore {
    * @see CatalogStore#getIndexByName(java.lang.String)
    */
   @Override
-  public IndexDescProto getIndexByName(String databaseName, String indexName) throws CatalogException {
+  public synchronized IndexDescProto getIndexByName(String databaseName, String indexName) throws CatalogException {
     Map<String, IndexDescProto> index = checkAndGetDatabaseNS(indexes, databaseName);
     if (!index.containsKey(indexName)) {
       throw new NoSuchIndexException(indexName);
@@ -638,7 +775,7 @@ public class MemStore implements CatalogStore {
    * @see CatalogStore#getIndexByName(java.lang.String, java.lang.String)
    */
   @Override
-  public IndexDescProto getIndexByColumn(String databaseName, String tableName, String columnName)
+  public synchronized IndexDescProto getIndexByColumn(String databaseName, String tableName, String columnName)
       throws CatalogException {
 
     Map<String, IndexDescProto> indexByColumn = checkAndGetDatabaseNS(indexesByColumn, databaseName);
@@ -650,20 +787,20 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public boolean existIndexByName(String databaseName, String indexName) throws CatalogException {
+  public synchronized boolean existIndexByName(String databaseName, String indexName) throws CatalogException {
     Map<String, IndexDescProto> index = checkAndGetDatabaseNS(indexes, databaseName);
     return index.containsKey(indexName);
   }
 
   @Override
-  public boolean existIndexByColumn(String databaseName, String tableName, String columnName)
+  public synchronized boolean existIndexByColumn(String databaseName, String tableName, String columnName)
       throws CatalogException {
     Map<String, IndexDescProto> indexByColumn = checkAndGetDatabaseNS(indexesByColumn, databaseName);
     return indexByColumn.containsKey(columnName);
   }
 
   @Override
-  public IndexDescProto[] getIndexes(String databaseName, String tableName) throws CatalogException {
+  public synchronized IndexDescProto[] getIndexes(String databaseName, String tableName) throws CatalogException {
     List<IndexDescProto> protos = new ArrayList<IndexDescProto>();
     Map<String, IndexDescProto> indexByColumn = checkAndGetDatabaseNS(indexesByColumn, databaseName);
     for (IndexDescProto proto : indexByColumn.values()) {
@@ -676,7 +813,7 @@ public class MemStore implements CatalogStore {
   }
   
   @Override
-  public List<IndexProto> getAllIndexes() throws CatalogException {
+  public synchronized List<IndexProto> getAllIndexes() throws CatalogException {
     List<IndexProto> indexList = new ArrayList<CatalogProtos.IndexProto>();
     Set<String> databases = indexes.keySet();
     
@@ -703,22 +840,22 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public void addFunction(FunctionDesc func) throws CatalogException {
+  public synchronized void addFunction(FunctionDesc func) throws CatalogException {
     // to be implemented
   }
 
   @Override
-  public void deleteFunction(FunctionDesc func) throws CatalogException {
+  public synchronized void deleteFunction(FunctionDesc func) throws CatalogException {
     // to be implemented
   }
 
   @Override
-  public void existFunction(FunctionDesc func) throws CatalogException {
+  public synchronized void existFunction(FunctionDesc func) throws CatalogException {
     // to be implemented
   }
 
   @Override
-  public List<String> getAllFunctionNames() throws CatalogException {
+  public synchronized List<String> getAllFunctionNames() throws CatalogException {
     // to be implemented
     return null;
   }
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.catalog.store;
+
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.exception.CatalogException;
+import org.apache.tajo.catalog.proto.CatalogProtos.ColumnProto;
+import org.apache.tajo.catalog.proto.CatalogProtos.PartitionDescProtoOrBuilder;
+import org.apache.tajo.catalog.proto.CatalogProtos.PartitionKeyProto;
+import org.apache.tajo.catalog.proto.CatalogProtos.PartitionKeyRangeProto;
+import org.apache.tajo.catalog.proto.CatalogProtos.PartitionMethodProto;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.util.StringUtils;
+
+import java.util.*;
+
+/**
+ * The key ranges of a partition listing, resolved against the types of the partition key columns.
+ *
+ * Partition values are stored as strings. A range on a text column compares them as strings, so that a store
+ * can evaluate it in its own query. A range on any other column compares them by the type of the column, so that
+ * 9 is less than 10. A value which cannot be read as the type, like the default partition for nulls, is never in
+ * a typed range.
+ */
+class PartitionKeyRanges {
+  private final Map<String, DataType> columnTypes = new HashMap<String, DataType>();
+  private final List<PartitionKeyRangeProto> textRanges = new ArrayList<PartitionKeyRangeProto>();
+  private final List<PartitionKeyRangeProto> typedRanges = new ArrayList<PartitionKeyRangeProto>();
+
+  /**
+   * @param method the partition method of the table, or null if the table is not partitioned
+   * @throws CatalogException if a bound cannot be read as the type of its column
+   */
+  PartitionKeyRanges(PartitionMethodProto method, List<PartitionKeyRangeProto> ranges) {
+    if (method != null) {
+      for (ColumnProto column : method.getExpressionSchema().getFieldsList()) {
+        columnTypes.put(CatalogUtil.extractSimpleName(column.getName()), column.getDataType());
+      }
+    }
+
+    for (PartitionKeyRangeProto range : ranges) {
+      DataType type = getType(range.getColumnName());
+      if (type == null || isText(type)) {
+        textRanges.add(range);
+        continue;
+      }
+      if ((range.hasLowerBound() && parse(type, range.getLowerBound()) == null) ||
+          (range.hasUpperBound() && parse(type, range.getUpperBound()) == null)) {
+        throw new CatalogException("Invalid key range of " + range.getColumnName() + " (" + type.getType() + "): ["
+            + range.getLowerBound() + ", " + range.getUpperBound() + "]");
+      }
+      typedRanges.add(range);
+    }
+  }
+
+  /**
+   * @return the type of a partition key column, or null if it is not a partition key column
+   */
+  DataType getType(String columnName) {
+    return columnTypes.get(CatalogUtil.extractSimpleName(columnName));
+  }
+
+  /**
+   * @return the ranges compared as strings
+   */
+  List<PartitionKeyRangeProto> getTextRanges() {
+    return textRanges;
+  }
+
+  /**
+   * @return the ranges compared by the types of their columns
+   */
+  List<PartitionKeyRangeProto> getTypedRanges() {
+    return typedRanges;
+  }
+
+  /**
+   * @return true if the keys of a partition are in all typed ranges
+   */
+  boolean matchesTypedRanges(PartitionDescProtoOrBuilder partition) {
+    for (PartitionKeyRangeProto range : typedRanges) {
+      String columnName = CatalogUtil.extractSimpleName(range.getColumnName());
+      boolean matched = false;
+      for (PartitionKeyProto key : partition.getPartitionKeysList()) {
+        if (CatalogUtil.extractSimpleName(key.getColumnName()).equals(columnName)) {
+          matched = isInRange(range, key.getPartitionValue());
+          break;
+        }
+      }
+      if (!matched) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return true if a value of the column of a typed range is in the range
+   */
+  boolean isInRange(PartitionKeyRangeProto range, String value) {
+    DataType type = getType(range.getColumnName());
+    if (isNull(type, value)) {
+      return false;
+    }
+    Comparator<String> comparator = newComparator(type);
+    return (!range.hasLowerBound() || comparator.compare(value, range.getLowerBound()) >= 0) &&
+        (!range.hasUpperBound() || comparator.compare(value, range.getUpperBound()) <= 0);
+  }
+
+  static boolean isText(DataType type) {
+    switch (type.getType()) {
+    case CHAR:
+    case VARCHAR:
+    case NCHAR:
+    case NVARCHAR:
+    case TEXT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return true if a value cannot be read as the given type, like the default partition
+   */
+  static boolean isNull(DataType type, String value) {
+    return !isText(type) && parse(type, value) == null;
+  }
+
+  /**
+   * @return the comparator of the partition values of a column. Values which cannot be read as the type come
+   * first, in the order of their strings.
+   */
+  static Comparator<String> newComparator(final DataType type) {
+    if (isText(type)) {
+      return new Comparator<String>() {
+        @Override
+        public int compare(String o1, String o2) {
+          return o1.compareTo(o2);
+        }
+      };
+    }
+
+    return new Comparator<String>() {
+      @Override
+      public int compare(String o1, String o2) {
+        Datum d1 = parse(type, o1);
+        Datum d2 = parse(type, o2);
+        if (d1 == null || d2 == null) {
+          return d1 == null ? (d2 == null ? o1.compareTo(o2) : -1) : 1;
+        }
+        return d1.compareTo(d2);
+      }
+    };
+  }
+
+  private static Datum parse(DataType type, String value) {
+    try {
+      return DatumFactory.createFromString(type, StringUtils.unescapePathName(value));
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+}
@@ -3,5 +3,5 @@ CREATE TABLE PARTITIONS (
   TID INT NOT NULL,
   PARTITION_NAME VARCHAR(767) BINARY,
   PATH VARCHAR(4096),
-  UNIQUE INDEX PARTITIONS_IDX (PARTITION_ID, TID, PARTITION_NAME),
+  UNIQUE INDEX PARTITIONS_IDX (TID, PARTITION_NAME),
   FOREIGN KEY (TID) REFERENCES TABLES (TID) ON DELETE CASCADE)
\ No newline at end of file
@@ -20,6 +20,7 @@ package org.apache.tajo.catalog;
 
 import com.google.common.collect.Sets;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.catalog.dictionary.InfoSchemaMetadataDictionary;
@@ -34,6 +35,7 @@ import org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
 import org.apache.tajo.catalog.proto.CatalogProtos.IndexMethod;
 import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
 import org.apache.tajo.catalog.store.DerbyStore;
+import org.apache.tajo.catalog.store.MemStore;
 import org.apache.tajo.catalog.store.MySQLStore;
 import org.apache.tajo.catalog.store.MariaDBStore;
 import org.apache.tajo.catalog.store.OracleStore;
@@ -50,6 +52,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.apache.tajo.TajoConstants.DEFAULT_DATABASE_NAME;
 import static org.apache.tajo.catalog.CatalogConstants.CATALOG_URI;
@@ -67,6 +70,7 @@ public class TestCatalog {
 	
 	static CatalogServer server;
 	static CatalogService catalog;
+  static long startTime;
 
 	@BeforeClass
 	public static void setUp() throws Exception {
@@ -104,6 +108,7 @@ public class TestCatalog {
 
     Path defaultTableSpace = CommonTestingUtil.getTestDir();
 
+    startTime = System.currentTimeMillis();
 	  server = new CatalogServer();
     server.init(conf);
     server.start();
@@ -301,6 +306,162 @@ public class TestCatalog {
     assertTrue(catalog.dropDatabase("tmpdb2"));
     assertFalse(catalog.existDatabase("tmpdb2"));
   }
+
+  @Test
+  public void testClientCacheInvalidation() throws Exception {
+    TajoConf cacheConf = new TajoConf(server.getConf());
+    cacheConf.setBoolVar(TajoConf.ConfVars.CATALOG_CLIENT_CACHE_ENABLED, true);
+    cacheConf.setLongVar(TajoConf.ConfVars.CATALOG_CLIENT_CACHE_VALIDATION_INTERVAL_MS, 0);
+    CatalogService cachedCatalog = new LocalCatalogWrapper(server, cacheConf);
+
+    assertFalse(cachedCatalog.existsTable(DEFAULT_DATABASE_NAME, "cached_table"));
+
+    // DDL issued through another client must invalidate the cached lookups
+    TableDesc table = createMockupTable(DEFAULT_DATABASE_NAME, "cached_table");
+    assertTrue(catalog.createTable(table));
+    assertTrue(cachedCatalog.existsTable(DEFAULT_DATABASE_NAME, "cached_table"));
+
+    TableDesc first = cachedCatalog.getTableDesc(DEFAULT_DATABASE_NAME, "cached_table");
+    TableDesc second = cachedCatalog.getTableDesc(DEFAULT_DATABASE_NAME, "cached_table");
+    assertNotSame(first, second);
+    assertEquals(first, second);
+
+    assertTrue(catalog.dropTable(table.getName()));
+    assertFalse(cachedCatalog.existsTable(DEFAULT_DATABASE_NAME, "cached_table"));
+    assertNull(cachedCatalog.getTableDesc(DEFAULT_DATABASE_NAME, "cached_table"));
+  }
+
+  @Test
+  public void testCatalogVersionStartsFromStartupTime() throws Exception {
+    // a restarted catalog server must not reuse the versions cached by clients
+    long version = catalog.getCatalogVersion();
+    assertTrue(version >= startTime);
+
+    TableDesc table = createMockupTable(DEFAULT_DATABASE_NAME, "versioned_table");
+    assertTrue(catalog.createTable(table));
+    assertTrue(catalog.getCatalogVersion() > version);
+    assertTrue(catalog.dropTable(table.getName()));
+  }
+
+  @Test
+  public void testReadsDuringDDLInAnotherDatabase() throws Exception {
+    assertTrue(catalog.createDatabase("ddldb", TajoConstants.DEFAULT_TABLESPACE_NAME));
+    assertTrue(catalog.createDatabase("readdb", TajoConstants.DEFAULT_TABLESPACE_NAME));
+    TableDesc readTable = createMockupTable("readdb", "read_table");
+    assertTrue(catalog.createTable(readTable));
+
+    final List<TableDesc> tables = new ArrayList<TableDesc>();
+    for (int i = 0; i < 20; i++) {
+      tables.add(createMockupTable("ddldb", "ddl_table" + i));
+    }
+    final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+    Thread writer = new Thread() {
+      @Override
+      public void run() {
+        try {
+          for (TableDesc table : tables) {
+            assertTrue(catalog.createTable(table));
+            assertTrue(catalog.dropTable(table.getName()));
+          }
+        } catch (Throwable t) {
+          errors.add(t);
+        }
+      }
+    };
+    writer.start();
+
+    // each thread has its own store connection, so reads must not see or disturb the transactions of the writer
+    while (writer.isAlive()) {
+      assertTrue(catalog.existsTable("readdb", "read_table"));
+      assertEquals(3, catalog.getTableDesc("readdb", "read_table").getSchema().size());
+      assertEquals(1, catalog.getAllTableNames("readdb").size());
+    }
+    writer.join();
+    assertTrue(errors.toString(), errors.isEmpty());
+    assertTrue(catalog.getAllTableNames("ddldb").isEmpty());
+
+    assertTrue(catalog.dropDatabase("ddldb"));
+    assertTrue(catalog.dropDatabase("readdb"));
+  }
+
+  /**
+   * A store which blocks the table creation in {@link #BLOCKED_DATABASE} until it is released.
+   */
+  public static class BlockingStore extends MemStore {
+    static final String BLOCKED_DATABASE = "blockeddb";
+    static CountDownLatch entered;
+    static CountDownLatch released;
+
+    public BlockingStore(Configuration conf) {
+      super(conf);
+    }
+
+    @Override
+    public void createTable(CatalogProtos.TableDescProto request) throws CatalogException {
+      String databaseName = CatalogUtil.splitFQTableName(request.getTableName())[0];
+      if (databaseName.equals(BLOCKED_DATABASE)) {
+        entered.countDown();
+        try {
+          released.await();
+        } catch (InterruptedException e) {
+          throw new CatalogException(e);
+        }
+      }
+      super.createTable(request);
+    }
+  }
+
+  @Test
+  public void testReadNotBlockedByDDLInAnotherDatabase() throws Exception {
+    TajoConf conf = new TajoConf();
+    conf.set(CatalogConstants.STORE_CLASS, BlockingStore.class.getName());
+    conf.setVar(TajoConf.ConfVars.CATALOG_ADDRESS, "127.0.0.1:0");
+    BlockingStore.entered = new CountDownLatch(1);
+    BlockingStore.released = new CountDownLatch(1);
+
+    CatalogServer blockingServer = new CatalogServer();
+    blockingServer.init(conf);
+    blockingServer.start();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final CatalogService blockingCatalog = new LocalCatalogWrapper(blockingServer);
+      if (!blockingCatalog.existTablespace(TajoConstants.DEFAULT_TABLESPACE_NAME)) {
+        blockingCatalog.createTablespace(TajoConstants.DEFAULT_TABLESPACE_NAME,
+            CommonTestingUtil.getTestDir().toUri().toString());
+      }
+      assertTrue(blockingCatalog.createDatabase(BlockingStore.BLOCKED_DATABASE,
+          TajoConstants.DEFAULT_TABLESPACE_NAME));
+      assertTrue(blockingCatalog.createDatabase("readdb", TajoConstants.DEFAULT_TABLESPACE_NAME));
+      assertTrue(blockingCatalog.createTable(createMockupTable("readdb", "read_table")));
+
+      final TableDesc blockedTable = createMockupTable(BlockingStore.BLOCKED_DATABASE, "blocked_table");
+      Future<Boolean> ddl = executor.submit(new Callable<Boolean>() {
+        @Override
+        public Boolean call() throws Exception {
+          return blockingCatalog.createTable(blockedTable);
+        }
+      });
+      assertTrue(BlockingStore.entered.await(10, TimeUnit.SECONDS));
+
+      // the DDL in blockeddb holds its database lock, but a read in readdb must not wait for it
+      Future<TableDesc> read = executor.submit(new Callable<TableDesc>() {
+        @Override
+        public TableDesc call() throws Exception {
+          return blockingCatalog.getTableDesc("readdb", "read_table");
+        }
+      });
+      assertEquals(3, read.get(10, TimeUnit.SECONDS).getSchema().size());
+      assertFalse(ddl.isDone());
+
+      BlockingStore.released.countDown();
+      assertTrue(ddl.get(10, TimeUnit.SECONDS));
+      assertTrue(blockingCatalog.existsTable(BlockingStore.BLOCKED_DATABASE, "blocked_table"));
+    } finally {
+      BlockingStore.released.countDown();
+      executor.shutdownNow();
+      blockingServer.stop();
+    }
+  }
   
   @Test
   public void testCreateAndDropTableWithCharacterSensivity() throws Exception {
@@ -926,6 +1087,139 @@ public class TestCatalog {
     assertFalse(catalog.existsTable(tableName));
   }
 
+  @Test
+  public final void testAddAndDropPartitionsInBulk() throws Exception {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4)
+        .addColumn("name", Type.TEXT);
+
+    Schema partSchema = new Schema();
+    partSchema.addColumn("dt", Type.TEXT);
+
+    String tableName = CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, "bulkpartitioned");
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.CSV, new KeyValueSet());
+    TableDesc desc = new TableDesc(tableName, schema, meta,
+        new Path(CommonTestingUtil.getTestDir(), "bulkpartitioned").toUri());
+    desc.setPartitionMethod(new PartitionMethodDesc(DEFAULT_DATABASE_NAME, tableName,
+        CatalogProtos.PartitionType.COLUMN, "dt", partSchema));
+    assertTrue(catalog.createTable(desc));
+
+    // two days of hourly partitions
+    List<CatalogProtos.PartitionDescProto> partitions = new ArrayList<CatalogProtos.PartitionDescProto>();
+    for (int hour = 0; hour < 48; hour++) {
+      String value = String.format("2015-01-%02d-%02d", hour / 24 + 1, hour % 24);
+      partitions.add(CatalogProtos.PartitionDescProto.newBuilder()
+          .setPartitionName("dt=" + value)
+          .setPath("hdfs://xxx.com/warehouse/bulkpartitioned/dt=" + value)
+          .addPartitionKeys(CatalogProtos.PartitionKeyProto.newBuilder().setColumnName("dt").setPartitionValue(value))
+          .build());
+    }
+    assertTrue(catalog.addPartitions(DEFAULT_DATABASE_NAME, "bulkpartitioned", partitions, false));
+    assertEquals(48, catalog.getPartitions(DEFAULT_DATABASE_NAME, "bulkpartitioned").size());
+
+    // existing partitions fail the whole call unless they are skipped
+    assertFalse(catalog.addPartitions(DEFAULT_DATABASE_NAME, "bulkpartitioned", partitions.subList(0, 2), false));
+    assertTrue(catalog.addPartitions(DEFAULT_DATABASE_NAME, "bulkpartitioned", partitions.subList(0, 2), true));
+    assertEquals(48, catalog.getPartitions(DEFAULT_DATABASE_NAME, "bulkpartitioned").size());
+
+    // page through the partitions of the second day
+    CatalogProtos.GetPartitionsRequest.Builder request = CatalogProtos.GetPartitionsRequest.newBuilder();
+    request.setTableIdentifier(CatalogProtos.TableIdentifierProto.newBuilder()
+        .setDatabaseName(DEFAULT_DATABASE_NAME).setTableName("bulkpartitioned"));
+    request.addKeyRange(CatalogProtos.PartitionKeyRangeProto.newBuilder()
+        .setColumnName("dt").setLowerBound("2015-01-02-00").setUpperBound("2015-01-02-23"));
+    request.setMaxPartitions(10);
+
+    List<String> pagedNames = new ArrayList<String>();
+    List<CatalogProtos.PartitionDescProto> page;
+    do {
+      page = catalog.getPartitions(request.build());
+      for (CatalogProtos.PartitionDescProto partition : page) {
+        assertEquals(1, partition.getPartitionKeysCount());
+        pagedNames.add(partition.getPartitionName());
+      }
+      if (!page.isEmpty()) {
+        request.setStartAfter(page.get(page.size() - 1).getPartitionName());
+      }
+    } while (page.size() == 10);
+    assertEquals(24, pagedNames.size());
+    assertEquals("dt=2015-01-02-00", pagedNames.get(0));
+    assertEquals("dt=2015-01-02-23", pagedNames.get(23));
+
+    List<String> firstDay = new ArrayList<String>();
+    for (CatalogProtos.PartitionDescProto partition : partitions.subList(0, 24)) {
+      firstDay.add(partition.getPartitionName());
+    }
+    assertTrue(catalog.dropPartitions(DEFAULT_DATABASE_NAME, "bulkpartitioned", firstDay, false));
+    assertFalse(catalog.dropPartitions(DEFAULT_DATABASE_NAME, "bulkpartitioned", firstDay, false));
+    assertTrue(catalog.dropPartitions(DEFAULT_DATABASE_NAME, "bulkpartitioned", firstDay, true));
+    assertEquals(24, catalog.getPartitions(DEFAULT_DATABASE_NAME, "bulkpartitioned").size());
+
+    assertTrue(catalog.dropTable(tableName));
+  }
+
+  @Test
+  public final void testGetPartitionsByTypedKeyRange() throws Exception {
+    Schema schema = new Schema();
+    schema.addColumn("name", Type.TEXT);
+
+    Schema partSchema = new Schema();
+    partSchema.addColumn("id", Type.INT4);
+
+    String tableName = CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, "typedpartitioned");
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.CSV, new KeyValueSet());
+    TableDesc desc = new TableDesc(tableName, schema, meta,
+        new Path(CommonTestingUtil.getTestDir(), "typedpartitioned").toUri());
+    desc.setPartitionMethod(new PartitionMethodDesc(DEFAULT_DATABASE_NAME, tableName,
+        CatalogProtos.PartitionType.COLUMN, "id", partSchema));
+    assertTrue(catalog.createTable(desc));
+
+    List<CatalogProtos.PartitionDescProto> partitions = new ArrayList<CatalogProtos.PartitionDescProto>();
+    for (String value : new String[] {"9", "10", "100", "__TAJO_DEFAULT_PARTITION__"}) {
+      partitions.add(CatalogProtos.PartitionDescProto.newBuilder()
+          .setPartitionName("id=" + value)
+          .setPath("hdfs://xxx.com/warehouse/typedpartitioned/id=" + value)
+          .addPartitionKeys(CatalogProtos.PartitionKeyProto.newBuilder().setColumnName("id").setPartitionValue(value))
+          .build());
+    }
+    assertTrue(catalog.addPartitions(DEFAULT_DATABASE_NAME, "typedpartitioned", partitions, false));
+
+    // 9 is within [9, 10] only if the bounds are compared as numbers
+    CatalogProtos.GetPartitionsRequest.Builder request = CatalogProtos.GetPartitionsRequest.newBuilder();
+    request.setTableIdentifier(CatalogProtos.TableIdentifierProto.newBuilder()
+        .setDatabaseName(DEFAULT_DATABASE_NAME).setTableName("typedpartitioned"));
+    request.addKeyRange(CatalogProtos.PartitionKeyRangeProto.newBuilder()
+        .setColumnName("id").setLowerBound("9").setUpperBound("10"));
+    Set<String> names = new HashSet<String>();
+    for (CatalogProtos.PartitionDescProto partition : catalog.getPartitions(request.build())) {
+      names.add(partition.getPartitionName());
+    }
+    assertEquals(Sets.newHashSet("id=9", "id=10"), names);
+
+    // the default partition never matches a range on a number column
+    request.setKeyRange(0, CatalogProtos.PartitionKeyRangeProto.newBuilder()
+        .setColumnName("id").setUpperBound("100"));
+    request.setMaxPartitions(2);
+    names.clear();
+    for (CatalogProtos.PartitionDescProto partition : catalog.getPartitions(request.build())) {
+      names.add(partition.getPartitionName());
+    }
+    assertEquals(Sets.newHashSet("id=10", "id=100"), names);
+
+    request.setStartAfter("id=100");
+    List<CatalogProtos.PartitionDescProto> page = catalog.getPartitions(request.build());
+    assertEquals(1, page.size());
+    assertEquals("id=9", page.get(0).getPartitionName());
+
+    // a bound which is not a number is rejected
+    request.clearStartAfter();
+    request.setKeyRange(0, CatalogProtos.PartitionKeyRangeProto.newBuilder()
+        .setColumnName("id").setLowerBound("abc"));
+    assertNull(catalog.getPartitions(request.build()));
+
+    assertTrue(catalog.dropTable(tableName));
+  }
+
   private void testAddPartition(String tableName, String partitionName) throws Exception {
     AlterTableDesc alterTableDesc = new AlterTableDesc();
     alterTableDesc.setTableName(tableName);
@@ -21,6 +21,7 @@ package org.apache.tajo.client;
 import com.google.protobuf.ServiceException;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.auth.UserRoleInfo;
+import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.ipc.ClientProtos;
 import org.apache.tajo.ipc.ClientProtos.QueryHistoryProto;
 import org.apache.tajo.ipc.ClientProtos.QueryInfoProto;
@@ -94,6 +95,27 @@ public interface QueryClient extends Closeable {
 
   public ResultSet executeJsonQueryAndGetResult(final String json) throws ServiceException, IOException;
 
+  /**
+   * It parses a query statement including parameter markers (<code>?</code>) on TajoMaster
+   * and keeps it in the current session.
+   *
+   * @return The statement id used for {@link #executePreparedQuery(int, java.util.List)}
+   */
+  public int prepareQuery(final String sql) throws ServiceException;
+
+  /**
+   * It submits a prepared query with the given parameter values and get a response immediately.
+   */
+  public ClientProtos.SubmitQueryResponse executePreparedQuery(final int statementId,
+                                                             final List<ClientProtos.QueryParameterProto> parameters)
+      throws ServiceException;
+
+  public ResultSet executePreparedQueryAndGetResult(final int statementId,
+                                                    final List<ClientProtos.QueryParameterProto> parameters)
+      throws ServiceException, IOException;
+
+  public void closePreparedQuery(final int statementId);
+
   public QueryStatus getQueryStatus(QueryId queryId) throws ServiceException;
 
   public ResultSet getQueryResult(QueryId queryId) throws ServiceException, IOException;
@@ -104,6 +126,14 @@ public interface QueryClient extends Closeable {
 
   public TajoMemoryResultSet fetchNextQueryResult(final QueryId queryId, final int fetchRowNum) throws ServiceException;
 
+  /**
+   * Fetch the next rows of one of streamNum disjoint parts of a query result.
+   */
+  public TajoMemoryResultSet fetchNextQueryResult(final QueryId queryId, final int fetchRowNum, final int streamId,
+                                                  final int streamNum) throws ServiceException;
+
+  public ResultSet createFetchResultSet(QueryId queryId, Schema schema, int fetchRowNum);
+
   public boolean updateQuery(final String sql) throws ServiceException;
 
   public boolean updateQueryWithJson(final String json) throws ServiceException;
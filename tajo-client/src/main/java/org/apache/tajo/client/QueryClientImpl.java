@@ -27,9 +27,11 @@ import org.apache.tajo.auth.UserRoleInfo;
 import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.ipc.ClientProtos;
 import org.apache.tajo.ipc.QueryMasterClientProtocol;
 import org.apache.tajo.ipc.TajoMasterClientProtocol;
+import org.apache.tajo.jdbc.DirectFetchResultSet;
 import org.apache.tajo.jdbc.FetchResultSet;
 import org.apache.tajo.jdbc.TajoMemoryResultSet;
 import org.apache.tajo.rpc.NettyClientBase;
@@ -40,6 +42,8 @@ import org.apache.tajo.util.ProtoUtil;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -51,11 +55,34 @@ public class QueryClientImpl implements QueryClient {
   private static final Log LOG = LogFactory.getLog(QueryClientImpl.class);
   private final SessionConnection connection;
   private final int defaultFetchRows;
+  private final boolean blockFormat;
+  private final ResultBlockCodec blockCodec;
+  private final int prefetchNum;
+  private final int fetchParallelism;
+  private final boolean directFetch;
+  /** dedicated connections of parallel result streams, keyed by query id and stream id */
+  private final Map<String, NettyClientBase> streamConnections = new HashMap<String, NettyClientBase>();
 
   public QueryClientImpl(SessionConnection connection) {
     this.connection = connection;
     this.defaultFetchRows = this.connection.getProperties().getInt(SessionVars.FETCH_ROWNUM.getConfVars().keyname(),
         SessionVars.FETCH_ROWNUM.getConfVars().defaultIntVal);
+    this.blockFormat = this.connection.getProperties().getBool(
+        TajoConf.ConfVars.$RESULT_SET_BLOCK_FORMAT_ENABLED.keyname(),
+        TajoConf.ConfVars.$RESULT_SET_BLOCK_FORMAT_ENABLED.defaultBoolVal);
+    this.blockCodec = this.connection.getProperties().getBool(
+        TajoConf.ConfVars.$RESULT_SET_COMPRESSION_ENABLED.keyname(),
+        TajoConf.ConfVars.$RESULT_SET_COMPRESSION_ENABLED.defaultBoolVal) ?
+        ResultBlockCodec.DEFLATE : ResultBlockCodec.NO_CODEC;
+    this.prefetchNum = this.connection.getProperties().getInt(
+        TajoConf.ConfVars.$RESULT_SET_PREFETCH_NUM.keyname(),
+        TajoConf.ConfVars.$RESULT_SET_PREFETCH_NUM.defaultIntVal);
+    this.fetchParallelism = this.connection.getProperties().getInt(
+        TajoConf.ConfVars.$RESULT_SET_FETCH_PARALLELISM.keyname(),
+        TajoConf.ConfVars.$RESULT_SET_FETCH_PARALLELISM.defaultIntVal);
+    this.directFetch = this.connection.getProperties().getBool(
+        TajoConf.ConfVars.$RESULT_SET_DIRECT_FETCH_ENABLED.keyname(),
+        TajoConf.ConfVars.$RESULT_SET_DIRECT_FETCH_ENABLED.defaultBoolVal);
   }
 
   @Override
@@ -85,6 +112,12 @@ public class QueryClientImpl implements QueryClient {
 
   @Override
   public void close() {
+    synchronized (streamConnections) {
+      for (NettyClientBase client : streamConnections.values()) {
+        client.close();
+      }
+      streamConnections.clear();
+    }
   }
 
   @Override
@@ -99,6 +132,8 @@ public class QueryClientImpl implements QueryClient {
 
   @Override
   public void closeNonForwardQuery(QueryId queryId) {
+    closeStreamConnections(queryId);
+
     NettyClientBase tmClient = null;
     try {
       tmClient = connection.getTajoMasterConnection(false);
@@ -202,9 +237,87 @@ public class QueryClientImpl implements QueryClient {
 
   @Override
   public ResultSet executeQueryAndGetResult(String sql) throws ServiceException, IOException {
+    return getResultSet(executeQuery(sql));
+  }
+
+  @Override
+  public int prepareQuery(final String sql) throws ServiceException {
+
+    PrepareQueryResponse response = new ServerCallable<PrepareQueryResponse>(connection.connPool,
+        connection.getTajoMasterAddr(), TajoMasterClientProtocol.class, false, true) {
+
+      public PrepareQueryResponse call(NettyClientBase client) throws ServiceException {
 
-    ClientProtos.SubmitQueryResponse response = executeQuery(sql);
+        connection.checkSessionAndGet(client);
+
+        final PrepareQueryRequest.Builder builder = PrepareQueryRequest.newBuilder();
+        builder.setSessionId(connection.sessionId);
+        builder.setQuery(sql);
+        TajoMasterClientProtocolService.BlockingInterface tajoMasterService = client.getStub();
+
+        return tajoMasterService.prepareQuery(null, builder.build());
+      }
+    }.withRetries();
+
+    if (response.getResultCode() == ResultCode.ERROR) {
+      throw new ServiceException(response.hasErrorMessage() ? response.getErrorMessage() : response.getErrorTrace());
+    }
+    return response.getStatementId();
+  }
+
+  @Override
+  public ClientProtos.SubmitQueryResponse executePreparedQuery(final int statementId,
+                                                             final List<QueryParameterProto> parameters)
+      throws ServiceException {
+
+    return new ServerCallable<ClientProtos.SubmitQueryResponse>(connection.connPool, connection.getTajoMasterAddr(),
+        TajoMasterClientProtocol.class, false, true) {
+
+      public ClientProtos.SubmitQueryResponse call(NettyClientBase client) throws ServiceException {
+
+        connection.checkSessionAndGet(client);
+
+        final ExecutePreparedQueryRequest.Builder builder = ExecutePreparedQueryRequest.newBuilder();
+        builder.setSessionId(connection.sessionId);
+        builder.setStatementId(statementId);
+        builder.addAllParameters(parameters);
+        TajoMasterClientProtocolService.BlockingInterface tajoMasterService = client.getStub();
+
+        SubmitQueryResponse response = tajoMasterService.executePreparedQuery(null, builder.build());
+        if (response.getResultCode() == ResultCode.OK) {
+          connection.updateSessionVarsCache(ProtoUtil.convertToMap(response.getSessionVars()));
+        }
+        return response;
+      }
+    }.withRetries();
+  }
+
+  @Override
+  public ResultSet executePreparedQueryAndGetResult(int statementId, List<QueryParameterProto> parameters)
+      throws ServiceException, IOException {
+    return getResultSet(executePreparedQuery(statementId, parameters));
+  }
+
+  @Override
+  public void closePreparedQuery(int statementId) {
+    NettyClientBase tmClient = null;
+    try {
+      tmClient = connection.getTajoMasterConnection(false);
+      TajoMasterClientProtocolService.BlockingInterface tajoMaster = tmClient.getStub();
+      connection.checkSessionAndGet(tmClient);
+
+      PreparedQueryIdRequest.Builder builder = PreparedQueryIdRequest.newBuilder();
+      builder.setSessionId(getSessionId());
+      builder.setStatementId(statementId);
+      tajoMaster.closePreparedQuery(null, builder.build());
+    } catch (Exception e) {
+      LOG.warn("Fail to close a prepared query (statementId=" + statementId + ", msg=" + e.getMessage() + ")", e);
+    } finally {
+      connection.connPool.releaseConnection(tmClient);
+    }
+  }
 
+  private ResultSet getResultSet(ClientProtos.SubmitQueryResponse response) throws ServiceException, IOException {
     if (response.getResultCode() == ClientProtos.ResultCode.ERROR) {
       if (response.hasErrorMessage()) {
         throw new ServiceException(response.getErrorMessage());
@@ -333,7 +446,43 @@ public class QueryClientImpl implements QueryClient {
 
     GetQueryResultResponse response = getResultResponse(queryId);
     TableDesc tableDesc = CatalogUtil.newTableDesc(response.getTableDesc());
-    return new FetchResultSet(this, tableDesc.getLogicalSchema(), queryId, defaultFetchRows);
+    return createFetchResultSet(queryId, tableDesc.getLogicalSchema(), defaultFetchRows);
+  }
+
+  @Override
+  public ResultSet createFetchResultSet(QueryId queryId, Schema schema, int fetchRowNum) {
+    if (directFetch) {
+      GetQueryResultLocationsResponse response = getResultLocations(queryId);
+      if (response != null && response.getResultCode() == ResultCode.OK) {
+        return new DirectFetchResultSet(this, schema, queryId, response.getResultUrlsList());
+      }
+      if (response != null && LOG.isDebugEnabled()) {
+        LOG.debug("The result of " + queryId + " is fetched through TajoMaster: " + response.getErrorMessage());
+      }
+    }
+    return new FetchResultSet(this, schema, queryId, fetchRowNum, prefetchNum, Math.max(1, fetchParallelism));
+  }
+
+  /**
+   * @return the locations of the result files, or null if TajoMaster does not support direct fetch
+   */
+  private GetQueryResultLocationsResponse getResultLocations(QueryId queryId) {
+    NettyClientBase tmClient = null;
+    try {
+      tmClient = connection.getTajoMasterConnection(false);
+      connection.checkSessionAndGet(tmClient);
+      TajoMasterClientProtocolService.BlockingInterface tajoMasterService = tmClient.getStub();
+
+      QueryIdRequest.Builder builder = QueryIdRequest.newBuilder();
+      builder.setSessionId(connection.sessionId);
+      builder.setQueryId(queryId.getProto());
+      return tajoMasterService.getQueryResultLocations(null, builder.build());
+    } catch (Exception e) {
+      LOG.warn("Cannot get the result locations of " + queryId + ": " + e.getMessage());
+      return null;
+    } finally {
+      connection.connPool.releaseConnection(tmClient);
+    }
   }
 
   @Override
@@ -372,6 +521,12 @@ public class QueryClientImpl implements QueryClient {
   @Override
   public TajoMemoryResultSet fetchNextQueryResult(final QueryId queryId, final int fetchRowNum)
       throws ServiceException {
+    return fetchNextQueryResult(queryId, fetchRowNum, 0, 1);
+  }
+
+  @Override
+  public TajoMemoryResultSet fetchNextQueryResult(final QueryId queryId, final int fetchRowNum, final int streamId,
+                                                  final int streamNum) throws ServiceException {
 
     try {
       final ServerCallable<ClientProtos.SerializedResultSet> callable =
@@ -379,22 +534,8 @@ public class QueryClientImpl implements QueryClient {
               TajoMasterClientProtocol.class, false, true) {
 
             public ClientProtos.SerializedResultSet call(NettyClientBase client) throws ServiceException {
-
-              connection.checkSessionAndGet(client);
-              TajoMasterClientProtocolService.BlockingInterface tajoMasterService = client.getStub();
-
-              GetQueryResultDataRequest.Builder builder = GetQueryResultDataRequest.newBuilder();
-              builder.setSessionId(connection.sessionId);
-              builder.setQueryId(queryId.getProto());
-              builder.setFetchRowNum(fetchRowNum);
               try {
-                GetQueryResultDataResponse response = tajoMasterService.getQueryResultData(null, builder.build());
-                if (response.getResultCode() == ClientProtos.ResultCode.ERROR) {
-                  abort();
-                  throw new ServiceException(response.getErrorMessage());
-                }
-
-                return response.getResultSet();
+                return getQueryResultData(client, queryId, fetchRowNum, streamId, streamNum);
               } catch (ServiceException e) {
                 abort();
                 throw e;
@@ -404,13 +545,15 @@ public class QueryClientImpl implements QueryClient {
             }
           };
 
-      ClientProtos.SerializedResultSet serializedResultSet = callable.withRetries();
+      ClientProtos.SerializedResultSet serializedResultSet;
+      if (streamNum > 1) {
+        serializedResultSet = fetchStreamResultData(queryId, fetchRowNum, streamId, streamNum);
+      } else {
+        serializedResultSet = callable.withRetries();
+      }
 
-      return new TajoMemoryResultSet(queryId,
-          new Schema(serializedResultSet.getSchema()),
-          serializedResultSet.getSerializedTuplesList(),
-          serializedResultSet.getSerializedTuplesCount(),
-          getClientSideSessionVars());
+      // a server which does not support the block format always sends rows one by one
+      return new TajoMemoryResultSet(queryId, serializedResultSet, getClientSideSessionVars());
     } catch (ServiceException e) {
       throw e;
     } catch (Throwable e) {
@@ -418,6 +561,89 @@ public class QueryClientImpl implements QueryClient {
     }
   }
 
+  private ClientProtos.SerializedResultSet getQueryResultData(NettyClientBase client, QueryId queryId, int fetchRowNum,
+                                                             int streamId, int streamNum) throws ServiceException {
+    connection.checkSessionAndGet(client);
+    TajoMasterClientProtocolService.BlockingInterface tajoMasterService = client.getStub();
+
+    GetQueryResultDataRequest.Builder builder = GetQueryResultDataRequest.newBuilder();
+    builder.setSessionId(connection.sessionId);
+    builder.setQueryId(queryId.getProto());
+    builder.setFetchRowNum(fetchRowNum);
+    builder.setBlockFormat(blockFormat);
+    builder.setBlockCodec(blockCodec);
+    if (streamNum > 1) {
+      builder.setStreamId(streamId);
+      builder.setStreamNum(streamNum);
+    }
+
+    GetQueryResultDataResponse response = tajoMasterService.getQueryResultData(null, builder.build());
+    if (response.getResultCode() == ClientProtos.ResultCode.ERROR) {
+      throw new ServiceException(response.getErrorMessage());
+    }
+    return response.getResultSet();
+  }
+
+  /**
+   * Fetch the next batch of a parallel stream through the dedicated connection of the stream.
+   * TajoMaster serves the calls of a connection one by one, so the streams sharing the pooled connection
+   * would not be fetched in parallel.
+   */
+  private ClientProtos.SerializedResultSet fetchStreamResultData(QueryId queryId, int fetchRowNum, int streamId,
+                                                                 int streamNum) throws ServiceException {
+    String key = queryId + "#" + streamId;
+    NettyClientBase client;
+    try {
+      synchronized (streamConnections) {
+        client = streamConnections.get(key);
+        if (client == null || !client.isConnected()) {
+          if (client != null) {
+            client.close();
+          }
+          client = connection.connPool.getDedicatedConnection(connection.getTajoMasterAddr(),
+              TajoMasterClientProtocol.class, false);
+          streamConnections.put(key, client);
+        }
+      }
+    } catch (Throwable t) {
+      throw new ServiceException(t.getMessage(), t);
+    }
+
+    try {
+      return getQueryResultData(client, queryId, fetchRowNum, streamId, streamNum);
+    } catch (ServiceException e) {
+      closeStreamConnection(key);
+      throw e;
+    } catch (Throwable t) {
+      closeStreamConnection(key);
+      throw new ServiceException(t.getMessage(), t);
+    }
+  }
+
+  private void closeStreamConnection(String key) {
+    NettyClientBase client;
+    synchronized (streamConnections) {
+      client = streamConnections.remove(key);
+    }
+    if (client != null) {
+      client.close();
+    }
+  }
+
+  private void closeStreamConnections(QueryId queryId) {
+    String prefix = queryId + "#";
+    synchronized (streamConnections) {
+      Iterator<Map.Entry<String, NettyClientBase>> it = streamConnections.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, NettyClientBase> entry = it.next();
+        if (entry.getKey().startsWith(prefix)) {
+          entry.getValue().close();
+          it.remove();
+        }
+      }
+    }
+  }
+
   @Override
   public boolean updateQuery(final String sql) throws ServiceException {
 
@@ -114,6 +114,26 @@ public class TajoClientImpl extends SessionConnection implements TajoClient, Que
     return queryClient.executeJsonQueryAndGetResult(json);
   }
 
+  public int prepareQuery(final String sql) throws ServiceException {
+    return queryClient.prepareQuery(sql);
+  }
+
+  public SubmitQueryResponse executePreparedQuery(final int statementId,
+                                                  final List<QueryParameterProto> parameters)
+      throws ServiceException {
+    return queryClient.executePreparedQuery(statementId, parameters);
+  }
+
+  public ResultSet executePreparedQueryAndGetResult(final int statementId,
+                                                    final List<QueryParameterProto> parameters)
+      throws ServiceException, IOException {
+    return queryClient.executePreparedQueryAndGetResult(statementId, parameters);
+  }
+
+  public void closePreparedQuery(final int statementId) {
+    queryClient.closePreparedQuery(statementId);
+  }
+
   public QueryStatus getQueryStatus(QueryId queryId) throws ServiceException {
     return queryClient.getQueryStatus(queryId);
   }
@@ -134,6 +154,15 @@ public class TajoClientImpl extends SessionConnection implements TajoClient, Que
     return queryClient.fetchNextQueryResult(queryId, fetchRowNum);
   }
 
+  public TajoMemoryResultSet fetchNextQueryResult(final QueryId queryId, final int fetchRowNum, final int streamId,
+                                                  final int streamNum) throws ServiceException {
+    return queryClient.fetchNextQueryResult(queryId, fetchRowNum, streamId, streamNum);
+  }
+
+  public ResultSet createFetchResultSet(QueryId queryId, Schema schema, int fetchRowNum) {
+    return queryClient.createFetchResultSet(queryId, schema, fetchRowNum);
+  }
+
   public boolean updateQuery(final String sql) throws ServiceException {
     return queryClient.updateQuery(sql);
   }
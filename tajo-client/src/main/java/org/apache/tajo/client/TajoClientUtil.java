@@ -25,7 +25,6 @@ import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.ipc.ClientProtos;
-import org.apache.tajo.jdbc.FetchResultSet;
 import org.apache.tajo.jdbc.TajoMemoryResultSet;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos;
 
@@ -60,7 +59,7 @@ public class TajoClientUtil {
                                           ClientProtos.GetQueryResultResponse response, int fetchRows)
       throws IOException {
     TableDesc desc = CatalogUtil.newTableDesc(response.getTableDesc());
-    return new FetchResultSet(client, desc.getLogicalSchema(), queryId, fetchRows);
+    return client.createFetchResultSet(queryId, desc.getLogicalSchema(), fetchRows);
   }
 
   public static ResultSet createResultSet(QueryClient client, ClientProtos.SubmitQueryResponse response, int fetchRows)
@@ -77,7 +76,7 @@ public class TajoClientUtil {
         }
       }
       TableDesc tableDesc = new TableDesc(response.getTableDesc());
-      return new FetchResultSet(client, tableDesc.getLogicalSchema(), new QueryId(response.getQueryId()), fetchRowNum);
+      return client.createFetchResultSet(new QueryId(response.getQueryId()), tableDesc.getLogicalSchema(), fetchRowNum);
     } else {
       // simple eval query
       // select substr('abc', 1, 2)
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.jdbc;
+
+import org.apache.tajo.QueryId;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.client.QueryClient;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.RowStoreUtil.RowStoreDecoder;
+import org.apache.tajo.storage.Tuple;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * It reads the result files of a query from the pull servers of workers one by one. Each response
+ * consists of rows, each of which is its length followed by the bytes encoded by RowStoreUtil,
+ * and ends with a negative length.
+ */
+public class DirectFetchResultSet extends TajoResultSetBase {
+  private static final int END_OF_ROWS = -1;
+  private static final int CONNECT_TIMEOUT_MS = 30 * 1000;
+  /** a read fails if no bytes arrive in this time, so that a hung pull server does not block a reader forever */
+  private static final int READ_TIMEOUT_MS = 60 * 1000;
+
+  private QueryClient tajoClient;
+  private QueryId queryId;
+  private final List<String> resultUrls;
+  private final RowStoreDecoder decoder;
+  private int nextUrlIndex = 0;
+  private HttpURLConnection connection;
+  private DataInputStream in;
+
+  public DirectFetchResultSet(QueryClient tajoClient, Schema schema, QueryId queryId, List<String> resultUrls) {
+    super(tajoClient.getClientSideSessionVars());
+    this.tajoClient = tajoClient;
+    this.queryId = queryId;
+    this.resultUrls = resultUrls;
+    this.totalRow = Integer.MAX_VALUE;
+    this.schema = schema;
+    this.decoder = RowStoreUtil.createDecoder(schema);
+  }
+
+  public QueryId getQueryId() {
+    return queryId;
+  }
+
+  @Override
+  protected Tuple nextTuple() throws IOException {
+    while (true) {
+      if (in == null) {
+        if (nextUrlIndex >= resultUrls.size()) {
+          return null;
+        }
+        open(resultUrls.get(nextUrlIndex++));
+      }
+
+      int length = in.readInt();
+      if (length == END_OF_ROWS) {
+        closeStream();
+        continue;
+      }
+      byte[] row = new byte[length];
+      in.readFully(row);
+      return decoder.toTuple(row);
+    }
+  }
+
+  private void open(String url) throws IOException {
+    connection = (HttpURLConnection) new URL(url).openConnection();
+    connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+    connection.setReadTimeout(READ_TIMEOUT_MS);
+    if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+      String message = "Cannot fetch the result of " + queryId + " from " + connection.getURL().getHost()
+          + " (" + connection.getResponseCode() + " " + connection.getResponseMessage() + ")";
+      connection.disconnect();
+      connection = null;
+      throw new IOException(message);
+    }
+    InputStream stream = connection.getInputStream();
+    in = new DataInputStream(new BufferedInputStream(stream));
+  }
+
+  private void closeStream() {
+    if (in != null) {
+      try {
+        in.close();
+      } catch (IOException e) {
+        // ignore
+      }
+      in = null;
+    }
+    connection = null;
+  }
+
+  @Override
+  public void close() throws SQLException {
+    if (in != null && connection != null) {
+      // the rest of the response is not read, so the connection cannot be reused
+      connection.disconnect();
+    }
+    closeStream();
+    tajoClient.closeNonForwardQuery(queryId);
+  }
+}
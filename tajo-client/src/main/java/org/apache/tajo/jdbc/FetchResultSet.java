@@ -33,6 +33,11 @@ public class FetchResultSet extends TajoResultSetBase {
   private TajoMemoryResultSet currentResultSet;
   private boolean finished = false;
 
+  // the number of batches fetched ahead of the reader, and the number of parallel fetch streams
+  private final int prefetchNum;
+  private final int streamNum;
+  private ResultPrefetcher prefetcher;
+
   public FetchResultSet(QueryClient tajoClient, Schema schema, QueryId queryId, int fetchRowNum) {
     super(tajoClient.getClientSideSessionVars());
     this.tajoClient = tajoClient;
@@ -40,6 +45,24 @@ public class FetchResultSet extends TajoResultSetBase {
     this.fetchRowNum = fetchRowNum;
     this.totalRow = Integer.MAX_VALUE;
     this.schema = schema;
+    this.prefetchNum = 0;
+    this.streamNum = 1;
+  }
+
+  /**
+   * If prefetchNum is positive or streamNum is larger than one, batches are fetched by background threads
+   * while the caller reads the current batch. With more than one stream, the row order is not preserved.
+   */
+  public FetchResultSet(QueryClient tajoClient, Schema schema, QueryId queryId, int fetchRowNum,
+                        int prefetchNum, int streamNum) {
+    super(tajoClient.getClientSideSessionVars());
+    this.tajoClient = tajoClient;
+    this.queryId = queryId;
+    this.fetchRowNum = fetchRowNum;
+    this.totalRow = Integer.MAX_VALUE;
+    this.schema = schema;
+    this.prefetchNum = prefetchNum;
+    this.streamNum = streamNum;
   }
 
   public QueryId getQueryId() {
@@ -63,7 +86,7 @@ public class FetchResultSet extends TajoResultSetBase {
           currentResultSet.close();
           currentResultSet = null;
         }
-        currentResultSet = tajoClient.fetchNextQueryResult(queryId, fetchRowNum);
+        currentResultSet = fetchNextBatch();
         if (currentResultSet == null) {
           finished = true;
           return null;
@@ -85,8 +108,24 @@ public class FetchResultSet extends TajoResultSetBase {
     }
   }
 
+  private TajoMemoryResultSet fetchNextBatch() throws Exception {
+    if (prefetchNum <= 0 && streamNum <= 1) {
+      return tajoClient.fetchNextQueryResult(queryId, fetchRowNum);
+    }
+
+    if (prefetcher == null) {
+      prefetcher = new ResultPrefetcher(tajoClient, queryId, fetchRowNum, prefetchNum, streamNum);
+      prefetcher.start();
+    }
+    return prefetcher.take();
+  }
+
   @Override
   public void close() throws SQLException {
+    if (prefetcher != null) {
+      prefetcher.close();
+      prefetcher = null;
+    }
     if (currentResultSet != null) {
       currentResultSet.close();
       currentResultSet = null;
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.jdbc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.client.QueryClient;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fetches the batches of a query result with background threads, one per stream, so that
+ * the network transfer overlaps with the consumption of the previous batch.
+ */
+class ResultPrefetcher {
+  private static final Log LOG = LogFactory.getLog(ResultPrefetcher.class);
+
+  /** Put by a stream thread when the stream has no more rows */
+  private static final Object END_OF_STREAM = new Object();
+
+  private static final long CLOSE_WAIT_MS = 5000;
+
+  private final QueryClient tajoClient;
+  private final QueryId queryId;
+  private final int fetchRowNum;
+  private final BlockingQueue<Object> queue;
+  private final Thread[] streams;
+
+  private volatile boolean closed = false;
+  private volatile Throwable error;
+  private int finishedStreams = 0;
+
+  ResultPrefetcher(QueryClient tajoClient, QueryId queryId, int fetchRowNum, int prefetchNum, int streamNum) {
+    this.tajoClient = tajoClient;
+    this.queryId = queryId;
+    this.fetchRowNum = fetchRowNum;
+    this.queue = new ArrayBlockingQueue<Object>(Math.max(1, prefetchNum));
+    this.streams = new Thread[streamNum];
+    for (int i = 0; i < streamNum; i++) {
+      streams[i] = new StreamFetcher(i, streamNum);
+    }
+  }
+
+  void start() {
+    for (Thread stream : streams) {
+      stream.start();
+    }
+  }
+
+  /**
+   * @return the next fetched batch, or null if all streams are exhausted
+   */
+  TajoMemoryResultSet take() throws IOException {
+    while (finishedStreams < streams.length) {
+      Object resultSet;
+      try {
+        resultSet = queue.take();
+      } catch (InterruptedException e) {
+        throw new IOException(e.getMessage(), e);
+      }
+
+      if (resultSet == END_OF_STREAM) {
+        finishedStreams++;
+        if (error != null) {
+          throw new IOException(error.getMessage(), error);
+        }
+      } else {
+        return (TajoMemoryResultSet) resultSet;
+      }
+    }
+    return null;
+  }
+
+  void close() {
+    closed = true;
+    for (Thread stream : streams) {
+      stream.interrupt();
+    }
+    queue.clear();
+    // wait for in-flight fetches, so that the server-side scanners are not reopened after the query is closed
+    for (Thread stream : streams) {
+      try {
+        stream.join(CLOSE_WAIT_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+  }
+
+  private class StreamFetcher extends Thread {
+    private final int streamId;
+    private final int streamNum;
+
+    StreamFetcher(int streamId, int streamNum) {
+      super("ResultPrefetcher-" + queryId + "-" + streamId);
+      this.streamId = streamId;
+      this.streamNum = streamNum;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!closed) {
+          TajoMemoryResultSet resultSet = tajoClient.fetchNextQueryResult(queryId, fetchRowNum, streamId, streamNum);
+          if (resultSet == null || !resultSet.hasResult()) {
+            break;
+          }
+          queue.put(resultSet);
+        }
+      } catch (InterruptedException e) {
+        return;
+      } catch (Throwable t) {
+        if (!closed) {
+          LOG.error("Failed to fetch the result of " + queryId + " (stream " + streamId + ")", t);
+          error = t;
+        }
+      }
+
+      try {
+        if (!closed) {
+          queue.put(END_OF_STREAM);
+        }
+      } catch (InterruptedException e) {
+        // closed
+      }
+    }
+  }
+}
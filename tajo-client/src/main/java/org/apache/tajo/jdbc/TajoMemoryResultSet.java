@@ -21,6 +21,9 @@ package org.apache.tajo.jdbc;
 import com.google.protobuf.ByteString;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockProto;
+import org.apache.tajo.ipc.ClientProtos.SerializedResultSet;
+import org.apache.tajo.storage.ResultBlockUtil;
 import org.apache.tajo.storage.RowStoreUtil;
 import org.apache.tajo.storage.Tuple;
 
@@ -36,6 +39,12 @@ public class TajoMemoryResultSet extends TajoResultSetBase {
   private AtomicBoolean closed = new AtomicBoolean(false);
   private RowStoreUtil.RowStoreDecoder decoder;
 
+  // column-major blocks, which are decoded one by one when their rows are read
+  private List<ResultBlockProto> blocks;
+  private ResultBlockUtil.ResultBlockDecoder blockDecoder;
+  private int blockIndex;
+  private int blockStartRow;
+
   public TajoMemoryResultSet(QueryId queryId, Schema schema, List<ByteString> serializedTuples, int maxRowNum,
                              Map<String, String> clientSideSessionVars) {
     super(clientSideSessionVars);
@@ -47,10 +56,34 @@ public class TajoMemoryResultSet extends TajoResultSetBase {
     init();
   }
 
+  /**
+   * Create a result set of rows which are serialized either one by one or into column-major blocks.
+   */
+  public TajoMemoryResultSet(QueryId queryId, SerializedResultSet resultSet,
+                             Map<String, String> clientSideSessionVars) {
+    super(clientSideSessionVars);
+    this.queryId = queryId;
+    this.schema = new Schema(resultSet.getSchema());
+    if (resultSet.getResultBlocksCount() > 0) {
+      this.blocks = resultSet.getResultBlocksList();
+      for (ResultBlockProto block : blocks) {
+        this.totalRow += block.getRowNum();
+      }
+    } else {
+      this.serializedTuples = resultSet.getSerializedTuplesList();
+      this.totalRow = serializedTuples.size();
+      this.decoder = RowStoreUtil.createDecoder(schema);
+    }
+    init();
+  }
+
   @Override
   protected void init() {
     cur = null;
     curRow = 0;
+    blockDecoder = null;
+    blockIndex = -1;
+    blockStartRow = 0;
   }
 
   public QueryId getQueryId() {
@@ -66,17 +99,30 @@ public class TajoMemoryResultSet extends TajoResultSetBase {
     cur = null;
     curRow = -1;
     serializedTuples = null;
+    blocks = null;
+    blockDecoder = null;
   }
 
   @Override
   public void beforeFirst() throws SQLException {
-    curRow = 0;
+    init();
   }
 
   @Override
   protected Tuple nextTuple() throws IOException {
     if (curRow < totalRow) {
-      cur = decoder.toTuple(serializedTuples.get(curRow).toByteArray());
+      if (blocks != null) {
+        while (blockDecoder == null || curRow >= blockStartRow + blockDecoder.getRowNum()) {
+          if (blockDecoder != null) {
+            blockStartRow += blockDecoder.getRowNum();
+          }
+          blockIndex++;
+          blockDecoder = ResultBlockUtil.createDecoder(schema, blocks.get(blockIndex));
+        }
+        cur = blockDecoder.getTuple(curRow - blockStartRow);
+      } else {
+        cur = decoder.toTuple(serializedTuples.get(curRow).toByteArray());
+      }
       return cur;
     } else {
       return null;
@@ -84,6 +130,6 @@ public class TajoMemoryResultSet extends TajoResultSetBase {
   }
 
   public boolean hasResult() {
-    return serializedTuples.size() > 0;
+    return totalRow > 0;
   }
 }
@@ -0,0 +1,412 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import com.google.protobuf.ByteString;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.IntervalDatum;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.exception.UnknownDataTypeException;
+import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockCodec;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockProto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * It encodes result rows into column-major blocks which are sent to clients, and decodes them.
+ *
+ * Each column of a block consists of a null bitmap followed by the values of non-null rows.
+ * TEXT columns with many repeated values are dictionary-encoded. A block can be compressed as a whole.
+ */
+public class ResultBlockUtil {
+  /** the maximum number of rows in a block */
+  public static final int BLOCK_ROW_NUM = 4096;
+
+  /** blocks smaller than this are not compressed */
+  private static final int MIN_COMPRESSION_LENGTH = 1024;
+
+  private static final byte PLAIN_ENCODING = 0;
+  private static final byte DICTIONARY_ENCODING = 1;
+
+  public static ResultBlockEncoder createEncoder(Schema schema) {
+    return new ResultBlockEncoder(schema);
+  }
+
+  public static ResultBlockDecoder createDecoder(Schema schema, ResultBlockProto block) throws IOException {
+    return new ResultBlockDecoder(schema, block);
+  }
+
+  public static class ResultBlockEncoder {
+    private final Schema schema;
+    private ColumnWriter[] writers;
+    private int rowNum;
+
+    private ResultBlockEncoder(Schema schema) {
+      this.schema = schema;
+      reset();
+    }
+
+    private void reset() {
+      writers = new ColumnWriter[schema.size()];
+      for (int i = 0; i < schema.size(); i++) {
+        writers[i] = new ColumnWriter(i, schema.getColumn(i));
+      }
+      rowNum = 0;
+    }
+
+    public void add(Tuple tuple) throws IOException {
+      for (int i = 0; i < writers.length; i++) {
+        writers[i].write(rowNum, tuple);
+      }
+      rowNum++;
+    }
+
+    public int getRowNum() {
+      return rowNum;
+    }
+
+    /**
+     * Build a block of all added rows, and clear this encoder.
+     */
+    public ResultBlockProto build(ResultBlockCodec codec) throws IOException {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bos);
+      for (ColumnWriter writer : writers) {
+        writer.writeTo(rowNum, out);
+      }
+      out.flush();
+      byte[] data = bos.toByteArray();
+
+      ResultBlockProto.Builder builder = ResultBlockProto.newBuilder();
+      builder.setRowNum(rowNum);
+      builder.setRawLength(data.length);
+
+      byte[] compressed = codec == ResultBlockCodec.DEFLATE && data.length >= MIN_COMPRESSION_LENGTH ?
+          deflate(data) : null;
+      if (compressed != null && compressed.length < data.length) {
+        builder.setCodec(codec);
+        builder.setData(ByteString.copyFrom(compressed));
+      } else {
+        builder.setData(ByteString.copyFrom(data));
+      }
+
+      reset();
+      return builder.build();
+    }
+
+    public Schema getSchema() {
+      return schema;
+    }
+  }
+
+  private static class ColumnWriter {
+    private final int columnId;
+    private final Column column;
+    private final BitSet nulls = new BitSet();
+    private final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    private final DataOutputStream values = new DataOutputStream(bos);
+    private int nonNullNum = 0;
+
+    // only for TEXT columns
+    private Map<ByteBuffer, Integer> dictionary;
+    private List<byte[]> dictionaryEntries;
+    private int[] dictionaryIds;
+
+    ColumnWriter(int columnId, Column column) {
+      this.columnId = columnId;
+      this.column = column;
+      if (column.getDataType().getType() == TajoDataTypes.Type.TEXT) {
+        dictionary = new HashMap<ByteBuffer, Integer>();
+        dictionaryEntries = new ArrayList<byte[]>();
+        dictionaryIds = new int[64];
+      }
+    }
+
+    void write(int row, Tuple tuple) throws IOException {
+      Datum datum = tuple.get(columnId);
+      if (datum == null || datum.isNull() || column.getDataType().getType() == TajoDataTypes.Type.NULL_TYPE) {
+        nulls.set(row);
+        return;
+      }
+
+      switch (column.getDataType().getType()) {
+        case BOOLEAN:
+        case BIT:
+          values.writeByte(datum.asByte());
+          break;
+        case INT2:
+          values.writeShort(datum.asInt2());
+          break;
+        case INT4:
+        case DATE:
+          values.writeInt(datum.asInt4());
+          break;
+        case INT8:
+        case TIME:
+        case TIMESTAMP:
+          values.writeLong(datum.asInt8());
+          break;
+        case FLOAT4:
+          values.writeFloat(datum.asFloat4());
+          break;
+        case FLOAT8:
+          values.writeDouble(datum.asFloat8());
+          break;
+        case INTERVAL:
+          IntervalDatum interval = (IntervalDatum) datum;
+          values.writeInt(interval.getMonths());
+          values.writeLong(interval.getMilliSeconds());
+          break;
+        case TEXT:
+          addToDictionary(datum.asByteArray());
+          break;
+        case CHAR:
+        case BLOB:
+        case INET4:
+          byte[] bytes = datum.asByteArray();
+          values.writeInt(bytes.length);
+          values.write(bytes);
+          break;
+        case INET6:
+          throw new UnsupportedException(column.getDataType().getType().name());
+        default:
+          throw new RuntimeException(new UnknownDataTypeException(column.getDataType().getType().name()));
+      }
+      nonNullNum++;
+    }
+
+    private void addToDictionary(byte[] bytes) {
+      ByteBuffer key = ByteBuffer.wrap(bytes);
+      Integer id = dictionary.get(key);
+      if (id == null) {
+        id = dictionaryEntries.size();
+        dictionary.put(key, id);
+        dictionaryEntries.add(bytes);
+      }
+      if (nonNullNum == dictionaryIds.length) {
+        dictionaryIds = Arrays.copyOf(dictionaryIds, dictionaryIds.length * 2);
+      }
+      dictionaryIds[nonNullNum] = id;
+    }
+
+    void writeTo(int rowNum, DataOutputStream out) throws IOException {
+      out.write(toBitmap(nulls, rowNum));
+
+      if (dictionary != null) {
+        // a dictionary pays off only if values are repeated
+        if (dictionaryEntries.size() * 2 <= nonNullNum) {
+          out.writeByte(DICTIONARY_ENCODING);
+          out.writeInt(dictionaryEntries.size());
+          for (byte[] entry : dictionaryEntries) {
+            out.writeInt(entry.length);
+            out.write(entry);
+          }
+          for (int i = 0; i < nonNullNum; i++) {
+            out.writeInt(dictionaryIds[i]);
+          }
+        } else {
+          out.writeByte(PLAIN_ENCODING);
+          for (int i = 0; i < nonNullNum; i++) {
+            byte[] entry = dictionaryEntries.get(dictionaryIds[i]);
+            out.writeInt(entry.length);
+            out.write(entry);
+          }
+        }
+      } else {
+        values.flush();
+        bos.writeTo(out);
+      }
+    }
+  }
+
+  /**
+   * It decodes a block. Each column is decoded only when a row of the block is read at first.
+   */
+  public static class ResultBlockDecoder {
+    private final Schema schema;
+    private final int rowNum;
+    private ByteBuffer data;
+    private Datum[][] columns;
+
+    private ResultBlockDecoder(Schema schema, ResultBlockProto block) throws IOException {
+      this.schema = schema;
+      this.rowNum = block.getRowNum();
+
+      if (block.getCodec() == ResultBlockCodec.DEFLATE) {
+        this.data = ByteBuffer.wrap(inflate(block.getData().toByteArray(), block.getRawLength()));
+      } else {
+        this.data = block.getData().asReadOnlyByteBuffer();
+      }
+    }
+
+    public int getRowNum() {
+      return rowNum;
+    }
+
+    public Tuple getTuple(int row) {
+      if (columns == null) {
+        decodeColumns();
+      }
+
+      Tuple tuple = new VTuple(columns.length);
+      for (int i = 0; i < columns.length; i++) {
+        tuple.put(i, columns[i][row]);
+      }
+      return tuple;
+    }
+
+    private void decodeColumns() {
+      columns = new Datum[schema.size()][];
+      for (int i = 0; i < schema.size(); i++) {
+        columns[i] = decodeColumn(schema.getColumn(i).getDataType());
+      }
+      data = null;
+    }
+
+    private Datum[] decodeColumn(TajoDataTypes.DataType type) {
+      Datum[] values = new Datum[rowNum];
+      byte[] bitmap = new byte[(rowNum + 7) / 8];
+      data.get(bitmap);
+
+      Datum[] dictionary = null;
+      boolean plainText = false;
+      if (type.getType() == TajoDataTypes.Type.TEXT) {
+        if (data.get() == DICTIONARY_ENCODING) {
+          dictionary = new Datum[data.getInt()];
+          for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = DatumFactory.createText(readBytes(data));
+          }
+        } else {
+          plainText = true;
+        }
+      }
+
+      for (int row = 0; row < rowNum; row++) {
+        if ((bitmap[row >> 3] & (1 << (row & 7))) != 0) {
+          values[row] = NullDatum.get();
+          continue;
+        }
+
+        switch (type.getType()) {
+          case BOOLEAN: values[row] = DatumFactory.createBool(data.get()); break;
+          case BIT: values[row] = DatumFactory.createBit(data.get()); break;
+          case INT2: values[row] = DatumFactory.createInt2(data.getShort()); break;
+          case INT4:
+          case DATE:
+            values[row] = DatumFactory.createFromInt4(type, data.getInt());
+            break;
+          case INT8:
+          case TIME:
+          case TIMESTAMP:
+            values[row] = DatumFactory.createFromInt8(type, data.getLong());
+            break;
+          case FLOAT4: values[row] = DatumFactory.createFloat4(data.getFloat()); break;
+          case FLOAT8: values[row] = DatumFactory.createFloat8(data.getDouble()); break;
+          case INTERVAL:
+            int month = data.getInt();
+            long milliseconds = data.getLong();
+            values[row] = new IntervalDatum(month, milliseconds);
+            break;
+          case TEXT:
+            values[row] = plainText ? DatumFactory.createText(readBytes(data)) : dictionary[data.getInt()];
+            break;
+          case CHAR: values[row] = DatumFactory.createChar(readBytes(data)); break;
+          case BLOB: values[row] = DatumFactory.createBlob(readBytes(data)); break;
+          case INET4: values[row] = DatumFactory.createInet4(readBytes(data)); break;
+          case INET6:
+            throw new UnsupportedException(type.getType().name());
+          default:
+            throw new RuntimeException(new UnknownDataTypeException(type.getType().name()));
+        }
+      }
+      return values;
+    }
+
+    public Schema getSchema() {
+      return schema;
+    }
+  }
+
+  private static byte[] readBytes(ByteBuffer bb) {
+    byte[] bytes = new byte[bb.getInt()];
+    bb.get(bytes);
+    return bytes;
+  }
+
+  private static byte[] toBitmap(BitSet bits, int bitNum) {
+    byte[] bitmap = new byte[(bitNum + 7) / 8];
+    for (int i = bits.nextSetBit(0); i >= 0 && i < bitNum; i = bits.nextSetBit(i + 1)) {
+      bitmap[i >> 3] |= 1 << (i & 7);
+    }
+    return bitmap;
+  }
+
+  private static byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 2);
+      byte[] buf = new byte[8192];
+      while (!deflater.finished()) {
+        int len = deflater.deflate(buf);
+        bos.write(buf, 0, len);
+      }
+      return bos.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] data, int rawLength) throws IOException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      byte[] raw = new byte[rawLength];
+      int offset = 0;
+      while (offset < rawLength && !inflater.finished()) {
+        int len = inflater.inflate(raw, offset, rawLength - offset);
+        if (len == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        offset += len;
+      }
+      if (offset != rawLength) {
+        throw new IOException("Corrupted result block: expected " + rawLength + " bytes, but " + offset);
+      }
+      return raw;
+    } catch (DataFormatException e) {
+      throw new IOException(e.getMessage(), e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -29,6 +29,7 @@ public enum QueryVars implements ConfigKey {
   OUTPUT_OVERWRITE,
   OUTPUT_AS_DIRECTORY,
   OUTPUT_PER_FILE_SIZE,
+  QUERY_MASTER_ATTEMPT,
   ;
 
   QueryVars() {
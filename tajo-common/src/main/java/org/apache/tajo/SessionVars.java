@@ -103,6 +103,21 @@ public enum SessionVars implements ConfigKey {
       Integer.class, Validators.min("1")),
   TABLE_PARTITION_PER_SHUFFLE_SIZE(ConfVars.$DIST_QUERY_TABLE_PARTITION_VOLUME,
       "shuffle output size for partition table write (mb)", DEFAULT, Long.class, Validators.min("1")),
+  JOIN_RUNTIME_FILTER_ENABLED(ConfVars.$DIST_QUERY_JOIN_RUNTIME_FILTER_ENABLED,
+      "filtering the probe side of a repartition join by the join key range of the other side", DEFAULT,
+      Boolean.class, Validators.bool()),
+  SPECULATIVE_EXECUTION_ENABLED(ConfVars.$DIST_QUERY_SPECULATIVE_EXECUTION_ENABLED,
+      "launching backup attempts of straggler tasks of intermediate stages", DEFAULT, Boolean.class,
+      Validators.bool()),
+  LEAF_TASK_PACKING_ENABLED(ConfVars.$DIST_QUERY_LEAF_TASK_PACKING_ENABLED,
+      "packing small fragments of a leaf stage into a task up to the task size", DEFAULT, Boolean.class,
+      Validators.bool()),
+  CHECKPOINT_ENABLED(ConfVars.$DIST_QUERY_CHECKPOINT_ENABLED,
+      "persisting completed stages so that a query can be resumed by another QueryMaster", DEFAULT,
+      Boolean.class, Validators.bool()),
+  SHUFFLE_REUSE_ENABLED(ConfVars.$DIST_QUERY_SHUFFLE_REUSE_ENABLED,
+      "reusing hash shuffle outputs of the same subplans retained by previous queries", DEFAULT,
+      Boolean.class, Validators.bool()),
 
   GROUPBY_MULTI_LEVEL_ENABLED(ConfVars.$GROUPBY_MULTI_LEVEL_ENABLED, "Multiple level groupby enabled", DEFAULT,
       Boolean.class, Validators.bool()),
@@ -110,6 +125,9 @@ public enum SessionVars implements ConfigKey {
   // for physical Executors
   EXTSORT_BUFFER_SIZE(ConfVars.$EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE, "sort buffer size for external sort (mb)", DEFAULT,
       Long.class, Validators.min("0")),
+  TOPN_SORT_THRESHOLD(ConfVars.$EXECUTOR_TOPN_SORT_THRESHOLD,
+      "maximum limit rows for which a bounded heap top-n sort is used instead of a full sort", DEFAULT,
+      Long.class, Validators.min("0")),
   HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_HASH_JOIN_SIZE_THRESHOLD, "limited size for hash join (mb)", DEFAULT,
       Long.class, Validators.min("0")),
   INNER_HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_INNER_HASH_JOIN_SIZE_THRESHOLD,
@@ -118,11 +136,18 @@ public enum SessionVars implements ConfigKey {
       DEFAULT, Long.class, Validators.min("0")),
   HASH_GROUPBY_SIZE_LIMIT(ConfVars.$EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD, "limited size for hash groupby (mb)",
       DEFAULT, Long.class, Validators.min("0")),
+  SCAN_PARALLELISM(ConfVars.$EXECUTOR_SCAN_PARALLELISM, "the number of threads reading the input of a leaf task",
+      DEFAULT, Integer.class, Validators.min("1")),
+  SCAN_MORSEL_SIZE(ConfVars.$EXECUTOR_SCAN_MORSEL_SIZE, "the unit size of input read by a thread (mb)", DEFAULT,
+      Integer.class, Validators.min("1")),
   MAX_OUTPUT_FILE_SIZE(ConfVars.$MAX_OUTPUT_FILE_SIZE, "Maximum per-output file size (mb). 0 means infinite.", DEFAULT,
       Long.class, Validators.min("0")),
   NULL_CHAR(ConfVars.$TEXT_NULL, "null char of text file output", DEFAULT),
   CODEGEN(ConfVars.$CODEGEN, "Runtime code generation enabled (experiment)", DEFAULT),
 
+  // Query Scheduler ------------------------------------------------------------
+  QUERY_QUEUE(ConfVars.$QUERY_QUEUE, "the scheduler queue to which queries are submitted", DEFAULT),
+
   // Behavior Control ---------------------------------------------------------
   ARITHABORT(ConfVars.$BEHAVIOR_ARITHMETIC_ABORT,
       "If true, a running query will be terminated when an overflow or divide-by-zero occurs.", DEFAULT),
@@ -152,6 +152,16 @@ public class TajoConf extends Configuration {
     TAJO_QUERYMASTER_DISK_SLOT("tajo.qm.resource.disk.slots", 0.0f, Validators.min("0.0f")),
     TAJO_QUERYMASTER_MEMORY_MB("tajo.qm.resource.memory-mb", 512, Validators.min("64")),
 
+    // QueryMaster speculative execution
+    QUERYMASTER_SPECULATIVE_SLOW_TASK_RATIO("tajo.qm.speculative.slow-task-ratio", 0.5f,
+        Validators.range("0.0f", "1.0f")),
+    QUERYMASTER_SPECULATIVE_MIN_RUNTIME("tajo.qm.speculative.min-runtime-ms", 10 * 1000L, Validators.min("0")),
+    QUERYMASTER_SPECULATIVE_MAX_TASK_RATIO("tajo.qm.speculative.max-task-ratio", 0.1f,
+        Validators.range("0.0f", "1.0f")),
+
+    // QueryMaster failover, which is only applied to queries with CHECKPOINT_ENABLED
+    QUERYMASTER_FAILOVER_MAX_ATTEMPTS("tajo.qm.failover.max-attempts", 1, Validators.min("0")),
+
     // Tajo Worker Service Addresses
     WORKER_INFO_ADDRESS("tajo.worker.info-http.address", "0.0.0.0:28080", Validators.networkAddr()),
     WORKER_QM_INFO_ADDRESS("tajo.worker.qm-info-http.address", "0.0.0.0:28081", Validators.networkAddr()),
@@ -168,6 +178,9 @@ public class TajoConf extends Configuration {
     WORKER_RESOURCE_AVAILABLE_MEMORY_MB("tajo.worker.resource.memory-mb", 1024, Validators.min("64")),
     WORKER_RESOURCE_AVAILABLE_DISKS("tajo.worker.resource.disks", 1.0f),
     WORKER_EXECUTION_MAX_SLOTS("tajo.worker.parallel-execution.max-num", 2),
+    WORKER_TASK_DISPATCH_BATCH_SIZE("tajo.worker.task-dispatch.batch-size", 8, Validators.min("1")),
+    WORKER_TASK_EXECUTOR_KEEP_ALIVE("tajo.worker.task-executor.keep-alive-sec", 300, Validators.min("1")),
+    WORKER_FETCHER_THREAD_NUM("tajo.worker.fetcher.thread-num", 16, Validators.min("1")),
     WORKER_RESOURCE_DFS_DIR_AWARE("tajo.worker.resource.dfs-dir-aware", false, Validators.bool()),
 
     // Tajo Worker Dedicated Resources
@@ -175,6 +188,10 @@ public class TajoConf extends Configuration {
     WORKER_RESOURCE_DEDICATED_MEMORY_RATIO("tajo.worker.resource.dedicated-memory-ratio", 0.8f, 
         Validators.range("0.0f", "1.0f")),
 
+    // Tajo Worker Memory Manager
+    WORKER_MEMORY_MANAGER_CAPACITY_RATIO("tajo.worker.memory-manager.capacity-ratio", 0.7f,
+        Validators.range("0.0f", "1.0f")),
+
     // Tajo History
     WORKER_HISTORY_EXPIRE_PERIOD("tajo.worker.history.expire-interval-minutes", 60), // 1 hours
     QUERYMASTER_HISTORY_EXPIRE_PERIOD("tajo.qm.history.expire-interval-minutes", 6 * 60), // 6 hours
@@ -187,6 +204,11 @@ public class TajoConf extends Configuration {
 
     // Catalog
     CATALOG_ADDRESS("tajo.catalog.client-rpc.address", "localhost:26005", Validators.networkAddr()),
+    // caches table, partition method and function lookups in catalog clients
+    CATALOG_CLIENT_CACHE_ENABLED("tajo.catalog.client.cache.enabled", false, Validators.bool()),
+    // how often a catalog client checks the catalog version (0: on every lookup)
+    CATALOG_CLIENT_CACHE_VALIDATION_INTERVAL_MS("tajo.catalog.client.cache.validation-interval-ms", 1000L,
+        Validators.min("0")),
 
 
     // for Yarn Resource Manager ----------------------------------------------
@@ -199,14 +221,42 @@ public class TajoConf extends Configuration {
     // Query Configuration
     QUERY_SESSION_TIMEOUT("tajo.query.session.timeout-sec", 60, Validators.min("0")),
 
+    // Query Scheduler
+    QUERY_SCHEDULER_CLASS("tajo.master.scheduler.class", "org.apache.tajo.master.scheduler.SimpleFifoScheduler",
+        Validators.groups(Validators.notNull(), Validators.clazz())),
+    FAIR_SCHEDULER_QUEUES("tajo.master.scheduler.fair.queues", "default"),
+    FAIR_SCHEDULER_MAX_RUNNING("tajo.master.scheduler.fair.max-running-queries", 4, Validators.min("1")),
+    FAIR_SCHEDULER_USER_MAX_RUNNING("tajo.master.scheduler.fair.user-max-running-queries", 0, Validators.min("0")),
+
+    // Query Result Cache
+    QUERY_RESULT_CACHE_ENABLED("tajo.master.query-result-cache.enabled", false, Validators.bool()),
+    QUERY_RESULT_CACHE_MAX_ENTRIES("tajo.master.query-result-cache.max-entries", 100, Validators.min("1")),
+    QUERY_RESULT_CACHE_MAX_SIZE_MB("tajo.master.query-result-cache.max-size-mb", (long) 1024, Validators.min("1")),
+
+    // Retained shuffle outputs which can be reused by later queries
+    SHUFFLE_REUSE_TTL_SEC("tajo.master.shuffle-reuse.ttl-sec", 600, Validators.min("1")),
+    SHUFFLE_REUSE_MAX_SIZE_MB("tajo.master.shuffle-reuse.max-size-mb", (long) 10240, Validators.min("1")),
+
+    // the time for which a client can read a result file from pull servers with a URL issued by TajoMaster
+    RESULT_DIRECT_FETCH_TOKEN_TTL_SEC("tajo.master.result.direct-fetch.token-ttl-sec", 3600, Validators.min("1")),
+
     // Shuffle Configuration --------------------------------------------------
     PULLSERVER_PORT("tajo.pullserver.port", 0, Validators.range("0", "65535")),
     SHUFFLE_SSL_ENABLED_KEY("tajo.pullserver.ssl.enabled", false, Validators.bool()),
+    // the maximum number of concurrent reads of a local disk (0: unlimited and not scheduled)
+    PULLSERVER_DISK_MAX_CONCURRENT_READS("tajo.pullserver.disk.max-concurrent-reads", 0, Validators.min("0")),
+    // the maximum number of scheduled transfers in progress per local disk, beyond which requests are rejected
+    PULLSERVER_DISK_MAX_PENDING_TRANSFERS("tajo.pullserver.disk.max-pending-transfers", 256, Validators.min("0")),
+    // the maximum total bandwidth of a pull server (MB/s, 0: unlimited)
+    PULLSERVER_MAX_BANDWIDTH_MB("tajo.pullserver.max-bandwidth-mb", 0, Validators.min("0")),
     SHUFFLE_FILE_FORMAT("tajo.shuffle.file-format", "RAW"),
+    // the maximum number of fetchers of a task runner running at once on the fetcher pool of a worker
     SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM("tajo.shuffle.fetcher.parallel-execution.max-num", 2),
     SHUFFLE_FETCHER_CHUNK_MAX_SIZE("tajo.shuffle.fetcher.chunk.max-size",  8192),
     SHUFFLE_FETCHER_READ_TIMEOUT("tajo.shuffle.fetcher.read.timeout-sec", 120),
     SHUFFLE_FETCHER_READ_RETRY_MAX_NUM("tajo.shuffle.fetcher.read.retry.max-num", 20),
+    // the maximum number of hash shuffle partitions fetched from a host by a single request (1: disabled)
+    SHUFFLE_FETCHER_BATCH_MAX_PARTITIONS("tajo.shuffle.fetcher.batch.max-partitions", 64, Validators.min("1")),
     SHUFFLE_HASH_APPENDER_BUFFER_SIZE("tajo.shuffle.hash.appender.buffer.size", 10000),
     SHUFFLE_HASH_APPENDER_PAGE_VOLUME("tajo.shuffle.hash.appender.page.volumn-mb", 30),
     HASH_SHUFFLE_PARENT_DIRS("tajo.hash.shuffle.parent.dirs.count", 10),
@@ -214,11 +264,15 @@ public class TajoConf extends Configuration {
     // Storage Configuration --------------------------------------------------
     ROWFILE_SYNC_INTERVAL("rowfile.sync.interval", 100),
     MINIMUM_SPLIT_SIZE("tajo.min.split.size", (long) 1),
+    // per-file statistics used to skip data files which cannot satisfy a scan qual
+    FILE_STATS_ENABLED("tajo.storage.file-stats.enabled", true, Validators.bool()),
     // for RCFile
     HIVEUSEEXPLICITRCFILEHEADER("tajo.exec.rcfile.use.explicit.header", true, Validators.bool()),
 
     // RPC --------------------------------------------------------------------
     RPC_POOL_MAX_IDLE("tajo.rpc.pool.idle.max", 10),
+    // the maximum delay of a flush, during which small messages of a connection are coalesced (0: disabled)
+    RPC_FLUSH_WINDOW_MICROS("tajo.rpc.flush.window-micros", 0L),
 
     //  Internal RPC Client
     INTERNAL_RPC_CLIENT_WORKER_THREAD_NUM("tajo.internal.rpc.client.worker-thread-num",
@@ -266,6 +320,10 @@ public class TajoConf extends Configuration {
     EXECUTOR_EXTERNAL_SORT_FANOUT("tajo.executor.external-sort.fanout-num", 8),
 
     EXECUTOR_INNER_JOIN_INMEMORY_HASH_TABLE_SIZE("tajo.executor.join.inner.in-memory-table-num", (long)1000000),
+    // Compiled expression classes shared by all queries in a worker
+    EXECUTOR_CODEGEN_CACHE_MAX_ENTRIES("tajo.executor.codegen.cache.max-entries", 4096, Validators.min("0")),
+    EXECUTOR_CODEGEN_CACHE_CLASSES_PER_LOADER("tajo.executor.codegen.cache.classes-per-loader", 256,
+        Validators.min("1")),
 
     // Metrics ----------------------------------------------------------------
     METRICS_PROPERTY_FILENAME("tajo.metrics.property.file", "tajo-metrics.properties"),
@@ -312,11 +370,18 @@ public class TajoConf extends Configuration {
     $DIST_QUERY_JOIN_PARTITION_VOLUME("tajo.dist-query.join.partition-volume-mb", 128, Validators.min("1")),
     $DIST_QUERY_GROUPBY_PARTITION_VOLUME("tajo.dist-query.groupby.partition-volume-mb", 256, Validators.min("1")),
     $DIST_QUERY_TABLE_PARTITION_VOLUME("tajo.dist-query.table-partition.task-volume-mb", 256, Validators.min("1")),
+    $DIST_QUERY_JOIN_RUNTIME_FILTER_ENABLED("tajo.dist-query.join.runtime-filter.enabled", true, Validators.bool()),
+    $DIST_QUERY_SPECULATIVE_EXECUTION_ENABLED("tajo.dist-query.speculative-execution.enabled", true,
+        Validators.bool()),
+    $DIST_QUERY_LEAF_TASK_PACKING_ENABLED("tajo.dist-query.leaf-task.packing-enabled", true, Validators.bool()),
+    $DIST_QUERY_CHECKPOINT_ENABLED("tajo.dist-query.checkpoint.enabled", false, Validators.bool()),
+    $DIST_QUERY_SHUFFLE_REUSE_ENABLED("tajo.dist-query.shuffle-reuse.enabled", false, Validators.bool()),
 
     $GROUPBY_MULTI_LEVEL_ENABLED("tajo.dist-query.groupby.multi-level-aggr", true),
 
     // for physical Executors
     $EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE("tajo.executor.external-sort.buffer-mb", 200L),
+    $EXECUTOR_TOPN_SORT_THRESHOLD("tajo.executor.sort.topn-threshold-rows", 100000L, Validators.min("0")),
     $EXECUTOR_HASH_JOIN_SIZE_THRESHOLD("tajo.executor.join.common.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
     $EXECUTOR_INNER_HASH_JOIN_SIZE_THRESHOLD("tajo.executor.join.inner.in-memory-hash-threshold-bytes",
@@ -325,8 +390,13 @@ public class TajoConf extends Configuration {
         (long)256 * 1048576),
     $EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD("tajo.executor.groupby.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
+    $EXECUTOR_SCAN_PARALLELISM("tajo.executor.scan.parallelism", 1, Validators.min("1")),
+    $EXECUTOR_SCAN_MORSEL_SIZE("tajo.executor.scan.morsel-size-mb", 16, Validators.min("1")),
     $MAX_OUTPUT_FILE_SIZE("tajo.query.max-outfile-size-mb", 0), // zero means infinite
-    $CODEGEN("tajo.executor.codegen.enabled", false), // Runtime code generation
+    $CODEGEN("tajo.executor.codegen.enabled", true), // Runtime code generation
+
+    // Query Scheduler
+    $QUERY_QUEUE("tajo.query.queue", "default"),
 
     // Client -----------------------------------------------------------------
     $CLIENT_SESSION_EXPIRY_TIME("tajo.client.session.expiry-time-sec", 3600), // default time is one hour.
@@ -360,6 +430,11 @@ public class TajoConf extends Configuration {
 
     // ResultSet ---------------------------------------------------------
     $RESULT_SET_FETCH_ROWNUM("tajo.resultset.fetch.rownum", 200),
+    $RESULT_SET_BLOCK_FORMAT_ENABLED("tajo.resultset.block-format.enabled", true),
+    $RESULT_SET_COMPRESSION_ENABLED("tajo.resultset.compression.enabled", false),
+    $RESULT_SET_PREFETCH_NUM("tajo.resultset.prefetch.num", 0),
+    $RESULT_SET_FETCH_PARALLELISM("tajo.resultset.fetch.parallelism", 1),
+    $RESULT_SET_DIRECT_FETCH_ENABLED("tajo.resultset.direct-fetch.enabled", false),
     ;
 
     public final String varname;
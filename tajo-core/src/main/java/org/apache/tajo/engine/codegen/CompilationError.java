@@ -25,6 +25,10 @@ public class CompilationError extends RuntimeException {
     super(message);
   }
 
+  public CompilationError(String message, Throwable t) {
+    super(message, t);
+  }
+
   public CompilationError(EvalNode evalNode, Throwable t, byte [] clazz) {
     super("Compilation Error: " + evalNode.toString() + "\n\nBYTES CODE DUMP:\n" + CodeGenUtils.disassemble(clazz), t);
   }
@@ -0,0 +1,316 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.proto.CatalogProtos.SchemaProto;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.expr.ConstEval;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.EvalNodeVisitor;
+import org.apache.tajo.plan.expr.EvalType;
+import org.apache.tajo.plan.serder.EvalNodeSerializer;
+import org.apache.tajo.plan.serder.PlanProto;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CompiledEvalCache keeps the classes generated for expressions, and it is shared by all execution blocks
+ * of all queries running in a worker.
+ *
+ * A class is looked up by a fingerprint of an input schema and an expression whose scalar constants are replaced
+ * by their types. Scalar constants are passed to the constructor of a generated class, so expressions which differ
+ * only in those constants share a class. Constants embedded in a class (e.g., IN lists, LIKE patterns, and CASE
+ * WHEN switch keys) must be the same as the ones of the expression from which the class was generated.
+ *
+ * Classes are defined by a sequence of class loaders, each of which defines a limited number of classes.
+ * Entries are evicted in LRU order, and a class loader can be unloaded by JVM once all of its classes are evicted
+ * and the evals instantiated from them are released.
+ */
+public class CompiledEvalCache {
+  private static final Log LOG = LogFactory.getLog(CompiledEvalCache.class);
+
+  private final int maxEntries;
+  private final int classesPerLoader;
+
+  /** fingerprint -> generated class. It is kept in access order for LRU eviction. */
+  private final LinkedHashMap<Fingerprint, CacheEntry> entries =
+      new LinkedHashMap<Fingerprint, CacheEntry>(16, 0.75f, true);
+  /** the class loader to which new classes are defined */
+  private LoaderGroup currentGroup = new LoaderGroup();
+
+  private final AtomicLong hitNum = new AtomicLong();
+  private final AtomicLong missNum = new AtomicLong();
+  private final AtomicLong evictionNum = new AtomicLong();
+  private final AtomicLong releasedLoaderNum = new AtomicLong();
+
+  public CompiledEvalCache(TajoConf conf) {
+    this.maxEntries = conf.getIntVar(ConfVars.EXECUTOR_CODEGEN_CACHE_MAX_ENTRIES);
+    this.classesPerLoader = conf.getIntVar(ConfVars.EXECUTOR_CODEGEN_CACHE_CLASSES_PER_LOADER);
+  }
+
+  /**
+   * Return a compiled eval of a given expression. The class of an equivalent expression is reused if it is cached.
+   */
+  public EvalNode compile(Schema schema, EvalNode eval) throws CompilationError {
+    List<ConstEval> constants = findConstants(eval);
+    Fingerprint fingerprint;
+    try {
+      fingerprint = new Fingerprint(schema, eval);
+    } catch (Throwable t) {
+      // an expression which cannot be serialized is compiled without being cached.
+      LOG.debug("Cannot make a fingerprint of " + eval + ": " + t.getMessage());
+      missNum.incrementAndGet();
+      return new EvalCodeGenerator(nextLoader().loader).compile(schema, eval);
+    }
+
+    CacheEntry entry;
+    synchronized (entries) {
+      entry = entries.get(fingerprint);
+    }
+    if (entry != null) {
+      Datum [] params = entry.bind(constants);
+      if (params != null) {
+        hitNum.incrementAndGet();
+        return entry.compiled.newInstance(eval, params);
+      }
+    }
+    missNum.incrementAndGet();
+
+    LoaderGroup group = nextLoader();
+    EvalCodeGenerator.CompiledClass compiled = new EvalCodeGenerator(group.loader).generate(schema, eval);
+    CacheEntry newEntry = CacheEntry.create(group, compiled, constants);
+    if (newEntry != null) {
+      put(fingerprint, newEntry);
+    }
+
+    Datum [] params = new Datum[compiled.getParams().size()];
+    for (int i = 0; i < params.length; i++) {
+      params[i] = compiled.getParams().get(i).getValue();
+    }
+    return compiled.newInstance(eval, params);
+  }
+
+  private LoaderGroup nextLoader() {
+    synchronized (entries) {
+      if (currentGroup.definedNum >= classesPerLoader) {
+        LoaderGroup previous = currentGroup;
+        currentGroup = new LoaderGroup();
+        releaseIfUnused(previous);
+      }
+      currentGroup.definedNum++;
+      return currentGroup;
+    }
+  }
+
+  private void put(Fingerprint fingerprint, CacheEntry entry) {
+    if (maxEntries == 0) {
+      return;
+    }
+
+    synchronized (entries) {
+      CacheEntry previous = entries.put(fingerprint, entry);
+      if (previous != null) {
+        release(previous);
+      }
+      entry.group.cachedNum++;
+
+      Iterator<Map.Entry<Fingerprint, CacheEntry>> it = entries.entrySet().iterator();
+      while (entries.size() > maxEntries && it.hasNext()) {
+        CacheEntry evicted = it.next().getValue();
+        it.remove();
+        release(evicted);
+        evictionNum.incrementAndGet();
+      }
+    }
+  }
+
+  private void release(CacheEntry entry) {
+    entry.group.cachedNum--;
+    releaseIfUnused(entry.group);
+  }
+
+  private void releaseIfUnused(LoaderGroup group) {
+    // the loader is no longer referred by this cache
+    if (group != currentGroup && group.cachedNum == 0 && !group.released) {
+      group.released = true;
+      releasedLoaderNum.incrementAndGet();
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("A class loader of " + group.definedNum + " compiled evals is released");
+      }
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHitNum() {
+    return hitNum.get();
+  }
+
+  public long getMissNum() {
+    return missNum.get();
+  }
+
+  public long getEvictionNum() {
+    return evictionNum.get();
+  }
+
+  public long getReleasedLoaderNum() {
+    return releasedLoaderNum.get();
+  }
+
+  /**
+   * Find all constants in the post order, which is the same for structurally equivalent expressions.
+   */
+  private static List<ConstEval> findConstants(EvalNode eval) {
+    final List<ConstEval> constants = Lists.newArrayList();
+    eval.postOrder(new EvalNodeVisitor() {
+      @Override
+      public void visit(EvalNode node) {
+        if (node.getType() == EvalType.CONST) {
+          constants.add((ConstEval) node);
+        }
+      }
+    });
+    return constants;
+  }
+
+  private static class LoaderGroup {
+    final TajoClassLoader loader = new TajoClassLoader();
+    /** the number of classes defined by this loader */
+    int definedNum = 0;
+    /** the number of classes of this loader which are still cached */
+    int cachedNum = 0;
+    boolean released = false;
+  }
+
+  private static class CacheEntry {
+    final LoaderGroup group;
+    final EvalCodeGenerator.CompiledClass compiled;
+    /** the position of the constant given to each constructor parameter */
+    final int [] paramPositions;
+    /** the values of the constants which are embedded in the class, or null for parameterized ones */
+    final Datum [] embedded;
+
+    private CacheEntry(LoaderGroup group, EvalCodeGenerator.CompiledClass compiled, int [] paramPositions,
+                       Datum [] embedded) {
+      this.group = group;
+      this.compiled = compiled;
+      this.paramPositions = paramPositions;
+      this.embedded = embedded;
+    }
+
+    /**
+     * @return a cache entry, or NULL if some parameters of the class cannot be located in the expression
+     */
+    static CacheEntry create(LoaderGroup group, EvalCodeGenerator.CompiledClass compiled,
+                             List<ConstEval> constants) {
+      int [] paramPositions = new int[compiled.getParams().size()];
+      Datum [] embedded = new Datum[constants.size()];
+      for (int i = 0; i < constants.size(); i++) {
+        embedded[i] = constants.get(i).getValue();
+      }
+
+      for (int paramIdx = 0; paramIdx < paramPositions.length; paramIdx++) {
+        int position = -1;
+        for (int i = 0; i < constants.size(); i++) {
+          if (constants.get(i) == compiled.getParams().get(paramIdx)) {
+            position = i;
+            break;
+          }
+        }
+        if (position < 0) {
+          return null;
+        }
+        paramPositions[paramIdx] = position;
+        embedded[position] = null;
+      }
+      return new CacheEntry(group, compiled, paramPositions, embedded);
+    }
+
+    /**
+     * @return the constructor parameters for a given expression, or NULL if the class cannot be used for it
+     */
+    Datum [] bind(List<ConstEval> constants) {
+      if (constants.size() != embedded.length) {
+        return null;
+      }
+      for (int i = 0; i < embedded.length; i++) {
+        if (embedded[i] != null && !embedded[i].equals(constants.get(i).getValue())) {
+          return null;
+        }
+      }
+
+      Datum [] params = new Datum[paramPositions.length];
+      for (int i = 0; i < paramPositions.length; i++) {
+        params[i] = constants.get(paramPositions[i]).getValue();
+      }
+      return params;
+    }
+  }
+
+  private static class Fingerprint {
+    final SchemaProto schema;
+    final PlanProto.EvalNodeTree eval;
+    final int hashCode;
+
+    Fingerprint(Schema schema, EvalNode eval) {
+      this.schema = schema == null ? null : schema.getProto();
+
+      PlanProto.EvalNodeTree.Builder builder = EvalNodeSerializer.serialize(eval).toBuilder();
+      for (PlanProto.EvalNode.Builder node : builder.getNodesBuilderList()) {
+        if (node.hasConst() && EvalCodeGenContext.isParameterizable(node.getDataType().getType())) {
+          // keep only the type of a constant
+          node.setConst(PlanProto.ConstEval.newBuilder().setValue(
+              PlanProto.Datum.newBuilder().setType(node.getConst().getValue().getType())));
+        }
+      }
+      this.eval = builder.build();
+      this.hashCode = Objects.hashCode(this.schema, this.eval);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof Fingerprint) {
+        Fingerprint other = (Fingerprint) obj;
+        return Objects.equal(schema, other.schema) && eval.equals(other.eval);
+      }
+      return false;
+    }
+  }
+}
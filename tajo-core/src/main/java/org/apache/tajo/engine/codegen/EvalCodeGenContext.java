@@ -18,6 +18,7 @@
 
 package org.apache.tajo.engine.codegen;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.common.TajoDataTypes;
@@ -30,6 +31,7 @@ import org.apache.tajo.org.objectweb.asm.commons.GeneratorAdapter;
 import org.apache.tajo.plan.expr.*;
 import org.apache.tajo.storage.Tuple;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
@@ -39,6 +41,8 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
   final ClassWriter classWriter;
   final EvalNode evalNode;
   final Map<EvalNode, String> symbols;
+  /** constants which are passed to the constructor instead of being embedded in the bytecode */
+  final List<ConstEval> params;
   int seqId = 0;
 
   public EvalCodeGenContext(String className, Schema schema, ClassWriter classWriter, EvalNode evalNode) {
@@ -47,11 +51,10 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
     this.schema = schema;
     this.evalNode = evalNode;
     this.symbols = Maps.newHashMap();
+    this.params = Lists.newArrayList();
 
     emitClassDefinition();
     emitMemberFields();
-    classWriter.visitEnd();
-    emitConstructor();
 
     String methodName = "eval";
     String methodDesc = TajoGeneratorAdapter.getMethodDescription(Datum.class, new Class[]{Schema.class, Tuple.class});
@@ -74,6 +77,94 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
     builder.visit(this, evalNode, new Stack<EvalNode>());
   }
 
+  /**
+   * @return True if constants of a given type are passed to the constructor of a generated class
+   */
+  public static boolean isParameterizable(TajoDataTypes.Type type) {
+    switch (type) {
+    case BOOLEAN:
+    case INT1:
+    case INT2:
+    case INT4:
+    case DATE:
+    case INT8:
+    case TIMESTAMP:
+    case TIME:
+    case FLOAT4:
+    case FLOAT8:
+    case CHAR:
+    case TEXT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static Class getParamClass(ConstEval constEval) {
+    switch (constEval.getValueType().getType()) {
+    case INT8:
+    case TIMESTAMP:
+    case TIME:
+      return long.class;
+    case FLOAT4:
+      return float.class;
+    case FLOAT8:
+      return double.class;
+    case CHAR:
+    case TEXT:
+      return String.class;
+    default:
+      return int.class;
+    }
+  }
+
+  private static String getParamGetter(ConstEval constEval) {
+    switch (constEval.getValueType().getType()) {
+    case INT8:
+    case TIMESTAMP:
+    case TIME:
+      return "asInt8";
+    case FLOAT4:
+      return "asFloat4";
+    case FLOAT8:
+      return "asFloat8";
+    case CHAR:
+    case TEXT:
+      return "asChars";
+    default:
+      return "asInt4";
+    }
+  }
+
+  /**
+   * Push a parameterized constant. Its value is copied from the constructor argument into a member field,
+   * so that a generated class can be reused for expressions which differ only in their constants.
+   */
+  public void emitLoadParam(ConstEval constEval) {
+    int paramIdx = -1;
+    for (int i = 0; i < params.size(); i++) {
+      if (params.get(i) == constEval) {
+        paramIdx = i;
+        break;
+      }
+    }
+
+    if (paramIdx < 0) {
+      paramIdx = params.size();
+      params.add(constEval);
+      classWriter.visitField(Opcodes.ACC_PRIVATE, getParamName(paramIdx), getDescription(getParamClass(constEval)),
+          null, null);
+    }
+
+    aload(0);
+    methodvisitor.visitFieldInsn(Opcodes.GETFIELD, owner, getParamName(paramIdx),
+        getDescription(getParamClass(constEval)));
+  }
+
+  private static String getParamName(int paramIdx) {
+    return "PARAM_" + paramIdx;
+  }
+
   public static void emitCreateSchema(TajoGeneratorAdapter adapter, MethodVisitor mv, Schema schema) {
     mv.visitLdcInsn(schema.toJson());
     adapter.invokeStatic(EvalCodeGenerator.class, "createSchema", Schema.class, new Class[] {String.class});
@@ -97,13 +188,26 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
 
   public void emitConstructor() {
     // constructor method
-    MethodVisitor initMethod = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+    String initDesc = TajoGeneratorAdapter.getMethodDescription(void.class, new Class[]{Datum[].class});
+    MethodVisitor initMethod = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", initDesc, null, null);
     initMethod.visitCode();
     initMethod.visitVarInsn(Opcodes.ALOAD, 0);
     initMethod.visitMethodInsn(Opcodes.INVOKESPECIAL, TajoGeneratorAdapter.getInternalName(EvalNode.class), "<init>",
         "()V");
 
-    TajoGeneratorAdapter consAdapter = new TajoGeneratorAdapter(Opcodes.ACC_PUBLIC, initMethod, "<init>", "()V");
+    TajoGeneratorAdapter consAdapter = new TajoGeneratorAdapter(Opcodes.ACC_PUBLIC, initMethod, "<init>", initDesc);
+
+    // == this.PARAM_i = params[i].asXXX();
+    for (int paramIdx = 0; paramIdx < params.size(); paramIdx++) {
+      ConstEval param = params.get(paramIdx);
+      consAdapter.aload(0);
+      consAdapter.aload(1);
+      consAdapter.push(paramIdx);
+      initMethod.visitInsn(Opcodes.AALOAD);
+      consAdapter.invokeVirtual(Datum.class, getParamGetter(param), getParamClass(param), new Class[]{});
+      initMethod.visitFieldInsn(Opcodes.PUTFIELD, this.owner, getParamName(paramIdx),
+          getDescription(getParamClass(param)));
+    }
 
     // == this.schema = schema;
     if (schema != null) {
@@ -218,6 +322,9 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
     methodvisitor.visitInsn(Opcodes.ARETURN);
     methodvisitor.visitMaxs(0, 0);
     methodvisitor.visitEnd();
+
+    // the constructor is emitted last because it initializes the parameters found while emitting eval()
+    emitConstructor();
     classWriter.visitEnd();
   }
 }
@@ -34,6 +34,8 @@ import org.apache.tajo.storage.Tuple;
 
 import java.io.PrintStream;
 import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.List;
 import java.util.Stack;
 
 import static org.apache.tajo.common.TajoDataTypes.DataType;
@@ -78,6 +80,19 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
   }
 
   public EvalNode compile(Schema schema, EvalNode expr) throws CompilationError {
+    CompiledClass compiled = generate(schema, expr);
+    Datum [] params = new Datum[compiled.getParams().size()];
+    for (int i = 0; i < params.length; i++) {
+      params[i] = compiled.getParams().get(i).getValue();
+    }
+    return compiled.newInstance(expr, params);
+  }
+
+  /**
+   * Generate and load a class for a given expression. Constants which are visited as values are not embedded
+   * in the class, and they must be given to {@link CompiledClass#newInstance(EvalNode, Datum[])}.
+   */
+  public CompiledClass generate(Schema schema, EvalNode expr) throws CompilationError {
 
     ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
 
@@ -87,18 +102,39 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
     visit(context, expr, new Stack<EvalNode>());
     context.emitReturn();
 
-    Class aClass = classLoader.defineClass(className, classWriter.toByteArray());
-
-    Constructor constructor;
-    EvalNode compiledEval;
+    byte [] bytecode = classWriter.toByteArray();
+    Class aClass = classLoader.defineClass(className, bytecode);
 
     try {
-      constructor = aClass.getConstructor();
-      compiledEval = (EvalNode) constructor.newInstance();
+      return new CompiledClass(aClass.getConstructor(Datum[].class), context.params);
     } catch (Throwable t) {
-      throw new CompilationError(expr, t, classWriter.toByteArray());
+      throw new CompilationError(expr, t, bytecode);
+    }
+  }
+
+  public static class CompiledClass {
+    private final Constructor constructor;
+    private final List<ConstEval> params;
+
+    CompiledClass(Constructor constructor, List<ConstEval> params) {
+      this.constructor = constructor;
+      this.params = Collections.unmodifiableList(params);
+    }
+
+    /**
+     * @return Constants of the expression used to generate this class, in the order of constructor parameters
+     */
+    public List<ConstEval> getParams() {
+      return params;
+    }
+
+    public EvalNode newInstance(EvalNode expr, Datum [] params) throws CompilationError {
+      try {
+        return (EvalNode) constructor.newInstance(new Object[] {params});
+      } catch (Throwable t) {
+        throw new CompilationError("Cannot instantiate the compiled class of " + expr, t);
+      }
     }
-    return compiledEval;
   }
 
   private void printOut(EvalCodeGenContext context, String message) {
@@ -668,29 +704,19 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
       }
       break;
     case BOOLEAN:
-      context.push(constEval.getValue().asInt4());
-      break;
-
     case INT1:
     case INT2:
     case INT4:
     case DATE:
-      context.push(constEval.getValue().asInt4());
-      break;
     case INT8:
     case TIMESTAMP:
     case TIME:
-      context.push(constEval.getValue().asInt8());
-      break;
     case FLOAT4:
-      context.push(constEval.getValue().asFloat4());
-      break;
     case FLOAT8:
-      context.push(constEval.getValue().asFloat8());
-      break;
     case CHAR:
     case TEXT:
-      context.push(constEval.getValue().asChars());
+      // load the constant given to the constructor
+      context.emitLoadParam(constEval);
       break;
     case INTERVAL:
       // load pre-stored variable.
@@ -228,7 +228,11 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       case LIMIT:
         LimitNode limitNode = (LimitNode) logicalNode;
         stack.push(limitNode);
-        leftExec = createPlanRecursive(ctx, limitNode.getChild(), stack);
+        if (limitNode.getChild().getType() == NodeType.SORT) {
+          leftExec = createTopNSortPlan(ctx, limitNode, (SortNode) limitNode.getChild(), stack);
+        } else {
+          leftExec = createPlanRecursive(ctx, limitNode.getChild(), stack);
+        }
         stack.pop();
         return new LimitExec(ctx, limitNode.getInSchema(),
             limitNode.getOutSchema(), leftExec, limitNode);
@@ -1162,6 +1166,36 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     return createBestSortPlan(context, sortNode, child);
   }
 
+  /**
+   * Creates a sort executor for a sort node which is the child of a limit node. If the limit is small enough,
+   * a top-n sort executor keeping only the first n tuples in memory is used instead of a full sort.
+   */
+  public PhysicalExec createTopNSortPlan(TaskAttemptContext context, LimitNode limitNode, SortNode sortNode,
+                                         Stack<LogicalNode> stack) throws IOException {
+    stack.push(sortNode);
+    PhysicalExec child = createPlanRecursive(context, sortNode.getChild(), stack);
+    stack.pop();
+
+    // a distributed merge sort already streams sorted tuples.
+    if (child instanceof SortExec &&
+        TUtil.checkEquals(sortNode.getSortKeys(), ((SortExec) child).getSortSpecs())) {
+      return child;
+    }
+
+    // an explicitly enforced sort algorithm takes precedence.
+    if (getAlgorithmEnforceProperty(context.getEnforcer(), sortNode) != null) {
+      return createSortPlan(context, sortNode, child);
+    }
+
+    long threshold = context.getQueryContext().getLong(SessionVars.TOPN_SORT_THRESHOLD);
+    if (limitNode.getFetchFirstNum() <= threshold && limitNode.getFetchFirstNum() <= Integer.MAX_VALUE) {
+      LOG.info("The planner chooses [Top-N Sort] (limit: " + limitNode.getFetchFirstNum() + ")");
+      return new TopNSortExec(context, sortNode, limitNode, child);
+    }
+
+    return createSortPlan(context, sortNode, child);
+  }
+
   public SortExec createBestSortPlan(TaskAttemptContext context, SortNode sortNode,
                                      PhysicalExec child) throws IOException {
     return new ExternalSortExec(context, sortNode, child);
@@ -43,6 +43,7 @@ import org.apache.tajo.storage.fragment.FragmentConvertor;
 import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.util.TUtil;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.File;
@@ -92,6 +93,8 @@ public class ExternalSortExec extends SortExec {
   private List<FileFragment> finalOutputFiles = null;
   /** for directly merging sorted inputs */
   private List<FileFragment> mergedInputFragments = null;
+  /** reports the memory of in-memory table, and receives spill requests from the worker memory manager */
+  private final MemoryConsumer memoryConsumer;
 
   ///////////////////////////////////////////////////
   // transient variables
@@ -121,6 +124,7 @@ public class ExternalSortExec extends SortExec {
     this.allocatedCoreNum = context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM);
     this.executorService = Executors.newFixedThreadPool(this.allocatedCoreNum);
     this.inMemoryTable = new ArrayList<Tuple>(100000);
+    this.memoryConsumer = context.newMemoryConsumer(getClass().getSimpleName(), true);
 
     this.sortTmpDir = getExecutorTmpDir();
     localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
@@ -205,17 +209,24 @@ public class ExternalSortExec extends SortExec {
     while (!context.isStopped() && (tuple = child.next()) != null) { // partition sort start
       Tuple vtuple = new VTuple(tuple);
       inMemoryTable.add(vtuple);
-      memoryConsumption += MemoryUtil.calculateMemorySize(vtuple);
+      long tupleSize = MemoryUtil.calculateMemorySize(vtuple);
+      memoryConsumption += tupleSize;
 
-      if (memoryConsumption > sortBufferBytesNum) {
+      // the worker memory manager may request a spill before the sort buffer is full.
+      if (!memoryConsumer.acquire(tupleSize) || memoryConsumption > sortBufferBytesNum) {
         long runEndTime = System.currentTimeMillis();
         info(LOG, chunkId + " run loading time: " + (runEndTime - runStartTime) + " msec");
         runStartTime = runEndTime;
 
-        info(LOG, "Memory consumption exceeds " + sortBufferBytesNum + " bytes");
+        if (memoryConsumption > sortBufferBytesNum) {
+          info(LOG, "Memory consumption exceeds " + sortBufferBytesNum + " bytes");
+        } else {
+          info(LOG, "Spill is requested by the memory manager (" + memoryConsumption + " bytes)");
+        }
         memoryResident = false;
 
         chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+        memoryConsumer.spilled();
 
         memoryConsumption = 0;
         chunkId++;
@@ -240,6 +251,7 @@ public class ExternalSortExec extends SortExec {
       long start = System.currentTimeMillis();
       int rowNum = inMemoryTable.size();
       chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+      memoryConsumer.spilled();
       long end = System.currentTimeMillis();
       info(LOG, "Last Chunk #" + chunkId + " " + rowNum + " rows written (" + (end - start) + " msec)");
     }
@@ -798,6 +810,7 @@ public class ExternalSortExec extends SortExec {
       inMemoryTable.clear();
       inMemoryTable = null;
     }
+    memoryConsumer.close();
 
     if(executorService != null){
       executorService.shutdown();
@@ -20,8 +20,10 @@ package org.apache.tajo.engine.planner.physical;
 
 import org.apache.tajo.plan.function.FunctionContext;
 import org.apache.tajo.plan.logical.GroupbyNode;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -38,11 +40,14 @@ public class HashAggregateExec extends AggregationExec {
   private Map<Tuple, FunctionContext[]> hashTable;
   private boolean computed = false;
   private Iterator<Entry<Tuple, FunctionContext []>> iterator = null;
+  /** tracks the memory of group keys in the hash table */
+  private final MemoryConsumer memoryConsumer;
 
   public HashAggregateExec(TaskAttemptContext ctx, GroupbyNode plan, PhysicalExec subOp) throws IOException {
     super(ctx, plan, subOp);
     hashTable = new HashMap<Tuple, FunctionContext []>(100000);
     this.tuple = new VTuple(plan.getOutSchema().size());
+    this.memoryConsumer = ctx.newMemoryConsumer(getClass().getSimpleName(), false);
   }
 
   private void compute() throws IOException {
@@ -67,6 +72,7 @@ public class HashAggregateExec extends AggregationExec {
           aggFunctions[i].merge(contexts[i], inSchema, tuple);
         }
         hashTable.put(keyTuple, contexts);
+        memoryConsumer.acquire(MemoryUtil.calculateMemorySize(keyTuple));
       }
     }
 
@@ -121,5 +127,6 @@ public class HashAggregateExec extends AggregationExec {
     hashTable.clear();
     hashTable = null;
     iterator = null;
+    memoryConsumer.close();
   }
 }
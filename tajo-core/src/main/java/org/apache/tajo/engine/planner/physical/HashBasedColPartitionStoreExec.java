@@ -90,6 +90,7 @@ public class HashBasedColPartitionStoreExec extends ColPartitionStoreExec {
       Appender app = entry.getValue();
       app.flush();
       app.close();
+      PhysicalPlanUtil.writeFileStatsIfNecessary(context.getConf(), app);
       statSet.add(app.getStats());
     }
 
@@ -28,9 +28,11 @@ import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.logical.JoinNode;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.FrameTuple;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 import org.apache.tajo.worker.ExecutionBlockSharedResource;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -63,6 +65,9 @@ public class HashJoinExec extends BinaryPhysicalExec {
 
   private TableStats cachedRightTableStats;
 
+  /** tracks the memory of the in-memory hash table */
+  protected final MemoryConsumer memoryConsumer;
+
   public HashJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec leftExec,
       PhysicalExec rightExec) {
     super(context, SchemaUtil.merge(leftExec.getSchema(), rightExec.getSchema()), plan.getOutSchema(),
@@ -92,6 +97,7 @@ public class HashJoinExec extends BinaryPhysicalExec {
     frameTuple = new FrameTuple();
     outTuple = new VTuple(outSchema.size());
     leftKeyTuple = new VTuple(leftKeyList.length);
+    memoryConsumer = context.newMemoryConsumer(getClass().getSimpleName(), false);
   }
 
   @Override
@@ -178,7 +184,10 @@ public class HashJoinExec extends BinaryPhysicalExec {
       } else {
         CacheHolder.BroadcastCacheHolder holder =
             new CacheHolder.BroadcastCacheHolder(buildRightToHashTable(), rightChild.getInputStats(), null);
-        sharedResource.addBroadcastCache(key, holder);
+        // the cached table outlives this task, so its memory is accounted to the execution block.
+        long cachedBytes = memoryConsumer.getUsed();
+        memoryConsumer.releaseAll();
+        sharedResource.addBroadcastCache(key, holder, cachedBytes);
         CacheHolder<Map<Tuple, List<Tuple>>> data = sharedResource.getBroadcastCache(key);
         this.tupleSlots = data.getData();
         this.cachedRightTableStats = data.getTableStats();
@@ -197,6 +206,7 @@ public class HashJoinExec extends BinaryPhysicalExec {
         keyTuple.put(i, tuple.get(rightKeyList[i]));
       }
 
+      memoryConsumer.acquire(MemoryUtil.calculateMemorySize(tuple));
       List<Tuple> newValue = map.get(keyTuple);
 
       if (newValue != null) {
@@ -216,6 +226,7 @@ public class HashJoinExec extends BinaryPhysicalExec {
     super.rescan();
 
     tupleSlots.clear();
+    memoryConsumer.releaseAll();
     first = true;
 
     finished = false;
@@ -230,6 +241,7 @@ public class HashJoinExec extends BinaryPhysicalExec {
       tupleSlots.clear();
       tupleSlots = null;
     }
+    memoryConsumer.close();
 
     iterator = null;
     plan = null;
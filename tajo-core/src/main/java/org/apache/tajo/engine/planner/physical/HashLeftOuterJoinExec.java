@@ -34,9 +34,11 @@ import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.expr.EvalTreeUtil;
 import org.apache.tajo.plan.logical.JoinNode;
 import org.apache.tajo.storage.FrameTuple;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 import org.apache.tajo.worker.ExecutionBlockSharedResource;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -71,6 +73,10 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
 
   private int rightNumCols;
   private TableStats cachedRightTableStats;
+
+  /** tracks the memory of the in-memory hash table */
+  protected final MemoryConsumer memoryConsumer;
+
   private static final Log LOG = LogFactory.getLog(HashLeftOuterJoinExec.class);
 
   public HashLeftOuterJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec leftChild,
@@ -120,6 +126,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
     leftKeyTuple = new VTuple(leftKeyList.length);
 
     rightNumCols = rightChild.getSchema().size();
+    memoryConsumer = context.newMemoryConsumer(getClass().getSimpleName(), false);
   }
 
   @Override
@@ -228,7 +235,10 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
       } else {
         CacheHolder.BroadcastCacheHolder holder =
             new CacheHolder.BroadcastCacheHolder(buildRightToHashTable(), rightChild.getInputStats(), null);
-        sharedResource.addBroadcastCache(key, holder);
+        // the cached table outlives this task, so its memory is accounted to the execution block.
+        long cachedBytes = memoryConsumer.getUsed();
+        memoryConsumer.releaseAll();
+        sharedResource.addBroadcastCache(key, holder, cachedBytes);
         CacheHolder<Map<Tuple, List<Tuple>>> data = sharedResource.getBroadcastCache(key);
         this.tupleSlots = data.getData();
         this.cachedRightTableStats = data.getTableStats();
@@ -247,6 +257,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
         keyTuple.put(i, tuple.get(rightKeyList[i]));
       }
 
+      memoryConsumer.acquire(MemoryUtil.calculateMemorySize(tuple));
       List<Tuple> newValue = map.get(keyTuple);
 
       if (newValue != null) {
@@ -266,6 +277,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
     super.rescan();
 
     tupleSlots.clear();
+    memoryConsumer.releaseAll();
     first = true;
 
     finished = false;
@@ -279,6 +291,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
     super.close();
     tupleSlots.clear();
     tupleSlots = null;
+    memoryConsumer.close();
     iterator = null;
     plan = null;
     joinQual = null;
@@ -19,13 +19,16 @@
 package org.apache.tajo.engine.planner.physical;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.ColumnStats;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.Datum;
 import org.apache.tajo.plan.logical.ShuffleFileWriteNode;
 import org.apache.tajo.storage.HashShuffleAppender;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
@@ -51,6 +54,9 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private Map<Integer, HashShuffleAppender> appenderMap = new HashMap<Integer, HashShuffleAppender>();
   private final int numShuffleOutputs;
   private final int [] shuffleKeyIds;
+  // the value range of each shuffle key, which is used to filter the other side of a join.
+  private final ColumnStats [] shuffleKeyStats;
+  private final boolean [] rangeKeys;
   private HashShuffleAppenderManager hashShuffleAppenderManager;
   private int numHashShuffleBufferTuples;
 
@@ -72,6 +78,13 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       shuffleKeyIds[i] = inSchema.getColumnId(key.getQualifiedName());
       i++;
     }
+    this.shuffleKeyStats = new ColumnStats[shuffleKeyIds.length];
+    this.rangeKeys = new boolean[shuffleKeyIds.length];
+    for (i = 0; i < shuffleKeyIds.length; i++) {
+      Column key = this.plan.getShuffleKeys()[i];
+      shuffleKeyStats[i] = new ColumnStats(key);
+      rangeKeys[i] = isRangeComparable(key);
+    }
     this.partitioner = new HashPartitioner(shuffleKeyIds, numShuffleOutputs);
     this.hashShuffleAppenderManager = context.getHashShuffleAppenderManager();
     this.numHashShuffleBufferTuples = context.getConf().getIntVar(ConfVars.SHUFFLE_HASH_APPENDER_BUFFER_SIZE);
@@ -107,6 +120,7 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
         tupleCount++;
         numRows++;
 
+        updateShuffleKeyStats(tuple);
         partId = partitioner.getPartition(tuple);
         List<Tuple> partitionTupleList = partitionTuples.get(partId);
         if (partitionTupleList == null) {
@@ -141,6 +155,7 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       TableStats aggregated = (TableStats) child.getInputStats().clone();
       aggregated.setNumBytes(writtenBytes);
       aggregated.setNumRows(numRows);
+      aggregated.setColumnStats(Lists.newArrayList(shuffleKeyStats));
       context.setResultStats(aggregated);
 
       partitionTuples.clear();
@@ -155,6 +170,43 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
   }
 
+  private static boolean isRangeComparable(Column column) {
+    switch (column.getDataType().getType()) {
+    case INT2:
+    case INT4:
+    case INT8:
+    case FLOAT4:
+    case FLOAT8:
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+    case TEXT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private void updateShuffleKeyStats(Tuple tuple) {
+    for (int i = 0; i < shuffleKeyIds.length; i++) {
+      if (!rangeKeys[i]) {
+        continue;
+      }
+      Datum datum = tuple.get(shuffleKeyIds[i]);
+      ColumnStats stat = shuffleKeyStats[i];
+      if (datum.isNull()) {
+        stat.setNumNulls(stat.getNumNulls() + 1);
+        continue;
+      }
+      if (stat.minIsNotSet() || stat.getMinValue().compareTo(datum) > 0) {
+        stat.setMinValue(datum);
+      }
+      if (stat.maxIsNotSet() || stat.getMaxValue().compareTo(datum) < 0) {
+        stat.setMaxValue(datum);
+      }
+    }
+  }
+
   @Override
   public void rescan() throws IOException {
     // nothing to do   
@@ -258,4 +258,16 @@ public class PhysicalPlanUtil {
       }
     }
   }
+
+  /**
+   * Write the statistics of a closed data file if file statistics are enabled.
+   *
+   * @param conf TajoConf
+   * @param appender The closed appender
+   */
+  public static void writeFileStatsIfNecessary(TajoConf conf, Appender appender) {
+    if (conf.getBoolVar(TajoConf.ConfVars.FILE_STATS_ENABLED)) {
+      FileStatsFilter.writeFileStats(appender);
+    }
+  }
 }
@@ -19,6 +19,7 @@
 package org.apache.tajo.engine.planner.physical;
 
 import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SchemaUtil;
@@ -39,7 +40,9 @@ import org.apache.tajo.plan.rewrite.rules.PartitionedTableRewriter;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
+import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -178,7 +181,10 @@ public class SeqScanExec extends ScanExec {
     PlannerUtil.applySystemDefaultToTableProperties(context.getQueryContext(), meta);
 
     if (fragments != null) {
-      if (fragments.length > 1) {
+      Scanner parallelScanner = createParallelScanner(meta, projected);
+      if (parallelScanner != null) {
+        this.scanner = parallelScanner;
+      } else if (fragments.length > 1) {
         this.scanner = new MergeScanner(context.getConf(), plan.getPhysicalSchema(), meta,
             FragmentConvertor.convert(context.getConf(), fragments), projected
         );
@@ -192,6 +198,25 @@ public class SeqScanExec extends ScanExec {
     }
   }
 
+  /**
+   * Creates a scanner reading morsels of the input in parallel if it is enabled and the input can be divided.
+   * It is used only for leaf tasks because the order of tuples is not kept.
+   */
+  private Scanner createParallelScanner(TableMeta meta, Schema projected) throws IOException {
+    int parallelism = context.getQueryContext().getInt(SessionVars.SCAN_PARALLELISM);
+    if (parallelism <= 1 || context.hasFetchPhase()) {
+      return null;
+    }
+
+    long morselSize = (long) context.getQueryContext().getInt(SessionVars.SCAN_MORSEL_SIZE) * StorageUnit.MB;
+    List<Fragment> morsels = ParallelScanner.splitIntoMorsels(context.getConf(), meta, plan.getPhysicalSchema(),
+        FragmentConvertor.<Fragment>convert(context.getConf(), fragments), morselSize);
+    if (morsels.size() <= 1) {
+      return null;
+    }
+    return new ParallelScanner(context.getConf(), plan.getPhysicalSchema(), meta, morsels, projected, parallelism);
+  }
+
   @Override
   public Tuple next() throws IOException {
     if (fragments == null) {
@@ -83,6 +83,7 @@ public class SortBasedColPartitionStoreExec extends ColPartitionStoreExec {
       } else {
         if (!prevKey.equals(currentKey)) {
           appender.close();
+          PhysicalPlanUtil.writeFileStatsIfNecessary(context.getConf(), appender);
           StatisticsUtil.aggregateTableStat(aggregatedStats, appender.getStats());
 
           appender = getNextPartitionAppender(getSubdirectory(currentKey));
@@ -97,6 +98,7 @@ public class SortBasedColPartitionStoreExec extends ColPartitionStoreExec {
 
       if (maxPerFileSize > 0 && maxPerFileSize <= appender.getEstimatedOutputSize()) {
         appender.close();
+        PhysicalPlanUtil.writeFileStatsIfNecessary(context.getConf(), appender);
         writtenFileNum++;
         StatisticsUtil.aggregateTableStat(aggregatedStats, appender.getStats());
 
@@ -111,6 +113,7 @@ public class SortBasedColPartitionStoreExec extends ColPartitionStoreExec {
   public void close() throws IOException {
     if (appender != null) {
       appender.close();
+      PhysicalPlanUtil.writeFileStatsIfNecessary(context.getConf(), appender);
 
       // Collect statistics data
       StatisticsUtil.aggregateTableStat(aggregatedStats, appender.getStats());
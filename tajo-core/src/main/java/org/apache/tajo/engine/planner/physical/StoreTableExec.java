@@ -120,6 +120,7 @@ public class StoreTableExec extends UnaryPhysicalExec {
 
       if (maxPerFileSize > 0 && maxPerFileSize <= appender.getEstimatedOutputSize()) {
         appender.close();
+        PhysicalPlanUtil.writeFileStatsIfNecessary(context.getConf(), appender);
 
         writtenFileNum++;
         StatisticsUtil.aggregateTableStat(sumStats, appender.getStats());
@@ -141,6 +142,7 @@ public class StoreTableExec extends UnaryPhysicalExec {
     if(appender != null){
       appender.flush();
       appender.close();
+      PhysicalPlanUtil.writeFileStatsIfNecessary(context.getConf(), appender);
       // Collect statistics data
       if (sumStats == null) {
         context.setResultStats(appender.getStats());
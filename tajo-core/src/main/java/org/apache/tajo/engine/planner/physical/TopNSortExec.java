@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.plan.logical.LimitNode;
+import org.apache.tajo.plan.logical.SortNode;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * This is a sort executor for <code>ORDER BY ... LIMIT n</code>. Instead of sorting all input tuples,
+ * it keeps only the first n tuples in a bounded heap whose head is the last tuple in the sort order.
+ * So, it requires O(n) memory and O(N log n) comparisons for N input tuples.
+ */
+public class TopNSortExec extends SortExec {
+  private SortNode plan;
+  private final int fetchFirstNum;
+  private PriorityQueue<Tuple> heap;
+  private Iterable<Tuple> sortedTuples;
+  private boolean sorted = false;
+  private Iterator<Tuple> iterator;
+
+  public TopNSortExec(final TaskAttemptContext context, SortNode plan, LimitNode limit, PhysicalExec child) {
+    super(context, plan.getInSchema(), plan.getOutSchema(), child, plan.getSortKeys());
+    this.plan = plan;
+    this.fetchFirstNum = (int) limit.getFetchFirstNum();
+  }
+
+  public void init() throws IOException {
+    super.init();
+    // the head of the heap is the largest one in the sort order
+    this.heap = new PriorityQueue<Tuple>(Math.max(fetchFirstNum, 1) + 1, Collections.reverseOrder(comparator));
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+
+    if (!sorted) {
+      Tuple tuple;
+      while (fetchFirstNum > 0 && !context.isStopped() && (tuple = child.next()) != null) {
+        if (heap.size() < fetchFirstNum) {
+          heap.add(new VTuple(tuple));
+        } else if (comparator.compare(tuple, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(new VTuple(tuple));
+        }
+      }
+      List<Tuple> tuples = new ArrayList<Tuple>(heap);
+      heap.clear();
+      sortedTuples = getSorter(tuples).sort();
+      iterator = sortedTuples.iterator();
+      sorted = true;
+    }
+
+    if (iterator.hasNext()) {
+      return this.iterator.next();
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    super.rescan();
+    // if the input is not consumed yet, the next call of next() will read the rescanned child.
+    if (sorted) {
+      this.iterator = sortedTuples.iterator();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    if (heap != null) {
+      heap.clear();
+      heap = null;
+    }
+    sortedTuples = null;
+    iterator = null;
+    plan = null;
+  }
+
+  public SortNode getPlan() {
+    return this.plan;
+  }
+
+  public int getFetchFirstNum() {
+    return fetchFirstNum;
+  }
+}
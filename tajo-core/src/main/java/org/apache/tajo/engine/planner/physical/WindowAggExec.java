@@ -28,9 +28,11 @@ import org.apache.tajo.plan.function.FunctionContext;
 import org.apache.tajo.plan.logical.WindowAggNode;
 import org.apache.tajo.plan.logical.WindowSpec;
 import org.apache.tajo.storage.BaseTupleComparator;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.TupleComparator;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -66,6 +68,8 @@ public class WindowAggExec extends UnaryPhysicalExec {
   private boolean [] windowFuncFlags;
   private boolean [] endUnboundedFollowingFlags;
   private boolean [] endCurrentRowFlags;
+  /** tracks the memory of tuples accumulated in the current window */
+  private final MemoryConsumer memoryConsumer;
 
   // operator state
   enum WindowState {
@@ -176,6 +180,7 @@ public class WindowAggExec extends UnaryPhysicalExec {
     }
 
     outputColumnNum = nonFunctionColumnNum + functionNum;
+    memoryConsumer = context.newMemoryConsumer(getClass().getSimpleName(), false);
   }
 
   private void transition(WindowState state) {
@@ -249,6 +254,7 @@ public class WindowAggExec extends UnaryPhysicalExec {
 
     if (lastKey == null || lastKey.equals(currentKey)) { // if the current key is same to the previous key
       accumulatedInTuples.add(new VTuple(inTuple));
+      memoryConsumer.acquire(MemoryUtil.calculateMemorySize(inTuple));
 
     } else {
       // if the current key is different from the previous key,
@@ -324,11 +330,15 @@ public class WindowAggExec extends UnaryPhysicalExec {
   private void finalizeWindow() {
     evaluatedTuples.clear();
     accumulatedInTuples.clear();
+    memoryConsumer.releaseAll();
 
     if (noMoreTuples) {
       transition(WindowState.END_OF_TUPLE);
     } else {
       accumulatedInTuples = nextAccumulatedInTuples;
+      for (Tuple inTuple : accumulatedInTuples) {
+        memoryConsumer.acquire(MemoryUtil.calculateMemorySize(inTuple));
+      }
 
       contexts = new FunctionContext[functionNum];
       for(int evalIdx = 0; evalIdx < functionNum; evalIdx++) {
@@ -345,4 +355,10 @@ public class WindowAggExec extends UnaryPhysicalExec {
     lastKey = null;
     noMoreTuples = false;
   }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    memoryConsumer.close();
+  }
 }
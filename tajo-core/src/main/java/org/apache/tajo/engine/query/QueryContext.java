@@ -72,6 +72,25 @@ public class QueryContext extends OverridableConf {
     return strVal != null && !strVal.isEmpty() ? new Path(strVal) : null;
   }
 
+  /**
+   * Set the number of QueryMasters which have been launched for this query.
+   * It is increased whenever the query is resumed by another QueryMaster.
+   */
+  public void setQueryMasterAttempt(int attempt) {
+    setInt(QueryVars.QUERY_MASTER_ATTEMPT, attempt);
+  }
+
+  public int getQueryMasterAttempt() {
+    return getInt(QueryVars.QUERY_MASTER_ATTEMPT, 1);
+  }
+
+  /**
+   * @return True if this query is resumed by a QueryMaster other than the first one
+   */
+  public boolean isRecovery() {
+    return getQueryMasterAttempt() > 1;
+  }
+
   /**
    * Set a target table name
    *
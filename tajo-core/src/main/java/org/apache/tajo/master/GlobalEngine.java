@@ -37,13 +37,19 @@ import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.ipc.ClientProtos;
 import org.apache.tajo.master.TajoMaster.MasterContext;
 import org.apache.tajo.master.exec.DDLExecutor;
+import org.apache.tajo.master.exec.PreparedPlan;
+import org.apache.tajo.master.exec.PreparedQuery;
 import org.apache.tajo.master.exec.QueryExecutor;
+import org.apache.tajo.master.exec.QueryResultCache;
+import org.apache.tajo.master.exec.RetainedShuffleCatalog;
+import org.apache.tajo.master.exec.RetainedShuffleCleaner;
 import org.apache.tajo.master.exec.prehook.DistributedQueryHookManager;
 import org.apache.tajo.session.Session;
 import org.apache.tajo.plan.*;
 import org.apache.tajo.plan.logical.InsertNode;
 import org.apache.tajo.plan.logical.LogicalRootNode;
 import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.serder.LogicalNodeSerializer;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.plan.verifier.LogicalPlanVerifier;
 import org.apache.tajo.plan.verifier.PreLogicalPlanVerifier;
@@ -54,7 +60,9 @@ import org.apache.tajo.util.CommonTestingUtil;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.List;
 
+import static org.apache.tajo.ipc.ClientProtos.QueryParameterProto;
 import static org.apache.tajo.ipc.ClientProtos.SubmitQueryResponse;
 
 public class GlobalEngine extends AbstractService {
@@ -74,6 +82,9 @@ public class GlobalEngine extends AbstractService {
 
   private QueryExecutor queryExecutor;
   private DDLExecutor ddlExecutor;
+  private QueryResultCache queryResultCache;
+  private RetainedShuffleCatalog retainedShuffleCatalog;
+  private RetainedShuffleCleaner retainedShuffleCleaner;
 
   public GlobalEngine(final MasterContext context) {
     super(GlobalEngine.class.getName());
@@ -81,8 +92,11 @@ public class GlobalEngine extends AbstractService {
     this.catalog = context.getCatalog();
     this.sm = context.getStorageManager();
 
-    this.ddlExecutor = new DDLExecutor(context);
-    this.queryExecutor = new QueryExecutor(context, ddlExecutor);
+    this.queryResultCache = new QueryResultCache(context.getConf());
+    this.retainedShuffleCleaner = new RetainedShuffleCleaner(context);
+    this.retainedShuffleCatalog = new RetainedShuffleCatalog(context.getConf(), retainedShuffleCleaner);
+    this.ddlExecutor = new DDLExecutor(context, queryResultCache);
+    this.queryExecutor = new QueryExecutor(context, ddlExecutor, queryResultCache);
   }
 
   public void start() {
@@ -92,6 +106,7 @@ public class GlobalEngine extends AbstractService {
       planner = new LogicalPlanner(context.getCatalog());
       optimizer = new LogicalOptimizer(context.getConf());
       annotatedPlanVerifier = new LogicalPlanVerifier(context.getConf(), context.getCatalog());
+      retainedShuffleCleaner.start(retainedShuffleCatalog);
     } catch (Throwable t) {
       LOG.error(t.getMessage(), t);
       throw new RuntimeException(t);
@@ -100,6 +115,8 @@ public class GlobalEngine extends AbstractService {
   }
 
   public void stop() {
+    retainedShuffleCleaner.stop();
+    retainedShuffleCatalog.clear();
     super.stop();
   }
 
@@ -135,6 +152,14 @@ public class GlobalEngine extends AbstractService {
     return queryExecutor;
   }
 
+  public QueryResultCache getQueryResultCache() {
+    return queryResultCache;
+  }
+
+  public RetainedShuffleCatalog getRetainedShuffleCatalog() {
+    return retainedShuffleCatalog;
+  }
+
   private QueryContext createQueryContext(Session session) {
     QueryContext newQueryContext =  new QueryContext(context.getConf(), session);
 
@@ -163,21 +188,105 @@ public class GlobalEngine extends AbstractService {
       SubmitQueryResponse response = queryExecutor.execute(queryContext, session, query, jsonExpr, plan);
       return response;
     } catch (Throwable t) {
-      context.getSystemMetrics().counter("Query", "errorQuery").inc();
-      LOG.error("\nStack Trace:\n" + StringUtils.stringifyException(t));
-      SubmitQueryResponse.Builder responseBuilder = SubmitQueryResponse.newBuilder();
-      responseBuilder.setUserName(queryContext.get(SessionVars.USERNAME));
-      responseBuilder.setQueryId(QueryIdFactory.NULL_QUERY_ID.getProto());
-      responseBuilder.setIsForwarded(true);
-      responseBuilder.setResultCode(ClientProtos.ResultCode.ERROR);
-      String errorMessage = t.getMessage();
-      if (t.getMessage() == null) {
-        errorMessage = t.getClass().getName();
+      return buildErrorResponse(queryContext, t);
+    }
+  }
+
+  /**
+   * Parses a query including parameter markers (<code>?</code>) and registers it to the session.
+   *
+   * @return The statement id of the prepared query
+   */
+  public int prepareQuery(Session session, String sql) throws PlanningException {
+    LOG.info("Prepare Query: " + sql);
+    String rewritten = PreparedQuery.replaceParameterMarkers(sql);
+    Expr expr = analyzer.parse(rewritten);
+    PreparedQuery preparedQuery = new PreparedQuery(sql, expr, PreparedQuery.countParameters(rewritten));
+
+    // verify it once; later executions skip the pre-verification until the catalog is changed.
+    QueryContext queryContext = createQueryContext(session);
+    long catalogVersion = catalog.getCatalogVersion();
+    preVerify(queryContext, expr);
+    preparedQuery.setVerified(catalogVersion);
+
+    return session.addPreparedQuery(preparedQuery);
+  }
+
+  public SubmitQueryResponse executePreparedQuery(Session session, int statementId,
+                                                  List<QueryParameterProto> parameters) {
+    QueryContext queryContext = createQueryContext(session);
+
+    try {
+      PreparedQuery preparedQuery = session.getPreparedQuery(statementId);
+      if (preparedQuery == null) {
+        throw new IllegalArgumentException("No such prepared query: " + statementId);
+      }
+      LOG.info("Execute Prepared Query (" + statementId + "): " + preparedQuery.getSql());
+      context.getSystemMetrics().counter("Query", "totalQuery").inc();
+
+      // only the planning in the master is saved. The expression is still shipped to the query master of
+      // a distributed query, and the query master plans and optimizes it again.
+      Expr expr = preparedQuery.bind(parameters);
+      long catalogVersion = catalog.getCatalogVersion();
+      if (!preparedQuery.isVerified(catalogVersion)) {
+        preVerify(queryContext, expr);
+        preparedQuery.setVerified(catalogVersion);
+      }
+
+      String jsonExpr = expr.toJson();
+      LogicalPlan plan = createPreparedPlan(queryContext, session, preparedQuery, expr, parameters, catalogVersion);
+      return queryExecutor.execute(queryContext, session, preparedQuery.getSql(), jsonExpr, plan);
+    } catch (Throwable t) {
+      return buildErrorResponse(queryContext, t);
+    }
+  }
+
+  /**
+   * Returns an optimized plan bound to the parameters. When a prepared query is executed with new types of
+   * parameters, it is planned once more with sentinel parameters in order to find out which constants of the plan
+   * come from the parameters. The following executions just bind the parameters to the cached plan.
+   */
+  private LogicalPlan createPreparedPlan(QueryContext queryContext, Session session, PreparedQuery preparedQuery,
+                                         Expr expr, List<QueryParameterProto> parameters, long catalogVersion)
+      throws PlanningException {
+    String planKey = PreparedQuery.getPlanKey(parameters, session.getAllVariables());
+    if (planKey == null) {
+      return createLogicalPlan(queryContext, expr, true);
+    }
+
+    PreparedPlan preparedPlan = preparedQuery.getPlan(planKey, catalogVersion);
+    if (preparedPlan != null) {
+      return preparedPlan.bind(queryContext, parameters);
+    }
+
+    LogicalPlan plan = createLogicalPlan(queryContext, expr, true);
+    if (!preparedQuery.hasPlan(planKey, catalogVersion) && PreparedPlan.isCacheable(plan)) {
+      List<QueryParameterProto> sentinels = PreparedQuery.getSentinels(parameters);
+      LogicalPlan sentinelPlan = createLogicalPlan(queryContext, preparedQuery.bind(sentinels), true);
+      if (PreparedPlan.isCacheable(sentinelPlan)) {
+        preparedPlan = PreparedPlan.create(LogicalNodeSerializer.serialize(plan.getRootBlock().getRoot()),
+            LogicalNodeSerializer.serialize(sentinelPlan.getRootBlock().getRoot()), parameters, sentinels);
       }
-      responseBuilder.setErrorMessage(errorMessage);
-      responseBuilder.setErrorTrace(StringUtils.stringifyException(t));
-      return responseBuilder.build();
+      preparedQuery.addPlan(planKey, catalogVersion, preparedPlan);
+    }
+    return plan;
+  }
+
+  private SubmitQueryResponse buildErrorResponse(QueryContext queryContext, Throwable t) {
+    context.getSystemMetrics().counter("Query", "errorQuery").inc();
+    LOG.error("\nStack Trace:\n" + StringUtils.stringifyException(t));
+    SubmitQueryResponse.Builder responseBuilder = SubmitQueryResponse.newBuilder();
+    responseBuilder.setUserName(queryContext.get(SessionVars.USERNAME));
+    responseBuilder.setQueryId(QueryIdFactory.NULL_QUERY_ID.getProto());
+    responseBuilder.setIsForwarded(true);
+    responseBuilder.setResultCode(ClientProtos.ResultCode.ERROR);
+    String errorMessage = t.getMessage();
+    if (t.getMessage() == null) {
+      errorMessage = t.getClass().getName();
     }
+    responseBuilder.setErrorMessage(errorMessage);
+    responseBuilder.setErrorTrace(StringUtils.stringifyException(t));
+    return responseBuilder.build();
   }
 
   public Expr buildExpressionFromJson(String json) {
@@ -218,8 +327,7 @@ public class GlobalEngine extends AbstractService {
     }
   }
 
-  private LogicalPlan createLogicalPlan(QueryContext queryContext, Expr expression) throws PlanningException {
-
+  private void preVerify(QueryContext queryContext, Expr expression) throws PlanningException {
     VerificationState state = new VerificationState();
     preVerifier.verify(queryContext, state, expression);
     if (!state.verified()) {
@@ -229,7 +337,22 @@ public class GlobalEngine extends AbstractService {
       }
       throw new VerifyException(sb.toString());
     }
+  }
 
+  private LogicalPlan createLogicalPlan(QueryContext queryContext, Expr expression) throws PlanningException {
+    return createLogicalPlan(queryContext, expression, false);
+  }
+
+  /**
+   * @param preVerified If true, the pre-verification is skipped because the expression was already verified.
+   */
+  private LogicalPlan createLogicalPlan(QueryContext queryContext, Expr expression, boolean preVerified)
+      throws PlanningException {
+    if (!preVerified) {
+      preVerify(queryContext, expression);
+    }
+
+    VerificationState state = new VerificationState();
     LogicalPlan plan = planner.createPlan(queryContext, expression);
     if (LOG.isDebugEnabled()) {
       LOG.debug("=============================================");
@@ -21,26 +21,27 @@ package org.apache.tajo.master;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.master.container.TajoContainer;
+import org.apache.tajo.plan.serder.PlanProto;
 
 import java.util.Collection;
 
 public class LaunchTaskRunnersEvent extends TaskRunnerGroupEvent {
   private final QueryContext queryContext;
-  private final String planJson;
+  private final PlanProto.LogicalNodeTree plan;
 
   public LaunchTaskRunnersEvent(ExecutionBlockId executionBlockId,
                                 Collection<TajoContainer> containers, QueryContext queryContext,
-                                String planJson) {
+                                PlanProto.LogicalNodeTree plan) {
     super(EventType.CONTAINER_REMOTE_LAUNCH, executionBlockId, containers);
     this.queryContext = queryContext;
-    this.planJson = planJson;
+    this.plan = plan;
   }
 
   public QueryContext getQueryContext() {
     return queryContext;
   }
 
-  public String getPlanJson() {
-    return planJson;
+  public PlanProto.LogicalNodeTree getPlan() {
+    return plan;
   }
 }
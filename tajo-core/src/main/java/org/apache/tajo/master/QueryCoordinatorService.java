@@ -23,11 +23,13 @@ import com.google.protobuf.RpcController;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.service.AbstractService;
+import org.apache.tajo.QueryId;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.ipc.ContainerProtocol;
 import org.apache.tajo.ipc.QueryCoordinatorProtocol;
 import org.apache.tajo.ipc.QueryCoordinatorProtocol.*;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.master.exec.RetainedShuffleCatalog;
 import org.apache.tajo.master.rm.Worker;
 import org.apache.tajo.master.rm.WorkerResource;
 import org.apache.tajo.rpc.AsyncRpcServer;
@@ -65,6 +67,7 @@ public class QueryCoordinatorService extends AbstractService {
     int workerNum = conf.getIntVar(TajoConf.ConfVars.MASTER_RPC_SERVER_WORKER_THREAD_NUM);
     try {
       server = new AsyncRpcServer(QueryCoordinatorProtocol.class, masterHandler, initIsa, workerNum);
+      server.setFlushWindowMicros(conf.getLongVar(TajoConf.ConfVars.RPC_FLUSH_WINDOW_MICROS));
     } catch (Exception e) {
       LOG.error(e, e);
     }
@@ -89,6 +92,10 @@ public class QueryCoordinatorService extends AbstractService {
     return bindAddress;
   }
 
+  public AsyncRpcServer getRpcServer() {
+    return server;
+  }
+
   /**
    * Actual protocol service handler
    */
@@ -156,5 +163,26 @@ public class QueryCoordinatorService extends AbstractService {
       }
       done.run(builder.build());
     }
+
+    @Override
+    public void retainShuffle(RpcController controller, RetainedShuffleProto request,
+                              RpcCallback<PrimitiveProtos.BoolProto> done) {
+      RetainedShuffleCatalog catalog = context.getGlobalEngine().getRetainedShuffleCatalog();
+      done.run(catalog.register(request, context.getResourceManager().getWorkers()) ? BOOL_TRUE : BOOL_FALSE);
+    }
+
+    @Override
+    public void getRetainedShuffle(RpcController controller, RetainedShuffleRequest request,
+                                   RpcCallback<RetainedShuffleResponse> done) {
+      RetainedShuffleCatalog catalog = context.getGlobalEngine().getRetainedShuffleCatalog();
+      RetainedShuffleProto retained = catalog.get(request.getFingerprint(), new QueryId(request.getQueryId()),
+          context.getResourceManager().getWorkers());
+
+      RetainedShuffleResponse.Builder builder = RetainedShuffleResponse.newBuilder();
+      if (retained != null) {
+        builder.setRetainedShuffle(retained);
+      }
+      done.run(builder.build());
+    }
   }
 }
@@ -202,6 +202,55 @@ public class QueryInProgress {
     }
   }
 
+  /**
+   * It launches another query master for this query when the current query master is lost.
+   * If checkpoint is enabled, the new query master resumes the query from the last completed stages.
+   *
+   * @return True if the query is submitted to a new query master
+   */
+  public boolean failoverQueryMaster() {
+    if (stopped.get()) {
+      return false;
+    }
+
+    long startTime = System.currentTimeMillis();
+    String lostQueryMaster = queryInfo.getQueryMasterHost() + ":" + queryInfo.getQueryMasterPort();
+
+    writeLock.lock();
+    try {
+      if (queryMasterRpc != null) {
+        RpcConnectionPool.getPool().closeConnection(queryMasterRpc);
+        queryMasterRpc = null;
+      }
+      queryMasterRpcClient = null;
+      querySubmitted.set(false);
+
+      masterContext.getResourceManager().releaseFailedQueryMaster(queryId);
+
+      QueryContext queryContext = queryInfo.getQueryContext();
+      queryContext.setQueryMasterAttempt(queryContext.getQueryMasterAttempt() + 1);
+      LOG.warn("QueryMaster (" + lostQueryMaster + ") of " + queryId + " is lost. Start QueryMaster attempt "
+          + queryContext.getQueryMasterAttempt());
+    } finally {
+      writeLock.unlock();
+    }
+
+    if (!startQueryMaster()) {
+      return false;
+    }
+    submitQueryToMaster();
+
+    if (querySubmitted.get()) {
+      LOG.info(queryId + " is resubmitted to QueryMaster (" + queryInfo.getQueryMasterHost() + ":"
+          + queryInfo.getQueryMasterPort() + ") in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+    return querySubmitted.get();
+  }
+
+  public int getQueryMasterAttempt() {
+    return queryInfo.getQueryContext().getQueryMasterAttempt();
+  }
+
   public void catchException(String message, Throwable e) {
     LOG.error(message, e);
     queryInfo.setQueryState(TajoProtos.QueryState.QUERY_FAILED);
@@ -30,11 +30,15 @@ import org.apache.hadoop.yarn.event.AsyncDispatcher;
 import org.apache.hadoop.yarn.event.EventHandler;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoProtos;
 import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.ipc.QueryCoordinatorProtocol;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.master.rm.Worker;
+import org.apache.tajo.master.scheduler.Scheduler;
 import org.apache.tajo.master.scheduler.SimpleFifoScheduler;
 import org.apache.tajo.plan.logical.LogicalRootNode;
 import org.apache.tajo.querymaster.QueryJobEvent;
@@ -42,10 +46,12 @@ import org.apache.tajo.session.Session;
 import org.apache.tajo.util.history.HistoryReader;
 
 import java.io.IOException;
+import java.lang.reflect.Constructor;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -60,7 +66,7 @@ public class QueryManager extends CompositeService {
 
   private AsyncDispatcher dispatcher;
 
-  private SimpleFifoScheduler scheduler;
+  private Scheduler scheduler;
 
   private final Map<QueryId, QueryInProgress> submittedQueries = Maps.newConcurrentMap();
 
@@ -72,6 +78,9 @@ public class QueryManager extends CompositeService {
   private AtomicLong avgExecutionTime = new AtomicLong();
   private AtomicLong executedQuerySize = new AtomicLong();
 
+  private QueryMasterFailoverMonitor failoverMonitor;
+  private AtomicBoolean stopped = new AtomicBoolean(false);
+
   public QueryManager(final TajoMaster.MasterContext masterContext) {
     super(QueryManager.class.getName());
     this.masterContext = masterContext;
@@ -85,7 +94,13 @@ public class QueryManager extends CompositeService {
 
       this.dispatcher.register(QueryJobEvent.Type.class, new QueryJobManagerEventHandler());
 
-      this.scheduler = new SimpleFifoScheduler(this);
+      TajoConf systemConf = masterContext.getConf();
+      Class<? extends Scheduler> schedulerClass = systemConf.getClass(TajoConf.ConfVars.QUERY_SCHEDULER_CLASS.varname,
+          SimpleFifoScheduler.class, Scheduler.class);
+      Constructor<? extends Scheduler> constructor =
+          schedulerClass.getConstructor(QueryManager.class, TajoConf.class);
+      this.scheduler = constructor.newInstance(this, systemConf);
+      LOG.info("Query scheduler: " + schedulerClass.getName());
     } catch (Exception e) {
       LOG.error("Failed to init service " + getName() + " by exception " + e, e);
     }
@@ -95,6 +110,10 @@ public class QueryManager extends CompositeService {
 
   @Override
   public void serviceStop() throws Exception {
+    stopped.set(true);
+    if (failoverMonitor != null) {
+      failoverMonitor.interrupt();
+    }
     synchronized(runningQueries) {
       for(QueryInProgress eachQueryInProgress: runningQueries.values()) {
         eachQueryInProgress.stopProgress();
@@ -107,9 +126,15 @@ public class QueryManager extends CompositeService {
   @Override
   public void serviceStart() throws Exception {
     this.scheduler.start();
+    this.failoverMonitor = new QueryMasterFailoverMonitor();
+    this.failoverMonitor.start();
     super.serviceStart();
   }
 
+  public Scheduler getScheduler() {
+    return scheduler;
+  }
+
   public EventHandler getEventHandler() {
     return dispatcher.getEventHandler();
   }
@@ -234,6 +259,70 @@ public class QueryManager extends CompositeService {
     }
   }
 
+  /**
+   * It watches the workers on which query masters of running queries are launched. If a worker is lost,
+   * its queries are resubmitted to other query masters up to {@link TajoConf.ConfVars#QUERYMASTER_FAILOVER_MAX_ATTEMPTS}.
+   */
+  class QueryMasterFailoverMonitor extends Thread {
+    private final int maxAttempts = masterContext.getConf().getIntVar(
+        TajoConf.ConfVars.QUERYMASTER_FAILOVER_MAX_ATTEMPTS);
+
+    public QueryMasterFailoverMonitor() {
+      super("QueryMasterFailoverMonitor");
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      LOG.info("QueryMasterFailoverMonitor start");
+      while (!stopped.get()) {
+        try {
+          Thread.sleep(1000);
+          checkLostQueryMasters();
+        } catch (InterruptedException ie) {
+          if (!stopped.get()) {
+            LOG.error(ie);
+          }
+        } catch (Throwable t) {
+          LOG.error(t, t);
+        }
+      }
+    }
+
+    private void checkLostQueryMasters() {
+      Set<String> lostQueryMasters = Sets.newHashSet();
+      for (Worker eachWorker : masterContext.getResourceManager().getInactiveWorkers().values()) {
+        WorkerConnectionInfo connectionInfo = eachWorker.getConnectionInfo();
+        lostQueryMasters.add(connectionInfo.getHost() + ":" + connectionInfo.getQueryMasterPort());
+      }
+      if (lostQueryMasters.isEmpty()) {
+        return;
+      }
+
+      for (QueryInProgress eachQuery : Lists.newArrayList(getRunningQueries())) {
+        QueryInfo queryInfo = eachQuery.getQueryInfo();
+        if (!eachQuery.isStarted() ||
+            !lostQueryMasters.contains(queryInfo.getQueryMasterHost() + ":" + queryInfo.getQueryMasterPort())) {
+          continue;
+        }
+
+        // Without checkpoints, a relaunched QueryMaster executes the whole query again,
+        // which is not safe for queries having side effects such as INSERT.
+        if (queryInfo.getQueryContext().getBool(SessionVars.CHECKPOINT_ENABLED) &&
+            eachQuery.getQueryMasterAttempt() <= maxAttempts && eachQuery.failoverQueryMaster()) {
+          continue;
+        }
+
+        if (queryInfo.getQueryState() != TajoProtos.QueryState.QUERY_FAILED) {
+          eachQuery.catchException("QueryMaster of " + eachQuery.getQueryId() + " is lost",
+              new IOException("QueryMaster (" + queryInfo.getQueryMasterHost() + ") is lost"));
+        }
+        queryInfo.setFinishTime(System.currentTimeMillis());
+        stopQuery(eachQuery.getQueryId());
+      }
+    }
+  }
+
   public QueryInProgress getQueryInProgress(QueryId queryId) {
     QueryInProgress queryInProgress;
     synchronized (submittedQueries) {
@@ -265,6 +354,8 @@ public class QueryManager extends CompositeService {
       synchronized (historyCache) {
         historyCache.put(queryInfo.getQueryId(), queryInfo);
       }
+      masterContext.getGlobalEngine().getQueryResultCache().queryFinished(queryInfo);
+      masterContext.getGlobalEngine().getRetainedShuffleCatalog().release(queryId);
 
       long executionTime = queryInfo.getFinishTime() - queryInfo.getStartTime();
       if (executionTime < minExecutionTime.get()) {
@@ -34,6 +34,7 @@ import org.apache.tajo.master.container.TajoContainerId;
 import org.apache.tajo.master.event.TaskFatalErrorEvent;
 import org.apache.tajo.master.rm.TajoWorkerContainer;
 import org.apache.tajo.master.rm.TajoWorkerContainerId;
+import org.apache.tajo.plan.serder.PlanProto;
 import org.apache.tajo.querymaster.QueryMasterTask;
 import org.apache.tajo.rpc.NettyClientBase;
 import org.apache.tajo.rpc.NullCallback;
@@ -48,15 +49,16 @@ import java.util.List;
 public class TajoContainerProxy extends ContainerProxy {
   private final QueryContext queryContext;
   private final TajoWorker.WorkerContext workerContext;
-  private final String planJson;
+  private final PlanProto.LogicalNodeTree plan;
 
   public TajoContainerProxy(QueryMasterTask.QueryMasterTaskContext context,
                             Configuration conf, TajoContainer container,
-                            QueryContext queryContext, ExecutionBlockId executionBlockId, String planJson) {
+                            QueryContext queryContext, ExecutionBlockId executionBlockId,
+                            PlanProto.LogicalNodeTree plan) {
     super(context, conf, executionBlockId, container);
     this.queryContext = queryContext;
     this.workerContext = context.getQueryMasterContext().getWorkerContext();
-    this.planJson = planJson;
+    this.plan = plan;
   }
 
   @Override
@@ -113,7 +115,7 @@ public class TajoContainerProxy extends ContainerProxy {
               .setContainerId(container.getId().toString())
               .setQueryOutputPath(context.getStagingDir().toString())
               .setQueryContext(queryContext.getProto())
-              .setPlanJson(planJson)
+              .setPlan(plan)
               .build();
 
       tajoWorkerRpcClient.startExecutionBlock(null, request, NullCallback.get());
@@ -43,8 +43,13 @@ import org.apache.tajo.engine.function.FunctionLoader;
 import org.apache.tajo.master.rm.TajoWorkerResourceManager;
 import org.apache.tajo.master.rm.WorkerResourceManager;
 import org.apache.tajo.metrics.CatalogMetricsGaugeSet;
+import org.apache.tajo.metrics.QueryResultCacheMetricsGaugeSet;
+import org.apache.tajo.metrics.QuerySchedulerMetricsGaugeSet;
+import org.apache.tajo.metrics.RetainedShuffleMetricsGaugeSet;
+import org.apache.tajo.metrics.RpcServerMetricsListener;
 import org.apache.tajo.metrics.WorkerResourceMetricsGaugeSet;
 import org.apache.tajo.rpc.RpcChannelFactory;
+import org.apache.tajo.rpc.RpcConnectionPool;
 import org.apache.tajo.rule.EvaluationContext;
 import org.apache.tajo.rule.EvaluationFailedException;
 import org.apache.tajo.rule.SelfDiagnosisRuleEngine;
@@ -160,6 +165,7 @@ public class TajoMaster extends CompositeService {
 
     context = new MasterContext(systemConf);
     clock = new SystemClock();
+    RpcConnectionPool.getPool().setFlushWindowMicros(systemConf.getLongVar(ConfVars.RPC_FLUSH_WINDOW_MICROS));
 
     try {
       RackResolver.init(systemConf);
@@ -208,6 +214,17 @@ public class TajoMaster extends CompositeService {
 
     systemMetrics.register("resource", new WorkerResourceMetricsGaugeSet(context));
     systemMetrics.register("catalog", new CatalogMetricsGaugeSet(context));
+    systemMetrics.register("querycache", new QueryResultCacheMetricsGaugeSet(context));
+    systemMetrics.register("shufflereuse", new RetainedShuffleMetricsGaugeSet(context));
+    systemMetrics.register("scheduler", new QuerySchedulerMetricsGaugeSet(context));
+
+    RpcServerMetricsListener rpcMetrics = new RpcServerMetricsListener(systemMetrics);
+    tajoMasterClientService.getRpcServer().setMetricsListener(rpcMetrics);
+    tajoMasterService.getRpcServer().setMetricsListener(rpcMetrics);
+    if (resourceManager instanceof TajoWorkerResourceManager) {
+      ((TajoWorkerResourceManager) resourceManager).getResourceTracker().getRpcServer()
+          .setMetricsListener(rpcMetrics);
+    }
   }
 
   private void initResourceManager() throws Exception {
@@ -47,6 +47,7 @@ import org.apache.tajo.ipc.TajoMasterClientProtocol.TajoMasterClientProtocolServ
 import org.apache.tajo.master.TajoMaster.MasterContext;
 import org.apache.tajo.master.exec.NonForwardQueryResultFileScanner;
 import org.apache.tajo.master.exec.NonForwardQueryResultScanner;
+import org.apache.tajo.master.exec.QueryResultLocator;
 import org.apache.tajo.plan.LogicalPlan;
 import org.apache.tajo.plan.logical.PartitionedTableScanNode;
 import org.apache.tajo.plan.logical.ScanNode;
@@ -78,6 +79,7 @@ public class TajoMasterClientService extends AbstractService {
   private final TajoConf conf;
   private final CatalogService catalog;
   private final TajoMasterClientProtocolServiceHandler clientHandler;
+  private final QueryResultLocator resultLocator;
   private BlockingRpcServer server;
   private InetSocketAddress bindAddress;
 
@@ -92,6 +94,7 @@ public class TajoMasterClientService extends AbstractService {
     this.conf = context.getConf();
     this.catalog = context.getCatalog();
     this.clientHandler = new TajoMasterClientProtocolServiceHandler();
+    this.resultLocator = new QueryResultLocator(context);
   }
 
   @Override
@@ -103,6 +106,7 @@ public class TajoMasterClientService extends AbstractService {
     int workerNum = conf.getIntVar(ConfVars.MASTER_SERVICE_RPC_SERVER_WORKER_THREAD_NUM);
     try {
       server = new BlockingRpcServer(TajoMasterClientProtocol.class, clientHandler, initIsa, workerNum);
+      server.setFlushWindowMicros(conf.getLongVar(ConfVars.RPC_FLUSH_WINDOW_MICROS));
     } catch (Exception e) {
       LOG.error(e);
       throw new RuntimeException(e);
@@ -127,6 +131,10 @@ public class TajoMasterClientService extends AbstractService {
     return this.bindAddress;
   }
 
+  public BlockingRpcServer getRpcServer() {
+    return server;
+  }
+
   /////////////////////////////////////////////////////////////////////////////
   // TajoMasterClientProtocolService
   /////////////////////////////////////////////////////////////////////////////
@@ -301,6 +309,64 @@ public class TajoMasterClientService extends AbstractService {
       }
     }
 
+    @Override
+    public PrepareQueryResponse prepareQuery(RpcController controller, PrepareQueryRequest request)
+        throws ServiceException {
+      try {
+        context.getSessionManager().touch(request.getSessionId().getId());
+        Session session = context.getSessionManager().getSession(request.getSessionId().getId());
+
+        PrepareQueryResponse.Builder builder = PrepareQueryResponse.newBuilder();
+        try {
+          int statementId = context.getGlobalEngine().prepareQuery(session, request.getQuery());
+          builder.setResultCode(ResultCode.OK);
+          builder.setStatementId(statementId);
+          builder.setNumParameters(session.getPreparedQuery(statementId).getNumParameters());
+        } catch (Exception e) {
+          LOG.error(e.getMessage(), e);
+          builder.setResultCode(ResultCode.ERROR);
+          builder.setErrorMessage(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+          builder.setErrorTrace(ExceptionUtils.getStackTrace(e));
+        }
+        return builder.build();
+      } catch (Throwable t) {
+        throw new ServiceException(t);
+      }
+    }
+
+    @Override
+    public SubmitQueryResponse executePreparedQuery(RpcController controller, ExecutePreparedQueryRequest request)
+        throws ServiceException {
+      try {
+        context.getSessionManager().touch(request.getSessionId().getId());
+        Session session = context.getSessionManager().getSession(request.getSessionId().getId());
+        return context.getGlobalEngine().executePreparedQuery(session, request.getStatementId(),
+            request.getParametersList());
+      } catch (Exception e) {
+        LOG.error(e.getMessage(), e);
+        SubmitQueryResponse.Builder responseBuilder = ClientProtos.SubmitQueryResponse.newBuilder();
+        responseBuilder.setQueryId(QueryIdFactory.NULL_QUERY_ID.getProto());
+        responseBuilder.setIsForwarded(true);
+        responseBuilder.setUserName(context.getConf().getVar(ConfVars.USERNAME));
+        responseBuilder.setResultCode(ResultCode.ERROR);
+        responseBuilder.setErrorMessage(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        responseBuilder.setErrorTrace(ExceptionUtils.getStackTrace(e));
+        return responseBuilder.build();
+      }
+    }
+
+    @Override
+    public BoolProto closePreparedQuery(RpcController controller, PreparedQueryIdRequest request)
+        throws ServiceException {
+      try {
+        context.getSessionManager().touch(request.getSessionId().getId());
+        Session session = context.getSessionManager().getSession(request.getSessionId().getId());
+        return session.removePreparedQuery(request.getStatementId()) ? BOOL_TRUE : BOOL_FALSE;
+      } catch (Throwable t) {
+        throw new ServiceException(t);
+      }
+    }
+
     @Override
     public UpdateQueryResponse updateQuery(RpcController controller, QueryRequest request) throws ServiceException {
 
@@ -524,40 +590,45 @@ public class TajoMasterClientService extends AbstractService {
         Session session = context.getSessionManager().getSession(request.getSessionId().getId());
 
         QueryId queryId = new QueryId(request.getQueryId());
+        int streamId = request.getStreamId();
+        int streamNum = request.getStreamNum();
         NonForwardQueryResultScanner queryResultScanner = session.getNonForwardQueryResultScanner(queryId);
-        if (queryResultScanner == null) {
-          QueryInfo queryInfo = context.getQueryJobManager().getFinishedQuery(queryId);
-          Preconditions.checkNotNull(queryInfo, "QueryInfo cannot be NULL.");
-
-          TableDesc resultTableDesc = queryInfo.getResultDesc();
-          Preconditions.checkNotNull(resultTableDesc, "QueryInfo::getResultDesc results in NULL.");
-
-          ScanNode scanNode;
-          if (resultTableDesc.hasPartition()) {
-            scanNode = LogicalPlan.createNodeWithoutPID(PartitionedTableScanNode.class);
-            scanNode.init(resultTableDesc);
-          } else {
-            scanNode = LogicalPlan.createNodeWithoutPID(ScanNode.class);
-            scanNode.init(resultTableDesc);
+        boolean emptyStream = false;
+        if (queryResultScanner != null || streamNum <= 1) {
+          // A scanner which was registered before reads the whole result, so the first stream only takes it.
+          emptyStream = streamId > 0;
+          if (queryResultScanner == null) {
+            queryResultScanner = createQueryResultScanner(session, queryId, 0, 1);
+            session.addNonForwardQueryResultScanner(queryResultScanner);
+          }
+        } else {
+          queryResultScanner = session.getNonForwardQueryResultScanner(queryId, streamId);
+          if (queryResultScanner == null) {
+            queryResultScanner = createQueryResultScanner(session, queryId, streamId, streamNum);
+            session.addNonForwardQueryResultScanner(queryResultScanner, streamId);
           }
-
-          queryResultScanner =
-              new NonForwardQueryResultFileScanner(context.getConf(), session.getSessionId(), queryId, scanNode,
-                  resultTableDesc, Integer.MAX_VALUE);
-          queryResultScanner.init();
-          session.addNonForwardQueryResultScanner(queryResultScanner);
         }
 
-        List<ByteString> rows = queryResultScanner.getNextRows(request.getFetchRowNum());
-
         resultSetBuilder.setSchema(queryResultScanner.getLogicalSchema().getProto());
-        resultSetBuilder.addAllSerializedTuples(rows);
+        int rowNum = 0;
+        if (request.getBlockFormat() && !emptyStream) {
+          List<ResultBlockProto> blocks =
+              queryResultScanner.getNextBlocks(request.getFetchRowNum(), request.getBlockCodec());
+          for (ResultBlockProto block : blocks) {
+            rowNum += block.getRowNum();
+          }
+          resultSetBuilder.addAllResultBlocks(blocks);
+        } else if (!emptyStream) {
+          List<ByteString> rows = queryResultScanner.getNextRows(request.getFetchRowNum());
+          rowNum = rows.size();
+          resultSetBuilder.addAllSerializedTuples(rows);
+        }
 
         builder.setResultSet(resultSetBuilder.build());
         builder.setResultCode(ResultCode.OK);
 
         LOG.info("Send result to client for " +
-            request.getSessionId().getId() + "," + queryId + ", " + rows.size() + " rows");
+            request.getSessionId().getId() + "," + queryId + ", " + rowNum + " rows");
 
       } catch (Throwable t) {
         LOG.error(t.getMessage(), t);
@@ -570,6 +641,63 @@ public class TajoMasterClientService extends AbstractService {
       return builder.build();
     }
 
+    @Override
+    public GetQueryResultLocationsResponse getQueryResultLocations(RpcController controller, QueryIdRequest request)
+        throws ServiceException {
+      GetQueryResultLocationsResponse.Builder builder = GetQueryResultLocationsResponse.newBuilder();
+
+      try {
+        context.getSessionManager().touch(request.getSessionId().getId());
+        Session session = context.getSessionManager().getSession(request.getSessionId().getId());
+        QueryId queryId = new QueryId(request.getQueryId());
+
+        // the result of a query which is not executed by workers is only read through TajoMaster
+        if (session.getNonForwardQueryResultScanner(queryId) != null) {
+          throw new IOException("The result of " + queryId + " is read by TajoMaster");
+        }
+
+        QueryInfo queryInfo = context.getQueryJobManager().getFinishedQuery(queryId);
+        Preconditions.checkNotNull(queryInfo, "QueryInfo cannot be NULL.");
+        TableDesc resultTableDesc = queryInfo.getResultDesc();
+        Preconditions.checkNotNull(resultTableDesc, "QueryInfo::getResultDesc results in NULL.");
+
+        builder.setSchema(resultTableDesc.getLogicalSchema().getProto());
+        builder.addAllResultUrls(resultLocator.getResultUrls(queryId, resultTableDesc));
+        builder.setResultCode(ResultCode.OK);
+      } catch (Throwable t) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug(t.getMessage(), t);
+        }
+        builder.setResultCode(ResultCode.ERROR);
+        builder.setErrorMessage(t.getMessage() == null ? t.getClass().getName() : t.getMessage());
+      }
+      return builder.build();
+    }
+
+    private NonForwardQueryResultScanner createQueryResultScanner(Session session, QueryId queryId,
+                                                                  int streamId, int streamNum) throws Exception {
+      QueryInfo queryInfo = context.getQueryJobManager().getFinishedQuery(queryId);
+      Preconditions.checkNotNull(queryInfo, "QueryInfo cannot be NULL.");
+
+      TableDesc resultTableDesc = queryInfo.getResultDesc();
+      Preconditions.checkNotNull(resultTableDesc, "QueryInfo::getResultDesc results in NULL.");
+
+      ScanNode scanNode;
+      if (resultTableDesc.hasPartition()) {
+        scanNode = LogicalPlan.createNodeWithoutPID(PartitionedTableScanNode.class);
+        scanNode.init(resultTableDesc);
+      } else {
+        scanNode = LogicalPlan.createNodeWithoutPID(ScanNode.class);
+        scanNode.init(resultTableDesc);
+      }
+
+      NonForwardQueryResultScanner queryResultScanner =
+          new NonForwardQueryResultFileScanner(context.getConf(), session.getSessionId(), queryId, scanNode,
+              resultTableDesc, Integer.MAX_VALUE, streamId, streamNum);
+      queryResultScanner.init();
+      return queryResultScanner;
+    }
+
     @Override
     public BoolProto closeNonForwardQuery(RpcController controller, QueryIdRequest request) throws ServiceException {
       try {
@@ -23,6 +23,9 @@ import org.apache.hadoop.yarn.api.records.Resource;
 import org.apache.hadoop.yarn.event.AbstractEvent;
 import org.apache.tajo.ExecutionBlockId;
 
+import java.util.Collections;
+import java.util.Map;
+
 public class ContainerAllocationEvent extends AbstractEvent<ContainerAllocatorEventType>  {
 
   private final ExecutionBlockId executionBlockId;
@@ -31,6 +34,7 @@ public class ContainerAllocationEvent extends AbstractEvent<ContainerAllocatorEv
   private final boolean isLeafQuery;
   private final int requiredNum;
   private final float progress;
+  private final Map<String, Integer> fragmentHosts;
 
   public ContainerAllocationEvent(ContainerAllocatorEventType eventType,
                                   ExecutionBlockId executionBlockId,
@@ -38,6 +42,17 @@ public class ContainerAllocationEvent extends AbstractEvent<ContainerAllocatorEv
                                   Resource resource,
                                   int requiredNum,
                                   boolean isLeafQuery, float progress) {
+    this(eventType, executionBlockId, priority, resource, requiredNum, isLeafQuery, progress,
+        Collections.<String, Integer>emptyMap());
+  }
+
+  public ContainerAllocationEvent(ContainerAllocatorEventType eventType,
+                                  ExecutionBlockId executionBlockId,
+                                  Priority priority,
+                                  Resource resource,
+                                  int requiredNum,
+                                  boolean isLeafQuery, float progress,
+                                  Map<String, Integer> fragmentHosts) {
     super(eventType);
     this.executionBlockId = executionBlockId;
     this.priority = priority;
@@ -45,6 +60,7 @@ public class ContainerAllocationEvent extends AbstractEvent<ContainerAllocatorEv
     this.requiredNum = requiredNum;
     this.isLeafQuery = isLeafQuery;
     this.progress = progress;
+    this.fragmentHosts = fragmentHosts;
   }
 
   public ExecutionBlockId getExecutionBlockId() {
@@ -74,4 +90,11 @@ public class ContainerAllocationEvent extends AbstractEvent<ContainerAllocatorEv
   public Resource getResource() {
     return resource;
   }
+
+  /**
+   * @return the number of fragments per host, which the requesting stage will read
+   */
+  public Map<String, Integer> getFragmentHosts() {
+    return fragmentHosts;
+  }
 }
@@ -22,9 +22,11 @@ import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.storage.fragment.Fragment;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 public class FragmentScheduleEvent extends TaskSchedulerEvent {
-  private final Fragment leftFragment;
+  private final List<Fragment> leftFragments;
   private final Collection<Fragment> rightFragments;
 
   public FragmentScheduleEvent(final EventType eventType, final ExecutionBlockId blockId,
@@ -37,7 +39,19 @@ public class FragmentScheduleEvent extends TaskSchedulerEvent {
                                final Fragment leftFragment,
                                final Collection<Fragment> rightFragments) {
     super(eventType, blockId);
-    this.leftFragment = leftFragment;
+    this.leftFragments = Collections.singletonList(leftFragment);
+    this.rightFragments = rightFragments;
+  }
+
+  /**
+   * @param leftFragments Fragments of the same table, which are packed into a single leaf task
+   */
+  public FragmentScheduleEvent(final EventType eventType,
+                               final ExecutionBlockId blockId,
+                               final List<Fragment> leftFragments,
+                               final Collection<Fragment> rightFragments) {
+    super(eventType, blockId);
+    this.leftFragments = leftFragments;
     this.rightFragments = rightFragments;
   }
 
@@ -46,7 +60,11 @@ public class FragmentScheduleEvent extends TaskSchedulerEvent {
   }
 
   public Fragment getLeftFragment() {
-    return leftFragment;
+    return leftFragments.get(0);
+  }
+
+  public List<Fragment> getLeftFragments() {
+    return leftFragments;
   }
 
   public Collection<Fragment> getRightFragments() { return rightFragments; }
@@ -54,7 +72,7 @@ public class FragmentScheduleEvent extends TaskSchedulerEvent {
   @Override
   public String toString() {
     return "FragmentScheduleEvent{" +
-        "leftFragment=" + leftFragment +
+        "leftFragments=" + leftFragments +
         ", rightFragments=" + rightFragments +
         '}';
   }
@@ -25,6 +25,7 @@ public enum StageEventType {
 
   // Producer: Query
   SQ_INIT,
+  SQ_RECOVER,
   SQ_START,
   SQ_CONTAINER_ALLOCATED,
   SQ_KILL,
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.master.event;
+
+import com.google.protobuf.RpcCallback;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.ipc.TajoWorkerProtocol.TaskRequestBatchProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.TaskRequestProto;
+import org.apache.tajo.master.container.TajoContainerId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A batched task request from a task runner. It consists of multiple slots, and each slot is handled by
+ * a task scheduler like a single task request. The tasks assigned to the slots are returned to the task runner
+ * with a single response.
+ */
+public class TaskRequestBatch {
+  private static final Log LOG = LogFactory.getLog(TaskRequestBatch.class);
+
+  private final RpcCallback<TaskRequestBatchProto> callback;
+  private final TaskRequestEvent [] slots;
+  private final List<TaskRequestProto> taskRequests = new ArrayList<TaskRequestProto>();
+  private int queuedNum = 0;
+  private int answeredNum = 0;
+  private boolean shouldDie = false;
+  private boolean responded = false;
+
+  public TaskRequestBatch(int workerId, TajoContainerId containerId, ExecutionBlockId executionBlockId,
+                          int maxTasks, RpcCallback<TaskRequestBatchProto> callback) {
+    this.callback = callback;
+    this.slots = new TaskRequestEvent[Math.max(1, maxTasks)];
+
+    RpcCallback<TaskRequestProto> slotCallback = new RpcCallback<TaskRequestProto>() {
+      @Override
+      public void run(TaskRequestProto taskRequest) {
+        answer(taskRequest);
+      }
+    };
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = new TaskRequestEvent(workerId, containerId, executionBlockId, slotCallback, this);
+    }
+  }
+
+  /**
+   * @return The next slot to be queued to a task scheduler, or null if all slots are queued
+   */
+  public synchronized TaskRequestEvent nextSlot() {
+    if (responded || queuedNum == slots.length) {
+      return null;
+    }
+    return slots[queuedNum++];
+  }
+
+  public synchronized List<TaskRequestEvent> getQueuedSlots() {
+    return new ArrayList<TaskRequestEvent>(Arrays.asList(slots).subList(0, queuedNum));
+  }
+
+  /**
+   * @return True if this batch can be responded without waiting for the other slots
+   */
+  public synchronized boolean isAnswered() {
+    return !taskRequests.isEmpty() || shouldDie;
+  }
+
+  public synchronized boolean isResponded() {
+    return responded;
+  }
+
+  private synchronized void answer(TaskRequestProto taskRequest) {
+    if (responded) {
+      LOG.error("Task " + taskRequest.getId() + " is assigned to an already responded task request");
+      return;
+    }
+
+    answeredNum++;
+    if (taskRequest.getShouldDie()) {
+      // the other slots can still receive tasks in the same scheduling round
+      shouldDie = true;
+    } else {
+      taskRequests.add(taskRequest);
+    }
+
+    if (answeredNum == slots.length) {
+      respond();
+    }
+  }
+
+  /**
+   * Sends the assigned tasks to the task runner. If no task is assigned, the task runner is stopped.
+   */
+  public synchronized void respond() {
+    respond(true);
+  }
+
+  /**
+   * Sends the tasks assigned so far to the task runner without stopping it, even if no task is assigned.
+   * The task runner requests tasks again after running them.
+   */
+  public synchronized void abort() {
+    respond(false);
+  }
+
+  private void respond(boolean stopIfEmpty) {
+    if (responded) {
+      return;
+    }
+    responded = true;
+
+    TaskRequestBatchProto.Builder builder = TaskRequestBatchProto.newBuilder();
+    builder.addAllTaskRequests(taskRequests);
+    if (stopIfEmpty && taskRequests.isEmpty()) {
+      builder.setShouldDie(true);
+    }
+    callback.run(builder.build());
+  }
+}
@@ -37,16 +37,26 @@ public class TaskRequestEvent extends AbstractEvent<TaskRequestEventType> {
   private final ExecutionBlockId executionBlockId;
 
   private final RpcCallback<TaskRequestProto> callback;
+  private final TaskRequestBatch batch;
 
   public TaskRequestEvent(int workerId,
                           TajoContainerId containerId,
                           ExecutionBlockId executionBlockId,
                           RpcCallback<TaskRequestProto> callback) {
+    this(workerId, containerId, executionBlockId, callback, null);
+  }
+
+  public TaskRequestEvent(int workerId,
+                          TajoContainerId containerId,
+                          ExecutionBlockId executionBlockId,
+                          RpcCallback<TaskRequestProto> callback,
+                          TaskRequestBatch batch) {
     super(TaskRequestEventType.TASK_REQ);
     this.workerId = workerId;
     this.containerId = containerId;
     this.executionBlockId = executionBlockId;
     this.callback = callback;
+    this.batch = batch;
   }
 
   public int getWorkerId() {
@@ -64,4 +74,11 @@ public class TaskRequestEvent extends AbstractEvent<TaskRequestEventType> {
   public RpcCallback<TajoWorkerProtocol.TaskRequestProto> getCallback() {
     return this.callback;
   }
+
+  /**
+   * @return The batch which this request belongs to, or null if it is a single task request
+   */
+  public TaskRequestBatch getBatch() {
+    return batch;
+  }
 }
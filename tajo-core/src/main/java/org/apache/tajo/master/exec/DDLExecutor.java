@@ -55,11 +55,13 @@ public class DDLExecutor {
   private final TajoMaster.MasterContext context;
   private final CatalogService catalog;
   private final StorageManager storageManager;
+  private final QueryResultCache queryResultCache;
 
-  public DDLExecutor(TajoMaster.MasterContext context) {
+  public DDLExecutor(TajoMaster.MasterContext context, QueryResultCache queryResultCache) {
     this.context = context;
     this.catalog = context.getCatalog();
     this.storageManager = context.getStorageManager();
+    this.queryResultCache = queryResultCache;
   }
 
   public boolean execute(QueryContext queryContext, LogicalPlan plan) throws IOException {
@@ -183,6 +185,7 @@ public class DDLExecutor {
     }
 
     boolean result = catalog.dropDatabase(databaseName);
+    queryResultCache.invalidateDatabase(databaseName);
     LOG.info("database " + databaseName + " is dropped.");
     return result;
   }
@@ -287,6 +290,7 @@ public class DDLExecutor {
 
     TableDesc tableDesc = catalog.getTableDesc(qualifiedName);
     catalog.dropTable(qualifiedName);
+    queryResultCache.invalidateTable(qualifiedName);
 
     if (purge) {
       try {
@@ -342,6 +346,7 @@ public class DDLExecutor {
     for (TableDesc eachTable: tableDescList) {
       Path path = new Path(eachTable.getPath());
       LOG.info("Truncate table: " + eachTable.getName() + ", delete all data files in " + path);
+      queryResultCache.invalidateTable(eachTable.getName());
       FileSystem fs = path.getFileSystem(context.getConf());
 
       FileStatus[] files = fs.listStatus(path);
@@ -378,6 +383,8 @@ public class DDLExecutor {
       throw new NoSuchTableException(qualifiedName);
     }
 
+    queryResultCache.invalidateTable(qualifiedName);
+
     switch (alterTable.getAlterTableOpType()) {
     case RENAME_TABLE:
       if (!catalog.existsTable(databaseName, simpleTableName)) {
@@ -33,7 +33,11 @@ import org.apache.tajo.plan.expr.EvalTreeUtil;
 import org.apache.tajo.plan.logical.ScanNode;
 import org.apache.tajo.engine.planner.physical.SeqScanExec;
 import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockCodec;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockProto;
 import org.apache.tajo.storage.FileStorageManager;
+import org.apache.tajo.storage.ResultBlockUtil;
+import org.apache.tajo.storage.ResultBlockUtil.ResultBlockEncoder;
 import org.apache.tajo.storage.RowStoreUtil;
 import org.apache.tajo.storage.RowStoreUtil.RowStoreEncoder;
 import org.apache.tajo.storage.StorageManager;
@@ -55,6 +59,7 @@ public class NonForwardQueryResultFileScanner implements NonForwardQueryResultSc
   private SeqScanExec scanExec;
   private TableDesc tableDesc;
   private RowStoreEncoder rowEncoder;
+  private ResultBlockEncoder blockEncoder;
   private int maxRow;
   private int currentNumRows;
   private TaskAttemptContext taskContext;
@@ -63,6 +68,10 @@ public class NonForwardQueryResultFileScanner implements NonForwardQueryResultSc
   
   private int currentFragmentIndex = 0;
 
+  // this scanner reads only the fragments whose indexes modulo streamNum are streamId
+  private final int streamId;
+  private final int streamNum;
+
   public NonForwardQueryResultFileScanner(TajoConf tajoConf, String sessionId, QueryId queryId, ScanNode scanNode,
       TableDesc tableDesc, int maxRow) throws IOException {
     this.tajoConf = tajoConf;
@@ -72,6 +81,27 @@ public class NonForwardQueryResultFileScanner implements NonForwardQueryResultSc
     this.tableDesc = tableDesc;
     this.maxRow = maxRow;
     this.rowEncoder = RowStoreUtil.createEncoder(tableDesc.getLogicalSchema());
+    this.blockEncoder = ResultBlockUtil.createEncoder(tableDesc.getLogicalSchema());
+    this.streamId = 0;
+    this.streamNum = 1;
+  }
+
+  /**
+   * Create a scanner which reads one of streamNum disjoint parts of a table, so that the parts can be fetched
+   * in parallel.
+   */
+  public NonForwardQueryResultFileScanner(TajoConf tajoConf, String sessionId, QueryId queryId, ScanNode scanNode,
+      TableDesc tableDesc, int maxRow, int streamId, int streamNum) throws IOException {
+    this.tajoConf = tajoConf;
+    this.sessionId = sessionId;
+    this.queryId = queryId;
+    this.scanNode = scanNode;
+    this.tableDesc = tableDesc;
+    this.maxRow = maxRow;
+    this.rowEncoder = RowStoreUtil.createEncoder(tableDesc.getLogicalSchema());
+    this.blockEncoder = ResultBlockUtil.createEncoder(tableDesc.getLogicalSchema());
+    this.streamId = streamId;
+    this.streamNum = streamNum;
   }
 
   public void init() throws IOException {
@@ -107,7 +137,29 @@ public class NonForwardQueryResultFileScanner implements NonForwardQueryResultSc
     StorageManager storageManager = StorageManager.getStorageManager(tajoConf, tableDesc.getMeta().getStoreType());
     List<Fragment> fragments = null;
     setPartition(storageManager);
-    fragments = storageManager.getNonForwardSplit(tableDesc, currentFragmentIndex, MAX_FRAGMENT_NUM_PER_SCAN);
+    while (true) {
+      fragments = storageManager.getNonForwardSplit(tableDesc, currentFragmentIndex, MAX_FRAGMENT_NUM_PER_SCAN);
+      if (fragments == null || fragments.isEmpty()) {
+        break;
+      }
+      if (streamNum == 1) {
+        currentFragmentIndex += fragments.size();
+        break;
+      }
+
+      // skip the fragments of other streams
+      List<Fragment> streamFragments = new ArrayList<Fragment>();
+      for (int i = 0; i < fragments.size(); i++) {
+        if ((currentFragmentIndex + i) % streamNum == streamId) {
+          streamFragments.add(fragments.get(i));
+        }
+      }
+      currentFragmentIndex += fragments.size();
+      if (!streamFragments.isEmpty()) {
+        fragments = streamFragments;
+        break;
+      }
+    }
 
     if (fragments != null && !fragments.isEmpty()) {
       FragmentProto[] fragmentProtos = FragmentConvertor.toFragmentProtoArray(fragments.toArray(new Fragment[] {}));
@@ -123,7 +175,6 @@ public class NonForwardQueryResultFileScanner implements NonForwardQueryResultSc
         throw new IOException(e.getMessage(), e);
       }
       scanExec.init();
-      currentFragmentIndex += fragments.size();
     }
   }
 
@@ -152,40 +203,61 @@ public class NonForwardQueryResultFileScanner implements NonForwardQueryResultSc
 
   public List<ByteString> getNextRows(int fetchRowNum) throws IOException {
     List<ByteString> rows = new ArrayList<ByteString>();
-    if (scanExec == null) {
-      return rows;
+    Tuple tuple;
+    while (rows.size() < fetchRowNum && (tuple = nextRow()) != null) {
+      rows.add(ByteString.copyFrom((rowEncoder.toBytes(tuple))));
     }
+    return rows;
+  }
+
+  public List<ResultBlockProto> getNextBlocks(int fetchRowNum, ResultBlockCodec codec) throws IOException {
+    List<ResultBlockProto> blocks = new ArrayList<ResultBlockProto>();
+    Tuple tuple;
     int rowCount = 0;
-    while (true) {
-      Tuple tuple = scanExec.next();
+    while (rowCount < fetchRowNum && (tuple = nextRow()) != null) {
+      blockEncoder.add(tuple);
+      rowCount++;
+      if (blockEncoder.getRowNum() >= ResultBlockUtil.BLOCK_ROW_NUM) {
+        blocks.add(blockEncoder.build(codec));
+      }
+    }
+    if (blockEncoder.getRowNum() > 0) {
+      blocks.add(blockEncoder.build(codec));
+    }
+    return blocks;
+  }
+
+  /**
+   * @return the next row, or null if all rows are read or the maximum number of rows is reached
+   */
+  private Tuple nextRow() throws IOException {
+    if (scanExec == null) {
+      return null;
+    }
+    if (currentNumRows >= maxRow) {
+      scanExec.close();
+      scanExec = null;
+      return null;
+    }
+
+    Tuple tuple = scanExec.next();
+    if (tuple == null) {
+      scanExec.close();
+      scanExec = null;
+      initSeqScanExec();
+      if (scanExec != null) {
+        tuple = scanExec.next();
+      }
       if (tuple == null) {
-        scanExec.close();
-        scanExec = null;
-        initSeqScanExec();
         if (scanExec != null) {
-          tuple = scanExec.next();
-        }
-        if (tuple == null) {
-          if (scanExec != null) {
-            scanExec.close();
-            scanExec = null;
-          }
-          break;
+          scanExec.close();
+          scanExec = null;
         }
-      }
-      rows.add(ByteString.copyFrom((rowEncoder.toBytes(tuple))));
-      rowCount++;
-      currentNumRows++;
-      if (rowCount >= fetchRowNum) {
-        break;
-      }
-      if (currentNumRows >= maxRow) {
-        scanExec.close();
-        scanExec = null;
-        break;
+        return null;
       }
     }
-    return rows;
+    currentNumRows++;
+    return tuple;
   }
 
   @Override
@@ -24,6 +24,8 @@ import java.util.List;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockCodec;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockProto;
 
 import com.google.protobuf.ByteString;
 
@@ -35,6 +37,11 @@ public interface NonForwardQueryResultScanner {
 
   public List<ByteString> getNextRows(int fetchRowNum) throws IOException;
 
+  /**
+   * @return the next rows encoded into column-major blocks
+   */
+  public List<ResultBlockProto> getNextBlocks(int fetchRowNum, ResultBlockCodec codec) throws IOException;
+
   public QueryId getQueryId();
   
   public String getSessionId();
@@ -39,6 +39,8 @@ import org.apache.tajo.engine.planner.global.GlobalPlanner;
 import org.apache.tajo.engine.planner.global.MasterPlan;
 import org.apache.tajo.engine.planner.physical.PhysicalExec;
 import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockCodec;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockProto;
 import org.apache.tajo.master.TajoMaster.MasterContext;
 import org.apache.tajo.master.rm.Worker;
 import org.apache.tajo.master.rm.WorkerResource;
@@ -49,6 +51,8 @@ import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.logical.IndexScanNode;
 import org.apache.tajo.plan.logical.LogicalNode;
 import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.storage.ResultBlockUtil;
+import org.apache.tajo.storage.ResultBlockUtil.ResultBlockEncoder;
 import org.apache.tajo.storage.RowStoreUtil;
 import org.apache.tajo.storage.RowStoreUtil.RowStoreEncoder;
 import org.apache.tajo.storage.Tuple;
@@ -74,6 +78,7 @@ public class NonForwardQueryResultSystemScanner implements NonForwardQueryResult
   private TableDesc tableDesc;
   private Schema outSchema;
   private RowStoreEncoder encoder;
+  private ResultBlockEncoder blockEncoder;
   private PhysicalExec physicalExec;
   
   public NonForwardQueryResultSystemScanner(MasterContext context, LogicalPlan plan, QueryId queryId, 
@@ -123,6 +128,7 @@ public class NonForwardQueryResultSystemScanner implements NonForwardQueryResult
         new TableMeta(StoreType.SYSTEM, new KeyValueSet()), null);
     outSchema = physicalExec.getSchema();
     encoder = RowStoreUtil.createEncoder(getLogicalSchema());
+    blockEncoder = ResultBlockUtil.createEncoder(getLogicalSchema());
     
     physicalExec.init();
   }
@@ -132,6 +138,7 @@ public class NonForwardQueryResultSystemScanner implements NonForwardQueryResult
     tableDesc = null;
     outSchema = null;
     encoder = null;
+    blockEncoder = null;
     if (physicalExec != null) {
       try {
         physicalExec.close();
@@ -601,6 +608,43 @@ public class NonForwardQueryResultSystemScanner implements NonForwardQueryResult
     return rows;
   }
 
+  @Override
+  public List<ResultBlockProto> getNextBlocks(int fetchRowNum, ResultBlockCodec codec) throws IOException {
+    List<ResultBlockProto> blocks = new ArrayList<ResultBlockProto>();
+    int endRow = currentRow + fetchRowNum;
+
+    if (physicalExec == null) {
+      return blocks;
+    }
+
+    while (currentRow < endRow) {
+      Tuple currentTuple = physicalExec.next();
+
+      if (currentTuple == null) {
+        physicalExec.close();
+        physicalExec = null;
+        break;
+      }
+
+      currentRow++;
+      blockEncoder.add(currentTuple);
+      if (blockEncoder.getRowNum() >= ResultBlockUtil.BLOCK_ROW_NUM) {
+        blocks.add(blockEncoder.build(codec));
+      }
+
+      if (currentRow >= maxRow) {
+        physicalExec.close();
+        physicalExec = null;
+        break;
+      }
+    }
+
+    if (blockEncoder.getRowNum() > 0) {
+      blocks.add(blockEncoder.build(codec));
+    }
+    return blocks;
+  }
+
   @Override
   public QueryId getQueryId() {
     return queryId;
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.master.exec;
+
+import com.google.common.collect.Lists;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+import org.apache.tajo.OverridableConf;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.ipc.ClientProtos.QueryParameterProto;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.RelationNode;
+import org.apache.tajo.plan.serder.EvalNodeSerializer;
+import org.apache.tajo.plan.serder.LogicalNodeDeserializer;
+import org.apache.tajo.plan.serder.PlanProto;
+import org.apache.tajo.plan.util.PlannerUtil;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An optimized logical plan of a prepared query, whose parameters can be bound without planning the query again.
+ *
+ * It is built from two plans of the same query: one planned with the actual parameters and another planned with
+ * sentinel values. The constants which differ between the two plans are the parameter slots. A plan is reusable
+ * only if the two plans are the same except for the slots, i.e., the values of parameters never affect the shape
+ * of the plan. Each binding deserializes a new copy of the plan, so executors can rewrite it freely.
+ */
+public class PreparedPlan {
+  /** the serialized plan planned with the sentinel values */
+  private final PlanProto.LogicalNodeTree template;
+  /** the constant position of each slot, in the order found by {@link #rewrite} */
+  private final int [] slotPositions;
+  /** the parameter index (1-based) bound to each slot */
+  private final int [] slotParams;
+  /** true if a slot keeps a negated parameter value, i.e., the planner folded the sign into the constant */
+  private final boolean [] slotNegated;
+
+  private PreparedPlan(PlanProto.LogicalNodeTree template, int [] slotPositions, int [] slotParams,
+                       boolean [] slotNegated) {
+    this.template = template;
+    this.slotPositions = slotPositions;
+    this.slotParams = slotParams;
+    this.slotNegated = slotNegated;
+  }
+
+  /**
+   * A plan can be cached only if it consists of a single query block reading some relations,
+   * and its shape does not depend on constant values (e.g., partition pruning).
+   */
+  public static boolean isCacheable(LogicalPlan plan) {
+    if (plan.isExplain() || plan.getQueryBlocks().size() != 1) {
+      return false;
+    }
+    LogicalNode root = plan.getRootBlock().getRoot();
+    if (PlannerUtil.checkIfDDLPlan(root) || PlannerUtil.checkIfSetSession(root)) {
+      return false;
+    }
+    return PlannerUtil.findAllNodes(root, NodeType.SCAN).length > 0 &&
+        PlannerUtil.findAllNodes(root, NodeType.PARTITIONS_SCAN).length == 0;
+  }
+
+  /**
+   * Builds a reusable plan.
+   *
+   * @param actual The plan tree planned with the actual parameters
+   * @param sentinel The plan tree planned with the sentinel parameters
+   * @param parameters The actual parameters
+   * @param sentinels The sentinel parameters
+   * @return A prepared plan, or NULL if the plan cannot be reused for other parameters
+   */
+  public static PreparedPlan create(PlanProto.LogicalNodeTree actual, PlanProto.LogicalNodeTree sentinel,
+                                    List<QueryParameterProto> parameters, List<QueryParameterProto> sentinels) {
+    final List<PlanProto.ConstEval> actualConsts = Lists.newArrayList();
+    final List<PlanProto.ConstEval> sentinelConsts = Lists.newArrayList();
+    collect(actual, actualConsts);
+    collect(sentinel, sentinelConsts);
+    if (actualConsts.size() != sentinelConsts.size()) {
+      return null;
+    }
+
+    List<Integer> positions = Lists.newArrayList();
+    List<Integer> params = Lists.newArrayList();
+    List<Boolean> negated = Lists.newArrayList();
+    for (int i = 0; i < actualConsts.size(); i++) {
+      if (actualConsts.get(i).equals(sentinelConsts.get(i))) {
+        continue;
+      }
+
+      boolean found = false;
+      for (QueryParameterProto param : sentinels) {
+        int match = match(sentinelConsts.get(i).getValue(), param.getValue());
+        if (match != 0 &&
+            match == match(actualConsts.get(i).getValue(), getParameter(parameters, param.getIndex()).getValue())) {
+          positions.add(i);
+          params.add(param.getIndex());
+          negated.add(match < 0);
+          found = true;
+          break;
+        }
+      }
+      // a constant derived from a parameter (e.g., folded by the optimizer) cannot be bound
+      if (!found) {
+        return null;
+      }
+    }
+
+    // a parameter without any slot was folded into other constants or into the shape of the plan
+    for (QueryParameterProto param : sentinels) {
+      if (!params.contains(param.getIndex())) {
+        return null;
+      }
+    }
+
+    int [] slotPositions = new int[positions.size()];
+    int [] slotParams = new int[positions.size()];
+    boolean [] slotNegated = new boolean[positions.size()];
+    final PlanProto.ConstEval [] slotValues = new PlanProto.ConstEval[actualConsts.size()];
+    for (int i = 0; i < slotPositions.length; i++) {
+      slotPositions[i] = positions.get(i);
+      slotParams[i] = params.get(i);
+      slotNegated[i] = negated.get(i);
+      slotValues[slotPositions[i]] = sentinelConsts.get(slotPositions[i]);
+    }
+
+    // the two plans must be the same except for the slots
+    if (!rewrite(actual, slotValues, new int[] {0}).equals(sentinel)) {
+      return null;
+    }
+    return new PreparedPlan(sentinel, slotPositions, slotParams, slotNegated);
+  }
+
+  /**
+   * Creates a new logical plan whose parameter slots are bound to the given parameters.
+   */
+  public LogicalPlan bind(OverridableConf context, List<QueryParameterProto> parameters) {
+    List<PlanProto.ConstEval> consts = Lists.newArrayList();
+    collect(template, consts);
+
+    PlanProto.ConstEval [] slotValues = new PlanProto.ConstEval[consts.size()];
+    for (int i = 0; i < slotPositions.length; i++) {
+      PlanProto.Datum slot = consts.get(slotPositions[i]).getValue();
+      String value = getParameter(parameters, slotParams[i]).getValue();
+      if (slotNegated[i]) {
+        value = value.startsWith("-") ? value.substring(1) : "-" + value;
+      }
+      slotValues[slotPositions[i]] = PlanProto.ConstEval.newBuilder().setValue(
+          EvalNodeSerializer.serialize(DatumFactory.createFromString(CatalogUtil.newSimpleDataType(slot.getType()),
+              value))).build();
+    }
+
+    PlanProto.LogicalNodeTree bound = (PlanProto.LogicalNodeTree) rewrite(template, slotValues, new int[] {0});
+    return newPlan(LogicalNodeDeserializer.deserialize(context, bound));
+  }
+
+  /**
+   * Wraps a plan tree of a single query block into a logical plan. Like the planner does, the nodes and relations
+   * of the tree are registered to the root block.
+   */
+  private static LogicalPlan newPlan(LogicalNode root) {
+    LogicalPlan plan = new LogicalPlan();
+    LogicalPlan.QueryBlock block = plan.newAndGetBlock(LogicalPlan.ROOT_BLOCK);
+    block.setRoot(root);
+    int maxPid = -1;
+    for (LogicalNode node : PlannerUtil.findAllNodes(root, NodeType.values())) {
+      block.registerNode(node);
+      maxPid = Math.max(maxPid, node.getPID());
+      if (node instanceof RelationNode) {
+        block.addRelation((RelationNode) node);
+      }
+    }
+    // nodes created by later phases must not share the ids of deserialized nodes
+    plan.setNextPID(maxPid + 1);
+    return plan;
+  }
+
+  private static QueryParameterProto getParameter(List<QueryParameterProto> parameters, int index) {
+    for (QueryParameterProto param : parameters) {
+      if (param.getIndex() == index) {
+        return param;
+      }
+    }
+    throw new IllegalArgumentException("No value specified for parameter " + index);
+  }
+
+  /**
+   * @return 1 if a datum is equal to a parameter value, -1 if it is equal to the negated value, and 0 otherwise.
+   */
+  private static int match(PlanProto.Datum datum, String value) {
+    if (datum.hasText()) {
+      return datum.getText().equals(value) ? 1 : 0;
+    }
+
+    double expected;
+    try {
+      expected = Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+
+    double actual;
+    if (datum.hasInt4()) {
+      actual = datum.getInt4();
+    } else if (datum.hasInt8()) {
+      actual = datum.getInt8();
+    } else if (datum.hasFloat4()) {
+      actual = datum.getFloat4();
+    } else if (datum.hasFloat8()) {
+      actual = datum.getFloat8();
+    } else {
+      return 0;
+    }
+
+    if (actual == expected) {
+      return 1;
+    } else if (actual == -expected) {
+      return -1;
+    } else {
+      return 0;
+    }
+  }
+
+  private static void collect(Message message, List<PlanProto.ConstEval> consts) {
+    if (message instanceof PlanProto.ConstEval) {
+      consts.add((PlanProto.ConstEval) message);
+      return;
+    }
+    for (Map.Entry<FieldDescriptor, Object> field : message.getAllFields().entrySet()) {
+      if (field.getKey().getJavaType() != FieldDescriptor.JavaType.MESSAGE) {
+        continue;
+      }
+      if (field.getKey().isRepeated()) {
+        for (Object child : (List<?>) field.getValue()) {
+          collect((Message) child, consts);
+        }
+      } else {
+        collect((Message) field.getValue(), consts);
+      }
+    }
+  }
+
+  /**
+   * Replaces constants in the same order as {@link #collect}. A constant is kept if its replacement is null.
+   */
+  private static Message rewrite(Message message, PlanProto.ConstEval [] replacements, int [] position) {
+    if (message instanceof PlanProto.ConstEval) {
+      PlanProto.ConstEval replacement = replacements[position[0]++];
+      return replacement != null ? replacement : message;
+    }
+
+    Message.Builder builder = null;
+    for (Map.Entry<FieldDescriptor, Object> field : message.getAllFields().entrySet()) {
+      FieldDescriptor descriptor = field.getKey();
+      if (descriptor.getJavaType() != FieldDescriptor.JavaType.MESSAGE) {
+        continue;
+      }
+      if (descriptor.isRepeated()) {
+        List<?> children = (List<?>) field.getValue();
+        for (int i = 0; i < children.size(); i++) {
+          Message child = (Message) children.get(i);
+          Message rewritten = rewrite(child, replacements, position);
+          if (rewritten != child) {
+            builder = builder == null ? message.toBuilder() : builder;
+            builder.setRepeatedField(descriptor, i, rewritten);
+          }
+        }
+      } else {
+        Message child = (Message) field.getValue();
+        Message rewritten = rewrite(child, replacements, position);
+        if (rewritten != child) {
+          builder = builder == null ? message.toBuilder() : builder;
+          builder.setField(descriptor, rewritten);
+        }
+      }
+    }
+    return builder == null ? message : builder.build();
+  }
+}
@@ -0,0 +1,379 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.exec;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.algebra.*;
+import org.apache.tajo.algebra.LiteralValue.LiteralType;
+import org.apache.tajo.common.TajoDataTypes;
+import org.apache.tajo.ipc.ClientProtos.QueryParameterProto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A query prepared by a client session. It keeps the parsed algebra expression of a query
+ * whose parameters (<code>?</code>) are replaced by placeholder literals. Executing it binds
+ * the given parameter values to a fresh copy of the expression, so the query is not parsed again.
+ *
+ * It also keeps optimized plans as {@link PreparedPlan}s, keyed by the types (and signs) of parameters
+ * and the session variables, because the planner derives data types from literals. The cached plans are
+ * dropped whenever the catalog version is changed.
+ */
+public class PreparedQuery {
+  private static final String PARAM_PREFIX = "$tajo_param_";
+  private static final String PARAM_SUFFIX = "$";
+  private static final String OP_TYPE = "OpType";
+  private static final String SENTINEL_PREFIX = "$tajo_sentinel_";
+  private static final int MAX_CACHED_PLANS = 16;
+
+  private final String sql;
+  private final String template;
+  private final int numParameters;
+  /** the catalog version at which this query passed the pre-verification */
+  private volatile long verifiedCatalogVersion = -1;
+  /** the catalog version at which the cached plans were created */
+  private long planCatalogVersion = -1;
+  /** cached plans by plan keys. A null value means that the plan for a key cannot be reused. */
+  private final Map<String, PreparedPlan> plans = new LinkedHashMap<String, PreparedPlan>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, PreparedPlan> eldest) {
+      return size() > MAX_CACHED_PLANS;
+    }
+  };
+
+  public PreparedQuery(String sql, Expr expr, int numParameters) {
+    this.sql = sql;
+    this.template = expr.toJson();
+    this.numParameters = numParameters;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public int getNumParameters() {
+    return numParameters;
+  }
+
+  /**
+   * @param catalogVersion The current catalog version. A negative version is never regarded as verified.
+   */
+  public boolean isVerified(long catalogVersion) {
+    return catalogVersion >= 0 && verifiedCatalogVersion == catalogVersion;
+  }
+
+  public void setVerified(long catalogVersion) {
+    this.verifiedCatalogVersion = catalogVersion;
+  }
+
+  /**
+   * Returns the key of a cached plan for the given parameters and session variables.
+   *
+   * @return A plan key, or null if the plan depends on the values of parameters
+   */
+  public static String getPlanKey(List<QueryParameterProto> parameters, Map<String, String> sessionVariables) {
+    StringBuilder sb = new StringBuilder();
+    for (QueryParameterProto param : sortByIndex(parameters)) {
+      if (!param.hasValue()) {
+        return null;
+      }
+      switch (param.getType()) {
+      case INT1:
+      case INT2:
+      case INT4:
+      case INT8:
+        sb.append(param.getType()).append(isNegative(param) ? "-" : "+");
+        sb.append(Long.parseLong(param.getValue()) > Integer.MAX_VALUE ||
+            Long.parseLong(param.getValue()) < -Integer.MAX_VALUE ? "L" : "");
+        break;
+      case FLOAT4:
+      case FLOAT8:
+      case NUMERIC:
+        sb.append(param.getType()).append(isNegative(param) ? "-" : "+");
+        break;
+      case CHAR:
+      case VARCHAR:
+      case TEXT:
+        sb.append(param.getType());
+        break;
+      default:
+        // NULL, BOOLEAN and datetime literals are folded or casted by the planner.
+        return null;
+      }
+      sb.append(',');
+    }
+
+    Map<String, String> variables = new TreeMap<String, String>(sessionVariables);
+    variables.remove(SessionVars.SESSION_LAST_ACCESS_TIME.keyname());
+    return sb.append(variables).toString();
+  }
+
+  /**
+   * Returns sentinel parameters which have the same types and signs as the given parameters,
+   * but whose values are distinct from them and from each other.
+   */
+  public static List<QueryParameterProto> getSentinels(List<QueryParameterProto> parameters) {
+    List<QueryParameterProto> sentinels = new ArrayList<QueryParameterProto>(parameters.size());
+    for (QueryParameterProto param : parameters) {
+      int index = param.getIndex();
+      String sign = isNegative(param) ? "-" : "";
+      String magnitude = sign.isEmpty() ? param.getValue() : param.getValue().substring(1);
+      String value;
+      switch (param.getType()) {
+      case INT1:
+      case INT2:
+      case INT4:
+      case INT8:
+        long base = Long.parseLong(magnitude) > Integer.MAX_VALUE ? 8987000000000000000L : 1987000000L;
+        long sentinel = base + index;
+        if (sentinel == Long.parseLong(magnitude)) {
+          sentinel += parameters.size();
+        }
+        value = String.valueOf(sentinel);
+        break;
+      case FLOAT4:
+      case FLOAT8:
+      case NUMERIC:
+        double fraction = 1987000 + index + 0.25;
+        if (fraction == Double.parseDouble(magnitude)) {
+          fraction += parameters.size();
+        }
+        value = String.valueOf(fraction);
+        break;
+      default:
+        value = SENTINEL_PREFIX + index + PARAM_SUFFIX;
+        if (value.equals(magnitude)) {
+          value = SENTINEL_PREFIX + (index + parameters.size()) + PARAM_SUFFIX;
+        }
+      }
+      sentinels.add(param.toBuilder().setValue(sign + value).build());
+    }
+    return sentinels;
+  }
+
+  private static boolean isNegative(QueryParameterProto param) {
+    switch (param.getType()) {
+    case CHAR:
+    case VARCHAR:
+    case TEXT:
+      return false;
+    default:
+      return param.getValue().startsWith("-");
+    }
+  }
+
+  private static List<QueryParameterProto> sortByIndex(List<QueryParameterProto> parameters) {
+    QueryParameterProto [] sorted = new QueryParameterProto[parameters.size()];
+    for (QueryParameterProto param : parameters) {
+      if (param.getIndex() < 1 || param.getIndex() > sorted.length) {
+        throw new IllegalArgumentException("Invalid parameter index: " + param.getIndex());
+      }
+      sorted[param.getIndex() - 1] = param;
+    }
+    List<QueryParameterProto> list = new ArrayList<QueryParameterProto>(sorted.length);
+    for (QueryParameterProto param : sorted) {
+      if (param == null) {
+        throw new IllegalArgumentException("Parameters must be specified exactly once");
+      }
+      list.add(param);
+    }
+    return list;
+  }
+
+  /**
+   * @return True if a plan for the key was created at the given catalog version, even though it cannot be reused
+   */
+  public synchronized boolean hasPlan(String key, long catalogVersion) {
+    return catalogVersion >= 0 && planCatalogVersion == catalogVersion && plans.containsKey(key);
+  }
+
+  /**
+   * @return A cached plan, or null if there is no plan reusable for the key at the given catalog version
+   */
+  public synchronized PreparedPlan getPlan(String key, long catalogVersion) {
+    if (catalogVersion < 0 || planCatalogVersion != catalogVersion) {
+      return null;
+    }
+    return plans.get(key);
+  }
+
+  /**
+   * @param plan A plan, or null to remember that the plan for the key cannot be reused
+   */
+  public synchronized void addPlan(String key, long catalogVersion, PreparedPlan plan) {
+    if (catalogVersion < 0) {
+      return;
+    }
+    if (planCatalogVersion != catalogVersion) {
+      plans.clear();
+      planCatalogVersion = catalogVersion;
+    }
+    plans.put(key, plan);
+  }
+
+  /**
+   * Replaces each parameter marker, which is not enclosed by quotes, with a placeholder literal
+   * that can be parsed by SQLAnalyzer.
+   */
+  public static String replaceParameterMarkers(String sql) {
+    StringBuilder sb = new StringBuilder(sql.length() + 16);
+    int signalCount = 0;
+    int paramIdx = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '\\') {
+        signalCount++;
+        sb.append(c);
+      } else if (c == '?' && signalCount % 2 == 0) {
+        sb.append('\'').append(PARAM_PREFIX).append(++paramIdx).append(PARAM_SUFFIX).append('\'');
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns the number of parameter markers in a rewritten query.
+   */
+  public static int countParameters(String rewrittenSql) {
+    int num = 0;
+    while (rewrittenSql.contains(PARAM_PREFIX + (num + 1) + PARAM_SUFFIX)) {
+      num++;
+    }
+    return num;
+  }
+
+  /**
+   * Creates a new expression where all placeholders are replaced by the given parameters.
+   */
+  public Expr bind(List<QueryParameterProto> parameters) {
+    Expr [] bound = new Expr[numParameters];
+    for (QueryParameterProto param : parameters) {
+      int index = param.getIndex();
+      if (index < 1 || index > numParameters) {
+        throw new IllegalArgumentException("Invalid parameter index: " + index +
+            " (the number of parameters: " + numParameters + ")");
+      }
+      bound[index - 1] = toExpr(param);
+    }
+    for (int i = 0; i < bound.length; i++) {
+      if (bound[i] == null) {
+        throw new IllegalArgumentException("No value specified for parameter " + (i + 1));
+      }
+    }
+
+    JsonElement json = new JsonParser().parse(template);
+    return JsonHelper.getInstance().fromJson(replacePlaceholders(json, bound), Expr.class);
+  }
+
+  private static JsonElement replacePlaceholders(JsonElement element, Expr [] bound) {
+    if (element.isJsonArray()) {
+      JsonArray replaced = new JsonArray();
+      for (JsonElement child : element.getAsJsonArray()) {
+        replaced.add(replacePlaceholders(child, bound));
+      }
+      return replaced;
+
+    } else if (element.isJsonObject()) {
+      JsonObject object = element.getAsJsonObject();
+      int index = getPlaceholderIndex(object);
+      if (index > 0) {
+        return JsonHelper.getInstance().toJsonTree(bound[index - 1], Expr.class);
+      }
+
+      List<Map.Entry<String, JsonElement>> entries = new ArrayList<Map.Entry<String, JsonElement>>(object.entrySet());
+      for (Map.Entry<String, JsonElement> entry : entries) {
+        object.add(entry.getKey(), replacePlaceholders(entry.getValue(), bound));
+      }
+      return object;
+
+    } else {
+      return element;
+    }
+  }
+
+  private static int getPlaceholderIndex(JsonObject object) {
+    JsonElement opType = object.get(OP_TYPE);
+    JsonElement value = object.get("Value");
+    if (opType == null || value == null || !value.isJsonPrimitive() ||
+        !OpType.Literal.name().equals(opType.getAsString())) {
+      return -1;
+    }
+
+    String literal = value.getAsString();
+    if (literal.startsWith(PARAM_PREFIX) && literal.endsWith(PARAM_SUFFIX)) {
+      try {
+        return Integer.parseInt(literal.substring(PARAM_PREFIX.length(), literal.length() - PARAM_SUFFIX.length()));
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  private static Expr toExpr(QueryParameterProto param) {
+    if (!param.hasValue() || param.getType() == TajoDataTypes.Type.NULL_TYPE) {
+      return new NullLiteral();
+    }
+
+    String value = param.getValue();
+    switch (param.getType()) {
+    case BOOLEAN:
+      return new BooleanLiteral(Boolean.parseBoolean(value));
+    case INT1:
+    case INT2:
+    case INT4:
+    case INT8:
+      return toNumericExpr(value, LiteralType.Unsigned_Integer);
+    case FLOAT4:
+    case FLOAT8:
+    case NUMERIC:
+      return toNumericExpr(value, LiteralType.Unsigned_Float);
+    case CHAR:
+    case VARCHAR:
+    case TEXT:
+      return new LiteralValue(value, LiteralType.String);
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+      return new CastExpr(new LiteralValue(value, LiteralType.String), new DataTypeExpr(param.getType().name()));
+    default:
+      throw new IllegalArgumentException("Unsupported parameter type: " + param.getType());
+    }
+  }
+
+  private static Expr toNumericExpr(String value, LiteralType type) {
+    if (value.startsWith("-")) {
+      return new SignedExpr(true, toNumericExpr(value.substring(1), type));
+    }
+    if (type == LiteralType.Unsigned_Integer && Long.parseLong(value) > Integer.MAX_VALUE) {
+      type = LiteralType.Unsigned_Large_Integer;
+    }
+    return new LiteralValue(value, type);
+  }
+}
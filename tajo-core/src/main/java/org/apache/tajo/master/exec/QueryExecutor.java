@@ -72,12 +72,15 @@ public class QueryExecutor {
   private final CatalogService catalog;
   private final DistributedQueryHookManager hookManager;
   private final DDLExecutor ddlExecutor;
+  private final QueryResultCache queryResultCache;
 
-  public QueryExecutor(TajoMaster.MasterContext context, DDLExecutor ddlExecutor) {
+  public QueryExecutor(TajoMaster.MasterContext context, DDLExecutor ddlExecutor,
+                       QueryResultCache queryResultCache) {
     this.context = context;
     this.catalog = context.getCatalog();
 
     this.ddlExecutor = ddlExecutor;
+    this.queryResultCache = queryResultCache;
     this.hookManager = new DistributedQueryHookManager();
     this.hookManager.addHook(new CreateTableHook());
     this.hookManager.addHook(new InsertIntoHook());
@@ -263,6 +266,37 @@ public class QueryExecutor {
     response.setResultCode(ClientProtos.ResultCode.OK);
   }
 
+  /**
+   * Serve a query from the result of an equivalent query which was already executed.
+   */
+  public void execCachedQuery(QueryContext queryContext, Session session, String query, LogicalPlan plan,
+                              TableDesc resultDesc, SubmitQueryResponse.Builder response) throws Exception {
+    context.getSystemMetrics().counter("Query", "numCachedQuery").inc();
+
+    ScanNode scanNode;
+    if (resultDesc.hasPartition()) {
+      scanNode = LogicalPlan.createNodeWithoutPID(PartitionedTableScanNode.class);
+    } else {
+      scanNode = LogicalPlan.createNodeWithoutPID(ScanNode.class);
+    }
+    scanNode.init(resultDesc);
+
+    QueryInfo queryInfo = context.getQueryJobManager().createNewSimpleQuery(queryContext, session, query,
+        (LogicalRootNode) plan.getRootBlock().getRoot());
+    queryInfo.setResultDesc(resultDesc);
+
+    NonForwardQueryResultScanner queryResultScanner = new NonForwardQueryResultFileScanner(
+        context.getConf(), session.getSessionId(), queryInfo.getQueryId(), scanNode, resultDesc, Integer.MAX_VALUE);
+
+    queryResultScanner.init();
+    session.addNonForwardQueryResultScanner(queryResultScanner);
+
+    response.setQueryId(queryInfo.getQueryId().getProto());
+    response.setMaxRowNum(Integer.MAX_VALUE);
+    response.setTableDesc(resultDesc.getProto());
+    response.setResultCode(ClientProtos.ResultCode.OK);
+  }
+
   public void execNonFromQuery(QueryContext queryContext, Session session, String query,
                                LogicalPlan plan, SubmitQueryResponse.Builder responseBuilder) throws Exception {
     LogicalRootNode rootNode = plan.getRootBlock().getRoot();
@@ -311,6 +345,7 @@ public class QueryExecutor {
     if (insertNode.getTableName() != null) {
       tableDesc = this.catalog.getTableDesc(insertNode.getTableName());
       finalOutputDir = new Path(tableDesc.getPath());
+      queryResultCache.invalidateTable(tableDesc.getName());
     } else {
       finalOutputDir = insertNode.getPath();
     }
@@ -352,11 +387,19 @@ public class QueryExecutor {
     } else {
       FileStatus[] files = fs.listStatus(stagingResultDir);
       for (FileStatus eachFile: files) {
+        if (StorageUtil.isFileStatsPath(eachFile.getPath())) {
+          continue;
+        }
         Path targetFilePath = new Path(finalOutputDir, eachFile.getPath().getName());
         if (fs.exists(targetFilePath)) {
           targetFilePath = new Path(finalOutputDir, eachFile.getPath().getName() + "_" + System.currentTimeMillis());
         }
         fs.rename(eachFile.getPath(), targetFilePath);
+
+        Path statsPath = StorageUtil.getFileStatsPath(eachFile.getPath());
+        if (fs.exists(statsPath)) {
+          fs.rename(statsPath, StorageUtil.getFileStatsPath(targetFilePath));
+        }
       }
     }
 
@@ -404,6 +447,15 @@ public class QueryExecutor {
                                       SubmitQueryResponse.Builder responseBuilder) throws Exception {
     LogicalRootNode rootNode = plan.getRootBlock().getRoot();
 
+    QueryResultCache.CacheKey cacheKey = queryResultCache.createKey(queryContext, plan, jsonExpr);
+    if (cacheKey != null) {
+      TableDesc cachedResultDesc = queryResultCache.get(cacheKey);
+      if (cachedResultDesc != null) {
+        execCachedQuery(queryContext, session, sql, plan, cachedResultDesc, responseBuilder);
+        return;
+      }
+    }
+
     CatalogProtos.StoreType storeType = PlannerUtil.getStoreType(plan);
     if (storeType != null) {
       StorageManager sm = StorageManager.getStorageManager(context.getConf(), storeType);
@@ -412,6 +464,11 @@ public class QueryExecutor {
         throw new VerifyException("Inserting into non-file storage is not supported.");
       }
       sm.beforeInsertOrCATS(rootNode.getChild());
+
+      String storeTableName = PlannerUtil.getStoreTableName(plan);
+      if (storeTableName != null) {
+        queryResultCache.invalidateTable(storeTableName);
+      }
     }
     context.getSystemMetrics().counter("Query", "numDMLQuery").inc();
     hookManager.doHooks(queryContext, plan);
@@ -427,6 +484,10 @@ public class QueryExecutor {
       responseBuilder.setErrorMessage("Fail starting QueryMaster.");
       LOG.error("Fail starting QueryMaster: " + sql);
     } else {
+      if (cacheKey != null) {
+        queryResultCache.reserve(queryInfo.getQueryId(), cacheKey);
+      }
+
       responseBuilder.setIsForwarded(true);
       responseBuilder.setQueryId(queryInfo.getQueryId().getProto());
       responseBuilder.setResultCode(ClientProtos.ResultCode.OK);
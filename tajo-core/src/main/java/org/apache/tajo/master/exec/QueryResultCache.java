@@ -0,0 +1,393 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.exec;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.TajoProtos;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.algebra.FunctionExpr;
+import org.apache.tajo.algebra.JsonHelper;
+import org.apache.tajo.algebra.OpType;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.master.QueryInfo;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.logical.LogicalRootNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.RelationNode;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.plan.serder.LogicalNodeSerializer;
+import org.apache.tajo.plan.util.ExprFinder;
+import org.apache.tajo.plan.util.PlannerUtil;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QueryResultCache keeps the result tables of finished distributed queries in TajoMaster.
+ *
+ * A result is looked up by a fingerprint of the optimized logical plan. It is served only if the input snapshot
+ * (the volume, the number of files and the modification time of every scanned table) is the same as the one
+ * taken when the query was submitted. Entries are evicted in LRU order when either the number of entries or
+ * the total volume of cached results exceeds its limit. DDL statements invalidate entries of the tables they touch.
+ */
+public class QueryResultCache {
+  private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+
+  /** Functions whose results can be different for each evaluation */
+  private static final Set<String> NON_DETERMINISTIC_FUNCTIONS =
+      Sets.newHashSet("random", "now", "current_date", "current_time", "sleep");
+
+  private final TajoConf conf;
+  private final boolean enabled;
+  private final int maxEntries;
+  private final long maxBytes;
+
+  /** fingerprint -> cached result. It is kept in access order for LRU eviction. */
+  private final LinkedHashMap<String, CachedResult> entries = new LinkedHashMap<String, CachedResult>(16, 0.75f, true);
+  /** running queries whose results will be cached if they succeed */
+  private final Map<QueryId, CacheKey> pendingQueries = Maps.newConcurrentMap();
+  private long cachedBytes = 0;
+
+  private final AtomicLong hitNum = new AtomicLong();
+  private final AtomicLong missNum = new AtomicLong();
+  private final AtomicLong evictionNum = new AtomicLong();
+  private final AtomicLong invalidationNum = new AtomicLong();
+
+  public QueryResultCache(TajoConf conf) {
+    this.conf = conf;
+    this.enabled = conf.getBoolVar(ConfVars.QUERY_RESULT_CACHE_ENABLED);
+    this.maxEntries = conf.getIntVar(ConfVars.QUERY_RESULT_CACHE_MAX_ENTRIES);
+    this.maxBytes = conf.getLongVar(ConfVars.QUERY_RESULT_CACHE_MAX_SIZE_MB) * 1024 * 1024;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Build a cache key for a given plan.
+   *
+   * @return a cache key, or NULL if the result of the plan cannot be cached
+   */
+  public CacheKey createKey(QueryContext queryContext, LogicalPlan plan, String jsonExpr) throws IOException {
+    if (!enabled) {
+      return null;
+    }
+
+    LogicalRootNode rootNode = plan.getRootBlock().getRoot();
+    if (rootNode.getChild().getType() == NodeType.INSERT || rootNode.getChild().getType() == NodeType.CREATE_TABLE) {
+      return null;
+    }
+
+    if (jsonExpr != null && !isDeterministic(JsonHelper.fromJson(jsonExpr, Expr.class))) {
+      return null;
+    }
+
+    Map<String, Path> tablePaths = new TreeMap<String, Path>();
+    for (LogicalPlan.QueryBlock block : plan.getQueryBlocks()) {
+      for (RelationNode relation : block.getRelations()) {
+        if (relation instanceof ScanNode) {
+          TableDesc desc = ((ScanNode) relation).getTableDesc();
+          if (desc.getPath() == null || !PlannerUtil.isFileStorageType(desc.getMeta().getStoreType())) {
+            return null;
+          }
+          tablePaths.put(desc.getName(), new Path(desc.getPath()));
+        }
+      }
+    }
+
+    StringBuilder snapshot = new StringBuilder();
+    for (Map.Entry<String, Path> entry : tablePaths.entrySet()) {
+      snapshot.append(entry.getKey()).append('@').append(getTableSnapshot(conf, entry.getValue())).append(';');
+    }
+
+    byte[] serializedPlan;
+    try {
+      serializedPlan = LogicalNodeSerializer.serialize(rootNode).toByteArray();
+    } catch (Throwable t) {
+      LOG.warn("Cannot serialize the plan for the query result cache: " + t.getMessage());
+      return null;
+    }
+
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    digest.update(serializedPlan);
+    digest.update(queryContext.get(SessionVars.TIMEZONE, "").getBytes());
+    String fingerprint = new String(Hex.encodeHex(digest.digest()));
+
+    return new CacheKey(fingerprint, snapshot.toString(), tablePaths.keySet());
+  }
+
+  /**
+   * @return the volume, the number of files and the modification time of a table
+   */
+  public static String getTableSnapshot(TajoConf conf, Path tablePath) throws IOException {
+    FileSystem fs = tablePath.getFileSystem(conf);
+    if (!fs.exists(tablePath)) {
+      return "0,0,0";
+    }
+    ContentSummary summary = fs.getContentSummary(tablePath);
+    return summary.getLength() + "," + summary.getFileCount() + "," +
+        fs.getFileStatus(tablePath).getModificationTime();
+  }
+
+  /**
+   * @return True if a given query does not contain any function whose results can be different for each evaluation
+   */
+  public static boolean isDeterministic(Expr expr) {
+    Set<FunctionExpr> functions = ExprFinder.finds(expr, OpType.Function);
+    for (FunctionExpr function : functions) {
+      if (NON_DETERMINISTIC_FUNCTIONS.contains(function.getSignature().toLowerCase())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Find a cached result for a given key. A stale entry whose input snapshot is different from the given key,
+   * or whose result files are removed, is evicted.
+   *
+   * @return the result table of the cached query, or NULL if there is no valid entry.
+   */
+  public synchronized TableDesc get(CacheKey key) {
+    CachedResult cached = entries.get(key.getFingerprint());
+    if (cached != null && !cached.getKey().getSnapshot().equals(key.getSnapshot())) {
+      removeEntry(key.getFingerprint());
+      invalidationNum.incrementAndGet();
+      cached = null;
+    }
+
+    if (cached != null) {
+      try {
+        Path resultPath = new Path(cached.getResultDesc().getPath());
+        if (!resultPath.getFileSystem(conf).exists(resultPath)) {
+          removeEntry(key.getFingerprint());
+          cached = null;
+        }
+      } catch (IOException e) {
+        LOG.warn("Cannot check the cached result of " + cached.getQueryId() + ": " + e.getMessage());
+        removeEntry(key.getFingerprint());
+        cached = null;
+      }
+    }
+
+    if (cached == null) {
+      missNum.incrementAndGet();
+      return null;
+    } else {
+      hitNum.incrementAndGet();
+      LOG.info("Query result cache hit: " + cached.getQueryId() + " (" + key.getFingerprint() + ")");
+      return cached.getResultDesc();
+    }
+  }
+
+  /**
+   * Remember a submitted query. Its result will be cached when the query succeeds.
+   */
+  public void reserve(QueryId queryId, CacheKey key) {
+    pendingQueries.put(queryId, key);
+  }
+
+  /**
+   * It is called when a query is finished.
+   */
+  public void queryFinished(QueryInfo queryInfo) {
+    CacheKey key = pendingQueries.remove(queryInfo.getQueryId());
+    if (key == null) {
+      return;
+    }
+
+    if (queryInfo.getQueryState() == TajoProtos.QueryState.QUERY_SUCCEEDED && queryInfo.hasResultdesc()) {
+      put(queryInfo.getQueryId(), key, queryInfo.getResultDesc());
+    }
+  }
+
+  @VisibleForTesting
+  synchronized void put(QueryId queryId, CacheKey key, TableDesc resultDesc) {
+    if (resultDesc.getStats() == null || resultDesc.getPath() == null) {
+      return;
+    }
+
+    long volume = resultDesc.getStats().getNumBytes();
+    if (volume > maxBytes) {
+      return;
+    }
+
+    removeEntry(key.getFingerprint());
+    entries.put(key.getFingerprint(), new CachedResult(queryId, key, resultDesc, volume));
+    cachedBytes += volume;
+
+    Iterator<Map.Entry<String, CachedResult>> it = entries.entrySet().iterator();
+    while ((entries.size() > maxEntries || cachedBytes > maxBytes) && it.hasNext()) {
+      CachedResult eldest = it.next().getValue();
+      it.remove();
+      cachedBytes -= eldest.getVolume();
+      evictionNum.incrementAndGet();
+    }
+  }
+
+  /**
+   * Evict all cached results which read a given table.
+   *
+   * @param tableName a qualified table name
+   */
+  public synchronized void invalidateTable(String tableName) {
+    Iterator<Map.Entry<String, CachedResult>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      CachedResult cached = it.next().getValue();
+      if (cached.getKey().getTableNames().contains(tableName)) {
+        it.remove();
+        cachedBytes -= cached.getVolume();
+        invalidationNum.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Evict all cached results which read any table in a given database.
+   */
+  public synchronized void invalidateDatabase(String databaseName) {
+    Iterator<Map.Entry<String, CachedResult>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      CachedResult cached = it.next().getValue();
+      for (String tableName : cached.getKey().getTableNames()) {
+        if (CatalogUtil.extractQualifier(tableName).equals(databaseName)) {
+          it.remove();
+          cachedBytes -= cached.getVolume();
+          invalidationNum.incrementAndGet();
+          break;
+        }
+      }
+    }
+  }
+
+  private void removeEntry(String fingerprint) {
+    CachedResult removed = entries.remove(fingerprint);
+    if (removed != null) {
+      cachedBytes -= removed.getVolume();
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getCachedBytes() {
+    return cachedBytes;
+  }
+
+  public long getHitNum() {
+    return hitNum.get();
+  }
+
+  public long getMissNum() {
+    return missNum.get();
+  }
+
+  public long getEvictionNum() {
+    return evictionNum.get();
+  }
+
+  public long getInvalidationNum() {
+    return invalidationNum.get();
+  }
+
+  public static class CacheKey {
+    private final String fingerprint;
+    private final String snapshot;
+    private final Set<String> tableNames;
+
+    public CacheKey(String fingerprint, String snapshot, Set<String> tableNames) {
+      this.fingerprint = fingerprint;
+      this.snapshot = snapshot;
+      this.tableNames = tableNames;
+    }
+
+    /** the digest of the serialized logical plan */
+    public String getFingerprint() {
+      return fingerprint;
+    }
+
+    /** the state of all input tables */
+    public String getSnapshot() {
+      return snapshot;
+    }
+
+    public Set<String> getTableNames() {
+      return tableNames;
+    }
+
+    @Override
+    public String toString() {
+      return fingerprint + "," + snapshot;
+    }
+  }
+
+  static class CachedResult {
+    private final QueryId queryId;
+    private final CacheKey key;
+    private final TableDesc resultDesc;
+    private final long volume;
+
+    CachedResult(QueryId queryId, CacheKey key, TableDesc resultDesc, long volume) {
+      this.queryId = queryId;
+      this.key = key;
+      this.resultDesc = resultDesc;
+      this.volume = volume;
+    }
+
+    public QueryId getQueryId() {
+      return queryId;
+    }
+
+    public CacheKey getKey() {
+      return key;
+    }
+
+    public TableDesc getResultDesc() {
+      return resultDesc;
+    }
+
+    public long getVolume() {
+      return volume;
+    }
+  }
+}
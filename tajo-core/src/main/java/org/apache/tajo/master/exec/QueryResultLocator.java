@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.exec;
+
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.master.TajoMaster.MasterContext;
+import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.master.rm.Worker;
+import org.apache.tajo.master.rm.WorkerState;
+import org.apache.tajo.pullserver.ResultAccessToken;
+import org.apache.tajo.pullserver.TajoPullServerService;
+import org.apache.tajo.storage.FileStorageManager;
+import org.apache.tajo.storage.StorageManager;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * It finds the pull servers from which a client reads the result files of a query directly,
+ * so that the result data do not pass through TajoMaster. A worker which has the first block
+ * of a file is preferred. Otherwise, files are assigned to running workers in round robin.
+ *
+ * Each URL carries a {@link ResultAccessToken} which expires after
+ * tajo.master.result.direct-fetch.token-ttl-sec, so that pull servers only serve the files of
+ * the URLs issued by TajoMaster.
+ */
+public class QueryResultLocator {
+  private final MasterContext context;
+  private final TajoConf conf;
+  private final AtomicInteger nextWorker = new AtomicInteger(0);
+  private ResultAccessToken accessToken;
+
+  public QueryResultLocator(MasterContext context) {
+    this.context = context;
+    this.conf = context.getConf();
+  }
+
+  /**
+   * @return the pull server URLs of the result files
+   * @throws IOException if the result cannot be read from workers
+   */
+  public List<String> getResultUrls(QueryId queryId, TableDesc resultDesc) throws IOException {
+    if (resultDesc.hasPartition() ||
+        !(StorageManager.getStorageManager(conf, resultDesc.getMeta().getStoreType()) instanceof FileStorageManager)) {
+      throw new IOException("The result of " + queryId + " is not a set of files");
+    }
+
+    // only the result directory in the staging directory can be served by pull servers
+    Path resultPath = new Path(resultDesc.getPath());
+    FileSystem fs = resultPath.getFileSystem(conf);
+    Path resultDir = new Path(new Path(TajoConf.getDefaultRootStagingDir(conf), queryId.toString()),
+        TajoConstants.RESULT_DIR_NAME);
+    if (!fs.makeQualified(resultPath).equals(fs.makeQualified(resultDir))) {
+      throw new IOException("The result of " + queryId + " is not stored in the staging directory");
+    }
+
+    List<Worker> workers = new ArrayList<Worker>();
+    for (Worker worker : context.getResourceManager().getWorkers().values()) {
+      if (worker.getState() == WorkerState.RUNNING) {
+        workers.add(worker);
+      }
+    }
+    if (workers.isEmpty()) {
+      throw new IOException("No running worker");
+    }
+
+    ResultAccessToken token = getAccessToken();
+    long expireTime = System.currentTimeMillis()
+        + conf.getIntVar(TajoConf.ConfVars.RESULT_DIRECT_FETCH_TOKEN_TTL_SEC) * 1000L;
+    List<String> urls = new ArrayList<String>();
+    if (!fs.exists(resultPath)) {
+      return urls;
+    }
+    for (FileStatus file : fs.listStatus(resultPath)) {
+      String name = file.getPath().getName();
+      if (file.isDirectory() || file.getLen() == 0 || name.startsWith("_") || name.startsWith(".")) {
+        continue;
+      }
+
+      Worker worker = selectWorker(workers, fs.getFileBlockLocations(file, 0, file.getLen()));
+      WorkerConnectionInfo connectionInfo = worker.getConnectionInfo();
+      String path = fs.makeQualified(file.getPath()).toString();
+      urls.add("http://" + connectionInfo.getHost() + ":" + connectionInfo.getPullServerPort()
+          + TajoPullServerService.RESULT_URI_PATH
+          + "?qid=" + queryId.toString()
+          + "&path=" + URLEncoder.encode(path, "UTF-8")
+          + "&expire=" + expireTime
+          + "&token=" + token.sign(queryId.toString(), path, expireTime));
+    }
+    return urls;
+  }
+
+  private synchronized ResultAccessToken getAccessToken() throws IOException {
+    if (accessToken == null) {
+      accessToken = ResultAccessToken.getOrCreate(conf);
+    }
+    return accessToken;
+  }
+
+  private Worker selectWorker(List<Worker> workers, BlockLocation[] locations) {
+    if (locations != null && locations.length > 0) {
+      for (String host : locations[0].getHosts()) {
+        for (Worker worker : workers) {
+          if (worker.getConnectionInfo().getHost().equals(host)) {
+            return worker;
+          }
+        }
+      }
+    }
+    return workers.get((nextWorker.getAndIncrement() & Integer.MAX_VALUE) % workers.size());
+  }
+}
@@ -0,0 +1,379 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.exec;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.ipc.QueryCoordinatorProtocol.RetainedShuffleProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.IntermediateEntryProto;
+import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.master.rm.Worker;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RetainedShuffleCatalog keeps track of hash shuffle outputs which are left on the local disks of workers
+ * after their queries are finished, so that later queries including the same subplan can fetch them
+ * instead of computing them again.
+ *
+ * An output is looked up by the fingerprint of the subplan which produced it. It is valid only while all workers
+ * hosting its partitions are the same worker instances as the ones at the registration, because a restarted worker
+ * removes its temporal directories. Entries are evicted when their time-to-live is expired, or in LRU order when
+ * the total volume of retained outputs exceeds its limit. An {@link EvictionListener} is notified of every evicted
+ * entry in order to delete the output files from workers.
+ *
+ * A query which gets an output holds a lease of it until the query is finished and {@link #release(QueryId)} is
+ * called. An evicted output is not found any longer, but its files are deleted only after all its leases are released.
+ */
+public class RetainedShuffleCatalog {
+  private static final Log LOG = LogFactory.getLog(RetainedShuffleCatalog.class);
+
+  public interface EvictionListener {
+    /**
+     * @param evicted an evicted output
+     * @param lastOfQuery True if no other output of the same query is retained
+     */
+    void evicted(RetainedShuffle evicted, boolean lastOfQuery);
+  }
+
+  private final long ttlMillis;
+  private final long maxBytes;
+  private final EvictionListener listener;
+
+  /** fingerprint -> retained output. It is kept in access order for LRU eviction. */
+  private final LinkedHashMap<String, RetainedShuffle> entries =
+      new LinkedHashMap<String, RetainedShuffle>(16, 0.75f, true);
+  private long retainedBytes = 0;
+  /** evicted outputs which are still leased by running queries */
+  private final List<RetainedShuffle> leasedEvictions = new ArrayList<RetainedShuffle>();
+
+  private final AtomicLong hitNum = new AtomicLong();
+  private final AtomicLong missNum = new AtomicLong();
+  private final AtomicLong evictionNum = new AtomicLong();
+
+  public RetainedShuffleCatalog(TajoConf conf, EvictionListener listener) {
+    this.ttlMillis = conf.getIntVar(ConfVars.SHUFFLE_REUSE_TTL_SEC) * 1000L;
+    this.maxBytes = conf.getLongVar(ConfVars.SHUFFLE_REUSE_MAX_SIZE_MB) * 1024 * 1024;
+    this.listener = listener;
+  }
+
+  /**
+   * Register the output of a succeeded stage.
+   *
+   * @param retained the fingerprint of a subplan and its output
+   * @param workers the running workers
+   * @return True if the output is retained. If it is not, the caller is responsible for deleting it.
+   */
+  public boolean register(RetainedShuffleProto retained, Map<Integer, Worker> workers) {
+    long volume = retained.getStage().hasResultStats() ? retained.getStage().getResultStats().getNumBytes() : 0;
+    if (volume > maxBytes) {
+      return false;
+    }
+
+    evictExpired();
+
+    Map<Integer, Worker> hosts = new HashMap<Integer, Worker>();
+    for (IntermediateEntryProto entry : retained.getStage().getHashShuffleEntriesList()) {
+      Worker worker = findWorker(entry.getHost(), workers);
+      if (worker == null) {
+        LOG.warn("Cannot retain the output of " + new ExecutionBlockId(retained.getStage().getEbId()) +
+            " because its host " + entry.getHost() + " is not a running worker");
+        return false;
+      }
+      hosts.put(worker.getWorkerId(), worker);
+    }
+
+    List<RetainedShuffle> evicted = new ArrayList<RetainedShuffle>();
+    synchronized (this) {
+      RetainedShuffle registered = new RetainedShuffle(retained, hosts, volume, System.currentTimeMillis());
+      RetainedShuffle replaced = removeEntry(retained.getFingerprint());
+      if (replaced != null) {
+        if (replaced.getExecutionBlockId().equals(registered.getExecutionBlockId())) {
+          registered.leases.addAll(replaced.leases);
+        } else {
+          evicted.add(replaced);
+        }
+      }
+      entries.put(retained.getFingerprint(), registered);
+      retainedBytes += volume;
+
+      Iterator<Map.Entry<String, RetainedShuffle>> it = entries.entrySet().iterator();
+      while (retainedBytes > maxBytes && it.hasNext()) {
+        RetainedShuffle eldest = it.next().getValue();
+        it.remove();
+        retainedBytes -= eldest.getVolume();
+        evicted.add(eldest);
+      }
+    }
+
+    LOG.info("Retained the output of " + new ExecutionBlockId(retained.getStage().getEbId()) +
+        " (" + retained.getFingerprint() + ", " + volume + " bytes)");
+    notifyEvicted(evicted);
+    return true;
+  }
+
+  /**
+   * Find a retained output of a given subplan. An entry which is expired, or some of whose workers are not running
+   * any longer, is evicted.
+   *
+   * @param queryId the query which will fetch the output. It holds a lease of the output until it is released.
+   * @return the retained output, or NULL if there is no valid entry.
+   */
+  public RetainedShuffleProto get(String fingerprint, QueryId queryId, Map<Integer, Worker> workers) {
+    List<RetainedShuffle> evicted = new ArrayList<RetainedShuffle>();
+    RetainedShuffle retained;
+    synchronized (this) {
+      retained = entries.get(fingerprint);
+      if (retained != null && (isExpired(retained, System.currentTimeMillis()) || !isHosted(retained, workers))) {
+        evicted.add(removeEntry(fingerprint));
+        retained = null;
+      }
+      if (retained != null) {
+        retained.leases.add(queryId);
+      }
+    }
+    notifyEvicted(evicted);
+
+    if (retained == null) {
+      missNum.incrementAndGet();
+      return null;
+    } else {
+      hitNum.incrementAndGet();
+      return retained.getProto();
+    }
+  }
+
+  /**
+   * Release the leases held by a finished query. Evicted outputs which are not leased any longer are deleted.
+   */
+  public void release(QueryId queryId) {
+    List<RetainedShuffle> released = new ArrayList<RetainedShuffle>();
+    synchronized (this) {
+      for (RetainedShuffle retained : entries.values()) {
+        retained.leases.remove(queryId);
+      }
+      Iterator<RetainedShuffle> it = leasedEvictions.iterator();
+      while (it.hasNext()) {
+        RetainedShuffle retained = it.next();
+        retained.leases.remove(queryId);
+        if (retained.leases.isEmpty()) {
+          it.remove();
+          released.add(retained);
+        }
+      }
+    }
+    delete(released);
+  }
+
+  /**
+   * Evict all expired entries.
+   */
+  public void evictExpired() {
+    evictExpired(System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  public void evictExpired(long now) {
+    List<RetainedShuffle> evicted = new ArrayList<RetainedShuffle>();
+    synchronized (this) {
+      Iterator<Map.Entry<String, RetainedShuffle>> it = entries.entrySet().iterator();
+      while (it.hasNext()) {
+        RetainedShuffle retained = it.next().getValue();
+        if (isExpired(retained, now)) {
+          it.remove();
+          retainedBytes -= retained.getVolume();
+          evicted.add(retained);
+        }
+      }
+    }
+    notifyEvicted(evicted);
+  }
+
+  /**
+   * Evict and delete all entries regardless of their leases.
+   */
+  public void clear() {
+    List<RetainedShuffle> evicted;
+    synchronized (this) {
+      evicted = new ArrayList<RetainedShuffle>(entries.values());
+      evicted.addAll(leasedEvictions);
+      for (RetainedShuffle retained : evicted) {
+        retained.leases.clear();
+      }
+      entries.clear();
+      leasedEvictions.clear();
+      retainedBytes = 0;
+    }
+    notifyEvicted(evicted);
+  }
+
+  private boolean isExpired(RetainedShuffle retained, long now) {
+    return now - retained.getRegisteredTime() > ttlMillis;
+  }
+
+  private static boolean isHosted(RetainedShuffle retained, Map<Integer, Worker> workers) {
+    for (Worker worker : retained.getWorkers()) {
+      if (workers.get(worker.getWorkerId()) != worker) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Worker findWorker(String pullAddress, Map<Integer, Worker> workers) {
+    for (Worker worker : workers.values()) {
+      WorkerConnectionInfo connectionInfo = worker.getConnectionInfo();
+      if (pullAddress.equals(connectionInfo.getHost() + ":" + connectionInfo.getPullServerPort())) {
+        return worker;
+      }
+    }
+    return null;
+  }
+
+  private RetainedShuffle removeEntry(String fingerprint) {
+    RetainedShuffle removed = entries.remove(fingerprint);
+    if (removed != null) {
+      retainedBytes -= removed.getVolume();
+    }
+    return removed;
+  }
+
+  private synchronized boolean isQueryRetained(QueryId queryId) {
+    for (RetainedShuffle retained : entries.values()) {
+      if (retained.getExecutionBlockId().getQueryId().equals(queryId)) {
+        return true;
+      }
+    }
+    for (RetainedShuffle retained : leasedEvictions) {
+      if (retained.getExecutionBlockId().getQueryId().equals(queryId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void notifyEvicted(List<RetainedShuffle> evicted) {
+    List<RetainedShuffle> deletable = new ArrayList<RetainedShuffle>();
+    synchronized (this) {
+      for (RetainedShuffle retained : evicted) {
+        evictionNum.incrementAndGet();
+        if (retained.leases.isEmpty()) {
+          LOG.info("Evicted the retained output of " + retained.getExecutionBlockId());
+          deletable.add(retained);
+        } else {
+          LOG.info("Evicted the retained output of " + retained.getExecutionBlockId() + ", which is deleted after "
+              + retained.leases + " are finished");
+          leasedEvictions.add(retained);
+        }
+      }
+    }
+    delete(deletable);
+  }
+
+  private void delete(List<RetainedShuffle> deletable) {
+    for (RetainedShuffle retained : deletable) {
+      if (listener != null) {
+        try {
+          listener.evicted(retained, !isQueryRetained(retained.getExecutionBlockId().getQueryId()));
+        } catch (Throwable t) {
+          LOG.warn("Cannot delete the retained output of " + retained.getExecutionBlockId() + ": " + t.getMessage());
+        }
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getRetainedBytes() {
+    return retainedBytes;
+  }
+
+  /**
+   * @return the number of evicted outputs whose deletion waits for their leases to be released
+   */
+  public synchronized int getLeasedEvictionNum() {
+    return leasedEvictions.size();
+  }
+
+  /**
+   * @return the period of time for which an output is retained
+   */
+  public long getTtlMillis() {
+    return ttlMillis;
+  }
+
+  public long getHitNum() {
+    return hitNum.get();
+  }
+
+  public long getMissNum() {
+    return missNum.get();
+  }
+
+  public long getEvictionNum() {
+    return evictionNum.get();
+  }
+
+  public static class RetainedShuffle {
+    private final RetainedShuffleProto proto;
+    private final ExecutionBlockId ebId;
+    private final Map<Integer, Worker> workers;
+    private final long volume;
+    private final long registeredTime;
+    /** queries fetching this output. It is guarded by the lock of the catalog. */
+    private final Set<QueryId> leases = new HashSet<QueryId>();
+
+    RetainedShuffle(RetainedShuffleProto proto, Map<Integer, Worker> workers, long volume, long registeredTime) {
+      this.proto = proto;
+      this.ebId = new ExecutionBlockId(proto.getStage().getEbId());
+      this.workers = workers;
+      this.volume = volume;
+      this.registeredTime = registeredTime;
+    }
+
+    public RetainedShuffleProto getProto() {
+      return proto;
+    }
+
+    public ExecutionBlockId getExecutionBlockId() {
+      return ebId;
+    }
+
+    /** workers hosting the partitions of this output */
+    public Collection<Worker> getWorkers() {
+      return workers.values();
+    }
+
+    public long getVolume() {
+      return volume;
+    }
+
+    public long getRegisteredTime() {
+      return registeredTime;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.exec;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.ipc.TajoWorkerProtocol;
+import org.apache.tajo.master.TajoMaster.MasterContext;
+import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.master.rm.Worker;
+import org.apache.tajo.rpc.NettyClientBase;
+import org.apache.tajo.rpc.NullCallback;
+import org.apache.tajo.rpc.RpcConnectionPool;
+import org.apache.tajo.util.NetUtils;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * It deletes the output files of evicted shuffle outputs from workers.
+ * When the last retained output of a query is evicted, the whole directory of the query is deleted.
+ *
+ * It also periodically sweeps expired outputs, so that they are deleted even if no later query
+ * looks up or registers an output.
+ */
+public class RetainedShuffleCleaner implements RetainedShuffleCatalog.EvictionListener {
+  private static final Log LOG = LogFactory.getLog(RetainedShuffleCleaner.class);
+  private static final long MAX_SWEEP_INTERVAL_MS = 60 * 1000;
+
+  private final MasterContext context;
+  private final AtomicBoolean stopped = new AtomicBoolean(false);
+  private Thread sweeper;
+
+  public RetainedShuffleCleaner(MasterContext context) {
+    this.context = context;
+  }
+
+  public void start(final RetainedShuffleCatalog catalog) {
+    final long interval = Math.max(1000, Math.min(catalog.getTtlMillis() / 2, MAX_SWEEP_INTERVAL_MS));
+    sweeper = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (!stopped.get()) {
+          try {
+            Thread.sleep(interval);
+            catalog.evictExpired();
+          } catch (InterruptedException ie) {
+            if (!stopped.get()) {
+              LOG.error(ie);
+            }
+          } catch (Throwable t) {
+            LOG.error(t, t);
+          }
+        }
+      }
+    }, "RetainedShuffleSweeper");
+    sweeper.setDaemon(true);
+    sweeper.start();
+  }
+
+  public void stop() {
+    if (stopped.getAndSet(true)) {
+      return;
+    }
+    if (sweeper != null) {
+      sweeper.interrupt();
+    }
+  }
+
+  @Override
+  public void evicted(RetainedShuffleCatalog.RetainedShuffle evicted, boolean lastOfQuery) {
+    Collection<Worker> workers = lastOfQuery ?
+        context.getResourceManager().getWorkers().values() : evicted.getWorkers();
+    TajoWorkerProtocol.ExecutionBlockListProto executionBlockList = TajoWorkerProtocol.ExecutionBlockListProto
+        .newBuilder().addExecutionBlockId(evicted.getExecutionBlockId().getProto()).build();
+
+    RpcConnectionPool connPool = RpcConnectionPool.getPool();
+    for (Worker worker : workers) {
+      NettyClientBase rpc = null;
+      try {
+        WorkerConnectionInfo connectionInfo = worker.getConnectionInfo();
+        rpc = connPool.getConnection(NetUtils.createSocketAddr(connectionInfo.getHost(), connectionInfo.getPeerRpcPort()),
+            TajoWorkerProtocol.class, true);
+        TajoWorkerProtocol.TajoWorkerProtocolService tajoWorkerProtocolService = rpc.getStub();
+
+        if (lastOfQuery) {
+          tajoWorkerProtocolService.cleanup(null, evicted.getExecutionBlockId().getQueryId().getProto(),
+              NullCallback.get());
+        } else {
+          tajoWorkerProtocolService.cleanupExecutionBlocks(null, executionBlockList, NullCallback.get());
+        }
+      } catch (Exception e) {
+        LOG.warn("Cannot cleanup " + evicted.getExecutionBlockId() + " on " + worker.getConnectionInfo().getHost()
+            + ": " + e.getMessage());
+      } finally {
+        connPool.releaseConnection(rpc);
+      }
+    }
+  }
+}
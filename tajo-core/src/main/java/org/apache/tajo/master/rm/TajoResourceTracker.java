@@ -85,6 +85,7 @@ public class TajoResourceTracker extends AbstractService implements TajoResource
 
     try {
       server = new AsyncRpcServer(TajoResourceTrackerProtocol.class, this, initIsa, 3);
+      server.setFlushWindowMicros(systemConf.getLongVar(TajoConf.ConfVars.RPC_FLUSH_WINDOW_MICROS));
     } catch (Exception e) {
       LOG.error(e);
       throw new IOError(e);
@@ -209,23 +210,18 @@ public class TajoResourceTracker extends AbstractService implements TajoResource
     int totalAvailableCpuCoreSlots = 0;
     int totalAvailableMemoryMB = 0;
 
-    synchronized(rmContext) {
-      for(int eachWorker: rmContext.getWorkers().keySet()) {
-        Worker worker = rmContext.getWorkers().get(eachWorker);
+    // The worker map is a concurrent map and each worker resource is guarded by its own lock.
+    for(Worker worker: rmContext.getWorkers().values()) {
+      WorkerResource resource = worker.getResource();
 
-        if(worker != null) {
-          WorkerResource resource = worker.getResource();
+      totalMemoryMB += resource.getMemoryMB();
+      totalAvailableMemoryMB += resource.getAvailableMemoryMB();
 
-          totalMemoryMB += resource.getMemoryMB();
-          totalAvailableMemoryMB += resource.getAvailableMemoryMB();
+      totalDiskSlots += resource.getDiskSlots();
+      totalAvailableDiskSlots += resource.getAvailableDiskSlots();
 
-          totalDiskSlots += resource.getDiskSlots();
-          totalAvailableDiskSlots += resource.getAvailableDiskSlots();
-
-          totalCpuCoreSlots += resource.getCpuCoreSlots();
-          totalAvailableCpuCoreSlots += resource.getAvailableCpuCoreSlots();
-        }
-      }
+      totalCpuCoreSlots += resource.getCpuCoreSlots();
+      totalAvailableCpuCoreSlots += resource.getAvailableCpuCoreSlots();
     }
 
     return ClusterResourceSummary.newBuilder()
@@ -238,4 +234,8 @@ public class TajoResourceTracker extends AbstractService implements TajoResource
         .setTotalAvailableMemoryMB(totalAvailableMemoryMB)
         .build();
   }
+
+  public AsyncRpcServer getRpcServer() {
+    return server;
+  }
 }
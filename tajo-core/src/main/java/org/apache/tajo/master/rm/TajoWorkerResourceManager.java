@@ -186,8 +186,7 @@ public class TajoWorkerResourceManager extends CompositeService implements Worke
     return queryIdSeed;
   }
 
-  @VisibleForTesting
-  TajoResourceTracker getResourceTracker() {
+  public TajoResourceTracker getResourceTracker() {
     return resourceTracker;
   }
 
@@ -351,154 +350,184 @@ public class TajoWorkerResourceManager extends CompositeService implements Worke
     }
   }
 
-  private List<AllocatedWorkerResource> chooseWorkers(WorkerResourceRequest resourceRequest) {
-    List<AllocatedWorkerResource> selectedWorkers = new ArrayList<AllocatedWorkerResource>();
-
-    int allocatedResources = 0;
-
-    ResourceRequestPriority resourceRequestPriority
-      = resourceRequest.request.getResourceRequestPriority();
+  /**
+   * Chooses workers for a resource request.
+   *
+   * Workers are ranked by the locality hints of the request first, and then by the ratio of the available
+   * resource which the request prioritizes. As a result, disk-heavy leaf stages are spread by disk slots, and
+   * the other stages are spread by memory. Containers are assigned to the hosts of input data in proportion to
+   * the number of fragments first, and then the remaining containers are assigned to the ranked workers in
+   * a round-robin manner.
+   *
+   * Each allocation is reserved by {@link WorkerResource#tryAllocateResource(float, int)} which only locks
+   * the worker, so the allocation does not block heartbeats and releases of other workers.
+   */
+  @VisibleForTesting
+  List<AllocatedWorkerResource> chooseWorkers(WorkerResourceRequest resourceRequest) {
+    WorkerResourceAllocationRequest request = resourceRequest.request;
+    int numContainers = request.getNumContainers();
+    boolean diskPriority = request.getResourceRequestPriority() == ResourceRequestPriority.DISK;
+
+    Map<String, Integer> hostLocality = Maps.newHashMap();
+    int totalFragments = 0;
+    for (HostLocalityProto eachHost : request.getPreferredHostsList()) {
+      hostLocality.put(eachHost.getHost(), eachHost.getNumFragments());
+      totalFragments += eachHost.getNumFragments();
+    }
 
-    if(resourceRequestPriority == ResourceRequestPriority.MEMORY) {
-      synchronized(rmContext) {
-        List<Integer> randomWorkers = new ArrayList<Integer>(rmContext.getWorkers().keySet());
-        Collections.shuffle(randomWorkers);
+    List<Worker> candidates = rankWorkers(rmContext.getWorkers().values(), hostLocality, diskPriority);
+    List<AllocatedWorkerResource> selectedWorkers = new ArrayList<AllocatedWorkerResource>();
 
-        int numContainers = resourceRequest.request.getNumContainers();
-        int minMemoryMB = resourceRequest.request.getMinMemoryMBPerContainer();
-        int maxMemoryMB = resourceRequest.request.getMaxMemoryMBPerContainer();
-        float diskSlot = Math.max(resourceRequest.request.getMaxDiskSlotPerContainer(),
-          resourceRequest.request.getMinDiskSlotPerContainer());
+    // assign containers to the hosts of input data in proportion to the number of fragments
+    if (totalFragments > 0) {
+      Map<String, Integer> workersPerHost = Maps.newHashMap();
+      for (Worker worker : candidates) {
+        String host = worker.getConnectionInfo().getHost();
+        Integer num = workersPerHost.get(host);
+        workersPerHost.put(host, num == null ? 1 : num + 1);
+      }
 
-        int liveWorkerSize = randomWorkers.size();
-        Set<Integer> insufficientWorkers = new HashSet<Integer>();
-        boolean stop = false;
-        boolean checkMax = true;
-        while(!stop) {
-          if(allocatedResources >= numContainers) {
+      for (Worker worker : candidates) {
+        String host = worker.getConnectionInfo().getHost();
+        if (!hostLocality.containsKey(host)) {
+          break; // the rest workers do not have any input data
+        }
+        int quota = (int) Math.ceil((double) numContainers * hostLocality.get(host) /
+            (totalFragments * workersPerHost.get(host)));
+        for (int i = 0; i < quota && selectedWorkers.size() < numContainers; i++) {
+          AllocatedWorkerResource allocated = allocate(worker, request, diskPriority, true);
+          if (allocated == null) {
             break;
           }
+          selectedWorkers.add(allocated);
+        }
+      }
+    }
 
-          if(insufficientWorkers.size() >= liveWorkerSize) {
-            if(!checkMax) {
-              break;
-            }
-            insufficientWorkers.clear();
-            checkMax = false;
-          }
-          int compareAvailableMemory = checkMax ? maxMemoryMB : minMemoryMB;
-
-          for(int eachWorker: randomWorkers) {
-            if(allocatedResources >= numContainers) {
-              stop = true;
-              break;
-            }
-
-            if(insufficientWorkers.size() >= liveWorkerSize) {
-              break;
-            }
-
-            Worker worker = rmContext.getWorkers().get(eachWorker);
-            WorkerResource workerResource = worker.getResource();
-            if(workerResource.getAvailableMemoryMB() >= compareAvailableMemory) {
-              int workerMemory;
-              if(workerResource.getAvailableMemoryMB() >= maxMemoryMB) {
-                workerMemory = maxMemoryMB;
-              } else {
-                workerMemory = workerResource.getAvailableMemoryMB();
-              }
-              AllocatedWorkerResource allocatedWorkerResource = new AllocatedWorkerResource();
-              allocatedWorkerResource.worker = worker;
-              allocatedWorkerResource.allocatedMemoryMB = workerMemory;
-              if(workerResource.getAvailableDiskSlots() >= diskSlot) {
-                allocatedWorkerResource.allocatedDiskSlots = diskSlot;
-              } else {
-                allocatedWorkerResource.allocatedDiskSlots = workerResource.getAvailableDiskSlots();
-              }
-
-              workerResource.allocateResource(allocatedWorkerResource.allocatedDiskSlots,
-                allocatedWorkerResource.allocatedMemoryMB);
-
-              selectedWorkers.add(allocatedWorkerResource);
-
-              allocatedResources++;
-            } else {
-              insufficientWorkers.add(eachWorker);
-            }
-          }
+    // assign the remaining containers with the maximum resources at first,
+    // and then with the minimum resources if no worker has the maximum resources.
+    boolean checkMax = true;
+    while (selectedWorkers.size() < numContainers) {
+      boolean allocatedInRound = false;
+      for (Worker worker : candidates) {
+        if (selectedWorkers.size() >= numContainers) {
+          break;
+        }
+        AllocatedWorkerResource allocated = allocate(worker, request, diskPriority, checkMax);
+        if (allocated != null) {
+          selectedWorkers.add(allocated);
+          allocatedInRound = true;
         }
       }
-    } else {
-      synchronized(rmContext) {
-        List<Integer> randomWorkers = new ArrayList<Integer>(rmContext.getWorkers().keySet());
-        Collections.shuffle(randomWorkers);
-
-        int numContainers = resourceRequest.request.getNumContainers();
-        float minDiskSlots = resourceRequest.request.getMinDiskSlotPerContainer();
-        float maxDiskSlots = resourceRequest.request.getMaxDiskSlotPerContainer();
-        int memoryMB = Math.max(resourceRequest.request.getMaxMemoryMBPerContainer(),
-          resourceRequest.request.getMinMemoryMBPerContainer());
-
-        int liveWorkerSize = randomWorkers.size();
-        Set<Integer> insufficientWorkers = new HashSet<Integer>();
-        boolean stop = false;
-        boolean checkMax = true;
-        while(!stop) {
-          if(allocatedResources >= numContainers) {
-            break;
-          }
 
-          if(insufficientWorkers.size() >= liveWorkerSize) {
-            if(!checkMax) {
-              break;
-            }
-            insufficientWorkers.clear();
-            checkMax = false;
-          }
-          float compareAvailableDisk = checkMax ? maxDiskSlots : minDiskSlots;
+      if (!allocatedInRound) {
+        if (!checkMax) {
+          break;
+        }
+        checkMax = false;
+      }
+    }
+    return selectedWorkers;
+  }
 
-          for(int eachWorker: randomWorkers) {
-            if(allocatedResources >= numContainers) {
-              stop = true;
-              break;
-            }
+  /**
+   * Ranks workers by locality, the available ratio of the prioritized resource, and the number of running tasks.
+   * Workers of the same rank are ordered randomly.
+   */
+  @VisibleForTesting
+  static List<Worker> rankWorkers(Collection<Worker> workers, Map<String, Integer> hostLocality,
+                                  boolean diskPriority) {
+    // Take a snapshot of the scores because the resources can be changed by releases during sorting.
+    List<RankedWorker> rankedWorkers = new ArrayList<RankedWorker>(workers.size());
+    for (Worker worker : workers) {
+      rankedWorkers.add(new RankedWorker(worker, hostLocality, diskPriority));
+    }
+    Collections.shuffle(rankedWorkers);
+    Collections.sort(rankedWorkers);
 
-            if(insufficientWorkers.size() >= liveWorkerSize) {
-              break;
-            }
+    List<Worker> ranked = new ArrayList<Worker>(rankedWorkers.size());
+    for (RankedWorker rankedWorker : rankedWorkers) {
+      ranked.add(rankedWorker.worker);
+    }
+    return ranked;
+  }
 
-            Worker worker = rmContext.getWorkers().get(eachWorker);
-            WorkerResource workerResource = worker.getResource();
-            if(workerResource.getAvailableDiskSlots() >= compareAvailableDisk) {
-              float workerDiskSlots;
-              if(workerResource.getAvailableDiskSlots() >= maxDiskSlots) {
-                workerDiskSlots = maxDiskSlots;
-              } else {
-                workerDiskSlots = workerResource.getAvailableDiskSlots();
-              }
-              AllocatedWorkerResource allocatedWorkerResource = new AllocatedWorkerResource();
-              allocatedWorkerResource.worker = worker;
-              allocatedWorkerResource.allocatedDiskSlots = workerDiskSlots;
-
-              if(workerResource.getAvailableMemoryMB() >= memoryMB) {
-                allocatedWorkerResource.allocatedMemoryMB = memoryMB;
-              } else {
-                allocatedWorkerResource.allocatedMemoryMB = workerResource.getAvailableMemoryMB();
-              }
-              workerResource.allocateResource(allocatedWorkerResource.allocatedDiskSlots,
-                allocatedWorkerResource.allocatedMemoryMB);
+  private static class RankedWorker implements Comparable<RankedWorker> {
+    final Worker worker;
+    final int numFragments;
+    final float availableRatio;
+    final int numRunningTasks;
+
+    RankedWorker(Worker worker, Map<String, Integer> hostLocality, boolean diskPriority) {
+      this.worker = worker;
+      Integer num = hostLocality.get(worker.getConnectionInfo().getHost());
+      this.numFragments = num == null ? 0 : num;
+
+      WorkerResource resource = worker.getResource();
+      if (diskPriority) {
+        availableRatio = resource.getDiskSlots() > 0 ? resource.getAvailableDiskSlots() / resource.getDiskSlots() : 0;
+      } else {
+        int memoryMB = resource.getMemoryMB();
+        availableRatio = memoryMB > 0 ? (float) resource.getAvailableMemoryMB() / memoryMB : 0;
+      }
+      this.numRunningTasks = resource.getNumRunningTasks();
+    }
 
-              selectedWorkers.add(allocatedWorkerResource);
+    @Override
+    public int compareTo(RankedWorker o) {
+      if (numFragments != o.numFragments) {
+        return numFragments > o.numFragments ? -1 : 1;
+      }
+      int cmp = Float.compare(o.availableRatio, availableRatio);
+      if (cmp != 0) {
+        return cmp;
+      }
+      return numRunningTasks < o.numRunningTasks ? -1 : (numRunningTasks == o.numRunningTasks ? 0 : 1);
+    }
+  }
 
-              allocatedResources++;
-            } else {
-              insufficientWorkers.add(eachWorker);
-            }
-          }
-        }
+  /**
+   * Allocates a container on a given worker.
+   *
+   * @param checkMax If true, the worker must have the maximum amount of the prioritized resource.
+   * @return The allocated resource, or null if the worker does not have enough resources
+   */
+  private static AllocatedWorkerResource allocate(Worker worker, WorkerResourceAllocationRequest request,
+                                                  boolean diskPriority, boolean checkMax) {
+    WorkerResource workerResource = worker.getResource();
+    int availableMemoryMB = Math.max(0, workerResource.getAvailableMemoryMB());
+    float availableDiskSlots = Math.max(0, workerResource.getAvailableDiskSlots());
+
+    int memoryMB;
+    float diskSlots;
+    if (diskPriority) {
+      float maxDiskSlots = request.getMaxDiskSlotPerContainer();
+      if (availableDiskSlots < (checkMax ? maxDiskSlots : request.getMinDiskSlotPerContainer())) {
+        return null;
+      }
+      diskSlots = Math.min(availableDiskSlots, maxDiskSlots);
+      memoryMB = Math.min(availableMemoryMB,
+          Math.max(request.getMaxMemoryMBPerContainer(), request.getMinMemoryMBPerContainer()));
+    } else {
+      int maxMemoryMB = request.getMaxMemoryMBPerContainer();
+      if (availableMemoryMB < (checkMax ? maxMemoryMB : request.getMinMemoryMBPerContainer())) {
+        return null;
       }
+      memoryMB = Math.min(availableMemoryMB, maxMemoryMB);
+      diskSlots = Math.min(availableDiskSlots,
+          Math.max(request.getMaxDiskSlotPerContainer(), request.getMinDiskSlotPerContainer()));
     }
-    return selectedWorkers;
+
+    // another thread may have changed the resources of this worker since they were read.
+    if (!workerResource.tryAllocateResource(diskSlots, memoryMB)) {
+      return null;
+    }
+
+    AllocatedWorkerResource allocatedWorkerResource = new AllocatedWorkerResource();
+    allocatedWorkerResource.worker = worker;
+    allocatedWorkerResource.allocatedMemoryMB = memoryMB;
+    allocatedWorkerResource.allocatedDiskSlots = diskSlots;
+    return allocatedWorkerResource;
   }
 
   /**
@@ -525,13 +554,24 @@ public class TajoWorkerResourceManager extends CompositeService implements Worke
 
   @Override
   public void releaseQueryMaster(QueryId queryId) {
+    releaseQueryMaster(queryId, true);
+  }
+
+  @Override
+  public void releaseFailedQueryMaster(QueryId queryId) {
+    releaseQueryMaster(queryId, false);
+  }
+
+  private void releaseQueryMaster(QueryId queryId, boolean queryStopped) {
     if(!rmContext.getQueryMasterContainer().containsKey(queryId)) {
       LOG.warn("No QueryMaster resource info for " + queryId);
       return;
     } else {
       ContainerProtocol.TajoContainerIdProto containerId = rmContext.getQueryMasterContainer().remove(queryId);
       releaseWorkerResource(containerId);
-      rmContext.getStoppedQueryIds().add(queryId);
+      if (queryStopped) {
+        rmContext.getStoppedQueryIds().add(queryId);
+      }
       LOG.info(String.format("Released QueryMaster (%s) resource." , queryId.toString()));
     }
   }
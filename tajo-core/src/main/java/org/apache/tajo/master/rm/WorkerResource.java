@@ -38,6 +38,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public class WorkerResource {
   private static final Log LOG = LogFactory.getLog(WorkerResource.class);
+  /** tolerance for rounding errors of float disk slots */
+  private static final float SLOT_EPSILON = 0.0001f;
 
   private float diskSlots;
   private int cpuCoreSlots;
@@ -94,11 +96,21 @@ public class WorkerResource {
   }
 
   public float getAvailableDiskSlots() {
-    return diskSlots - usedDiskSlots;
+    try {
+      rlock.lock();
+      return Math.max(diskSlots - usedDiskSlots, 0.0f);
+    } finally {
+      rlock.unlock();
+    }
   }
 
   public int getAvailableMemoryMB() {
-    return memoryMB - usedMemoryMB;
+    try {
+      rlock.lock();
+      return memoryMB - usedMemoryMB;
+    } finally {
+      rlock.unlock();
+    }
   }
 
   public int getAvailableCpuCoreSlots() {
@@ -177,6 +189,28 @@ public class WorkerResource {
     }
   }
 
+  /**
+   * Allocates the given resources only if they are still available. Checking and updating are done
+   * atomically under the lock of this worker, so an allocator does not need to lock the whole cluster.
+   * A request exceeding the available resources is rejected rather than clamped, so that releasing
+   * the same amount later restores the exact previous usage.
+   *
+   * @return True if the resources are allocated
+   */
+  public boolean tryAllocateResource(float diskSlots, int memoryMB) {
+    try {
+      wlock.lock();
+      if (usedMemoryMB + memoryMB > this.memoryMB || usedDiskSlots + diskSlots > this.diskSlots + SLOT_EPSILON) {
+        return false;
+      }
+      usedMemoryMB += memoryMB;
+      usedDiskSlots += diskSlots;
+      return true;
+    } finally {
+      wlock.unlock();
+    }
+  }
+
   public long getMaxHeap() {
     return maxHeap;
   }
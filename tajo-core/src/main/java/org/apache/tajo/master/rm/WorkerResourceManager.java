@@ -81,6 +81,14 @@ public interface WorkerResourceManager extends Service {
    */
   public void releaseQueryMaster(QueryId queryId);
 
+  /**
+   * Release the resource of a failed query master. Unlike {@link #releaseQueryMaster(QueryId)},
+   * the query keeps running, so another query master can be allocated for it.
+   *
+   * @param queryId QueryId whose query master is failed
+   */
+  public void releaseFailedQueryMaster(QueryId queryId);
+
   /**
    *
    * @return a Map instance containing active workers
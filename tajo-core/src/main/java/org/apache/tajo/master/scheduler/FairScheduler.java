@@ -0,0 +1,359 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.scheduler;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.master.QueryInProgress;
+import org.apache.tajo.master.QueryManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * FairScheduler runs queries from multiple named queues concurrently.
+ *
+ * A query is submitted to the queue specified by the session variable <code>QUERY_QUEUE</code>, or to the
+ * first configured queue if the queue does not exist. Whenever the number of running queries is less than
+ * <code>tajo.master.scheduler.fair.max-running-queries</code>, the scheduler picks the queue whose running queries
+ * are the fewest in proportion to its weight, and starts the first query of the queue in FIFO order.
+ * A queue or an user which reaches its maximum number of running queries is skipped.
+ *
+ * Each queue is configured as follows:
+ * <ul>
+ *   <li>tajo.master.scheduler.fair.queue.&lt;name&gt;.weight (default: 1)</li>
+ *   <li>tajo.master.scheduler.fair.queue.&lt;name&gt;.max-running-queries (default: 0, unlimited)</li>
+ * </ul>
+ */
+public class FairScheduler implements Scheduler {
+  private static final Log LOG = LogFactory.getLog(FairScheduler.class.getName());
+
+  public static final String QUEUE_CONF_PREFIX = "tajo.master.scheduler.fair.queue.";
+  public static final String QUEUE_WEIGHT_SUFFIX = ".weight";
+  public static final String QUEUE_MAX_RUNNING_SUFFIX = ".max-running-queries";
+
+  private final Map<String, QueryQueue> queues = new LinkedHashMap<String, QueryQueue>();
+  private final String defaultQueueName;
+  private final int maxRunning;
+  private final int userMaxRunning;
+  /** queries started by this scheduler and not finished yet */
+  private final Map<QueryId, QueuedQuery> runningMap = Maps.newHashMap();
+
+  private final Thread queryProcessor;
+  private AtomicBoolean stopped = new AtomicBoolean();
+  private QueryManager manager;
+  private Comparator<QuerySchedulingInfo> COMPARATOR = new SchedulingAlgorithms.FifoComparator();
+
+  public FairScheduler(QueryManager manager, TajoConf conf) {
+    this.manager = manager;
+    this.maxRunning = conf.getIntVar(ConfVars.FAIR_SCHEDULER_MAX_RUNNING);
+    this.userMaxRunning = conf.getIntVar(ConfVars.FAIR_SCHEDULER_USER_MAX_RUNNING);
+
+    for (String name : conf.getVar(ConfVars.FAIR_SCHEDULER_QUEUES).split(",")) {
+      name = name.trim();
+      if (name.isEmpty() || queues.containsKey(name)) {
+        continue;
+      }
+      int weight = Math.max(1, conf.getInt(QUEUE_CONF_PREFIX + name + QUEUE_WEIGHT_SUFFIX, 1));
+      int queueMaxRunning = Math.max(0, conf.getInt(QUEUE_CONF_PREFIX + name + QUEUE_MAX_RUNNING_SUFFIX, 0));
+      queues.put(name, new QueryQueue(name, weight, queueMaxRunning));
+      LOG.info("Scheduler queue '" + name + "' (weight: " + weight + ", max running queries: " +
+          (queueMaxRunning > 0 ? queueMaxRunning : "unlimited") + ")");
+    }
+    if (queues.isEmpty()) {
+      queues.put(ConfVars.$QUERY_QUEUE.defaultVal, new QueryQueue(ConfVars.$QUERY_QUEUE.defaultVal, 1, 0));
+    }
+    this.defaultQueueName = queues.keySet().iterator().next();
+
+    this.queryProcessor = new Thread(new QueryProcessor());
+    this.queryProcessor.setName("Query Processor");
+  }
+
+  @Override
+  public Mode getMode() {
+    return Mode.FAIR;
+  }
+
+  @Override
+  public String getName() {
+    return manager.getName();
+  }
+
+  @Override
+  public boolean addQuery(QueryInProgress queryInProgress) {
+    QueryContext queryContext = queryInProgress.getQueryInfo().getQueryContext();
+    addQuery(queryInProgress.getQueryId(), queryContext.get(SessionVars.QUERY_QUEUE),
+        queryContext.get(SessionVars.USERNAME), queryInProgress.getQueryInfo().getStartTime());
+    wakeupProcessor();
+    return true;
+  }
+
+  synchronized void addQuery(QueryId queryId, String queueName, String user, long startTime) {
+    QueryQueue queue = queues.get(queueName);
+    if (queue == null) {
+      LOG.warn("No such a scheduler queue '" + queueName + "'. " + queryId + " is submitted to '"
+          + defaultQueueName + "'");
+      queue = queues.get(defaultQueueName);
+    }
+
+    QuerySchedulingInfo schedulingInfo = new QuerySchedulingInfo(queryId, 1, startTime);
+    queue.waiting.add(new QueuedQuery(schedulingInfo, queue.name, user));
+
+    int qSize = queue.waiting.size();
+    if (qSize % 100 == 0) {
+      LOG.info("Size of scheduler queue '" + queue.name + "' is " + qSize);
+    }
+  }
+
+  @Override
+  public synchronized boolean removeQuery(QueryId queryId) {
+    for (QueryQueue queue : queues.values()) {
+      Iterator<QueuedQuery> it = queue.waiting.iterator();
+      while (it.hasNext()) {
+        if (it.next().info.getQueryId().equals(queryId)) {
+          it.remove();
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public List<QueryInProgress> getRunningQueries() {
+    return new ArrayList<QueryInProgress>(manager.getRunningQueries());
+  }
+
+  public Collection<String> getQueueNames() {
+    return Collections.unmodifiableCollection(queues.keySet());
+  }
+
+  public synchronized int getWaitingQueryNum(String queueName) {
+    QueryQueue queue = queues.get(queueName);
+    return queue == null ? 0 : queue.waiting.size();
+  }
+
+  public synchronized int getRunningQueryNum(String queueName) {
+    QueryQueue queue = queues.get(queueName);
+    return queue == null ? 0 : queue.running;
+  }
+
+  /**
+   * @return The average time (ms) which queries of a given queue waited before they started
+   */
+  public synchronized long getAvgWaitTime(String queueName) {
+    QueryQueue queue = queues.get(queueName);
+    if (queue == null || queue.startedNum == 0) {
+      return 0;
+    }
+    return queue.totalWaitTime / queue.startedNum;
+  }
+
+  /**
+   * Finds the next query to be started.
+   *
+   * @param runningQueryIds The ids of queries which are currently running
+   * @return The id of a query to be started. If no query can be started, it returns null.
+   */
+  synchronized QueryId pollSchedulableQuery(Set<QueryId> runningQueryIds) {
+    // release the slots of finished queries
+    Iterator<Map.Entry<QueryId, QueuedQuery>> it = runningMap.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<QueryId, QueuedQuery> entry = it.next();
+      if (!runningQueryIds.contains(entry.getKey())) {
+        queues.get(entry.getValue().queueName).running--;
+        it.remove();
+      }
+    }
+
+    if (runningMap.size() >= maxRunning) {
+      return null;
+    }
+
+    Map<String, Integer> userRunningMap = Maps.newHashMap();
+    for (QueuedQuery running : runningMap.values()) {
+      Integer num = userRunningMap.get(running.user);
+      userRunningMap.put(running.user, num == null ? 1 : num + 1);
+    }
+
+    QueryQueue selectedQueue = null;
+    QueuedQuery selected = null;
+    for (QueryQueue queue : queues.values()) {
+      if (queue.waiting.isEmpty() || (queue.maxRunning > 0 && queue.running >= queue.maxRunning)) {
+        continue;
+      }
+
+      QueuedQuery candidate = queue.peek(userRunningMap);
+      if (candidate == null) {
+        continue;
+      }
+
+      if (selectedQueue == null) {
+        selectedQueue = queue;
+        selected = candidate;
+      } else {
+        int res = Double.compare(queue.getRunningShare(), selectedQueue.getRunningShare());
+        if (res < 0 || (res == 0 && COMPARATOR.compare(candidate.info, selected.info) < 0)) {
+          selectedQueue = queue;
+          selected = candidate;
+        }
+      }
+    }
+
+    if (selected == null) {
+      return null;
+    }
+
+    selectedQueue.waiting.remove(selected);
+    selectedQueue.running++;
+    selectedQueue.startedNum++;
+    selectedQueue.totalWaitTime += Math.max(0, System.currentTimeMillis() - selected.info.getStartTime());
+    runningMap.put(selected.info.getQueryId(), selected);
+    return selected.info.getQueryId();
+  }
+
+  @Override
+  public void start() {
+    queryProcessor.start();
+  }
+
+  @Override
+  public void stop() {
+    if (stopped.getAndSet(true)) {
+      return;
+    }
+    synchronized (this) {
+      for (QueryQueue queue : queues.values()) {
+        queue.waiting.clear();
+      }
+    }
+    synchronized (queryProcessor) {
+      queryProcessor.interrupt();
+    }
+  }
+
+  private void wakeupProcessor() {
+    synchronized (queryProcessor) {
+      queryProcessor.notifyAll();
+    }
+  }
+
+  private Set<QueryId> getRunningQueryIds() {
+    Set<QueryId> runningQueryIds = Sets.newHashSet();
+    for (QueryInProgress queryInProgress : manager.getRunningQueries()) {
+      runningQueryIds.add(queryInProgress.getQueryId());
+    }
+    return runningQueryIds;
+  }
+
+  private final class QueryProcessor implements Runnable {
+    @Override
+    public void run() {
+
+      QueryId queryId;
+
+      while (!stopped.get() && !Thread.currentThread().isInterrupted()) {
+        queryId = pollSchedulableQuery(getRunningQueryIds());
+
+        if (queryId != null) {
+          try {
+            manager.startQueryJob(queryId);
+          } catch (Throwable t) {
+            LOG.fatal("Exception during query startup:", t);
+            manager.stopQuery(queryId);
+          }
+          // try to start more queries if there are available slots
+          continue;
+        }
+
+        synchronized (queryProcessor) {
+          try {
+            queryProcessor.wait(500);
+          } catch (InterruptedException e) {
+            if (stopped.get()) {
+              break;
+            }
+            LOG.warn("Exception during shutdown: ", e);
+          }
+        }
+      }
+    }
+  }
+
+  private class QueryQueue {
+    private final String name;
+    private final int weight;
+    private final int maxRunning;
+    private final LinkedList<QueuedQuery> waiting = new LinkedList<QueuedQuery>();
+    private int running = 0;
+    private long startedNum = 0;
+    private long totalWaitTime = 0;
+
+    QueryQueue(String name, int weight, int maxRunning) {
+      this.name = name;
+      this.weight = weight;
+      this.maxRunning = maxRunning;
+    }
+
+    double getRunningShare() {
+      return (double) running / weight;
+    }
+
+    /**
+     * Returns the first query in FIFO order whose user does not exceed the maximum number of running queries.
+     */
+    QueuedQuery peek(Map<String, Integer> userRunningMap) {
+      if (waiting.size() > 1) {
+        Collections.sort(waiting, new Comparator<QueuedQuery>() {
+          @Override
+          public int compare(QueuedQuery q1, QueuedQuery q2) {
+            return COMPARATOR.compare(q1.info, q2.info);
+          }
+        });
+      }
+
+      for (QueuedQuery query : waiting) {
+        Integer userRunning = userRunningMap.get(query.user);
+        if (userMaxRunning <= 0 || userRunning == null || userRunning < userMaxRunning) {
+          return query;
+        }
+      }
+      return null;
+    }
+  }
+
+  private static class QueuedQuery {
+    private final QuerySchedulingInfo info;
+    private final String queueName;
+    private final String user;
+
+    QueuedQuery(QuerySchedulingInfo info, String queueName, String user) {
+      this.info = info;
+      this.queueName = queueName;
+      this.user = user;
+    }
+  }
+}
@@ -35,7 +35,12 @@ public interface Scheduler {
 
   public List<QueryInProgress> getRunningQueries();
 
+  public void start();
+
+  public void stop();
+
   public enum Mode {
-    FIFO
+    FIFO,
+    FAIR
   }
 }
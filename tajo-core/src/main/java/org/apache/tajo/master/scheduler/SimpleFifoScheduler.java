@@ -21,6 +21,7 @@ package org.apache.tajo.master.scheduler;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.QueryId;
+import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.master.QueryInProgress;
 import org.apache.tajo.master.QueryManager;
 
@@ -41,6 +42,10 @@ public class SimpleFifoScheduler implements Scheduler {
     this.queryProcessor.setName("Query Processor");
   }
 
+  public SimpleFifoScheduler(QueryManager manager, TajoConf conf) {
+    this(manager);
+  }
+
   @Override
   public Mode getMode() {
     return Mode.FIFO;
@@ -84,10 +89,12 @@ public class SimpleFifoScheduler implements Scheduler {
     return new ArrayList<QueryInProgress>(manager.getRunningQueries());
   }
 
+  @Override
   public void start() {
     queryProcessor.start();
   }
 
+  @Override
   public void stop() {
     if (stopped.getAndSet(true)) {
       return;
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import org.apache.tajo.pullserver.DiskReadScheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PullServerMetricsGaugeSet implements MetricSet {
+  private final DiskReadScheduler scheduler;
+
+  public PullServerMetricsGaugeSet(DiskReadScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    Map<String, Metric> metricsMap = new HashMap<String, Metric>();
+    // the counters are cumulative, so that a reader computes rates between its own samples
+    metricsMap.put("startedReads", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return scheduler.getStartedReads();
+      }
+    });
+
+    metricsMap.put("totalQueueTimeMs", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return scheduler.getTotalQueueTimeMs();
+      }
+    });
+
+    metricsMap.put("readBytes", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return scheduler.getReadBytes();
+      }
+    });
+
+    metricsMap.put("rejectedTransfers", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return scheduler.getRejectedTransfers();
+      }
+    });
+
+    for (final String diskName : scheduler.getDiskNames()) {
+      metricsMap.put("disk" + diskName.replace('/', '_') + ".busyTimeMs", new Gauge<Long>() {
+        @Override
+        public Long getValue() {
+          return scheduler.getBusyTimeMs(diskName);
+        }
+      });
+
+      metricsMap.put("disk" + diskName.replace('/', '_') + ".pendingTransfers", new Gauge<Integer>() {
+        @Override
+        public Integer getValue() {
+          return scheduler.getPendingTransfers(diskName);
+        }
+      });
+
+      metricsMap.put("disk" + diskName.replace('/', '_') + ".queuedReads", new Gauge<Integer>() {
+        @Override
+        public Integer getValue() {
+          return scheduler.getQueuedReads(diskName);
+        }
+      });
+
+      metricsMap.put("disk" + diskName.replace('/', '_') + ".runningReads", new Gauge<Integer>() {
+        @Override
+        public Integer getValue() {
+          return scheduler.getRunningReads(diskName);
+        }
+      });
+    }
+
+    return metricsMap;
+  }
+}
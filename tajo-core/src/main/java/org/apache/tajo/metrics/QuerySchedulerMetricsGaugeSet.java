@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import org.apache.tajo.master.QueryManager;
+import org.apache.tajo.master.TajoMaster;
+import org.apache.tajo.master.scheduler.FairScheduler;
+import org.apache.tajo.master.scheduler.Scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class QuerySchedulerMetricsGaugeSet implements MetricSet {
+  TajoMaster.MasterContext tajoMasterContext;
+  public QuerySchedulerMetricsGaugeSet(TajoMaster.MasterContext tajoMasterContext) {
+    this.tajoMasterContext = tajoMasterContext;
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    Map<String, Metric> metricsMap = new HashMap<String, Metric>();
+    metricsMap.put("waitingQueries", new Gauge<Integer>() {
+      @Override
+      public Integer getValue() {
+        return getQueryManager().getSubmittedQueries().size();
+      }
+    });
+
+    metricsMap.put("runningQueries", new Gauge<Integer>() {
+      @Override
+      public Integer getValue() {
+        return getQueryManager().getRunningQueries().size();
+      }
+    });
+
+    Scheduler scheduler = getQueryManager().getScheduler();
+    if (scheduler instanceof FairScheduler) {
+      final FairScheduler fairScheduler = (FairScheduler) scheduler;
+      for (final String queueName : fairScheduler.getQueueNames()) {
+        metricsMap.put(queueName + ".waitingQueries", new Gauge<Integer>() {
+          @Override
+          public Integer getValue() {
+            return fairScheduler.getWaitingQueryNum(queueName);
+          }
+        });
+
+        metricsMap.put(queueName + ".runningQueries", new Gauge<Integer>() {
+          @Override
+          public Integer getValue() {
+            return fairScheduler.getRunningQueryNum(queueName);
+          }
+        });
+
+        metricsMap.put(queueName + ".avgWaitTimeMs", new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return fairScheduler.getAvgWaitTime(queueName);
+          }
+        });
+      }
+    }
+
+    return metricsMap;
+  }
+
+  private QueryManager getQueryManager() {
+    return tajoMasterContext.getQueryJobManager();
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.metrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import org.apache.tajo.rpc.RpcMetricsListener;
+import org.apache.tajo.util.metrics.TajoMetrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * It records the latency and the number of in-flight calls of each RPC method, as a timer
+ * 'rpc.[server].[method]' and a histogram 'rpc.[server].[method].inflight'.
+ */
+public class RpcServerMetricsListener implements RpcMetricsListener {
+  private static final String CONTEXT_NAME = "rpc";
+
+  private final TajoMetrics metrics;
+  private final ConcurrentMap<String, Timer> latencies = new ConcurrentHashMap<String, Timer>();
+  private final ConcurrentMap<String, Histogram> inFlights = new ConcurrentHashMap<String, Histogram>();
+
+  public RpcServerMetricsListener(TajoMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void onCallStarted(String serviceName, String methodName, int inFlight) {
+    String name = serviceName + "." + methodName;
+    Histogram histogram = inFlights.get(name);
+    if (histogram == null) {
+      histogram = metrics.histogram(CONTEXT_NAME, name + ".inflight");
+      inFlights.putIfAbsent(name, histogram);
+    }
+    histogram.update(inFlight);
+  }
+
+  @Override
+  public void onCallFinished(String serviceName, String methodName, long elapsedNanos) {
+    String name = serviceName + "." + methodName;
+    Timer timer = latencies.get(name);
+    if (timer == null) {
+      timer = metrics.timer(CONTEXT_NAME, name);
+      latencies.putIfAbsent(name, timer);
+    }
+    timer.update(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+}
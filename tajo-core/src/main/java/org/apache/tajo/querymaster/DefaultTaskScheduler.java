@@ -28,6 +28,7 @@ import org.apache.hadoop.yarn.event.EventHandler;
 import org.apache.hadoop.yarn.util.RackResolver;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.engine.planner.global.ExecutionBlock;
 import org.apache.tajo.engine.planner.global.MasterPlan;
@@ -40,7 +41,6 @@ import org.apache.tajo.master.container.TajoContainerId;
 import org.apache.tajo.master.event.*;
 import org.apache.tajo.master.event.TaskAttemptToSchedulerEvent.TaskAttemptScheduleContext;
 import org.apache.tajo.master.event.TaskSchedulerEvent.EventType;
-import org.apache.tajo.plan.serder.LogicalNodeSerializer;
 import org.apache.tajo.plan.serder.PlanProto;
 import org.apache.tajo.storage.DataLocation;
 import org.apache.tajo.storage.fragment.FileFragment;
@@ -50,14 +50,17 @@ import org.apache.tajo.worker.FetchImpl;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.tajo.catalog.proto.CatalogProtos.FragmentProto;
 
 public class DefaultTaskScheduler extends AbstractTaskScheduler {
   private static final Log LOG = LogFactory.getLog(DefaultTaskScheduler.class);
+  private static final long SPECULATION_INTERVAL_MS = 1000;
 
   private final TaskSchedulerContext context;
   private Stage stage;
@@ -67,10 +70,15 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
 
   private ScheduledRequests scheduledRequests;
   private TaskRequests taskRequests;
+  // batched task requests which are not responded yet
+  private final Queue<TaskRequestBatch> pendingBatches = new ConcurrentLinkedQueue<TaskRequestBatch>();
 
   private int nextTaskId = 0;
   private int scheduledObjectNum = 0;
 
+  private TaskSpeculator speculator;
+  private long lastSpeculationTime = 0;
+
   public DefaultTaskScheduler(TaskSchedulerContext context, Stage stage) {
     super(DefaultTaskScheduler.class.getName());
     this.context = context;
@@ -83,6 +91,12 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     scheduledRequests = new ScheduledRequests();
     taskRequests  = new TaskRequests();
 
+    // The output of a final stage is not distinguished by attempts, so only intermediate stages are speculated.
+    if (stage.getMasterPlan().getContext().getBool(SessionVars.SPECULATIVE_EXECUTION_ENABLED) &&
+        scheduledRequests.checkIfInterQuery(stage.getMasterPlan(), stage.getBlock())) {
+      speculator = new TaskSpeculator(context.getMasterContext().getConf(), stage);
+    }
+
     super.init(conf);
   }
 
@@ -148,6 +162,10 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         req.getCallback().run(stopTaskRunnerReq);
       }
     }
+    for (TaskRequestBatch batch : pendingBatches) {
+      batch.respond();
+    }
+    pendingBatches.clear();
 
     LOG.info("Task Scheduler stopped");
     super.stop();
@@ -158,6 +176,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
 
   LinkedList<TaskRequestEvent> taskRequestEvents = new LinkedList<TaskRequestEvent>();
   public void schedule() {
+    expandBatches();
 
     if (taskRequests.size() > 0) {
       if (scheduledRequests.leafTaskNum() > 0) {
@@ -185,6 +204,76 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         taskRequestEvents.clear();
       }
     }
+
+    if (taskRequests.size() > 0) {
+      if (scheduledRequests.speculativeTaskNum() > 0) {
+        taskRequests.getTaskRequests(taskRequestEvents, taskRequests.size());
+        scheduledRequests.assignToSpeculativeTasks(taskRequestEvents);
+        taskRequestEvents.clear();
+      }
+    }
+
+    flushBatches();
+
+    if (speculator != null) {
+      speculate();
+    }
+  }
+
+  /**
+   * Queues more slots of batched task requests while the remaining tasks outnumber the queued requests.
+   * Task runners receive many tasks at once when a stage has many tasks, while the tail tasks of the stage
+   * are still spread over task runners.
+   */
+  private void expandBatches() {
+    boolean expanded = true;
+    while (expanded && remainingScheduledObjectNum() > taskRequests.size()) {
+      expanded = false;
+      for (TaskRequestBatch batch : pendingBatches) {
+        if (remainingScheduledObjectNum() <= taskRequests.size()) {
+          break;
+        }
+        TaskRequestEvent slot = batch.nextSlot();
+        if (slot != null) {
+          taskRequests.handle(slot);
+          expanded = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Responds batched task requests which have received tasks in this scheduling round, and withdraws their
+   * remaining slots from the request queue.
+   */
+  private void flushBatches() {
+    Iterator<TaskRequestBatch> iterator = pendingBatches.iterator();
+    while (iterator.hasNext()) {
+      TaskRequestBatch batch = iterator.next();
+      if (batch.isResponded()) {
+        iterator.remove();
+      } else if (batch.isAnswered()) {
+        taskRequests.taskRequestQueue.removeAll(batch.getQueuedSlots());
+        batch.respond();
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Launches speculative attempts of straggler tasks after all tasks of the stage are assigned.
+   */
+  private void speculate() {
+    long now = System.currentTimeMillis();
+    if (now - lastSpeculationTime < SPECULATION_INTERVAL_MS ||
+        scheduledRequests.leafTaskNum() > 0 || scheduledRequests.nonLeafTaskNum() > 0) {
+      return;
+    }
+    lastSpeculationTime = now;
+
+    for (Task task : speculator.findStragglers(now)) {
+      stage.getEventHandler().handle(new TaskEvent(task.getId(), TaskEventType.T_SPECULATE));
+    }
   }
 
   @Override
@@ -195,7 +284,9 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         if (context.isLeafQuery()) {
           TaskAttemptScheduleContext taskContext = new TaskAttemptScheduleContext();
           Task task = Stage.newEmptyTask(context, taskContext, stage, nextTaskId++);
-          task.addFragment(castEvent.getLeftFragment(), true);
+          for (Fragment leftFragment : castEvent.getLeftFragments()) {
+            task.addFragment(leftFragment, true);
+          }
           scheduledObjectNum++;
           if (castEvent.hasRightFragments()) {
             task.addFragments(castEvent.getRightFragments());
@@ -234,7 +325,9 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         stage.getEventHandler().handle(new TaskEvent(task.getId(), TaskEventType.T_SCHEDULE));
       } else if (event instanceof TaskAttemptToSchedulerEvent) {
         TaskAttemptToSchedulerEvent castEvent = (TaskAttemptToSchedulerEvent) event;
-        if (context.isLeafQuery()) {
+        if (castEvent.getTaskAttempt().isSpeculative()) {
+          scheduledRequests.addSpeculativeTask(castEvent);
+        } else if (context.isLeafQuery()) {
           scheduledRequests.addLeafTask(castEvent);
         } else {
           scheduledRequests.addNonLeafTask(castEvent);
@@ -245,6 +338,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       // This event is triggered by TaskAttempt.
       TaskAttemptToSchedulerEvent castedEvent = (TaskAttemptToSchedulerEvent) event;
       scheduledRequests.leafTasks.remove(castedEvent.getTaskAttempt().getId());
+      scheduledRequests.speculativeTasks.remove(castedEvent.getTaskAttempt().getId());
       LOG.info(castedEvent.getTaskAttempt().getId() + " is canceled from " + this.getClass().getSimpleName());
       ((TaskAttemptToSchedulerEvent) event).getTaskAttempt().handle(
           new TaskAttemptEvent(castedEvent.getTaskAttempt().getId(), TaskAttemptEventType.TA_SCHEDULE_CANCELED));
@@ -254,6 +348,9 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
   @Override
   public void handleTaskRequestEvent(TaskRequestEvent event) {
 
+    if (event.getBatch() != null && !stopEventHandling.get()) {
+      pendingBatches.add(event.getBatch());
+    }
     taskRequests.handle(event);
     int hosts = scheduledRequests.leafTaskHostMapping.size();
 
@@ -283,6 +380,9 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
 
       if(stopEventHandling.get()) {
         event.getCallback().run(stopTaskRunnerReq);
+        if (event.getBatch() != null) {
+          event.getBatch().respond();
+        }
         return;
       }
       int qSize = taskRequestQueue.size();
@@ -308,6 +408,18 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     }
   }
 
+  /** Orders task attempts in the descending order of their input bytes, and then by their ids */
+  private static final Comparator<TaskAttempt> LARGEST_TASK_FIRST = new Comparator<TaskAttempt>() {
+    @Override
+    public int compare(TaskAttempt a1, TaskAttempt a2) {
+      long diff = a2.getTask().getTotalFragmentLength() - a1.getTask().getTotalFragmentLength();
+      if (diff != 0) {
+        return diff > 0 ? 1 : -1;
+      }
+      return a1.getId().compareTo(a2.getId());
+    }
+  };
+
   /**
    * One worker can have multiple running task runners. <code>HostVolumeMapping</code>
    * describes various information for one worker, including :
@@ -338,9 +450,11 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
   public class HostVolumeMapping {
     private final String host;
     private final String rack;
-    /** A key is disk volume, and a value is a list of tasks to be scheduled. */
-    private Map<Integer, LinkedHashSet<TaskAttempt>> unassignedTaskForEachVolume =
-        Collections.synchronizedMap(new HashMap<Integer, LinkedHashSet<TaskAttempt>>());
+    /** A key is disk volume, and a value is a set of tasks to be scheduled in the descending order of size. */
+    private Map<Integer, TreeSet<TaskAttempt>> unassignedTaskForEachVolume =
+        Collections.synchronizedMap(new HashMap<Integer, TreeSet<TaskAttempt>>());
+    /** A key is disk volume, and a value is the total input bytes of tasks to be scheduled in the volume. */
+    private Map<Integer, Long> remainBytesForEachVolume = new HashMap<Integer, Long>();
     /** A value is last assigned volume id for each task runner */
     private HashMap<TajoContainerId, Integer> lastAssignedVolumeId = new HashMap<TajoContainerId,
       Integer>();
@@ -354,6 +468,8 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     private SortedMap<Integer, Integer> diskVolumeLoads = new TreeMap<Integer, Integer>();
     /** The total number of remain tasks in this host */
     private AtomicInteger remainTasksNum = new AtomicInteger(0);
+    /** The total input bytes of remain tasks in this host */
+    private AtomicLong remainBytes = new AtomicLong(0);
     public static final int REMOTE = -2;
 
 
@@ -364,15 +480,16 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
 
     public synchronized void addTaskAttempt(int volumeId, TaskAttempt attemptId){
       synchronized (unassignedTaskForEachVolume){
-        LinkedHashSet<TaskAttempt> list = unassignedTaskForEachVolume.get(volumeId);
+        TreeSet<TaskAttempt> list = unassignedTaskForEachVolume.get(volumeId);
         if (list == null) {
-          list = new LinkedHashSet<TaskAttempt>();
+          list = new TreeSet<TaskAttempt>(LARGEST_TASK_FIRST);
           unassignedTaskForEachVolume.put(volumeId, list);
         }
         list.add(attemptId);
       }
 
       remainTasksNum.incrementAndGet();
+      addRemainBytes(volumeId, attemptId.getTask().getTotalFragmentLength());
 
       if(!diskVolumeLoads.containsKey(volumeId)) diskVolumeLoads.put(volumeId, 0);
     }
@@ -417,6 +534,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         } while (retry > 0);
       } else {
         this.remainTasksNum.set(0);
+        this.remainBytes.set(0);
       }
       return taskAttemptId;
     }
@@ -447,16 +565,15 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       TaskAttemptId taskAttemptId = null;
       if(!unassignedTaskForEachVolume.containsKey(volumeId)) return taskAttemptId;
 
-      LinkedHashSet<TaskAttempt> list = unassignedTaskForEachVolume.get(volumeId);
+      TreeSet<TaskAttempt> list = unassignedTaskForEachVolume.get(volumeId);
       if(list != null && list.size() > 0){
         TaskAttempt taskAttempt;
         synchronized (unassignedTaskForEachVolume) {
-          Iterator<TaskAttempt> iterator = list.iterator();
-          taskAttempt = iterator.next();
-          iterator.remove();
+          taskAttempt = list.pollFirst();
         }
 
         this.remainTasksNum.getAndDecrement();
+        addRemainBytes(volumeId, -taskAttempt.getTask().getTotalFragmentLength());
         taskAttemptId = taskAttempt.getId();
         for (DataLocation location : taskAttempt.getTask().getDataLocations()) {
           if (!this.getHost().equals(location.getHost())) {
@@ -477,10 +594,12 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     private synchronized void removeTaskAttempt(int volumeId, TaskAttempt taskAttempt){
       if(!unassignedTaskForEachVolume.containsKey(volumeId)) return;
 
-      LinkedHashSet<TaskAttempt> tasks  = unassignedTaskForEachVolume.get(volumeId);
+      TreeSet<TaskAttempt> tasks  = unassignedTaskForEachVolume.get(volumeId);
 
       if(tasks != null && tasks.size() > 0){
-        tasks.remove(taskAttempt);
+        if (tasks.remove(taskAttempt)) {
+          addRemainBytes(volumeId, -taskAttempt.getTask().getTotalFragmentLength());
+        }
         remainTasksNum.getAndDecrement();
       } else {
         unassignedTaskForEachVolume.remove(volumeId);
@@ -534,10 +653,29 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       lastAssignedVolumeId.remove(containerId);
     }
 
+    private synchronized void addRemainBytes(int volumeId, long bytes) {
+      Long volumeBytes = remainBytesForEachVolume.get(volumeId);
+      long remain = (volumeBytes == null ? 0 : volumeBytes) + bytes;
+      if (remain > 0) {
+        remainBytesForEachVolume.put(volumeId, remain);
+      } else {
+        remainBytesForEachVolume.remove(volumeId);
+      }
+      remainBytes.addAndGet(bytes);
+    }
+
+    private synchronized long getVolumeRemainBytes(int volumeId) {
+      Long volumeBytes = remainBytesForEachVolume.get(volumeId);
+      return volumeBytes == null ? 0 : volumeBytes;
+    }
+
     /**
      *  volume of a host : 0 ~ n
      *  compressed task, amazon s3, unKnown volume : -1
      *  remote task : -2
+     *
+     *  Among the volumes of the lowest load, the volume having the most remaining bytes is chosen
+     *  so that the expected bytes are balanced across volumes.
      */
     public int getLowestVolumeId(){
       Map.Entry<Integer, Integer> volumeEntry = null;
@@ -545,7 +683,8 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       for (Map.Entry<Integer, Integer> entry : diskVolumeLoads.entrySet()) {
         if(volumeEntry == null) volumeEntry = entry;
 
-        if (volumeEntry.getValue() >= entry.getValue()) {
+        if (volumeEntry.getValue() > entry.getValue() || (volumeEntry.getValue().equals(entry.getValue()) &&
+            getVolumeRemainBytes(volumeEntry.getKey()) <= getVolumeRemainBytes(entry.getKey()))) {
           volumeEntry = entry;
         }
       }
@@ -584,6 +723,10 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       return remainTasksNum.get();
     }
 
+    public long getRemainingBytes() {
+      return remainBytes.get();
+    }
+
     public String getHost() {
 
       return host;
@@ -598,8 +741,20 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     // two list leafTasks and nonLeafTasks keep all tasks to be scheduled. Even though some task is included in
     // leafTaskHostMapping or leafTasksRackMapping, some task T will not be sent to a task runner
     // if the task is not included in leafTasks and nonLeafTasks.
-    private final Set<TaskAttemptId> leafTasks = Collections.synchronizedSet(new HashSet<TaskAttemptId>());
+    // leaf tasks are kept in the order of LARGEST_TASK_FIRST, so the largest one can be found without a scan.
+    private final SortedSet<TaskAttemptId> leafTasks = Collections.synchronizedSortedSet(
+        new TreeSet<TaskAttemptId>(new Comparator<TaskAttemptId>() {
+          @Override
+          public int compare(TaskAttemptId id1, TaskAttemptId id2) {
+            Task task1 = stage.getTask(id1.getTaskId());
+            Task task2 = stage.getTask(id2.getTaskId());
+            return LARGEST_TASK_FIRST.compare(task1.getAttempt(id1), task2.getAttempt(id2));
+          }
+        }));
     private final Set<TaskAttemptId> nonLeafTasks = Collections.synchronizedSet(new HashSet<TaskAttemptId>());
+    // speculative attempts are assigned to any host except for the host running the original attempt.
+    private final Set<TaskAttemptId> speculativeTasks =
+        Collections.synchronizedSet(new LinkedHashSet<TaskAttemptId>());
     private Map<String, HostVolumeMapping> leafTaskHostMapping = Maps.newConcurrentMap();
     private final Map<String, HashSet<TaskAttemptId>> leafTasksRackMapping = Maps.newConcurrentMap();
 
@@ -650,8 +805,26 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       return nonLeafTasks.size();
     }
 
+    private void addSpeculativeTask(TaskAttemptToSchedulerEvent event) {
+      speculativeTasks.add(event.getTaskAttempt().getId());
+    }
+
+    public int speculativeTaskNum() {
+      return speculativeTasks.size();
+    }
+
     public Set<TaskAttemptId> assignedRequest = new HashSet<TaskAttemptId>();
 
+    /**
+     * Returns the leaf task having the largest input, which is assigned to a remote host
+     * not to be a straggler at the end of a stage.
+     */
+    private TaskAttemptId getLargestLeafTask() {
+      synchronized (leafTasks) {
+        return leafTasks.isEmpty() ? null : leafTasks.first();
+      }
+    }
+
     private TaskAttemptId allocateLocalTask(String host, TajoContainerId containerId){
       HostVolumeMapping hostVolumeMapping = leafTaskHostMapping.get(host);
 
@@ -685,8 +858,10 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
           Collections.sort(remainingTasks, new Comparator<HostVolumeMapping>() {
             @Override
             public int compare(HostVolumeMapping v1, HostVolumeMapping v2) {
-              // descending remaining tasks
-              if (v2.remainTasksNum.get() > v1.remainTasksNum.get()) {
+              // descending remaining bytes, and then descending remaining tasks
+              if (v2.getRemainingBytes() != v1.getRemainingBytes()) {
+                return v2.getRemainingBytes() > v1.getRemainingBytes() ? 1 : -1;
+              } else if (v2.remainTasksNum.get() > v1.remainTasksNum.get()) {
                 return 1;
               } else if (v2.remainTasksNum.get() == v1.remainTasksNum.get()) {
                 return 0;
@@ -822,13 +997,15 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
           //////////////////////////////////////////////////////////////////////
           if (attemptId == null && leafTaskNum() > 0) {
             synchronized (leafTasks){
-              attemptId = leafTasks.iterator().next();
-              leafTasks.remove(attemptId);
-              rackLocalAssigned++;
-              totalAssigned++;
-              LOG.info(String.format("Assigned Local/Remote/Total: (%d/%d/%d), Locality: %.2f%%,",
-                  hostLocalAssigned, rackLocalAssigned, totalAssigned,
-                  ((double) hostLocalAssigned / (double) totalAssigned) * 100));
+              attemptId = getLargestLeafTask();
+              if (attemptId != null) {
+                leafTasks.remove(attemptId);
+                rackLocalAssigned++;
+                totalAssigned++;
+                LOG.info(String.format("Assigned Local/Remote/Total: (%d/%d/%d), Locality: %.2f%%,",
+                    hostLocalAssigned, rackLocalAssigned, totalAssigned,
+                    ((double) hostLocalAssigned / (double) totalAssigned) * 100));
+              }
             }
           }
         }
@@ -840,8 +1017,8 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
               new ArrayList<FragmentProto>(task.getAllFragments()),
               "",
               false,
-              LogicalNodeSerializer.serialize(task.getLogicalPlan()),
-              context.getMasterContext().getQueryContext(),
+              null, // workers use the plan and the query context given when the execution block is started
+              null,
               stage.getDataChannel(), stage.getBlock().getEnforcer());
           if (checkIfInterQuery(stage.getMasterPlan(), stage.getBlock())) {
             taskAssign.setInterQuery();
@@ -896,8 +1073,8 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
               Lists.newArrayList(task.getAllFragments()),
               "",
               false,
-              LogicalNodeSerializer.serialize(task.getLogicalPlan()),
-              context.getMasterContext().getQueryContext(),
+              null, // workers use the plan and the query context given when the execution block is started
+              null,
               stage.getDataChannel(),
               stage.getBlock().getEnforcer());
           if (checkIfInterQuery(stage.getMasterPlan(), stage.getBlock())) {
@@ -922,5 +1099,83 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         }
       }
     }
+
+    /**
+     * Returns the hosts where the other attempts of a given attempt's task are running.
+     */
+    private Set<String> getHostsOfOtherAttempts(Task task, TaskAttemptId attemptId) {
+      Set<String> hosts = new HashSet<String>();
+      for (TaskAttempt attempt : task.getAttempts()) {
+        if (!attempt.getId().equals(attemptId) && attempt.getWorkerConnectionInfo() != null) {
+          hosts.add(attempt.getWorkerConnectionInfo().getHost());
+        }
+      }
+      return hosts;
+    }
+
+    public void assignToSpeculativeTasks(LinkedList<TaskRequestEvent> taskRequests) {
+      Collections.shuffle(taskRequests);
+
+      TaskRequestEvent taskRequest;
+      while (!taskRequests.isEmpty()) {
+        taskRequest = taskRequests.pollFirst();
+
+        ContainerProxy container = context.getMasterContext().getResourceAllocator()
+            .getContainer(taskRequest.getContainerId());
+        if (container == null) {
+          taskRequest.getCallback().run(stopTaskRunnerReq);
+          continue;
+        }
+
+        WorkerConnectionInfo connectionInfo =
+            context.getMasterContext().getResourceAllocator().getWorkerConnectionInfo(taskRequest.getWorkerId());
+
+        TaskAttemptId attemptId = null;
+        Task task = null;
+        synchronized (speculativeTasks) {
+          for (TaskAttemptId eachAttemptId : speculativeTasks) {
+            Task eachTask = stage.getTask(eachAttemptId.getTaskId());
+            if (!getHostsOfOtherAttempts(eachTask, eachAttemptId).contains(connectionInfo.getHost())) {
+              attemptId = eachAttemptId;
+              task = eachTask;
+              break;
+            }
+          }
+          if (attemptId != null) {
+            speculativeTasks.remove(attemptId);
+          }
+        }
+
+        if (attemptId == null) {
+          // this host already runs the original attempts, so the request is returned to the queue.
+          DefaultTaskScheduler.this.taskRequests.handle(taskRequest);
+          continue;
+        }
+
+        TaskRequest taskAssign = new TaskRequestImpl(
+            attemptId,
+            Lists.newArrayList(task.getAllFragments()),
+            "",
+            false,
+            null, // workers use the plan and the query context given when the execution block is started
+            null,
+            stage.getDataChannel(),
+            stage.getBlock().getEnforcer());
+        taskAssign.setInterQuery();
+        for (Map.Entry<String, Set<FetchImpl>> entry : task.getFetchMap().entrySet()) {
+          Collection<FetchImpl> fetches = entry.getValue();
+          if (fetches != null) {
+            for (FetchImpl fetch : fetches) {
+              taskAssign.addFetch(entry.getKey(), fetch);
+            }
+          }
+        }
+
+        LOG.info("Assigned a speculative attempt " + attemptId + " to " + connectionInfo.getHost());
+        context.getMasterContext().getEventHandler().handle(new TaskAttemptAssignedEvent(attemptId,
+            taskRequest.getContainerId(), connectionInfo));
+        taskRequest.getCallback().run(taskAssign.getProto());
+      }
+    }
   }
 }
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.algebra.JoinType;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.planner.global.DataChannel;
+import org.apache.tajo.engine.planner.global.ExecutionBlock;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.plan.logical.JoinNode;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.plan.util.PlannerUtil;
+
+import java.util.List;
+
+import static org.apache.tajo.plan.serder.PlanProto.ShuffleType.HASH_SHUFFLE;
+
+/**
+ * JoinKeyRangeFilter pushes down a runtime filter into a scan stage of a repartition inner join.
+ *
+ * Every hash shuffle task reports the value range of its shuffle keys as column stats. If the other side of
+ * a join is already completed when a scan stage starts, the key range of the other side is added to the scan
+ * qual of the stage. As a result, rows which cannot be joined are filtered out before projection and shuffle.
+ */
+public class JoinKeyRangeFilter {
+  private static final Log LOG = LogFactory.getLog(JoinKeyRangeFilter.class);
+
+  /**
+   * Adds the key range filter to the scan node of a given stage if possible.
+   *
+   * @param stage The stage to be started
+   * @param channel The output channel of the stage
+   * @return True if a filter is added
+   */
+  public static boolean apply(Stage stage, DataChannel channel) {
+    MasterPlan masterPlan = stage.getMasterPlan();
+    ExecutionBlock block = stage.getBlock();
+
+    if (!masterPlan.getContext().getBool(SessionVars.JOIN_RUNTIME_FILTER_ENABLED)) {
+      return false;
+    }
+    if (channel.getShuffleType() != HASH_SHUFFLE || !channel.hasShuffleKeys() || !masterPlan.isLeaf(block)) {
+      return false;
+    }
+    if (block.hasJoin() || block.hasUnion() || block.getScanNodes().length != 1 ||
+        block.getScanNodes()[0].getType() != NodeType.SCAN) {
+      return false;
+    }
+
+    ExecutionBlock parent = masterPlan.getParent(block);
+    if (parent == null || !parent.getUnionScanMap().isEmpty()) {
+      return false;
+    }
+
+    ExecutionBlock sibling = findInnerJoinSibling(masterPlan, parent, block);
+    if (sibling == null) {
+      return false;
+    }
+
+    Stage siblingStage = stage.getContext().getStage(sibling.getId());
+    if (siblingStage == null || siblingStage.getSynchronizedState() != StageState.SUCCEEDED ||
+        siblingStage.getResultStats() == null) {
+      return false;
+    }
+
+    DataChannel siblingChannel = masterPlan.getChannel(sibling.getId(), parent.getId());
+    if (siblingChannel.getShuffleType() != HASH_SHUFFLE || !siblingChannel.hasShuffleKeys() ||
+        siblingChannel.getShuffleKeys().length != channel.getShuffleKeys().length) {
+      return false;
+    }
+
+    ScanNode scan = block.getScanNodes()[0];
+    EvalNode filter = buildFilter(scan, channel.getShuffleKeys(), siblingChannel.getShuffleKeys(),
+        siblingStage.getResultStats());
+    if (filter == null) {
+      return false;
+    }
+
+    if (scan.hasQual()) {
+      scan.setQual(AlgebraicUtil.createSingletonExprFromCNF(scan.getQual(), filter));
+    } else {
+      scan.setQual(filter);
+    }
+    LOG.info("Runtime join filter is pushed down to " + block.getId() + " from " + sibling.getId() + ": " + filter);
+    return true;
+  }
+
+  /**
+   * Finds the other child block joined with a given block by an inner join in the parent block.
+   */
+  private static ExecutionBlock findInnerJoinSibling(MasterPlan masterPlan, ExecutionBlock parent,
+                                                     ExecutionBlock block) {
+    String tableName = block.getId().toString();
+    for (LogicalNode node : PlannerUtil.findAllNodes(parent.getPlan(), NodeType.JOIN)) {
+      JoinNode join = (JoinNode) node;
+      if (join.getJoinType() != JoinType.INNER || !join.hasJoinQual() ||
+          join.getLeftChild().getType() != NodeType.SCAN || join.getRightChild().getType() != NodeType.SCAN) {
+        continue;
+      }
+
+      ScanNode left = join.getLeftChild();
+      ScanNode right = join.getRightChild();
+      String otherTableName;
+      if (left.getTableName().equals(tableName)) {
+        otherTableName = right.getTableName();
+      } else if (right.getTableName().equals(tableName)) {
+        otherTableName = left.getTableName();
+      } else {
+        continue;
+      }
+
+      for (ExecutionBlock child : masterPlan.getChilds(parent)) {
+        if (child.getId().toString().equals(otherTableName)) {
+          return child;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static EvalNode buildFilter(ScanNode scan, Column [] keys, Column [] otherSideKeys,
+                                      TableStats otherSideStats) {
+    if (otherSideStats.getNumRows() == 0) {
+      // nothing can be joined
+      return new ConstEval(DatumFactory.createBool(false));
+    }
+
+    List<EvalNode> predicates = Lists.newArrayList();
+    for (int i = 0; i < keys.length; i++) {
+      if (!scan.getInSchema().containsByQualifiedName(keys[i].getQualifiedName())) {
+        continue;
+      }
+      Column key = scan.getInSchema().getColumn(keys[i].getQualifiedName());
+      ColumnStats range = findColumnStats(otherSideStats, otherSideKeys[i]);
+      if (range == null || range.minIsNotSet() || range.maxIsNotSet() ||
+          !key.getDataType().equals(otherSideKeys[i].getDataType())) {
+        continue;
+      }
+
+      predicates.add(new BinaryEval(EvalType.GEQ, new FieldEval(key), new ConstEval(range.getMinValue())));
+      predicates.add(new BinaryEval(EvalType.LEQ, new FieldEval(key), new ConstEval(range.getMaxValue())));
+    }
+
+    if (predicates.isEmpty()) {
+      return null;
+    }
+    return AlgebraicUtil.createSingletonExprFromCNF(predicates.toArray(new EvalNode[predicates.size()]));
+  }
+
+  private static ColumnStats findColumnStats(TableStats stats, Column column) {
+    for (ColumnStats eachStat : stats.getColumnStats()) {
+      if (eachStat.getColumn().getQualifiedName().equals(column.getQualifiedName())) {
+        return eachStat;
+      }
+    }
+    return null;
+  }
+}
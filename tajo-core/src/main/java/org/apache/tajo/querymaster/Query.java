@@ -23,6 +23,7 @@ import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.yarn.event.EventHandler;
@@ -31,6 +32,7 @@ import org.apache.hadoop.yarn.util.Clock;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.SessionVars;
+import org.apache.tajo.TajoConstants;
 import org.apache.tajo.TajoProtos.QueryState;
 import org.apache.tajo.catalog.proto.CatalogProtos.UpdateTableStatsProto;
 import org.apache.tajo.catalog.CatalogService;
@@ -39,13 +41,19 @@ import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.planner.global.DataChannel;
 import org.apache.tajo.engine.planner.global.ExecutionBlock;
 import org.apache.tajo.engine.planner.global.ExecutionBlockCursor;
 import org.apache.tajo.engine.planner.global.MasterPlan;
 import org.apache.tajo.plan.logical.*;
 import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.ipc.QueryCoordinatorProtocol.RetainedShuffleProto;
+import org.apache.tajo.ipc.QueryCoordinatorProtocol.WorkerResourceProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.StageCheckpointProto;
 import org.apache.tajo.master.event.*;
+import org.apache.tajo.plan.serder.PlanProto.ShuffleType;
 import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.querymaster.Task.PullHost;
 import org.apache.tajo.storage.StorageManager;
 import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.util.TUtil;
@@ -382,6 +390,126 @@ public class Query implements EventHandler<QueryEvent> {
     return cursor;
   }
 
+  /**
+   * It starts a stage. If a previous QueryMaster of this query already completed the stage,
+   * the stage is restored from its checkpoint instead, unless its intermediate data are lost.
+   */
+  private static void startStage(Query query, Stage stage) {
+    QueryCheckpoint checkpoint = query.context.getCheckpoint();
+    RetainedShuffleProto retained;
+    if (checkpoint != null && checkpoint.hasCheckpoint(stage.getId())
+        && isOutputAlive(query, checkpoint.getCheckpoint(stage.getId()))) {
+      stage.getEventHandler().handle(new StageRecoverEvent(stage.getId(), checkpoint.getCheckpoint(stage.getId())));
+    } else if ((retained = findRetainedShuffle(query, stage)) != null) {
+      LOG.info(stage.getId() + " reuses the output of " + new ExecutionBlockId(retained.getStage().getEbId()));
+      stage.getEventHandler().handle(new StageRecoverEvent(stage.getId(), retained.getStage()));
+    } else {
+      stage.getEventHandler().handle(new StageEvent(stage.getId(), StageEventType.SQ_INIT));
+    }
+  }
+
+  /**
+   * The workers keeping the intermediate data of a checkpointed stage may have been lost together with
+   * the previous QueryMaster. Then, the stage must be executed again.
+   *
+   * @return True if all pull servers keeping the output of the checkpointed stage are alive
+   */
+  private static boolean isOutputAlive(Query query, StageCheckpointProto checkpoint) {
+    Set<PullHost> liveHosts = new HashSet<PullHost>();
+    for (WorkerResourceProto worker : query.context.getQueryMasterContext().getQueryMaster().getAllWorker()) {
+      liveHosts.add(new PullHost(worker.getConnectionInfo().getHost(),
+          worker.getConnectionInfo().getPullServerPort()));
+    }
+
+    for (PullHost host : QueryCheckpoint.getPullHosts(checkpoint)) {
+      if (!liveHosts.contains(host)) {
+        LOG.warn("The output of " + new ExecutionBlockId(checkpoint.getEbId()) + " on " + host.getPullAddress()
+            + " is lost. The stage is executed again.");
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * It finds the output of the same subplan retained by a previous query.
+   * Only hash shuffle outputs are reused, and the number of partitions must be the same as
+   * the ones of the sibling stages which are already started.
+   */
+  private static RetainedShuffleProto findRetainedShuffle(Query query, Stage stage) {
+    String fingerprint = query.context.getSubplanFingerprint(stage.getId());
+    if (fingerprint == null || !isRetainableShuffle(query, stage.getId())) {
+      return null;
+    }
+
+    RetainedShuffleProto retained = query.context.getQueryMasterContext().getQueryMaster()
+        .getRetainedShuffle(fingerprint, query.getId());
+    if (retained == null || !retained.getStage().hasShuffleOutputNum()) {
+      return null;
+    }
+
+    ExecutionBlock parent = query.getPlan().getParent(stage.getBlock());
+    for (ExecutionBlock sibling : query.getPlan().getChilds(parent)) {
+      if (!sibling.getId().equals(stage.getId()) && query.getStage(sibling.getId()) != null) {
+        DataChannel siblingChannel = query.getPlan().getChannel(sibling.getId(), parent.getId());
+        if (siblingChannel.getShuffleOutputNum() != retained.getStage().getShuffleOutputNum()) {
+          return null;
+        }
+      }
+    }
+    return retained;
+  }
+
+  private static boolean isRetainableShuffle(Query query, ExecutionBlockId ebId) {
+    List<DataChannel> channels = query.getPlan().getOutgoingChannels(ebId);
+    if (channels == null || channels.isEmpty()) {
+      return false;
+    }
+    ShuffleType shuffleType = channels.get(0).getShuffleType();
+    return shuffleType == ShuffleType.HASH_SHUFFLE || shuffleType == ShuffleType.SCATTERED_HASH_SHUFFLE;
+  }
+
+  /**
+   * It registers the hash shuffle output of a succeeded stage to TajoMaster, so that later queries
+   * of the same subplan can fetch it instead of computing it again.
+   */
+  private static void retainShuffle(Query query, ExecutionBlockId ebId) {
+    String fingerprint = query.context.getSubplanFingerprint(ebId);
+    Stage stage = query.getStage(ebId);
+    if (fingerprint == null || stage == null || stage.isRecovered() ||
+        query.getPlan().isRoot(stage.getBlock()) || !isRetainableShuffle(query, ebId)) {
+      return;
+    }
+
+    RetainedShuffleProto retained = RetainedShuffleProto.newBuilder()
+        .setFingerprint(fingerprint)
+        .setStage(QueryCheckpoint.buildCheckpoint(stage, fingerprint))
+        .build();
+    if (query.context.getQueryMasterContext().getQueryMaster().retainShuffle(retained)) {
+      query.context.addRetainedBlock(ebId);
+    }
+  }
+
+  /**
+   * It writes the checkpoint of a succeeded stage. The final stage is not checkpointed
+   * because its output is directly committed to the query result.
+   */
+  private static void writeCheckpoint(Query query, ExecutionBlockId ebId) {
+    QueryCheckpoint checkpoint = query.context.getCheckpoint();
+    Stage stage = query.getStage(ebId);
+    if (checkpoint == null || stage == null || stage.isRecovered() ||
+        query.getPlan().isRoot(stage.getBlock())) {
+      return;
+    }
+
+    try {
+      checkpoint.write(stage);
+    } catch (Throwable t) {
+      // a failure of checkpoint only makes a recovery execute this stage again
+      LOG.warn("Cannot write the checkpoint of " + ebId + ": " + t.getMessage(), t);
+    }
+  }
+
   public static class StartTransition
       implements SingleArcTransition<Query, QueryEvent> {
 
@@ -393,7 +521,7 @@ public class Query implements EventHandler<QueryEvent> {
           query.getExecutionBlockCursor().nextBlock());
       stage.setPriority(query.priority--);
       query.addStage(stage);
-      stage.getEventHandler().handle(new StageEvent(stage.getId(), StageEventType.SQ_INIT));
+      startStage(query, stage);
       LOG.debug("Schedule unit plan: \n" + stage.getBlock().getPlan());
     }
   }
@@ -520,6 +648,15 @@ public class Query implements EventHandler<QueryEvent> {
         stats.setNumBytes(getTableVolume(query.systemConf, finalOutputDir));
         resultTableDesc.setStats(stats);
         query.setResultDesc(resultTableDesc);
+
+        // pull servers which serve the result files to clients read the schema and meta from it
+        Path descPath = new Path(finalOutputDir.getParent(), TajoConstants.RESULT_DESC_FILE_NAME);
+        FSDataOutputStream out = descPath.getFileSystem(query.systemConf).create(descPath, true);
+        try {
+          resultTableDesc.getProto().writeTo(out);
+        } finally {
+          out.close();
+        }
       }
     }
 
@@ -629,7 +766,7 @@ public class Query implements EventHandler<QueryEvent> {
       Stage nextStage = new Stage(query.context, query.getPlan(), nextBlock);
       nextStage.setPriority(query.priority--);
       query.addStage(nextStage);
-      nextStage.getEventHandler().handle(new StageEvent(nextStage.getId(), StageEventType.SQ_INIT));
+      startStage(query, nextStage);
 
       LOG.info("Scheduling Stage:" + nextStage.getId());
       if(LOG.isDebugEnabled()) {
@@ -649,6 +786,8 @@ public class Query implements EventHandler<QueryEvent> {
 
         if (castEvent.getState() == StageState.SUCCEEDED) {
           query.successedStagesCount++;
+          writeCheckpoint(query, castEvent.getExecutionBlockId());
+          retainShuffle(query, castEvent.getExecutionBlockId());
         } else if (castEvent.getState() == StageState.KILLED) {
           query.killedStagesCount++;
         } else if (castEvent.getState() == StageState.FAILED) {
@@ -0,0 +1,233 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.ipc.TajoWorkerProtocol.FailureIntermediateProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.IntermediateEntryProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.StageCheckpointProto;
+import org.apache.tajo.querymaster.Task.IntermediateEntry;
+import org.apache.tajo.querymaster.Task.PullHost;
+import org.apache.tajo.util.Pair;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * QueryCheckpoint persists completed stages of a query into the staging directory.
+ *
+ * Each checkpoint keeps the statistics and the intermediate data locations of a stage, which are needed
+ * to schedule its parent stage. When a QueryMaster dies, another QueryMaster builds the same master plan
+ * and restores the checkpointed stages instead of executing them again. Intermediate data themselves
+ * are kept by workers until the query is finished, so they are not copied.
+ *
+ * Checkpoints written for a different master plan are ignored because execution block ids would not match.
+ */
+public class QueryCheckpoint {
+  private static final Log LOG = LogFactory.getLog(QueryCheckpoint.class);
+
+  public static final String CHECKPOINT_DIR_NAME = "checkpoint";
+  private static final String TMP_SUFFIX = ".tmp";
+
+  private final FileSystem fs;
+  private final Path checkpointDir;
+  private final String masterPlanDigest;
+  private final Map<ExecutionBlockId, StageCheckpointProto> checkpoints = Maps.newConcurrentMap();
+
+  public QueryCheckpoint(TajoConf conf, Path stagingDir, MasterPlan masterPlan) throws IOException {
+    this.checkpointDir = new Path(stagingDir, CHECKPOINT_DIR_NAME);
+    this.fs = checkpointDir.getFileSystem(conf);
+    this.masterPlanDigest = getDigest(masterPlan);
+  }
+
+  @VisibleForTesting
+  QueryCheckpoint(TajoConf conf, Path stagingDir, String masterPlanDigest) throws IOException {
+    this.checkpointDir = new Path(stagingDir, CHECKPOINT_DIR_NAME);
+    this.fs = checkpointDir.getFileSystem(conf);
+    this.masterPlanDigest = masterPlanDigest;
+  }
+
+  /**
+   * The digest must be computed right after global planning because stages can rewrite their plans.
+   */
+  public static String getDigest(MasterPlan masterPlan) {
+    return DigestUtils.md5Hex(masterPlan.toString());
+  }
+
+  public String getMasterPlanDigest() {
+    return masterPlanDigest;
+  }
+
+  /**
+   * Loads the checkpoints written by previous QueryMasters of the same query.
+   *
+   * @return The number of loaded checkpoints
+   */
+  public int load() throws IOException {
+    if (!fs.exists(checkpointDir)) {
+      return 0;
+    }
+
+    for (FileStatus status : fs.listStatus(checkpointDir)) {
+      if (status.isDirectory() || status.getPath().getName().endsWith(TMP_SUFFIX)) {
+        continue;
+      }
+
+      StageCheckpointProto proto;
+      FSDataInputStream in = fs.open(status.getPath());
+      try {
+        proto = StageCheckpointProto.parseFrom(in);
+      } catch (IOException e) {
+        LOG.warn("Skip a broken checkpoint " + status.getPath() + ": " + e.getMessage());
+        continue;
+      } finally {
+        in.close();
+      }
+
+      if (masterPlanDigest.equals(proto.getMasterPlanDigest())) {
+        checkpoints.put(new ExecutionBlockId(proto.getEbId()), proto);
+      } else {
+        LOG.warn("Skip the checkpoint of " + status.getPath().getName() + " written for a different plan");
+      }
+    }
+    LOG.info(checkpoints.size() + " stage checkpoints are loaded from " + checkpointDir);
+    return checkpoints.size();
+  }
+
+  public boolean hasCheckpoint(ExecutionBlockId ebId) {
+    return checkpoints.containsKey(ebId);
+  }
+
+  public StageCheckpointProto getCheckpoint(ExecutionBlockId ebId) {
+    return checkpoints.get(ebId);
+  }
+
+  public int size() {
+    return checkpoints.size();
+  }
+
+  /**
+   * Writes the checkpoint of a succeeded stage. A checkpoint is written into a temporal file and renamed,
+   * so a QueryMaster failure during writing does not leave a partial checkpoint.
+   */
+  public void write(Stage stage) throws IOException {
+    write(buildCheckpoint(stage, masterPlanDigest));
+  }
+
+  @VisibleForTesting
+  void write(StageCheckpointProto proto) throws IOException {
+    ExecutionBlockId ebId = new ExecutionBlockId(proto.getEbId());
+
+    fs.mkdirs(checkpointDir);
+    Path checkpointFile = new Path(checkpointDir, ebId.toString());
+    Path tmpFile = new Path(checkpointDir, ebId.toString() + TMP_SUFFIX);
+    FSDataOutputStream out = fs.create(tmpFile, true);
+    try {
+      proto.writeTo(out);
+    } finally {
+      out.close();
+    }
+    fs.delete(checkpointFile, false);
+    if (!fs.rename(tmpFile, checkpointFile)) {
+      throw new IOException("Cannot rename " + tmpFile + " to " + checkpointFile);
+    }
+    checkpoints.put(ebId, proto);
+  }
+
+  /**
+   * @param masterPlanDigest the digest of the master plan, or the fingerprint of a retained stage
+   */
+  static StageCheckpointProto buildCheckpoint(Stage stage, String masterPlanDigest) {
+    StageCheckpointProto.Builder builder = StageCheckpointProto.newBuilder();
+    builder.setEbId(stage.getId().getProto());
+    builder.setMasterPlanDigest(masterPlanDigest);
+    builder.setShuffleOutputNum(stage.getMasterPlan().getOutgoingChannels(stage.getId()).get(0).getShuffleOutputNum());
+    if (stage.getInputStats() != null) {
+      builder.setInputStats(stage.getInputStats().getProto());
+    }
+    if (stage.getResultStats() != null) {
+      builder.setResultStats(stage.getResultStats().getProto());
+    }
+    for (IntermediateEntry entry : stage.getHashShuffleIntermediateEntries()) {
+      builder.addHashShuffleEntries(toProto(stage.getId(), entry));
+    }
+    for (IntermediateEntry entry : stage.getTaskIntermediateEntries()) {
+      builder.addTaskIntermediateEntries(toProto(stage.getId(), entry));
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return The pull servers which keep the intermediate data of a checkpointed stage
+   */
+  static Set<PullHost> getPullHosts(StageCheckpointProto checkpoint) {
+    Set<PullHost> hosts = Sets.newHashSet();
+    for (IntermediateEntryProto entry : checkpoint.getHashShuffleEntriesList()) {
+      hosts.add(new IntermediateEntry(entry).getPullHost());
+    }
+    for (IntermediateEntryProto entry : checkpoint.getTaskIntermediateEntriesList()) {
+      hosts.add(new IntermediateEntry(entry).getPullHost());
+    }
+    return hosts;
+  }
+
+  static IntermediateEntryProto toProto(ExecutionBlockId ebId, IntermediateEntry entry) {
+    IntermediateEntryProto.Builder builder = IntermediateEntryProto.newBuilder();
+    builder.setEbId(entry.getEbId() != null ? entry.getEbId().getProto() : ebId.getProto());
+    builder.setTaskId(entry.getTaskId());
+    builder.setAttemptId(entry.getAttemptId());
+    builder.setPartId(entry.getPartId());
+    builder.setHost(entry.getPullHost().getPullAddress());
+    builder.setVolume(entry.getVolume());
+
+    if (entry.getPages() != null) {
+      IntermediateEntryProto.PageProto.Builder pageBuilder = IntermediateEntryProto.PageProto.newBuilder();
+      for (Pair<Long, Integer> page : entry.getPages()) {
+        pageBuilder.clear();
+        builder.addPages(pageBuilder.setPos(page.getFirst()).setLength(page.getSecond()));
+      }
+    }
+
+    if (entry.getFailureRowNums() != null) {
+      FailureIntermediateProto.Builder failureBuilder = FailureIntermediateProto.newBuilder();
+      for (Pair<Long, Pair<Integer, Integer>> failure : entry.getFailureRowNums()) {
+        failureBuilder.clear();
+        failureBuilder.setPagePos(failure.getFirst());
+        failureBuilder.setStartRowNum(failure.getSecond().getFirst());
+        failureBuilder.setEndRowNum(failure.getSecond().getSecond());
+        builder.addFailures(failureBuilder);
+      }
+    }
+    return builder.build();
+  }
+}
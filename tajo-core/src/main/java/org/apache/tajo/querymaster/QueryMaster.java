@@ -52,6 +52,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -251,6 +252,56 @@ public class QueryMaster extends CompositeService implements EventHandler {
     return new ArrayList<WorkerResourceProto>();
   }
 
+  /**
+   * Register the output of a stage to TajoMaster, so that later queries can reuse it.
+   *
+   * @return True if TajoMaster retains the output. Then, it must not be removed when the query is finished.
+   */
+  public boolean retainShuffle(RetainedShuffleProto retainedShuffle) {
+    NettyClientBase rpc = null;
+    try {
+      ServiceTracker serviceTracker = workerContext.getServiceTracker();
+      rpc = connPool.getConnection(serviceTracker.getUmbilicalAddress(), QueryCoordinatorProtocol.class, true);
+      QueryCoordinatorProtocolService masterService = rpc.getStub();
+
+      CallFuture<PrimitiveProtos.BoolProto> callBack = new CallFuture<PrimitiveProtos.BoolProto>();
+      masterService.retainShuffle(callBack.getController(), retainedShuffle, callBack);
+      return callBack.get(2, TimeUnit.SECONDS).getValue();
+    } catch (Exception e) {
+      LOG.warn("Cannot retain the output of " + new ExecutionBlockId(retainedShuffle.getStage().getEbId())
+          + ": " + e.getMessage(), e);
+    } finally {
+      connPool.releaseConnection(rpc);
+    }
+    return false;
+  }
+
+  /**
+   * Find the output of a stage retained by a previous query. The output is kept until the given query is finished.
+   *
+   * @return The retained output of the same subplan, or null if there is no valid one.
+   */
+  public RetainedShuffleProto getRetainedShuffle(String fingerprint, QueryId queryId) {
+    NettyClientBase rpc = null;
+    try {
+      ServiceTracker serviceTracker = workerContext.getServiceTracker();
+      rpc = connPool.getConnection(serviceTracker.getUmbilicalAddress(), QueryCoordinatorProtocol.class, true);
+      QueryCoordinatorProtocolService masterService = rpc.getStub();
+
+      CallFuture<RetainedShuffleResponse> callBack = new CallFuture<RetainedShuffleResponse>();
+      masterService.getRetainedShuffle(callBack.getController(), RetainedShuffleRequest.newBuilder()
+          .setFingerprint(fingerprint).setQueryId(queryId.getProto()).build(), callBack);
+
+      RetainedShuffleResponse response = callBack.get(2, TimeUnit.SECONDS);
+      return response.hasRetainedShuffle() ? response.getRetainedShuffle() : null;
+    } catch (Exception e) {
+      LOG.warn("Cannot get the retained output of " + fingerprint + ": " + e.getMessage(), e);
+    } finally {
+      connPool.releaseConnection(rpc);
+    }
+    return null;
+  }
+
   @Override
   public void handle(Event event) {
     dispatcher.getEventHandler().handle(event);
@@ -359,7 +410,19 @@ public class QueryMaster extends CompositeService implements EventHandler {
       try {
         queryMasterTask.stop();
         if (!queryContext.getBool(SessionVars.DEBUG_ENABLED)) {
-          cleanup(queryId);
+          Set<ExecutionBlockId> retainedBlocks = queryMasterTask.getQueryTaskContext().getRetainedBlocks();
+          if (retainedBlocks.isEmpty() || queryMasterTask.getQuery() == null) {
+            cleanup(queryId);
+          } else {
+            // keep the outputs retained for later queries. TajoMaster removes them when they are evicted.
+            List<TajoIdProtos.ExecutionBlockIdProto> ebIds = Lists.newArrayList();
+            for (Stage eachStage : queryMasterTask.getQuery().getStages()) {
+              if (!retainedBlocks.contains(eachStage.getId())) {
+                ebIds.add(eachStage.getId().getProto());
+              }
+            }
+            cleanupExecutionBlock(ebIds);
+          }
         }
       } catch (Exception e) {
         LOG.error(e.getMessage(), e);
@@ -77,6 +77,7 @@ public class QueryMasterManagerService extends CompositeService
 
       int workerNum = tajoConf.getIntVar(TajoConf.ConfVars.QUERY_MASTER_RPC_SERVER_WORKER_THREAD_NUM);
       this.rpcServer = new AsyncRpcServer(QueryMasterProtocol.class, this, initIsa, workerNum);
+      this.rpcServer.setFlushWindowMicros(tajoConf.getLongVar(TajoConf.ConfVars.RPC_FLUSH_WINDOW_MICROS));
       this.rpcServer.start();
 
       this.bindAddr = NetUtils.getConnectAddress(rpcServer.getListenAddress());
@@ -115,6 +116,10 @@ public class QueryMasterManagerService extends CompositeService
     return bindAddr;
   }
 
+  public AsyncRpcServer getRpcServer() {
+    return rpcServer;
+  }
+
   public String getHostAndPort() {
     return bindAddr.getHostName() + ":" + bindAddr.getPort();
   }
@@ -139,6 +144,35 @@ public class QueryMasterManagerService extends CompositeService
     }
   }
 
+  @Override
+  public void getTasks(RpcController controller, TajoWorkerProtocol.GetTaskRequestProto request,
+                       RpcCallback<TajoWorkerProtocol.TaskRequestBatchProto> done) {
+    TaskRequestBatch batch = null;
+    try {
+      ExecutionBlockId ebId = new ExecutionBlockId(request.getExecutionBlockId());
+      QueryMasterTask queryMasterTask = workerContext.getQueryMaster().getQueryMasterTask(ebId.getQueryId());
+
+      if(queryMasterTask == null || queryMasterTask.isStopped()) {
+        done.run(TajoWorkerProtocol.TaskRequestBatchProto.newBuilder().setShouldDie(true).build());
+      } else {
+        TajoContainerId cid =
+            queryMasterTask.getQueryTaskContext().getResourceAllocator().makeContainerId(request.getContainerId());
+        LOG.debug("getTasks:" + cid + ", ebId:" + ebId + ", maxTasks:" + request.getMaxTasks());
+        // the other slots of the batch are queued by the task scheduler if there are enough tasks.
+        batch = new TaskRequestBatch(request.getWorkerId(), cid, ebId, request.getMaxTasks(), done);
+        queryMasterTask.handleTaskRequestEvent(batch.nextSlot());
+      }
+    } catch (Exception e) {
+      LOG.error(e.getMessage(), e);
+      // the task runner waits for a response, so it gets an empty batch and requests tasks again.
+      if (batch == null) {
+        done.run(TajoWorkerProtocol.TaskRequestBatchProto.newBuilder().build());
+      } else {
+        batch.abort();
+      }
+    }
+  }
+
   @Override
   public void statusUpdate(RpcController controller, TajoWorkerProtocol.TaskStatusProto request,
                            RpcCallback<PrimitiveProtos.BoolProto> done) {
@@ -44,6 +44,7 @@ import org.apache.tajo.exception.UnimplementedException;
 import org.apache.tajo.ipc.TajoWorkerProtocol;
 import org.apache.tajo.master.TajoContainerProxy;
 import org.apache.tajo.master.event.*;
+import org.apache.tajo.master.exec.QueryResultCache;
 import org.apache.tajo.master.rm.TajoWorkerResourceManager;
 import org.apache.tajo.plan.LogicalOptimizer;
 import org.apache.tajo.plan.LogicalPlan;
@@ -66,6 +67,7 @@ import org.apache.tajo.worker.TajoResourceAllocator;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -112,6 +114,15 @@ public class QueryMasterTask extends CompositeService {
 
   private Throwable initError;
 
+  private QueryCheckpoint checkpoint;
+
+  /** fingerprints of the execution blocks whose outputs can be shared with other queries */
+  private Map<ExecutionBlockId, String> subplanFingerprints = Collections.emptyMap();
+
+  /** execution blocks whose outputs are retained for later queries */
+  private final Set<ExecutionBlockId> retainedBlocks =
+      Collections.newSetFromMap(new ConcurrentHashMap<ExecutionBlockId, Boolean>());
+
   private final List<TajoWorkerProtocol.TaskFatalErrorReport> diagnostics =
       new ArrayList<TajoWorkerProtocol.TaskFatalErrorReport>();
 
@@ -365,6 +376,23 @@ public class QueryMasterTask extends CompositeService {
       MasterPlan masterPlan = new MasterPlan(queryId, queryContext, plan);
       queryMasterContext.getGlobalPlanner().build(masterPlan);
 
+      if (queryContext.getBool(SessionVars.CHECKPOINT_ENABLED)) {
+        checkpoint = new QueryCheckpoint(systemConf, queryContext.getStagingDir(), masterPlan);
+        if (queryContext.isRecovery()) {
+          int loaded = checkpoint.load();
+          LOG.info(queryId + " is recovered by QueryMaster attempt " + queryContext.getQueryMasterAttempt()
+              + " with " + loaded + " completed stages");
+        }
+      }
+
+      if (queryContext.getBool(SessionVars.SHUFFLE_REUSE_ENABLED) && QueryResultCache.isDeterministic(expr)) {
+        try {
+          subplanFingerprints = SubplanFingerprinter.fingerprint(systemConf, masterPlan);
+        } catch (IOException e) {
+          LOG.warn("Cannot compute the fingerprints of " + queryId + ": " + e.getMessage(), e);
+        }
+      }
+
       query = new Query(queryTaskContext, queryId, querySubmitTime,
           "", queryTaskContext.getEventHandler(), masterPlan);
 
@@ -437,10 +465,18 @@ public class QueryMasterTask extends CompositeService {
     // initializ
     fs = stagingDir.getFileSystem(conf);
 
+    Path stagingResultDir = new Path(stagingDir, TajoConstants.RESULT_DIR_NAME);
     if (fs.exists(stagingDir)) {
-      throw new IOException("The staging directory '" + stagingDir + "' already exists");
+      if (!context.isRecovery()) {
+        throw new IOException("The staging directory '" + stagingDir + "' already exists");
+      }
+      // A previous QueryMaster of this query left the staging directory. Checkpoints are reused,
+      // but the final stage is always executed again, so its partial output should be removed.
+      LOG.info("The staging directory '" + stagingDir + "' is reused for the recovery");
+      fs.delete(stagingResultDir, true);
+    } else {
+      fs.mkdirs(stagingDir, new FsPermission(STAGING_DIR_PERMISSION));
     }
-    fs.mkdirs(stagingDir, new FsPermission(STAGING_DIR_PERMISSION));
     FileStatus fsStatus = fs.getFileStatus(stagingDir);
     String owner = fsStatus.getOwner();
 
@@ -459,7 +495,6 @@ public class QueryMasterTask extends CompositeService {
       fs.setPermission(stagingDir, new FsPermission(STAGING_DIR_PERMISSION));
     }
 
-    Path stagingResultDir = new Path(stagingDir, TajoConstants.RESULT_DIR_NAME);
     fs.mkdirs(stagingResultDir);
 
     return stagingDir;
@@ -561,6 +596,32 @@ public class QueryMasterTask extends CompositeService {
       return queryContext.getStagingDir();
     }
 
+    /**
+     * @return The checkpoint of this query, or null if checkpoint is disabled
+     */
+    public QueryCheckpoint getCheckpoint() {
+      return checkpoint;
+    }
+
+    /**
+     * @return The fingerprint of an execution block, or null if its output cannot be shared with other queries
+     */
+    public String getSubplanFingerprint(ExecutionBlockId ebId) {
+      return subplanFingerprints.get(ebId);
+    }
+
+    public void addRetainedBlock(ExecutionBlockId ebId) {
+      retainedBlocks.add(ebId);
+    }
+
+    public boolean isRetainedBlock(ExecutionBlockId ebId) {
+      return retainedBlocks.contains(ebId);
+    }
+
+    public Set<ExecutionBlockId> getRetainedBlocks() {
+      return Collections.unmodifiableSet(retainedBlocks);
+    }
+
     public synchronized EventHandler getEventHandler() {
       if(eventHandler == null) {
         eventHandler = dispatcher.getEventHandler();
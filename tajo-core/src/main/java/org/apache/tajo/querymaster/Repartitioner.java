@@ -341,7 +341,7 @@ public class Repartitioner {
       if (childExecSM.getHashShuffleIntermediateEntries() != null &&
           !childExecSM.getHashShuffleIntermediateEntries().isEmpty()) {
         for (IntermediateEntry intermediateEntry: childExecSM.getHashShuffleIntermediateEntries()) {
-          intermediateEntry.setEbId(childBlock.getId());
+          intermediateEntry.setEbId(childExecSM.getOutputBlockId());
           if (hashEntries.containsKey(intermediateEntry.getPartId())) {
             Map<ExecutionBlockId, List<IntermediateEntry>> tbNameToInterm =
                 hashEntries.get(intermediateEntry.getPartId());
@@ -500,8 +500,8 @@ public class Repartitioner {
     }
     List<Fragment> fragments = Lists.newArrayList();
     PartitionedTableScanNode partitionsScan = (PartitionedTableScanNode) scan;
-    fragments.addAll(sm.getSplits(
-        scan.getCanonicalName(), table.getMeta(), table.getSchema(), partitionsScan.getInputPaths()));
+    fragments.addAll(sm.getSplits(scan.getCanonicalName(), table.getMeta(), table.getSchema(),
+        sm.createFileStatsFilter(scan), partitionsScan.getInputPaths()));
     partitionsScan.setInputPaths(null);
     return fragments;
   }
@@ -725,12 +725,10 @@ public class Repartitioner {
     List<ExecutionBlock> childBlocks = masterPlan.getChilds(stage.getId());
     for (ExecutionBlock childBlock : childBlocks) {
       Stage childExecSM = stage.getContext().getStage(childBlock.getId());
-      for (Task qu : childExecSM.getTasks()) {
-        for (IntermediateEntry p : qu.getIntermediateData()) {
-          FetchImpl fetch = new FetchImpl(p.getPullHost(), RANGE_SHUFFLE, childBlock.getId(), 0);
-          fetch.addPart(p.getTaskId(), p.getAttemptId());
-          fetches.add(fetch);
-        }
+      for (IntermediateEntry p : childExecSM.getTaskIntermediateEntries()) {
+        FetchImpl fetch = new FetchImpl(p.getPullHost(), RANGE_SHUFFLE, childBlock.getId(), 0);
+        fetch.addPart(p.getTaskId(), p.getAttemptId());
+        fetches.add(fetch);
       }
     }
 
@@ -828,15 +826,17 @@ public class Repartitioner {
         List<IntermediateEntry>>();
 
     for (ExecutionBlock block : masterPlan.getChilds(execBlock)) {
+      Stage childStage = stage.getContext().getStage(block.getId());
+      ExecutionBlockId outputBlockId = childStage.getOutputBlockId();
       List<IntermediateEntry> partitions = new ArrayList<IntermediateEntry>();
-      partitions.addAll(stage.getContext().getStage(block.getId()).getHashShuffleIntermediateEntries());
+      partitions.addAll(childStage.getHashShuffleIntermediateEntries());
 
       // In scattered hash shuffle, Collecting each IntermediateEntry
       if (channel.getShuffleType() == SCATTERED_HASH_SHUFFLE) {
-        if (intermediates.containsKey(block.getId())) {
-          intermediates.get(block.getId()).addAll(partitions);
+        if (intermediates.containsKey(outputBlockId)) {
+          intermediates.get(outputBlockId).addAll(partitions);
         } else {
-          intermediates.put(block.getId(), partitions);
+          intermediates.put(outputBlockId, partitions);
         }
       }
 
@@ -847,7 +847,7 @@ public class Repartitioner {
         for (Entry<Task.PullHost, List<IntermediateEntry>> e : hashedByHost.entrySet()) {
 
           FetchImpl fetch = new FetchImpl(e.getKey(), channel.getShuffleType(),
-              block.getId(), interm.getKey(), e.getValue());
+              outputBlockId, interm.getKey(), e.getValue());
 
           long volumeSum = 0;
           for (IntermediateEntry ie : e.getValue()) {
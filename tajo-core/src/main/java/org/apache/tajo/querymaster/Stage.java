@@ -18,6 +18,7 @@
 
 package org.apache.tajo.querymaster;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import org.apache.commons.lang.exception.ExceptionUtils;
@@ -39,7 +40,6 @@ import org.apache.tajo.catalog.statistics.ColumnStats;
 import org.apache.tajo.catalog.statistics.StatisticsUtil;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
-import org.apache.tajo.engine.json.CoreGsonHelper;
 import org.apache.tajo.engine.planner.PhysicalPlannerImpl;
 import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.global.DataChannel;
@@ -49,6 +49,7 @@ import org.apache.tajo.ipc.TajoWorkerProtocol;
 import org.apache.tajo.ipc.TajoWorkerProtocol.DistinctGroupbyEnforcer.MultipleAggregationStage;
 import org.apache.tajo.ipc.TajoWorkerProtocol.EnforceProperty;
 import org.apache.tajo.ipc.TajoWorkerProtocol.IntermediateEntryProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.StageCheckpointProto;
 import org.apache.tajo.master.LaunchTaskRunnersEvent;
 import org.apache.tajo.master.TaskRunnerGroupEvent;
 import org.apache.tajo.master.TaskRunnerGroupEvent.EventType;
@@ -58,10 +59,12 @@ import org.apache.tajo.master.container.TajoContainerId;
 import org.apache.tajo.master.event.*;
 import org.apache.tajo.master.event.TaskAttemptToSchedulerEvent.TaskAttemptScheduleContext;
 import org.apache.tajo.plan.logical.*;
+import org.apache.tajo.plan.serder.LogicalNodeSerializer;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.querymaster.Task.IntermediateEntry;
 import org.apache.tajo.storage.FileStorageManager;
 import org.apache.tajo.storage.StorageManager;
+import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.KeyValueSet;
@@ -131,6 +134,10 @@ public class Stage implements EventHandler<StageEvent> {
               EnumSet.of(StageState.INITED, StageState.ERROR, StageState.SUCCEEDED),
               StageEventType.SQ_INIT,
               new InitAndRequestContainer())
+          .addTransition(StageState.NEW,
+              EnumSet.of(StageState.SUCCEEDED, StageState.ERROR),
+              StageEventType.SQ_RECOVER,
+              new RecoverTransition())
           .addTransition(StageState.NEW, StageState.NEW,
               StageEventType.SQ_DIAGNOSTIC_UPDATE,
               DIAGNOSTIC_UPDATE_TRANSITION)
@@ -307,6 +314,9 @@ public class Stage implements EventHandler<StageEvent> {
   private int failedObjectCount = 0;
   private TaskSchedulerContext schedulerContext;
   private List<IntermediateEntry> hashShuffleIntermediateEntries = Lists.newArrayList();
+  private boolean recovered = false;
+  private List<IntermediateEntry> recoveredTaskIntermediateEntries;
+  private ExecutionBlockId outputBlockId;
   private AtomicInteger completedShuffleTasks = new AtomicInteger(0);
   private AtomicBoolean stopShuffleReceiver = new AtomicBoolean();
   private StageHistory finalStageHistory;
@@ -468,8 +478,10 @@ public class Stage implements EventHandler<StageEvent> {
     stageHistory.setKilledObjectCount(killedObjectCount);
     stageHistory.setFailedObjectCount(failedObjectCount);
     stageHistory.setTotalScheduledObjectsCount(totalScheduledObjectsCount);
-    stageHistory.setHostLocalAssigned(getTaskScheduler().getHostLocalAssigned());
-    stageHistory.setRackLocalAssigned(getTaskScheduler().getRackLocalAssigned());
+    if (taskScheduler != null) {
+      stageHistory.setHostLocalAssigned(taskScheduler.getHostLocalAssigned());
+      stageHistory.setRackLocalAssigned(taskScheduler.getRackLocalAssigned());
+    }
 
     long totalInputBytes = 0;
     long totalReadBytes = 0;
@@ -787,6 +799,7 @@ public class Stage implements EventHandler<StageEvent> {
           ExecutionBlock parent = stage.getMasterPlan().getParent(stage.getBlock());
           DataChannel channel = stage.getMasterPlan().getChannel(stage.getId(), parent.getId());
           setShuffleIfNecessary(stage, channel);
+          JoinKeyRangeFilter.apply(stage, channel);
           initTaskScheduler(stage);
           // execute pre-processing asyncronously
           stage.getContext().getQueryMasterContext().getEventExecutor()
@@ -1064,7 +1077,7 @@ public class Stage implements EventHandler<StageEvent> {
       ContainerAllocationEvent event =
           new ContainerAllocationEvent(ContainerAllocatorEventType.CONTAINER_REQ,
               stage.getId(), priority, resource, numRequest,
-              stage.masterPlan.isLeaf(execBlock), 0.0f);
+              stage.masterPlan.isLeaf(execBlock), 0.0f, stage.schedulerContext.getFragmentHosts());
       stage.eventHandler.handle(event);
     }
 
@@ -1093,12 +1106,23 @@ public class Stage implements EventHandler<StageEvent> {
         fragments = storageManager.getSplits(scan.getCanonicalName(), table, scan);
       }
 
-      Stage.scheduleFragments(stage, fragments);
       if (stage.getTaskScheduler() instanceof DefaultTaskScheduler) {
-        //Leaf task of DefaultTaskScheduler should be fragment size
+        List<List<Fragment>> packedFragments;
+        if (stage.getContext().getQueryContext().getBool(SessionVars.LEAF_TASK_PACKING_ENABLED)) {
+          long taskSize = (long) stage.context.getConf().getIntVar(ConfVars.TASK_DEFAULT_SIZE) * 1024 * 1024;
+          packedFragments = packFragments(fragments, taskSize);
+          LOG.info(stage.getId() + ": " + fragments.size() + " fragments are packed into "
+              + packedFragments.size() + " tasks");
+        } else {
+          packedFragments = packFragments(fragments, 0);
+        }
+        scheduleFragmentGroups(stage, packedFragments);
+
+        //Leaf task of DefaultTaskScheduler should be packed fragment size
         // EstimatedTaskNum determined number of initial container
-        stage.schedulerContext.setEstimatedTaskNum(fragments.size());
+        stage.schedulerContext.setEstimatedTaskNum(packedFragments.size());
       } else {
+        Stage.scheduleFragments(stage, fragments);
         TajoConf conf = stage.context.getConf();
         stage.schedulerContext.setTaskSize(conf.getIntVar(ConfVars.TASK_DEFAULT_SIZE) * 1024 * 1024);
         int estimatedTaskNum = (int) Math.ceil((double) table.getStats().getNumBytes() /
@@ -1108,7 +1132,97 @@ public class Stage implements EventHandler<StageEvent> {
     }
   }
 
+  /**
+   * Packs small file fragments into groups whose total length does not exceed a given task size.
+   * Only fragments in the same directory and on the same first host are packed together, so
+   * partition values and data locality of a task are kept. Large or non-file fragments are not packed.
+   * Groups are packed by first-fit decreasing, and returned in the descending order of their length.
+   *
+   * @param fragments Fragments of a leaf stage
+   * @param taskSize The maximum bytes of a task. If it is not positive, no fragments are packed.
+   * @return Fragment groups, each of which is scheduled as a task
+   */
+  @VisibleForTesting
+  public static List<List<Fragment>> packFragments(Collection<Fragment> fragments, long taskSize) {
+    List<List<Fragment>> packed = Lists.newArrayList();
+    Map<String, List<FileFragment>> packableGroups = new LinkedHashMap<String, List<FileFragment>>();
+
+    for (Fragment fragment : fragments) {
+      if (taskSize > 0 && fragment instanceof FileFragment && fragment.getLength() >= 0 &&
+          fragment.getLength() < taskSize) {
+        FileFragment fileFragment = (FileFragment) fragment;
+        String[] hosts = fileFragment.getHosts();
+        String key = (hosts.length > 0 ? hosts[0] : "") + "|" + fileFragment.getPath().getParent();
+        List<FileFragment> group = packableGroups.get(key);
+        if (group == null) {
+          group = Lists.newArrayList();
+          packableGroups.put(key, group);
+        }
+        group.add(fileFragment);
+      } else {
+        packed.add(Lists.newArrayList(fragment));
+      }
+    }
+
+    for (List<FileFragment> group : packableGroups.values()) {
+      Collections.sort(group, new Comparator<FileFragment>() {
+        @Override
+        public int compare(FileFragment f1, FileFragment f2) {
+          long diff = f2.getLength() - f1.getLength();
+          return diff == 0 ? 0 : (diff > 0 ? 1 : -1);
+        }
+      });
+
+      List<List<Fragment>> bins = Lists.newArrayList();
+      List<Long> binLengths = Lists.newArrayList();
+      for (FileFragment fragment : group) {
+        int i = 0;
+        while (i < bins.size() && binLengths.get(i) + fragment.getLength() > taskSize) {
+          i++;
+        }
+        if (i == bins.size()) {
+          bins.add(new ArrayList<Fragment>());
+          binLengths.add(0L);
+        }
+        bins.get(i).add(fragment);
+        binLengths.set(i, binLengths.get(i) + fragment.getLength());
+      }
+      packed.addAll(bins);
+    }
+
+    Collections.sort(packed, new Comparator<List<Fragment>>() {
+      @Override
+      public int compare(List<Fragment> g1, List<Fragment> g2) {
+        long diff = getTotalLength(g2) - getTotalLength(g1);
+        return diff == 0 ? 0 : (diff > 0 ? 1 : -1);
+      }
+    });
+    return packed;
+  }
+
+  private static long getTotalLength(List<Fragment> fragments) {
+    long length = 0;
+    for (Fragment fragment : fragments) {
+      length += Math.max(0, fragment.getLength());
+    }
+    return length;
+  }
+
+  /**
+   * Schedules each fragment group as a single leaf task.
+   */
+  public static void scheduleFragmentGroups(Stage stage, List<List<Fragment>> fragmentGroups) {
+    for (List<Fragment> group : fragmentGroups) {
+      for (Fragment fragment : group) {
+        stage.schedulerContext.addFragmentHosts(fragment.getHosts());
+      }
+      stage.taskScheduler.handle(new FragmentScheduleEvent(TaskSchedulerEvent.EventType.T_SCHEDULE,
+          stage.getId(), group, null));
+    }
+  }
+
   public static void scheduleFragment(Stage stage, Fragment fragment) {
+    stage.schedulerContext.addFragmentHosts(fragment.getHosts());
     stage.taskScheduler.handle(new FragmentScheduleEvent(TaskSchedulerEvent.EventType.T_SCHEDULE,
         stage.getId(), fragment));
   }
@@ -1129,6 +1243,7 @@ public class Stage implements EventHandler<StageEvent> {
 
   public static void scheduleFragment(Stage stage,
                                       Fragment leftFragment, Collection<Fragment> rightFragments) {
+    stage.schedulerContext.addFragmentHosts(leftFragment.getHosts());
     stage.taskScheduler.handle(new FragmentScheduleEvent(TaskSchedulerEvent.EventType.T_SCHEDULE,
         stage.getId(), leftFragment, rightFragments));
   }
@@ -1175,7 +1290,7 @@ public class Stage implements EventHandler<StageEvent> {
         stage.eventHandler.handle(
             new LaunchTaskRunnersEvent(stage.getId(), allocationEvent.getAllocatedContainer(),
                 stage.getContext().getQueryContext(),
-                CoreGsonHelper.toJson(stage.getBlock().getPlan(), LogicalNode.class))
+                LogicalNodeSerializer.serialize(stage.getBlock().getPlan()))
         );
 
         stage.eventHandler.handle(new StageEvent(stage.getId(), StageEventType.SQ_START));
@@ -1282,7 +1397,10 @@ public class Stage implements EventHandler<StageEvent> {
       List<TajoIdProtos.ExecutionBlockIdProto> ebIds = Lists.newArrayList();
 
       for (ExecutionBlock executionBlock : childs) {
-        ebIds.add(executionBlock.getId().getProto());
+        // the output of a retained stage is kept for later queries
+        if (!getContext().isRetainedBlock(executionBlock.getId())) {
+          ebIds.add(executionBlock.getId().getProto());
+        }
       }
 
       getContext().getQueryMasterContext().getQueryMaster().cleanupExecutionBlock(ebIds);
@@ -1296,10 +1414,95 @@ public class Stage implements EventHandler<StageEvent> {
     return hashShuffleIntermediateEntries;
   }
 
+  /**
+   * @return The intermediate data reported by each task, which are used by range shuffle.
+   */
+  public List<IntermediateEntry> getTaskIntermediateEntries() {
+    if (recovered) {
+      return recoveredTaskIntermediateEntries;
+    }
+
+    List<IntermediateEntry> entries = Lists.newArrayList();
+    for (Task task : getTasks()) {
+      if (task.getIntermediateData() != null) {
+        entries.addAll(task.getIntermediateData());
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * @return True if this stage is restored from a checkpoint written by a previous QueryMaster,
+   * or from a stage output retained by a previous query.
+   */
+  public boolean isRecovered() {
+    return recovered;
+  }
+
+  /**
+   * @return The id of the execution block which has written the intermediate data of this stage.
+   * It is different from {@link #getId()} if this stage reuses the output retained by a previous query.
+   */
+  public ExecutionBlockId getOutputBlockId() {
+    return outputBlockId != null ? outputBlockId : getId();
+  }
+
   protected void stopFinalization() {
     stopShuffleReceiver.set(true);
   }
 
+  /**
+   * It restores a stage from its checkpoint or a retained stage output without launching any task.
+   * Intermediate data of the stage are still kept by workers, so its parent can fetch them.
+   */
+  private static class RecoverTransition implements MultipleArcTransition<Stage, StageEvent, StageState> {
+
+    @Override
+    public StageState transition(Stage stage, StageEvent event) {
+      stage.setStartTime();
+      try {
+        StageCheckpointProto checkpoint = ((StageRecoverEvent) event).getCheckpoint();
+        DataChannel channel = stage.getMasterPlan().getOutgoingChannels(stage.getId()).get(0);
+        if (checkpoint.hasShuffleOutputNum()) {
+          channel.setShuffleOutputNum(checkpoint.getShuffleOutputNum());
+        }
+        ExecutionBlockId sourceId = new ExecutionBlockId(checkpoint.getEbId());
+        if (!sourceId.equals(stage.getId())) {
+          stage.outputBlockId = sourceId;
+        }
+        stage.schema = channel.getSchema();
+        // a checkpointed stage is never the final stage, so its output is always an intermediate data
+        stage.meta = CatalogUtil.newTableMeta(StoreType.CSV, new KeyValueSet());
+        if (checkpoint.hasInputStats()) {
+          stage.inputStatistics = new TableStats(checkpoint.getInputStats());
+        }
+        if (checkpoint.hasResultStats()) {
+          stage.resultStatistics = new TableStats(checkpoint.getResultStats());
+        }
+
+        for (IntermediateEntryProto eachEntry : checkpoint.getHashShuffleEntriesList()) {
+          stage.hashShuffleIntermediateEntries.add(new IntermediateEntry(eachEntry));
+        }
+        stage.recoveredTaskIntermediateEntries = Lists.newArrayList();
+        for (IntermediateEntryProto eachEntry : checkpoint.getTaskIntermediateEntriesList()) {
+          stage.recoveredTaskIntermediateEntries.add(new IntermediateEntry(eachEntry));
+        }
+        stage.recovered = true;
+
+        LOG.info("Stage (" + stage.getId() + ") is recovered from the output of " + sourceId);
+        stage.setFinishTime();
+        stage.eventHandler.handle(new StageCompletedEvent(stage.getId(), StageState.SUCCEEDED));
+        return StageState.SUCCEEDED;
+      } catch (Throwable e) {
+        LOG.error("Stage (" + stage.getId() + ") ERROR: ", e);
+        stage.setFinishTime();
+        stage.eventHandler.handle(new StageDiagnosticsUpdateEvent(stage.getId(), e.getMessage()));
+        stage.eventHandler.handle(new StageCompletedEvent(stage.getId(), StageState.ERROR));
+        return StageState.ERROR;
+      }
+    }
+  }
+
   private static class StageFinalizeTransition implements SingleArcTransition<Stage, StageEvent> {
 
     @Override
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.collect.Maps;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.planner.global.DataChannel;
+import org.apache.tajo.engine.planner.global.ExecutionBlock;
+import org.apache.tajo.engine.planner.global.ExecutionBlockCursor;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.master.exec.QueryResultCache;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.plan.util.PlannerUtil;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SubplanFingerprinter computes a fingerprint of the output of each execution block, which is the same across
+ * queries if the output would be the same.
+ *
+ * A fingerprint consists of the plan of an execution block, its outgoing channel, the snapshots of the tables
+ * scanned by the block and the fingerprints of its child blocks. Execution block ids in the plan are replaced by
+ * the fingerprints of the blocks, so that the same subplans of different queries have the same fingerprint.
+ * A block which cannot be identified, such as a union block or a block reading a non-file table, has no fingerprint,
+ * and neither have its ancestors.
+ */
+public class SubplanFingerprinter {
+
+  /**
+   * @return fingerprints of the execution blocks which can be identified across queries
+   */
+  public static Map<ExecutionBlockId, String> fingerprint(TajoConf conf, MasterPlan masterPlan) throws IOException {
+    Map<ExecutionBlockId, String> fingerprints = Maps.newHashMap();
+
+    ExecutionBlockCursor cursor = new ExecutionBlockCursor(masterPlan);
+    while (cursor.hasNext()) {
+      ExecutionBlock block = cursor.nextBlock();
+      if (masterPlan.isTerminal(block)) {
+        continue;
+      }
+
+      String fingerprint = fingerprint(conf, masterPlan, block, fingerprints);
+      if (fingerprint != null) {
+        fingerprints.put(block.getId(), fingerprint);
+      }
+    }
+    return fingerprints;
+  }
+
+  private static String fingerprint(TajoConf conf, MasterPlan masterPlan, ExecutionBlock block,
+                                    Map<ExecutionBlockId, String> fingerprints) throws IOException {
+    if (block.getPlan() == null || block.hasUnion()) {
+      return null;
+    }
+
+    Map<String, String> blockNames = Maps.newHashMap();
+    for (ExecutionBlock child : masterPlan.getChilds(block)) {
+      String childFingerprint = fingerprints.get(child.getId());
+      if (childFingerprint == null) {
+        return null;
+      }
+      blockNames.put(child.getId().toString(), "eb_" + childFingerprint);
+    }
+    blockNames.put(block.getId().toString(), "eb_self");
+
+    // snapshots of the tables scanned by this block
+    Map<String, String> snapshots = new TreeMap<String, String>();
+    LogicalNode[] scanNodes = PlannerUtil.findAllNodes(block.getPlan(), NodeType.SCAN, NodeType.PARTITIONS_SCAN);
+    for (LogicalNode eachNode : scanNodes) {
+      TableDesc desc = ((ScanNode) eachNode).getTableDesc();
+      if (blockNames.containsKey(desc.getName())) {
+        continue;
+      }
+      if (desc.getPath() == null || !PlannerUtil.isFileStorageType(desc.getMeta().getStoreType())) {
+        return null;
+      }
+      snapshots.put(desc.getName(), QueryResultCache.getTableSnapshot(conf, new Path(desc.getPath())));
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(PlannerUtil.buildExplainString(block.getPlan())).append('\n');
+
+    DataChannel channel = masterPlan.getOutgoingChannels(block.getId()).get(0);
+    sb.append(channel.getShuffleType()).append(',').append(channel.getStoreType()).append(',');
+    if (channel.hasShuffleKeys()) {
+      for (Column key : channel.getShuffleKeys()) {
+        sb.append(key.getQualifiedName()).append(',');
+      }
+    }
+    sb.append(channel.getSchema()).append('\n');
+
+    for (Map.Entry<String, String> snapshot : snapshots.entrySet()) {
+      sb.append(snapshot.getKey()).append('@').append(snapshot.getValue()).append(';');
+    }
+    sb.append(masterPlan.getContext().get(SessionVars.TIMEZONE, ""));
+
+    String identity = sb.toString();
+    for (Map.Entry<String, String> name : blockNames.entrySet()) {
+      identity = identity.replace(name.getKey(), name.getValue());
+    }
+
+    // a reference to any other block of this query makes the block unidentifiable
+    if (identity.contains(masterPlan.getQueryId().toStringNoPrefix())) {
+      return null;
+    }
+
+    return DigestUtils.md5Hex(identity);
+  }
+}
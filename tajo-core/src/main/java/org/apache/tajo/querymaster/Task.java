@@ -74,6 +74,8 @@ public class Task implements EventHandler<TaskEvent> {
 	private Map<String, Set<FetchImpl>> fetchMap;
 
   private int totalFragmentNum;
+  /** the total length of fragments with data locations, which is used to schedule larger tasks first */
+  private long totalFragmentLength;
 
   private List<ShuffleFileOutput> shuffleFileOutputs;
 	private TableStats stats;
@@ -86,6 +88,9 @@ public class Task implements EventHandler<TaskEvent> {
   private TaskAttemptId lastAttemptId;
 
   private TaskAttemptId successfulAttempt;
+  /** the first finished attempt, whose output is used when multiple attempts run concurrently */
+  private TaskAttemptId committedAttempt;
+  private boolean speculated = false;
   private String succeededHost;
   private int succeededHostPort;
   private int succeededPullServerPort;
@@ -121,6 +126,9 @@ public class Task implements EventHandler<TaskEvent> {
           .addTransition(TaskState.SCHEDULED, TaskState.KILL_WAIT,
               TaskEventType.T_KILL,
               new KillTaskTransition())
+          // Ignore-able transitions
+          .addTransition(TaskState.SCHEDULED, TaskState.SCHEDULED,
+              TaskEventType.T_SPECULATE)
 
           // Transitions from RUNNING state
           .addTransition(TaskState.RUNNING, TaskState.RUNNING,
@@ -135,6 +143,12 @@ public class Task implements EventHandler<TaskEvent> {
               EnumSet.of(TaskState.RUNNING, TaskState.FAILED),
               TaskEventType.T_ATTEMPT_FAILED,
               new AttemptFailedOrRetryTransition())
+          .addTransition(TaskState.RUNNING, TaskState.RUNNING,
+              TaskEventType.T_ATTEMPT_KILLED,
+              new AttemptKilledInRunningTransition())
+          .addTransition(TaskState.RUNNING, TaskState.RUNNING,
+              TaskEventType.T_SPECULATE,
+              new SpeculateTransition())
 
           // Transitions from KILL_WAIT state
           .addTransition(TaskState.KILL_WAIT, TaskState.KILLED,
@@ -153,18 +167,19 @@ public class Task implements EventHandler<TaskEvent> {
           .addTransition(TaskState.KILL_WAIT, TaskState.KILL_WAIT,
               EnumSet.of(
                   TaskEventType.T_KILL,
-                  TaskEventType.T_SCHEDULE))
+                  TaskEventType.T_SCHEDULE,
+                  TaskEventType.T_SPECULATE))
 
           // Transitions from SUCCEEDED state
           // Ignore-able transitions
           .addTransition(TaskState.SUCCEEDED, TaskState.SUCCEEDED,
-              EnumSet.of(TaskEventType.T_KILL,
+              EnumSet.of(TaskEventType.T_KILL, TaskEventType.T_SPECULATE,
                   TaskEventType.T_ATTEMPT_KILLED, TaskEventType.T_ATTEMPT_SUCCEEDED, TaskEventType.T_ATTEMPT_FAILED))
 
           // Transitions from FAILED state
           // Ignore-able transitions
           .addTransition(TaskState.FAILED, TaskState.FAILED,
-              EnumSet.of(TaskEventType.T_KILL,
+              EnumSet.of(TaskEventType.T_KILL, TaskEventType.T_SPECULATE,
                   TaskEventType.T_ATTEMPT_KILLED, TaskEventType.T_ATTEMPT_SUCCEEDED, TaskEventType.T_ATTEMPT_FAILED))
 
           // Transitions from KILLED state
@@ -174,6 +189,7 @@ public class Task implements EventHandler<TaskEvent> {
               EnumSet.of(
                   TaskEventType.T_KILL,
                   TaskEventType.T_SCHEDULE,
+                  TaskEventType.T_SPECULATE,
                   TaskEventType.T_ATTEMPT_SUCCEEDED,
                   TaskEventType.T_ATTEMPT_FAILED))
 
@@ -328,8 +344,21 @@ public class Task implements EventHandler<TaskEvent> {
       diskIds = ((FileFragment)fragment).getDiskIds();
     }
     for (int i = 0; i < hosts.length; i++) {
-      dataLocations.add(new DataLocation(hosts[i], diskIds == null ? -1 : diskIds[i]));
+      int volumeId = diskIds == null ? -1 : diskIds[i];
+      // packed fragments of a task may reside in the same location
+      if (!hasDataLocation(hosts[i], volumeId)) {
+        dataLocations.add(new DataLocation(hosts[i], volumeId));
+      }
+    }
+  }
+
+  private boolean hasDataLocation(String host, int volumeId) {
+    for (DataLocation location : dataLocations) {
+      if (location.getHost().equals(host) && location.getVolumeId() == volumeId) {
+        return true;
+      }
     }
+    return false;
   }
 
   public void addFragment(Fragment fragment, boolean useDataLocation) {
@@ -343,6 +372,7 @@ public class Task implements EventHandler<TaskEvent> {
     fragmentProtos.add(fragment.getProto());
     if (useDataLocation) {
       addDataLocation(fragment);
+      totalFragmentLength += Math.max(0, fragment.getLength());
     }
     totalFragmentNum++;
   }
@@ -491,10 +521,74 @@ public class Task implements EventHandler<TaskEvent> {
     return this.nextAttempt;
   }
 
+  public Collection<TaskAttempt> getAttempts() {
+    readLock.lock();
+    try {
+      return new ArrayList<TaskAttempt>(attempts.values());
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * @return True if a speculative attempt of this task has been launched
+   */
+  public boolean isSpeculated() {
+    return speculated;
+  }
+
+  /**
+   * Chooses a given attempt as the one whose output is used. Only the first finished attempt is
+   * committed when a speculative attempt runs concurrently with the original attempt.
+   *
+   * @return True if the attempt is committed
+   */
+  synchronized boolean commitAttempt(TaskAttemptId attemptId) {
+    if (committedAttempt == null) {
+      committedAttempt = attemptId;
+      return true;
+    }
+    return committedAttempt.equals(attemptId);
+  }
+
+  private synchronized void uncommitAttempt(TaskAttemptId attemptId) {
+    if (attemptId.equals(committedAttempt)) {
+      committedAttempt = null;
+    }
+  }
+
+  private static boolean isFinished(TaskAttempt attempt) {
+    TaskAttemptState state = attempt.getState();
+    return state == TaskAttemptState.TA_SUCCEEDED || state == TaskAttemptState.TA_FAILED ||
+        state == TaskAttemptState.TA_KILLED;
+  }
+
+  private boolean hasRunningAttemptExcept(TaskAttemptId attemptId) {
+    for (TaskAttempt attempt : attempts.values()) {
+      if (!attempt.getId().equals(attemptId) && !isFinished(attempt)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void killAttemptsExcept(TaskAttemptId attemptId) {
+    for (TaskAttempt attempt : attempts.values()) {
+      if (!attempt.getId().equals(attemptId) && !isFinished(attempt) &&
+          attempt.getState() != TaskAttemptState.TA_KILL_WAIT) {
+        eventHandler.handle(new TaskAttemptEvent(attempt.getId(), TaskAttemptEventType.TA_KILL));
+      }
+    }
+  }
+
   public int getTotalFragmentNum() {
     return totalFragmentNum;
   }
 
+  public long getTotalFragmentLength() {
+    return totalFragmentLength;
+  }
+
   private static class InitialScheduleTransition implements
     SingleArcTransition<Task, TaskEvent> {
 
@@ -532,8 +626,14 @@ public class Task implements EventHandler<TaskEvent> {
 
   // This is always called in the Write Lock
   private void addAndScheduleAttempt() {
+    addAndScheduleAttempt(false);
+  }
+
+  // This is always called in the Write Lock
+  private void addAndScheduleAttempt(boolean speculative) {
     // Create new task attempt
     TaskAttempt attempt = newAttempt();
+    attempt.setSpeculative(speculative);
     if (LOG.isDebugEnabled()) {
       LOG.debug("Created attempt " + attempt.getId());
     }
@@ -582,7 +682,8 @@ public class Task implements EventHandler<TaskEvent> {
     @Override
     public void transition(Task task, TaskEvent taskEvent) {
       task.finishTask();
-      task.eventHandler.handle(new TaskAttemptEvent(task.lastAttemptId, TaskAttemptEventType.TA_KILL));
+      // a speculative attempt can be running together with the last attempt.
+      task.killAttemptsExcept(null);
     }
   }
 
@@ -612,11 +713,39 @@ public class Task implements EventHandler<TaskEvent> {
       task.succeededHostPort = attempt.getWorkerConnectionInfo().getPeerRpcPort();
       task.succeededPullServerPort = attempt.getWorkerConnectionInfo().getPullServerPort();
 
+      // the other attempt loses the race, and its output is discarded.
+      task.killAttemptsExcept(attempt.getId());
+
       task.finishTask();
       task.eventHandler.handle(new StageTaskEvent(event.getTaskId(), TaskState.SUCCEEDED));
     }
   }
 
+  private static class SpeculateTransition implements SingleArcTransition<Task, TaskEvent> {
+    @Override
+    public void transition(Task task, TaskEvent event) {
+      if (task.speculated || task.successfulAttempt != null) {
+        return;
+      }
+      task.speculated = true;
+      LOG.info("Launching a speculative attempt of " + task.getId());
+      task.addAndScheduleAttempt(true);
+    }
+  }
+
+  private static class AttemptKilledInRunningTransition implements SingleArcTransition<Task, TaskEvent> {
+    @Override
+    public void transition(Task task, TaskEvent event) {
+      // The task proceeds with the other attempt if it exists. Otherwise, a new attempt is scheduled
+      // because this task is not killed by itself.
+      TaskAttemptId killedAttemptId = event instanceof TaskTAttemptEvent ?
+          ((TaskTAttemptEvent) event).getTaskAttemptId() : null;
+      if (task.committedAttempt == null && !task.hasRunningAttemptExcept(killedAttemptId)) {
+        task.addAndScheduleAttempt();
+      }
+    }
+  }
+
   private static class AttemptLaunchedTransition implements SingleArcTransition<Task, TaskEvent> {
     @Override
     public void transition(Task task,
@@ -668,10 +797,14 @@ public class Task implements EventHandler<TaskEvent> {
           "retry:" + retry + ", attempts:" +  task.failedAttempts + " <<<");
       LOG.info("====================================================================================");
 
+      task.uncommitAttempt(attemptEvent.getTaskAttemptId());
       if (retry) {
-        if (task.successfulAttempt == null) {
+        if (task.successfulAttempt == null && !task.hasRunningAttemptExcept(attemptEvent.getTaskAttemptId())) {
           task.addAndScheduleAttempt();
         }
+      } else if (task.hasRunningAttemptExcept(attemptEvent.getTaskAttemptId())) {
+        // the speculative attempt can still succeed
+        return task.getState();
       } else {
         task.finishTask();
         task.eventHandler.handle(new StageTaskEvent(task.getId(), TaskState.FAILED));
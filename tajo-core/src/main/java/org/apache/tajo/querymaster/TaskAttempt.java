@@ -67,6 +67,9 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
   private final TaskAttemptScheduleContext scheduleContext;
 
   private float progress;
+  private long launchTime;
+  /** true if this attempt is a backup of another running attempt of the same task */
+  private boolean speculative;
   private CatalogProtos.TableStatsProto inputStats;
   private CatalogProtos.TableStatsProto resultStats;
 
@@ -105,7 +108,8 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
       .addTransition(TaskAttemptState.TA_ASSIGNED,
           EnumSet.of(TaskAttemptState.TA_RUNNING, TaskAttemptState.TA_KILLED),
           TaskAttemptEventType.TA_UPDATE, new StatusUpdateTransition())
-      .addTransition(TaskAttemptState.TA_ASSIGNED, TaskAttemptState.TA_SUCCEEDED,
+      .addTransition(TaskAttemptState.TA_ASSIGNED,
+          EnumSet.of(TaskAttemptState.TA_SUCCEEDED, TaskAttemptState.TA_KILLED),
           TaskAttemptEventType.TA_DONE, new SucceededTransition())
       .addTransition(TaskAttemptState.TA_ASSIGNED, TaskAttemptState.TA_FAILED,
           TaskAttemptEventType.TA_FATAL_ERROR, new FailedTransition())
@@ -117,7 +121,8 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
       .addTransition(TaskAttemptState.TA_RUNNING, TaskAttemptState.TA_KILL_WAIT,
           TaskAttemptEventType.TA_KILL,
           new KillTaskTransition())
-      .addTransition(TaskAttemptState.TA_RUNNING, TaskAttemptState.TA_SUCCEEDED,
+      .addTransition(TaskAttemptState.TA_RUNNING,
+          EnumSet.of(TaskAttemptState.TA_SUCCEEDED, TaskAttemptState.TA_KILLED),
           TaskAttemptEventType.TA_DONE, new SucceededTransition())
       .addTransition(TaskAttemptState.TA_RUNNING, TaskAttemptState.TA_FAILED,
           TaskAttemptEventType.TA_FATAL_ERROR, new FailedTransition())
@@ -234,6 +239,18 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
     return this.expire;
   }
 
+  public long getLaunchTime() {
+    return launchTime;
+  }
+
+  public boolean isSpeculative() {
+    return speculative;
+  }
+
+  void setSpeculative(boolean speculative) {
+    this.speculative = speculative;
+  }
+
   public float getProgress() {
     return progress;
   }
@@ -324,8 +341,7 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
     @Override
     public void transition(TaskAttempt taskAttempt,
                            TaskAttemptEvent event) {
-      taskAttempt.getTask().handle(new TaskEvent(taskAttempt.getId().getTaskId(),
-          TaskEventType.T_ATTEMPT_KILLED));
+      taskAttempt.getTask().handle(new TaskTAttemptEvent(taskAttempt.getId(), TaskEventType.T_ATTEMPT_KILLED));
       LOG.info(taskAttempt.getId() + " Received TA_KILLED Status from LocalTask");
     }
   }
@@ -341,6 +357,10 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
       }
       TaskAttemptStatusUpdateEvent updateEvent = (TaskAttemptStatusUpdateEvent) event;
 
+      // a task can wait in the batch of its task runner, so it is launched when it reports its first status.
+      if (taskAttempt.launchTime == 0) {
+        taskAttempt.launchTime = System.currentTimeMillis();
+      }
       taskAttempt.progress = updateEvent.getStatus().getProgress();
       taskAttempt.inputStats = updateEvent.getStatus().getInputStats();
       taskAttempt.resultStats = updateEvent.getStatus().getResultStats();
@@ -373,15 +393,26 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
     }
   }
 
-  private static class SucceededTransition implements SingleArcTransition<TaskAttempt, TaskAttemptEvent> {
+  private static class SucceededTransition
+      implements MultipleArcTransition<TaskAttempt, TaskAttemptEvent, TaskAttemptState> {
     @Override
-    public void transition(TaskAttempt taskAttempt,
-                           TaskAttemptEvent event) {
+    public TaskAttemptState transition(TaskAttempt taskAttempt,
+                                       TaskAttemptEvent event) {
       if (!(event instanceof TaskCompletionEvent)) {
         throw new IllegalArgumentException("event should be a TaskCompletionEvent type.");
       }
       TaskCompletionReport report = ((TaskCompletionEvent)event).getReport();
 
+      // If another attempt of the same task has already finished, the output of this attempt is discarded.
+      // The kill request makes the worker invalidate the hash shuffle output of this attempt.
+      if (!taskAttempt.getTask().commitAttempt(taskAttempt.getId())) {
+        LOG.info(taskAttempt.getId() + " is finished, but another attempt of the task has already finished");
+        taskAttempt.eventHandler.handle(new LocalTaskEvent(taskAttempt.getId(), taskAttempt.containerId,
+            LocalTaskEventType.KILL));
+        taskAttempt.getTask().handle(new TaskTAttemptEvent(taskAttempt.getId(), TaskEventType.T_ATTEMPT_KILLED));
+        return TaskAttemptState.TA_KILLED;
+      }
+
       try {
         taskAttempt.fillTaskStatistics(report);
         taskAttempt.eventHandler.handle(new TaskTAttemptEvent(taskAttempt.getId(), TaskEventType.T_ATTEMPT_SUCCEEDED));
@@ -389,6 +420,7 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
         taskAttempt.eventHandler.handle(new TaskFatalErrorEvent(taskAttempt.getId(), t.getMessage()));
         taskAttempt.addDiagnosticInfo(ExceptionUtils.getStackTrace(t));
       }
+      return TaskAttemptState.TA_SUCCEEDED;
     }
   }
 
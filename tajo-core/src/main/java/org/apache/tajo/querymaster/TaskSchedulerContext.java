@@ -18,15 +18,21 @@
 
 package org.apache.tajo.querymaster;
 
+import com.google.common.collect.Maps;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.querymaster.QueryMasterTask;
 
+import java.util.Collections;
+import java.util.Map;
+
 public class TaskSchedulerContext {
   private QueryMasterTask.QueryMasterTaskContext masterContext;
   private boolean isLeafQuery;
   private ExecutionBlockId blockId;
   private int taskSize;
   private int estimatedTaskNum;
+  /** the number of scheduled fragments per host, which is used as a locality hint for container allocation */
+  private final Map<String, Integer> fragmentHosts = Maps.newHashMap();
 
   public TaskSchedulerContext(QueryMasterTask.QueryMasterTaskContext masterContext, boolean isLeafQuery,
                               ExecutionBlockId blockId) {
@@ -62,4 +68,18 @@ public class TaskSchedulerContext {
   public void setEstimatedTaskNum(int estimatedTaskNum) {
     this.estimatedTaskNum = estimatedTaskNum;
   }
+
+  public synchronized void addFragmentHosts(String [] hosts) {
+    if (hosts == null) {
+      return;
+    }
+    for (String host : hosts) {
+      Integer num = fragmentHosts.get(host);
+      fragmentHosts.put(host, num == null ? 1 : num + 1);
+    }
+  }
+
+  public synchronized Map<String, Integer> getFragmentHosts() {
+    return Collections.unmodifiableMap(Maps.newHashMap(fragmentHosts));
+  }
 }
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.tajo.TajoProtos.TaskAttemptState;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+
+import java.util.*;
+
+/**
+ * TaskSpeculator finds straggler tasks of a stage.
+ *
+ * The progress rate of a running task is its reported progress divided by its running time, and the rate of a
+ * completed task is the reciprocal of its running time. A running task whose progress rate is much lower than
+ * the median rate of the stage is a straggler, and a speculative attempt of it is launched on another host.
+ */
+public class TaskSpeculator {
+  private final Stage stage;
+  private final float slowTaskRatio;
+  private final long minRuntime;
+  private final float maxTaskRatio;
+
+  public TaskSpeculator(TajoConf conf, Stage stage) {
+    this.stage = stage;
+    this.slowTaskRatio = conf.getFloatVar(ConfVars.QUERYMASTER_SPECULATIVE_SLOW_TASK_RATIO);
+    this.minRuntime = conf.getLongVar(ConfVars.QUERYMASTER_SPECULATIVE_MIN_RUNTIME);
+    this.maxTaskRatio = conf.getFloatVar(ConfVars.QUERYMASTER_SPECULATIVE_MAX_TASK_RATIO);
+  }
+
+  /**
+   * Finds tasks to be speculated, the slowest first.
+   *
+   * @param now The current time in milliseconds
+   * @return Tasks to be speculated
+   */
+  public List<Task> findStragglers(long now) {
+    Task[] tasks = stage.getTasks();
+    List<Float> rates = new ArrayList<Float>();
+    final Map<Task, Float> candidates = new HashMap<Task, Float>();
+    int speculating = 0;
+
+    for (Task task : tasks) {
+      TaskState state = task.getState();
+      if (state == TaskState.SUCCEEDED) {
+        rates.add(1.0f / Math.max(1, task.getRunningTime()));
+      } else if (state == TaskState.RUNNING) {
+        if (task.isSpeculated()) {
+          speculating++;
+          continue;
+        }
+
+        TaskAttempt attempt = task.getLastAttempt();
+        if (attempt == null || attempt.getState() != TaskAttemptState.TA_RUNNING || attempt.getLaunchTime() == 0) {
+          continue;
+        }
+        long runningTime = now - attempt.getLaunchTime();
+        float rate = progressRate(attempt.getProgress(), runningTime);
+        rates.add(rate);
+        if (runningTime >= minRuntime && attempt.getProgress() < 1.0f) {
+          candidates.put(task, rate);
+        }
+      }
+    }
+
+    int limit = Math.max(1, (int) Math.ceil(tasks.length * maxTaskRatio)) - speculating;
+    if (candidates.isEmpty() || limit <= 0 || rates.size() < 2) {
+      return Collections.emptyList();
+    }
+
+    float threshold = median(rates) * slowTaskRatio;
+    List<Task> stragglers = new ArrayList<Task>();
+    for (Map.Entry<Task, Float> candidate : candidates.entrySet()) {
+      if (candidate.getValue() < threshold) {
+        stragglers.add(candidate.getKey());
+      }
+    }
+    Collections.sort(stragglers, new Comparator<Task>() {
+      @Override
+      public int compare(Task t1, Task t2) {
+        return Float.compare(candidates.get(t1), candidates.get(t2));
+      }
+    });
+
+    return stragglers.size() > limit ? stragglers.subList(0, limit) : stragglers;
+  }
+
+  @VisibleForTesting
+  static float progressRate(float progress, long runningTime) {
+    return progress / Math.max(1, runningTime);
+  }
+
+  @VisibleForTesting
+  static float median(List<Float> values) {
+    List<Float> sorted = new ArrayList<Float>(values);
+    Collections.sort(sorted);
+    int mid = sorted.size() / 2;
+    if (sorted.size() % 2 == 0) {
+      return (sorted.get(mid - 1) + sorted.get(mid)) / 2;
+    }
+    return sorted.get(mid);
+  }
+}
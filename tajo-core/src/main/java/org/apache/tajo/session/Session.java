@@ -24,11 +24,15 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.SessionVars;
 import org.apache.tajo.master.exec.NonForwardQueryResultScanner;
+import org.apache.tajo.master.exec.PreparedQuery;
 import org.apache.tajo.util.KeyValueSet;
 import org.apache.tajo.common.ProtoObject;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.tajo.ipc.TajoWorkerProtocol.SessionProto;
 
@@ -40,6 +44,11 @@ public class Session implements SessionConstants, ProtoObject<SessionProto>, Clo
   private String currentDatabase;
   private final Map<String, String> sessionVariables;
   private final Map<QueryId, NonForwardQueryResultScanner> nonForwardQueryMap = new HashMap<QueryId, NonForwardQueryResultScanner>();
+  // scanners of the streams which fetch disjoint parts of a query result in parallel
+  private final Map<QueryId, Map<Integer, NonForwardQueryResultScanner>> nonForwardQueryStreamMap =
+      new HashMap<QueryId, Map<Integer, NonForwardQueryResultScanner>>();
+  private final Map<Integer, PreparedQuery> preparedQueryMap = new HashMap<Integer, PreparedQuery>();
+  private final AtomicInteger preparedQuerySeq = new AtomicInteger(0);
 
   // transient status
   private volatile long lastAccessTime;
@@ -159,13 +168,38 @@ public class Session implements SessionConstants, ProtoObject<SessionProto>, Clo
     }
   }
 
+  public NonForwardQueryResultScanner getNonForwardQueryResultScanner(QueryId queryId, int streamId) {
+    synchronized (nonForwardQueryMap) {
+      Map<Integer, NonForwardQueryResultScanner> streams = nonForwardQueryStreamMap.get(queryId);
+      return streams == null ? null : streams.get(streamId);
+    }
+  }
+
+  public void addNonForwardQueryResultScanner(NonForwardQueryResultScanner resultScanner, int streamId) {
+    synchronized (nonForwardQueryMap) {
+      Map<Integer, NonForwardQueryResultScanner> streams = nonForwardQueryStreamMap.get(resultScanner.getQueryId());
+      if (streams == null) {
+        streams = new HashMap<Integer, NonForwardQueryResultScanner>();
+        nonForwardQueryStreamMap.put(resultScanner.getQueryId(), streams);
+      }
+      streams.put(streamId, resultScanner);
+    }
+  }
+
   public void closeNonForwardQueryResultScanner(QueryId queryId) {
-    NonForwardQueryResultScanner resultScanner;
+    List<NonForwardQueryResultScanner> resultScanners = new ArrayList<NonForwardQueryResultScanner>();
     synchronized (nonForwardQueryMap) {
-      resultScanner = nonForwardQueryMap.remove(queryId);
+      NonForwardQueryResultScanner resultScanner = nonForwardQueryMap.remove(queryId);
+      if (resultScanner != null) {
+        resultScanners.add(resultScanner);
+      }
+      Map<Integer, NonForwardQueryResultScanner> streams = nonForwardQueryStreamMap.remove(queryId);
+      if (streams != null) {
+        resultScanners.addAll(streams.values());
+      }
     }
 
-    if (resultScanner != null) {
+    for (NonForwardQueryResultScanner resultScanner : resultScanners) {
       try {
         resultScanner.close();
       } catch (Exception e) {
@@ -174,10 +208,45 @@ public class Session implements SessionConstants, ProtoObject<SessionProto>, Clo
     }
   }
 
+  /**
+   * Registers a prepared query to this session.
+   *
+   * @return The statement id assigned to the prepared query
+   */
+  public int addPreparedQuery(PreparedQuery preparedQuery) {
+    int statementId = preparedQuerySeq.incrementAndGet();
+    synchronized (preparedQueryMap) {
+      preparedQueryMap.put(statementId, preparedQuery);
+    }
+    return statementId;
+  }
+
+  public PreparedQuery getPreparedQuery(int statementId) {
+    synchronized (preparedQueryMap) {
+      return preparedQueryMap.get(statementId);
+    }
+  }
+
+  public boolean removePreparedQuery(int statementId) {
+    synchronized (preparedQueryMap) {
+      return preparedQueryMap.remove(statementId) != null;
+    }
+  }
+
   public void close() {
+    synchronized (preparedQueryMap) {
+      preparedQueryMap.clear();
+    }
+
     try {
       synchronized (nonForwardQueryMap) {
-        for (NonForwardQueryResultScanner eachQueryScanner: nonForwardQueryMap.values()) {
+        List<NonForwardQueryResultScanner> resultScanners =
+            new ArrayList<NonForwardQueryResultScanner>(nonForwardQueryMap.values());
+        for (Map<Integer, NonForwardQueryResultScanner> streams : nonForwardQueryStreamMap.values()) {
+          resultScanners.addAll(streams.values());
+        }
+
+        for (NonForwardQueryResultScanner eachQueryScanner: resultScanners) {
           try {
             eachQueryScanner.close();
           } catch (Exception e) {
@@ -187,6 +256,7 @@ public class Session implements SessionConstants, ProtoObject<SessionProto>, Clo
         }
 
         nonForwardQueryMap.clear();
+        nonForwardQueryStreamMap.clear();
       }
     } catch (Throwable t) {
       LOG.error(t.getMessage(), t);
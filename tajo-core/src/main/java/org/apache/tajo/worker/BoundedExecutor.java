@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.worker;
+
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * BoundedExecutor runs at most a given number of commands at once on a shared executor.
+ * The other commands wait in a queue until one of the running commands is finished.
+ */
+public class BoundedExecutor implements Executor {
+  private final Executor executor;
+  private final int maxConcurrency;
+  private final Queue<Runnable> pending = new LinkedList<Runnable>();
+  private int running = 0;
+
+  public BoundedExecutor(Executor executor, int maxConcurrency) {
+    this.executor = executor;
+    this.maxConcurrency = Math.max(1, maxConcurrency);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    synchronized (this) {
+      pending.add(command);
+    }
+    schedule();
+  }
+
+  private synchronized void schedule() {
+    while (running < maxConcurrency && !pending.isEmpty()) {
+      final Runnable command = pending.poll();
+      running++;
+      try {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              command.run();
+            } finally {
+              synchronized (BoundedExecutor.this) {
+                running--;
+              }
+              schedule();
+            }
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        running--;
+        pending.clear();
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * @return the number of commands waiting for a running command to finish
+   */
+  public synchronized int getNumPendingCommands() {
+    return pending.size();
+  }
+}
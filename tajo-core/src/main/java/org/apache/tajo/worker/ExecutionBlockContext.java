@@ -34,6 +34,7 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.ipc.QueryMasterProtocol;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.plan.serder.PlanProto;
 import org.apache.tajo.rpc.NettyClientBase;
 import org.apache.tajo.rpc.NullCallback;
 import org.apache.tajo.rpc.RpcConnectionPool;
@@ -74,7 +75,7 @@ public class ExecutionBlockContext {
   private ExecutionBlockId executionBlockId;
   private QueryContext queryContext;
   private TajoWorker.WorkerContext workerContext;
-  private String plan;
+  private PlanProto.LogicalNodeTree plan;
 
   private ExecutionBlockSharedResource resource;
 
@@ -96,7 +97,8 @@ public class ExecutionBlockContext {
   private final ConcurrentMap<String, TaskRunnerHistory> histories = Maps.newConcurrentMap();
 
   public ExecutionBlockContext(TajoConf conf, TajoWorker.WorkerContext workerContext,
-                               TaskRunnerManager manager, QueryContext queryContext, String plan,
+                               TaskRunnerManager manager, QueryContext queryContext,
+                               PlanProto.LogicalNodeTree plan,
                                ExecutionBlockId executionBlockId, WorkerConnectionInfo queryMaster) throws Throwable {
     this.manager = manager;
     this.executionBlockId = executionBlockId;
@@ -112,7 +114,9 @@ public class ExecutionBlockContext {
     this.queryEngine = new TajoQueryEngine(systemConf);
     this.queryContext = queryContext;
     this.plan = plan;
-    this.resource = new ExecutionBlockSharedResource();
+    this.resource = workerContext == null ? new ExecutionBlockSharedResource() :
+        new ExecutionBlockSharedResource(workerContext.getMemoryManager(),
+            workerContext.getCompiledEvalCache());
     this.workerContext = workerContext;
   }
 
@@ -152,6 +156,10 @@ public class ExecutionBlockContext {
     }
   }
 
+  public QueryContext getQueryContext() {
+    return queryContext;
+  }
+
   public ExecutionBlockSharedResource getSharedResource() {
     return resource;
   }
@@ -251,6 +259,10 @@ public class ExecutionBlockContext {
     return tasks.get(taskAttemptId);
   }
 
+  public TaskRunnerManager getTaskRunnerManager() {
+    return manager;
+  }
+
   public void stopTaskRunner(String id){
     manager.stopTaskRunner(id);
   }
@@ -24,9 +24,9 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.engine.codegen.CompiledEvalCache;
 import org.apache.tajo.engine.codegen.ExecutorPreCompiler;
 import org.apache.tajo.engine.codegen.TajoClassLoader;
-import org.apache.tajo.engine.json.CoreGsonHelper;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.engine.utils.CacheHolder;
 import org.apache.tajo.engine.utils.TableCache;
@@ -34,6 +34,8 @@ import org.apache.tajo.engine.utils.TableCacheKey;
 import org.apache.tajo.plan.PlanningException;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.serder.LogicalNodeDeserializer;
+import org.apache.tajo.plan.serder.PlanProto;
 import org.apache.tajo.util.Pair;
 
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -48,17 +50,32 @@ public class ExecutionBlockSharedResource {
   private QueryContext context;
 
   // Resources
+  // a worker-wide cache of compiled evals. If it is null, classes are generated for each execution block.
+  private final CompiledEvalCache compiledEvalCache;
   private TajoClassLoader classLoader;
   private ExecutorPreCompiler.CompilationContext compilationContext;
   private LogicalNode plan;
+  // tasks with their own query contexts deserialize their plans from it
+  private PlanProto.LogicalNodeTree serializedPlan;
   private boolean codeGenEnabled = false;
+  // memory held by the broadcast caches of this execution block
+  private final MemoryConsumer broadcastCacheMemory;
 
-  public void initialize(final QueryContext context, final String planJson) {
+  public ExecutionBlockSharedResource() {
+    this(new MemoryManager(Long.MAX_VALUE), null);
+  }
+
+  public ExecutionBlockSharedResource(MemoryManager memoryManager, CompiledEvalCache compiledEvalCache) {
+    this.broadcastCacheMemory = memoryManager.newConsumer("BroadcastCache", false);
+    this.compiledEvalCache = compiledEvalCache;
+  }
+
+  public void initialize(final QueryContext context, final PlanProto.LogicalNodeTree serializedPlan) {
 
     if (!initializing.getAndSet(true)) {
       try {
         ExecutionBlockSharedResource.this.context = context;
-        initPlan(planJson);
+        initPlan(serializedPlan);
         initCodeGeneration();
         resourceInitSuccess = true;
       } catch (Throwable t) {
@@ -72,15 +89,21 @@ public class ExecutionBlockSharedResource {
     }
   }
 
-  private void initPlan(String planJson) {
-    plan = CoreGsonHelper.fromJson(planJson, LogicalNode.class);
+  private void initPlan(PlanProto.LogicalNodeTree serializedPlan) {
+    this.serializedPlan = serializedPlan;
+    // parsed once per execution block, and shared by all task runners of this worker
+    plan = LogicalNodeDeserializer.deserialize(context, serializedPlan);
   }
 
   private void initCodeGeneration() throws PlanningException {
     if (context.getBool(SessionVars.CODEGEN)) {
       codeGenEnabled = true;
-      classLoader = new TajoClassLoader();
-      compilationContext = new ExecutorPreCompiler.CompilationContext(classLoader);
+      if (compiledEvalCache != null) {
+        compilationContext = new ExecutorPreCompiler.CompilationContext(compiledEvalCache);
+      } else {
+        classLoader = new TajoClassLoader();
+        compilationContext = new ExecutorPreCompiler.CompilationContext(classLoader);
+      }
       ExecutorPreCompiler.compile(compilationContext, plan);
     }
   }
@@ -89,8 +112,24 @@ public class ExecutionBlockSharedResource {
     return this.plan;
   }
 
+  /**
+   * @return A copy of the plan of this execution block. Physical planning can modify a plan, so each task takes
+   * its own copy instead of deserializing the plan again.
+   */
+  public LogicalNode copyPlan() {
+    try {
+      return (LogicalNode) plan.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public PlanProto.LogicalNodeTree getSerializedPlan() {
+    return this.serializedPlan;
+  }
+
   public EvalNode compileEval(Schema schema, EvalNode eval) {
-    return compilationContext.getCompiler().compile(schema, eval);
+    return compilationContext.compile(schema, eval);
   }
 
   public EvalNode getPreCompiledEval(Schema schema, EvalNode eval) {
@@ -130,12 +169,29 @@ public class ExecutionBlockSharedResource {
     TableCache.getInstance().addCache(cacheKey, cacheData);
   }
 
+  public void addBroadcastCache(TableCacheKey cacheKey,  CacheHolder<?> cacheData, long memoryBytes) {
+    addBroadcastCache(cacheKey, cacheData);
+    synchronized (broadcastCacheMemory) {
+      broadcastCacheMemory.acquire(memoryBytes);
+    }
+  }
+
+  public MemoryConsumer getBroadcastCacheMemory() {
+    return broadcastCacheMemory;
+  }
+
   public void releaseBroadcastCache(ExecutionBlockId id) {
     TableCache.getInstance().releaseCache(id);
+    synchronized (broadcastCacheMemory) {
+      broadcastCacheMemory.releaseAll();
+    }
   }
 
   public void release() {
     compilationContext = null;
+    synchronized (broadcastCacheMemory) {
+      broadcastCacheMemory.close();
+    }
 
     if (classLoader != null) {
       try {
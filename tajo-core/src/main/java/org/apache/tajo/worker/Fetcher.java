@@ -18,13 +18,16 @@
 
 package org.apache.tajo.worker;
 
+import com.google.common.base.Joiner;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.IOUtils;
 import org.apache.tajo.TajoProtos;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.pullserver.TajoPullServerService;
 import org.apache.tajo.pullserver.retriever.FileChunk;
 import org.apache.tajo.rpc.RpcChannelFactory;
 
@@ -42,6 +45,7 @@ import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.QueryStringDecoder;
 import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.util.ReferenceCountUtil;
@@ -53,16 +57,24 @@ import java.io.RandomAccessFile;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Fetcher fetches data from a given uri via HTTP protocol and stores them into
  * a specific file. It aims at asynchronous and efficient data transmit.
+ *
+ * A fetcher of a batched uri (see {@link #createBatchURIs(List, int)}) stores each partition
+ * of the response into its own file whose name is the name of the given file and a suffix.
  */
 public class Fetcher {
 
   private final static Log LOG = LogFactory.getLog(Fetcher.class);
 
+  private final static int HTTP_REQUEST_MAXIMUM_LENGTH = 1900;
+
   private final URI uri;
   private final FileChunk fileChunk;
   private final TajoConf conf;
@@ -70,6 +82,7 @@ public class Fetcher {
   private final String host;
   private int port;
   private final boolean useLocalFile;
+  private final boolean batched;
 
   private long startTime;
   private long finishTime;
@@ -85,6 +98,7 @@ public class Fetcher {
     this.useLocalFile = !chunk.fromRemote();
     this.state = TajoProtos.FetcherState.FETCH_INIT;
     this.conf = conf;
+    this.batched = TajoPullServerService.BATCH_URI_PATH.equals(uri.getPath());
 
     String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
     this.host = uri.getHost() == null ? "localhost" : uri.getHost();
@@ -191,10 +205,64 @@ public class Fetcher {
     return this.uri;
   }
 
+  /**
+   * @return the key of uris which can be fetched together by a batched request, or null if a uri cannot be
+   * batched. Only the uris of whole or split hash shuffle partitions can be batched.
+   */
+  static String getBatchKey(URI uri) {
+    Map<String, List<String>> params = new QueryStringDecoder(uri).parameters();
+    List<String> types = params.get("type");
+    List<String> qids = params.get("qid");
+    List<String> subQueryIds = params.get("sid");
+    List<String> partIds = params.get("p");
+
+    if (types == null || qids == null || subQueryIds == null || partIds == null || partIds.size() != 1
+        || params.containsKey("ta") || !(types.get(0).equals("h") || types.get(0).equals("s"))) {
+      return null;
+    }
+    return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort() + TajoPullServerService.BATCH_URI_PATH
+        + "?qid=" + qids.get(0) + "&sid=" + subQueryIds.get(0) + "&type=" + types.get(0);
+  }
+
+  /**
+   * Merges the uris having the same batch key into batched uris, each of which requests up to
+   * maxPartitions partitions. A uri which is left alone is returned as it is.
+   */
+  static List<URI> createBatchURIs(List<URI> uris, int maxPartitions) {
+    List<URI> batchURIs = new ArrayList<URI>();
+    String batchKey = getBatchKey(uris.get(0));
+    List<String> parts = new ArrayList<String>();
+    int length = 0;
+
+    for (int i = 0; i < uris.size(); i++) {
+      Map<String, List<String>> params = new QueryStringDecoder(uris.get(i)).parameters();
+      List<String> offsetList = params.get("offset");
+      List<String> lengthList = params.get("length");
+
+      String part = params.get("p").get(0);
+      if (offsetList != null && lengthList != null) {
+        part += ":" + offsetList.get(0) + ":" + lengthList.get(0);
+      }
+      parts.add(part);
+      length += part.length() + 1;
+
+      if (parts.size() == maxPartitions || length > HTTP_REQUEST_MAXIMUM_LENGTH || i == uris.size() - 1) {
+        if (parts.size() == 1) {
+          batchURIs.add(uris.get(i));
+        } else {
+          batchURIs.add(URI.create(batchKey + "&p=" + Joiner.on(",").join(parts)));
+        }
+        parts.clear();
+        length = 0;
+      }
+    }
+    return batchURIs;
+  }
+
   class HttpClientHandler extends ChannelInboundHandlerAdapter {
-    private final File file;
-    private RandomAccessFile raf;
-    private FileChannel fc;
+    protected final File file;
+    protected RandomAccessFile raf;
+    protected FileChannel fc;
     private long length = -1;
 
     public HttpClientHandler(File file) throws FileNotFoundException {
@@ -254,12 +322,12 @@ public class Fetcher {
           HttpContent httpContent = (HttpContent) msg;
           ByteBuf content = httpContent.content();
           if (content.isReadable()) {
-            content.readBytes(fc, content.readableBytes());
+            writeContent(content);
           }
 
           if (msg instanceof LastHttpContent) {
             if (raf != null) {
-              fileLen = file.length();
+              fileLen = getStoredLength();
             }
 
             IOUtils.cleanup(LOG, fc, raf);
@@ -279,6 +347,14 @@ public class Fetcher {
       }
     }
 
+    protected void writeContent(ByteBuf content) throws IOException {
+      content.readBytes(fc, content.readableBytes());
+    }
+
+    protected long getStoredLength() {
+      return file.length();
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
         throws Exception {
@@ -308,6 +384,59 @@ public class Fetcher {
     }
   }
 
+  /**
+   * It splits a batched response into the frames of partitions, and stores the partitions into
+   * the given file and the files whose names are the name of the given file with the suffixes _1, _2, ...
+   */
+  class BatchHttpClientHandler extends HttpClientHandler {
+    private final ByteBuf frameHeader = Unpooled.buffer(TajoPullServerService.BATCH_FRAME_HEADER_SIZE,
+        TajoPullServerService.BATCH_FRAME_HEADER_SIZE);
+    private long remainFrameBytes = 0;
+    private long storedLength = 0;
+    private int storedFileNum = 0;
+
+    public BatchHttpClientHandler(File file) throws FileNotFoundException {
+      super(file);
+    }
+
+    @Override
+    protected void writeContent(ByteBuf content) throws IOException {
+      while (content.isReadable()) {
+        if (remainFrameBytes == 0) {
+          frameHeader.writeBytes(content, Math.min(content.readableBytes(), frameHeader.writableBytes()));
+          if (frameHeader.isWritable()) {
+            return;
+          }
+          frameHeader.readInt(); // partition id
+          remainFrameBytes = frameHeader.readLong();
+          frameHeader.clear();
+          if (remainFrameBytes > 0) {
+            nextFile();
+          }
+        } else {
+          int readLen = (int) Math.min(content.readableBytes(), remainFrameBytes);
+          content.readBytes(fc, readLen);
+          remainFrameBytes -= readLen;
+          storedLength += readLen;
+        }
+      }
+    }
+
+    private void nextFile() throws FileNotFoundException {
+      if (storedFileNum > 0) {
+        IOUtils.cleanup(LOG, fc, raf);
+        raf = new RandomAccessFile(new File(file.getPath() + "_" + storedFileNum), "rw");
+        fc = raf.getChannel();
+      }
+      storedFileNum++;
+    }
+
+    @Override
+    protected long getStoredLength() {
+      return storedLength;
+    }
+  }
+
   class HttpClientChannelInitializer extends ChannelInitializer<Channel> {
     private final File file;
 
@@ -325,7 +454,7 @@ public class Fetcher {
       pipeline.addLast("codec", new HttpClientCodec(4096, 8192, maxChunkSize));
       pipeline.addLast("inflater", new HttpContentDecompressor());
       pipeline.addLast("timeout", new ReadTimeoutHandler(readTimeout, TimeUnit.SECONDS));
-      pipeline.addLast("handler", new HttpClientHandler(file));
+      pipeline.addLast("handler", batched ? new BatchHttpClientHandler(file) : new HttpClientHandler(file));
     }
   }
 }
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.tajo.ipc.TajoWorkerProtocol.OperatorMemoryUsageProto;
+
+/**
+ * A handle through which an operator reports its memory usage to {@link MemoryManager}.
+ *
+ * A consumer is used by a single operator thread. To avoid contention on the manager,
+ * the usage is reported to the manager in units of {@link #REPORT_UNIT} bytes.
+ */
+public class MemoryConsumer {
+  static final long REPORT_UNIT = 1024 * 1024;
+
+  private final MemoryManager manager;
+  private final String name;
+  private final boolean spillable;
+
+  private volatile long used;
+  /** bytes already reported to the manager */
+  private long reported;
+  private long peak;
+  private int spillCount;
+  private volatile boolean spillRequested;
+  private boolean closed;
+
+  MemoryConsumer(MemoryManager manager, String name, boolean spillable) {
+    this.manager = manager;
+    this.name = name;
+    this.spillable = spillable;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isSpillable() {
+    return spillable;
+  }
+
+  public long getUsed() {
+    return used;
+  }
+
+  public long getPeak() {
+    return peak;
+  }
+
+  public int getSpillCount() {
+    return spillCount;
+  }
+
+  /**
+   * Adds the given bytes to the usage of this consumer.
+   *
+   * @return False if the manager asks this consumer to spill
+   */
+  public boolean acquire(long bytes) {
+    used += bytes;
+    if (used > peak) {
+      peak = used;
+    }
+    if (used - reported >= REPORT_UNIT) {
+      manager.reserve(used - reported);
+      reported = used;
+    }
+    return !spillRequested;
+  }
+
+  public void release(long bytes) {
+    used = Math.max(0, used - bytes);
+    if (reported > used) {
+      manager.free(reported - used);
+      reported = used;
+    }
+  }
+
+  public void releaseAll() {
+    release(used);
+  }
+
+  /**
+   * @return True if the manager asks this consumer to spill
+   */
+  public boolean shouldSpill() {
+    return spillRequested;
+  }
+
+  void requestSpill() {
+    spillRequested = true;
+  }
+
+  /**
+   * Must be called after this consumer writes its in-memory data to disk.
+   */
+  public void spilled() {
+    releaseAll();
+    spillCount++;
+    spillRequested = false;
+  }
+
+  /**
+   * Releases all memory and unregisters this consumer. The peak usage is still available after closed.
+   */
+  public void close() {
+    if (!closed) {
+      releaseAll();
+      manager.unregister(this);
+      closed = true;
+    }
+  }
+
+  public OperatorMemoryUsageProto getProto() {
+    return OperatorMemoryUsageProto.newBuilder()
+        .setName(name)
+        .setPeakBytes(peak)
+        .setSpillCount(spillCount)
+        .build();
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+
+import java.util.*;
+
+/**
+ * MemoryManager keeps track of the memory used by in-memory operators of all tasks running in a worker.
+ *
+ * Each operator registers a {@link MemoryConsumer} and reports its usage through it. If the total usage
+ * exceeds the capacity of the manager, the manager asks the largest spillable consumers to spill their data
+ * to disk. Spilling is cooperative, so each consumer checks the request and spills at its own convenient point.
+ * The consumers which cannot spill (e.g., hash tables of joins and aggregations) are only tracked.
+ */
+public class MemoryManager {
+  private static final Log LOG = LogFactory.getLog(MemoryManager.class);
+
+  private final long capacity;
+  private final Set<MemoryConsumer> consumers = new HashSet<MemoryConsumer>();
+  /** the total bytes reported by all consumers */
+  private long reserved;
+
+  public MemoryManager(TajoConf conf) {
+    this.capacity = (long) (Runtime.getRuntime().maxMemory() *
+        conf.getFloatVar(ConfVars.WORKER_MEMORY_MANAGER_CAPACITY_RATIO));
+    LOG.info("MemoryManager is initialized with capacity: " + capacity + " bytes");
+  }
+
+  public MemoryManager(long capacity) {
+    this.capacity = capacity;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public synchronized long getReserved() {
+    return reserved;
+  }
+
+  public synchronized int getConsumerNum() {
+    return consumers.size();
+  }
+
+  /**
+   * Registers a new memory consumer.
+   *
+   * @param name The name of the consumer, which is usually the name of an operator
+   * @param spillable True if the consumer can spill its data in memory to disk on request
+   * @return The registered consumer
+   */
+  public synchronized MemoryConsumer newConsumer(String name, boolean spillable) {
+    MemoryConsumer consumer = new MemoryConsumer(this, name, spillable);
+    consumers.add(consumer);
+    return consumer;
+  }
+
+  synchronized void reserve(long bytes) {
+    reserved += bytes;
+    if (reserved > capacity) {
+      requestSpill(reserved - capacity);
+    }
+  }
+
+  synchronized void free(long bytes) {
+    reserved = Math.max(0, reserved - bytes);
+  }
+
+  synchronized void unregister(MemoryConsumer consumer) {
+    consumers.remove(consumer);
+  }
+
+  /**
+   * Asks the largest spillable consumers to spill until the requested bytes cover the overflow.
+   */
+  @VisibleForTesting
+  synchronized void requestSpill(long overflow) {
+    List<MemoryConsumer> candidates = Lists.newArrayList();
+    for (MemoryConsumer consumer : consumers) {
+      if (consumer.isSpillable() && !consumer.shouldSpill() && consumer.getUsed() > 0) {
+        candidates.add(consumer);
+      } else if (consumer.shouldSpill()) {
+        // the memory of consumers which are already requested will be freed soon.
+        overflow -= consumer.getUsed();
+      }
+    }
+
+    Collections.sort(candidates, new Comparator<MemoryConsumer>() {
+      @Override
+      public int compare(MemoryConsumer o1, MemoryConsumer o2) {
+        long diff = o2.getUsed() - o1.getUsed();
+        return diff > 0 ? 1 : (diff < 0 ? -1 : 0);
+      }
+    });
+
+    for (MemoryConsumer consumer : candidates) {
+      if (overflow <= 0) {
+        break;
+      }
+      consumer.requestSpill();
+      overflow -= consumer.getUsed();
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Spill is requested to " + consumer.getName() + " (" + consumer.getUsed() + " bytes)");
+      }
+    }
+
+    if (overflow > 0 && LOG.isDebugEnabled()) {
+      LOG.debug("Memory usage exceeds the capacity by " + overflow + " bytes, but nothing can be spilled");
+    }
+  }
+}
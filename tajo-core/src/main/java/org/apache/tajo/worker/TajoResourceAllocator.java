@@ -167,7 +167,7 @@ public class TajoResourceAllocator extends AbstractResourceAllocator {
     // But, Assign ExecutionBlock to assigned tajo worker
     for(TajoContainer eachContainer: event.getContainers()) {
       TajoContainerProxy containerProxy = new TajoContainerProxy(queryTaskContext, tajoConf,
-        eachContainer, event.getQueryContext(), event.getExecutionBlockId(), event.getPlanJson());
+        eachContainer, event.getQueryContext(), event.getExecutionBlockId(), event.getPlan());
       executorService.submit(new LaunchRunner(eachContainer.getId(), containerProxy));
     }
   }
@@ -267,7 +267,7 @@ public class TajoResourceAllocator extends AbstractResourceAllocator {
       int requiredMemoryMB = tajoConf.getIntVar(TajoConf.ConfVars.TASK_DEFAULT_MEMORY);
       float requiredDiskSlots = tajoConf.getFloatVar(TajoConf.ConfVars.TASK_DEFAULT_DISK);
 
-      WorkerResourceAllocationRequest request = WorkerResourceAllocationRequest.newBuilder()
+      WorkerResourceAllocationRequest.Builder requestBuilder = WorkerResourceAllocationRequest.newBuilder()
           .setMinMemoryMBPerContainer(requiredMemoryMB)
           .setMaxMemoryMBPerContainer(requiredMemoryMB)
           .setNumContainers(event.getRequiredNum())
@@ -275,8 +275,13 @@ public class TajoResourceAllocator extends AbstractResourceAllocator {
               ResourceRequestPriority.MEMORY : ResourceRequestPriority.DISK)
           .setMinDiskSlotPerContainer(requiredDiskSlots)
           .setMaxDiskSlotPerContainer(requiredDiskSlots)
-          .setQueryId(event.getExecutionBlockId().getQueryId().getProto())
-          .build();
+          .setQueryId(event.getExecutionBlockId().getQueryId().getProto());
+      for (Map.Entry<String, Integer> eachHost : event.getFragmentHosts().entrySet()) {
+        requestBuilder.addPreferredHosts(HostLocalityProto.newBuilder()
+            .setHost(eachHost.getKey())
+            .setNumFragments(eachHost.getValue()));
+      }
+      WorkerResourceAllocationRequest request = requestBuilder.build();
 
       RpcConnectionPool connPool = RpcConnectionPool.getPool();
       NettyClientBase tmClient = null;
@@ -367,7 +372,7 @@ public class TajoResourceAllocator extends AbstractResourceAllocator {
           event.getType(), event.getExecutionBlockId(), event.getPriority(),
           event.getResource(),
           event.getRequiredNum() - numAllocatedContainers,
-          event.isLeafQuery(), event.getProgress()
+          event.isLeafQuery(), event.getProgress(), event.getFragmentHosts()
         );
         queryTaskContext.getEventHandler().handle(shortRequestEvent);
 
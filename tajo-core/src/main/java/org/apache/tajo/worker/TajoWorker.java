@@ -34,16 +34,20 @@ import org.apache.tajo.TajoConstants;
 import org.apache.tajo.catalog.CatalogClient;
 import org.apache.tajo.catalog.CatalogService;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.codegen.CompiledEvalCache;
 import org.apache.tajo.service.ServiceTracker;
 import org.apache.tajo.service.ServiceTrackerFactory;
 import org.apache.tajo.service.TajoMasterInfo;
 import org.apache.tajo.ipc.QueryCoordinatorProtocol.ClusterResourceSummary;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
 import org.apache.tajo.master.rm.TajoWorkerResourceManager;
+import org.apache.tajo.metrics.PullServerMetricsGaugeSet;
+import org.apache.tajo.metrics.RpcServerMetricsListener;
 import org.apache.tajo.pullserver.TajoPullServerService;
 import org.apache.tajo.querymaster.QueryMaster;
 import org.apache.tajo.querymaster.QueryMasterManagerService;
 import org.apache.tajo.rpc.RpcChannelFactory;
+import org.apache.tajo.rpc.RpcConnectionPool;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos;
 import org.apache.tajo.rule.EvaluationContext;
 import org.apache.tajo.rule.EvaluationFailedException;
@@ -119,6 +123,10 @@ public class TajoWorker extends CompositeService {
 
   private HashShuffleAppenderManager hashShuffleAppenderManager;
 
+  private MemoryManager memoryManager;
+
+  private CompiledEvalCache compiledEvalCache;
+
   private AsyncDispatcher dispatcher;
 
   private LocalDirAllocator lDirAllocator;
@@ -150,6 +158,7 @@ public class TajoWorker extends CompositeService {
 
     this.systemConf = (TajoConf)conf;
     RackResolver.init(systemConf);
+    RpcConnectionPool.getPool().setFlushWindowMicros(systemConf.getLongVar(ConfVars.RPC_FLUSH_WINDOW_MICROS));
 
     serviceTracker = ServiceTrackerFactory.get(systemConf);
 
@@ -230,6 +239,9 @@ public class TajoWorker extends CompositeService {
       System.exit(-1);
     }
 
+    memoryManager = new MemoryManager(systemConf);
+    compiledEvalCache = new CompiledEvalCache(systemConf);
+
     taskHistoryWriter = new HistoryWriter(workerContext.getWorkerName(), false);
     addIfService(taskHistoryWriter);
     taskHistoryWriter.init(conf);
@@ -264,6 +276,15 @@ public class TajoWorker extends CompositeService {
         }
       }
     });
+
+    RpcServerMetricsListener rpcMetrics = new RpcServerMetricsListener(workerSystemMetrics);
+    tajoWorkerManagerService.getRpcServer().setMetricsListener(rpcMetrics);
+    tajoWorkerClientService.getRpcServer().setMetricsListener(rpcMetrics);
+    queryMasterManagerService.getRpcServer().setMetricsListener(rpcMetrics);
+
+    if (pullService != null) {
+      workerSystemMetrics.register("pullserver", new PullServerMetricsGaugeSet(pullService.getDiskReadScheduler()));
+    }
   }
 
   private int initWebServer() {
@@ -481,6 +502,14 @@ public class TajoWorker extends CompositeService {
       return hashShuffleAppenderManager;
     }
 
+    public MemoryManager getMemoryManager() {
+      return memoryManager;
+    }
+
+    public CompiledEvalCache getCompiledEvalCache() {
+      return compiledEvalCache;
+    }
+
     public HistoryWriter getTaskHistoryWriter() {
       return taskHistoryWriter;
     }
@@ -76,6 +76,7 @@ public class TajoWorkerClientService extends AbstractService {
 
       int workerNum = this.conf.getIntVar(TajoConf.ConfVars.WORKER_SERVICE_RPC_SERVER_WORKER_THREAD_NUM);
       this.rpcServer = new BlockingRpcServer(QueryMasterClientProtocol.class, serviceHandler, initIsa, workerNum);
+      this.rpcServer.setFlushWindowMicros(this.conf.getLongVar(TajoConf.ConfVars.RPC_FLUSH_WINDOW_MICROS));
       this.rpcServer.start();
 
       this.bindAddr = NetUtils.getConnectAddress(rpcServer.getListenAddress());
@@ -108,6 +109,10 @@ public class TajoWorkerClientService extends AbstractService {
     return bindAddr;
   }
 
+  public BlockingRpcServer getRpcServer() {
+    return rpcServer;
+  }
+
   public class TajoWorkerClientProtocolServiceHandler
           implements QueryMasterClientProtocol.QueryMasterClientProtocolService.BlockingInterface {
 
@@ -71,6 +71,7 @@ public class TajoWorkerManagerService extends CompositeService
 
       int workerNum = tajoConf.getIntVar(TajoConf.ConfVars.WORKER_RPC_SERVER_WORKER_THREAD_NUM);
       this.rpcServer = new AsyncRpcServer(TajoWorkerProtocol.class, this, initIsa, workerNum);
+      this.rpcServer.setFlushWindowMicros(tajoConf.getLongVar(TajoConf.ConfVars.RPC_FLUSH_WINDOW_MICROS));
       this.rpcServer.start();
 
       this.bindAddr = NetUtils.getConnectAddress(rpcServer.getListenAddress());
@@ -102,6 +103,10 @@ public class TajoWorkerManagerService extends CompositeService
     return bindAddr;
   }
 
+  public AsyncRpcServer getRpcServer() {
+    return rpcServer;
+  }
+
   @Override
   public void ping(RpcController controller,
                    TajoIdProtos.TaskAttemptIdProto attemptId,
@@ -121,7 +126,7 @@ public class TajoWorkerManagerService extends CompositeService
           , new ExecutionBlockId(request.getExecutionBlockId())
           , request.getContainerId()
           , new QueryContext(workerContext.getConf(), request.getQueryContext()),
-          request.getPlanJson()
+          request.getPlan()
       ));
       done.run(TajoWorker.TRUE_PROTO);
     } catch (Throwable t) {
@@ -148,8 +153,11 @@ public class TajoWorkerManagerService extends CompositeService
   @Override
   public void killTaskAttempt(RpcController controller, TajoIdProtos.TaskAttemptIdProto request,
                               RpcCallback<PrimitiveProtos.BoolProto> done) {
-    Task task = workerContext.getTaskRunnerManager().getTaskByTaskAttemptId(new TaskAttemptId(request));
+    TaskAttemptId taskAttemptId = new TaskAttemptId(request);
+    Task task = workerContext.getTaskRunnerManager().getTaskByTaskAttemptId(taskAttemptId);
     if(task != null) task.kill();
+    // the attempt may have already succeeded if another attempt of the same task won the race.
+    workerContext.getHashShuffleAppenderManager().invalidateTask(taskAttemptId);
 
     done.run(TajoWorker.TRUE_PROTO);
   }
@@ -42,6 +42,7 @@ import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
 import org.apache.tajo.plan.serder.LogicalNodeDeserializer;
+import org.apache.tajo.plan.serder.PlanProto;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.engine.planner.physical.PhysicalExec;
 import org.apache.tajo.engine.query.QueryContext;
@@ -66,7 +67,7 @@ import java.net.InetAddress;
 import java.net.URI;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
 
 import static org.apache.tajo.catalog.proto.CatalogProtos.FragmentProto;
 import static org.apache.tajo.plan.serder.PlanProto.ShuffleType;
@@ -121,7 +122,12 @@ public class Task {
     this.taskId = taskId;
 
     this.systemConf = conf;
-    this.queryContext = request.getQueryContext(systemConf);
+    if (request.getQueryContext(systemConf) != null) {
+      this.queryContext = request.getQueryContext(systemConf);
+    } else {
+      // QueryMaster sends the query context only once when the execution block is started.
+      this.queryContext = new QueryContext(systemConf, executionBlockContext.getQueryContext().getProto());
+    }
     this.executionBlockContext = executionBlockContext;
     this.taskDir = StorageUtil.concatPath(baseDir,
         taskId.getTaskId().getId() + "_" + taskId.getId());
@@ -136,7 +142,16 @@ public class Task {
   }
 
   public void initPlan() throws IOException {
-    plan = LogicalNodeDeserializer.deserialize(queryContext, request.getPlan());
+    PlanProto.LogicalNodeTree serializedPlan = request.getPlan();
+    if (serializedPlan != null) {
+      plan = LogicalNodeDeserializer.deserialize(queryContext, serializedPlan);
+    } else if (request.getQueryContext(systemConf) != null) {
+      // eval nodes keep the query context, so the shared plan cannot be used with another context
+      plan = LogicalNodeDeserializer.deserialize(queryContext,
+          executionBlockContext.getSharedResource().getSerializedPlan());
+    } else {
+      plan = executionBlockContext.getSharedResource().copyPlan();
+    }
     LogicalNode [] scanNode = PlannerUtil.findAllNodes(plan, NodeType.SCAN);
     if (scanNode != null) {
       for (LogicalNode node : scanNode) {
@@ -251,9 +266,9 @@ public class Task {
   }
 
   public void fetch() {
-    ExecutorService executorService = executionBlockContext.getTaskRunner(taskRunnerId).getFetchLauncher();
+    Executor executor = executionBlockContext.getTaskRunner(taskRunnerId).getFetchLauncher();
     for (Fetcher f : fetcherRunners) {
-      executorService.submit(new FetchRunner(context, f));
+      executor.execute(new FetchRunner(context, f));
     }
   }
 
@@ -422,9 +437,13 @@ public class Task {
         }
         this.executor = null;
       }
+      context.releaseMemory();
 
       executionBlockContext.completedTasksNum.incrementAndGet();
-      context.getHashShuffleAppenderManager().finalizeTask(taskId);
+      if (!context.isStopped()) {
+        // The shuffle output of a failed or killed task is skipped by pull servers.
+        context.getHashShuffleAppenderManager().finalizeTask(taskId);
+      }
 
       NettyClientBase client = executionBlockContext.getQueryMasterConnection();
       try {
@@ -530,6 +549,10 @@ public class Task {
         }
         taskHistory.setFinishedFetchCount(i);
       }
+
+      for (MemoryConsumer consumer : context.getMemoryConsumers()) {
+        taskHistory.addMemoryUsage(consumer.getProto());
+      }
     } catch (Exception e) {
       LOG.warn(e.getMessage(), e);
     }
@@ -680,6 +703,10 @@ public class Task {
       FileChunk storeChunk = null;
       List<Fetcher> runnerList = Lists.newArrayList();
 
+      // the remote hash shuffle partitions which are fetched together from the same host
+      int batchMaxPartitions = systemConf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_BATCH_MAX_PARTITIONS);
+      Map<File, Map<String, List<URI>>> batchedURIs = new LinkedHashMap<File, Map<String, List<URI>>>();
+
       for (FetchImpl f : fetches) {
         storeDir = new File(inputDir.toString(), f.getName());
         if (!storeDir.exists()) {
@@ -714,6 +741,18 @@ public class Task {
               storeChunk.setFromRemote(true);
             }
           } else {
+            String batchKey = batchMaxPartitions > 1 ? Fetcher.getBatchKey(uri) : null;
+            if (batchKey != null) {
+              if (!batchedURIs.containsKey(storeDir)) {
+                batchedURIs.put(storeDir, new LinkedHashMap<String, List<URI>>());
+              }
+              Map<String, List<URI>> uriGroups = batchedURIs.get(storeDir);
+              if (!uriGroups.containsKey(batchKey)) {
+                uriGroups.put(batchKey, new ArrayList<URI>());
+              }
+              uriGroups.get(batchKey).add(uri);
+              continue;
+            }
             storeChunk = new FileChunk(defaultStoreFile, 0, -1);
             storeChunk.setFromRemote(true);
           }
@@ -727,6 +766,21 @@ public class Task {
           i++;
         }
       }
+
+      for (Entry<File, Map<String, List<URI>>> eachStoreDir : batchedURIs.entrySet()) {
+        storeDir = eachStoreDir.getKey();
+        for (List<URI> uris : eachStoreDir.getValue().values()) {
+          for (URI uri : Fetcher.createBatchURIs(uris, batchMaxPartitions)) {
+            storeChunk = new FileChunk(new File(storeDir, "in_" + i), 0, -1);
+            storeChunk.setFromRemote(true);
+            storeChunk.setEbId(storeDir.getName());
+            Fetcher fetcher = new Fetcher(systemConf, uri, storeChunk);
+            LOG.info("Create a new Fetcher with storeChunk:" + storeChunk.toString());
+            runnerList.add(fetcher);
+            i++;
+          }
+        }
+      }
       ctx.addFetchPhase(runnerList.size(), new File(inputDir.toString()));
       return runnerList;
     } else {
@@ -83,6 +83,10 @@ public class TaskAttemptContext {
   private Map<Integer, Long> partitionOutputVolume;
   private HashShuffleAppenderManager hashShuffleAppenderManager;
 
+  private MemoryManager memoryManager;
+  /** memory consumers of the operators in this task */
+  private final List<MemoryConsumer> memoryConsumers = Collections.synchronizedList(new ArrayList<MemoryConsumer>());
+
   public TaskAttemptContext(QueryContext queryContext, final ExecutionBlockContext executionBlockContext,
                             final TaskAttemptId queryId,
                             final FragmentProto[] fragments,
@@ -117,7 +121,9 @@ public class TaskAttemptContext {
 
     if (workerContext != null) {
       this.hashShuffleAppenderManager = workerContext.getHashShuffleAppenderManager();
+      this.memoryManager = workerContext.getMemoryManager();
     } else {
+      this.memoryManager = new MemoryManager(Long.MAX_VALUE);
       try {
         this.hashShuffleAppenderManager = new HashShuffleAppenderManager(queryContext.getConf());
       } catch (IOException e) {
@@ -403,4 +409,28 @@ public class TaskAttemptContext {
   public HashShuffleAppenderManager getHashShuffleAppenderManager() {
     return hashShuffleAppenderManager;
   }
+
+  /**
+   * Registers a memory consumer of an operator in this task.
+   */
+  public MemoryConsumer newMemoryConsumer(String name, boolean spillable) {
+    MemoryConsumer consumer = memoryManager.newConsumer(name, spillable);
+    memoryConsumers.add(consumer);
+    return consumer;
+  }
+
+  public List<MemoryConsumer> getMemoryConsumers() {
+    synchronized (memoryConsumers) {
+      return new ArrayList<MemoryConsumer>(memoryConsumers);
+    }
+  }
+
+  /**
+   * Releases the memory of all operators which are not closed normally.
+   */
+  public void releaseMemory() {
+    for (MemoryConsumer consumer : getMemoryConsumers()) {
+      consumer.close();
+    }
+  }
 }
\ No newline at end of file
@@ -30,6 +30,7 @@ import java.util.List;
 
 import static org.apache.tajo.TajoProtos.TaskAttemptState;
 import static org.apache.tajo.ipc.TajoWorkerProtocol.FetcherHistoryProto;
+import static org.apache.tajo.ipc.TajoWorkerProtocol.OperatorMemoryUsageProto;
 import static org.apache.tajo.ipc.TajoWorkerProtocol.TaskHistoryProto;
 
 /**
@@ -50,6 +51,7 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
   private int finishedFetchCount;
   private int totalFetchCount;
   private List<FetcherHistoryProto> fetcherHistories;
+  private List<OperatorMemoryUsageProto> memoryUsages;
 
   public TaskHistory(TaskAttemptId taskAttemptId, TaskAttemptState state, float progress,
                      long startTime, long finishTime, CatalogProtos.TableStatsProto inputStats) {
@@ -91,10 +93,12 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
     }
 
     this.fetcherHistories = proto.getFetcherHistoriesList();
+    this.memoryUsages = proto.getMemoryUsagesList();
   }
 
   private void init() {
     this.fetcherHistories = Lists.newArrayList();
+    this.memoryUsages = Lists.newArrayList();
   }
 
   @Override
@@ -135,6 +139,7 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
     }
 
     builder.addAllFetcherHistories(fetcherHistories);
+    builder.addAllMemoryUsages(memoryUsages);
     return builder.build();
   }
 
@@ -158,6 +163,14 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
     fetcherHistories.add(fetcherHistory);
   }
 
+  public List<OperatorMemoryUsageProto> getMemoryUsages() {
+    return Collections.unmodifiableList(memoryUsages);
+  }
+
+  public void addMemoryUsage(OperatorMemoryUsageProto memoryUsage) {
+    memoryUsages.add(memoryUsage);
+  }
+
   public TaskAttemptId getTaskAttemptId() {
     return taskAttemptId;
   }
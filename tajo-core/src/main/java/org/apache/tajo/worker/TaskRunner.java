@@ -18,8 +18,6 @@
 
 package org.apache.tajo.worker;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
-
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -58,11 +56,12 @@ public class TaskRunner extends AbstractService {
 
   private TajoContainerId containerId;
 
-  // for Fetcher
-  private ExecutorService fetchLauncher;
+  // for Fetcher. It runs at most SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM fetchers at once on the fetcher pool
+  // shared by all task runners of a worker.
+  private BoundedExecutor fetchLauncher;
 
-  // A thread to receive each assigned query unit and execute the query unit
-  private Thread taskLauncher;
+  // A task to receive each assigned query unit and execute the query unit in a long-lived launcher thread
+  private Future<?> taskLauncher;
 
   // Contains the object references related for TaskRunner
   private ExecutionBlockContext executionBlockContext;
@@ -74,11 +73,9 @@ public class TaskRunner extends AbstractService {
   public TaskRunner(ExecutionBlockContext executionBlockContext, String containerId) {
     super(TaskRunner.class.getName());
 
-    ThreadFactoryBuilder builder = new ThreadFactoryBuilder();
-    ThreadFactory fetcherFactory = builder.setNameFormat("Fetcher executor #%d").build();
     this.systemConf = executionBlockContext.getConf();
-    this.fetchLauncher = Executors.newFixedThreadPool(
-        systemConf.getIntVar(ConfVars.SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM), fetcherFactory);
+    this.fetchLauncher = new BoundedExecutor(executionBlockContext.getTaskRunnerManager().getFetcherPool(),
+        systemConf.getIntVar(ConfVars.SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM));
     try {
       this.containerId = TajoConverterUtils.toTajoContainerId(containerId);
       this.executionBlockContext = executionBlockContext;
@@ -110,7 +107,7 @@ public class TaskRunner extends AbstractService {
     return baseDirPath;
   }
 
-  public ExecutorService getFetchLauncher() {
+  public Executor getFetchLauncher() {
     return fetchLauncher;
   }
 
@@ -154,7 +151,7 @@ public class TaskRunner extends AbstractService {
     synchronized (this) {
       this.stopped = true;
 
-      fetchLauncher.shutdown();
+      // the shared fetcher pool is not shut down. Fetchers of the running task are stopped by the task itself.
       fetchLauncher = null;
 
       notifyAll();
@@ -188,13 +185,14 @@ public class TaskRunner extends AbstractService {
     LOG.info("TaskRunner startup");
     try {
 
-      taskLauncher = new Thread(new Runnable() {
+      taskLauncher = getContext().getTaskRunnerManager().getTaskLauncherPool().submit(new Runnable() {
 
         @Override
         public void run() {
           int receivedNum = 0;
-          CallFuture<TaskRequestProto> callFuture = null;
-          TaskRequestProto taskRequest = null;
+          int batchSize = systemConf.getIntVar(ConfVars.WORKER_TASK_DISPATCH_BATCH_SIZE);
+          CallFuture<TaskRequestBatchProto> callFuture = null;
+          TaskRequestBatchProto taskRequests = null;
 
           while(!stopped) {
             NettyClientBase client;
@@ -217,19 +215,20 @@ public class TaskRunner extends AbstractService {
 
             try {
               if (callFuture == null) {
-                callFuture = new CallFuture<TaskRequestProto>();
-                LOG.info("Request GetTask: " + getId());
+                callFuture = new CallFuture<TaskRequestBatchProto>();
+                LOG.info("Request GetTasks: " + getId());
                 GetTaskRequestProto request = GetTaskRequestProto.newBuilder()
                     .setExecutionBlockId(getExecutionBlockId().getProto())
                     .setContainerId(((TajoContainerIdPBImpl) containerId).getProto())
                     .setWorkerId(getContext().getWorkerContext().getConnectionInfo().getId())
+                    .setMaxTasks(batchSize)
                     .build();
 
-                qmClientService.getTask(callFuture.getController(), request, callFuture);
+                qmClientService.getTasks(callFuture.getController(), request, callFuture);
               }
               try {
-                // wait for an assigning task for 3 seconds
-                taskRequest = callFuture.get(3, TimeUnit.SECONDS);
+                // wait for assigning tasks for 3 seconds
+                taskRequests = callFuture.get(3, TimeUnit.SECONDS);
               } catch (InterruptedException e) {
                 if(stopped) {
                   break;
@@ -251,45 +250,27 @@ public class TaskRunner extends AbstractService {
                 continue;
               }
 
-              if (taskRequest != null) {
+              if (taskRequests != null) {
                 // QueryMaster can send the terminal signal to TaskRunner.
                 // If TaskRunner receives the terminal signal, TaskRunner will be terminated
                 // immediately.
-                if (taskRequest.getShouldDie()) {
+                if (taskRequests.getShouldDie()) {
                   LOG.info("Received ShouldDie flag:" + getId());
                   stop();
                   //notify to TaskRunnerManager
                   getContext().stopTaskRunner(getId());
                 } else {
-                  getContext().getWorkerContext().getWorkerSystemMetrics().counter("query", "task").inc();
-                  LOG.info("Accumulated Received Task: " + (++receivedNum));
-
-                  TaskAttemptId taskAttemptId = new TaskAttemptId(taskRequest.getId());
-                  if (getContext().getTasks().containsKey(taskAttemptId)) {
-                    LOG.error("Duplicate Task Attempt: " + taskAttemptId);
-                    fatalError(qmClientService, taskAttemptId, "Duplicate Task Attempt: " + taskAttemptId);
-                    continue;
-                  }
-
-                  LOG.info("Initializing: " + taskAttemptId);
-                  Task task;
                   try {
-                    task = new Task(getId(), getTaskBaseDir(), taskAttemptId, executionBlockContext,
-                        new TaskRequestImpl(taskRequest));
-                    getContext().getTasks().put(taskAttemptId, task);
-
-                    task.init();
-                    if (task.hasFetchPhase()) {
-                      task.fetch(); // The fetch is performed in an asynchronous way.
+                    // tasks in a batch are executed one by one, and the next batch is requested afterward.
+                    for (TaskRequestProto taskRequest : taskRequests.getTaskRequestsList()) {
+                      if (stopped) {
+                        break;
+                      }
+                      runTask(qmClientService, taskRequest, ++receivedNum);
                     }
-                    // task.run() is a blocking call.
-                    task.run();
-                  } catch (Throwable t) {
-                    LOG.error(t.getMessage(), t);
-                    fatalError(qmClientService, taskAttemptId, t.getMessage());
                   } finally {
                     callFuture = null;
-                    taskRequest = null;
+                    taskRequests = null;
                   }
                 }
               } else {
@@ -305,12 +286,42 @@ public class TaskRunner extends AbstractService {
           }
         }
       });
-      taskLauncher.start();
     } catch (Throwable t) {
       LOG.fatal("Unhandled exception. Starting shutdown.", t);
     }
   }
 
+  private void runTask(QueryMasterProtocolService.Interface qmClientService, TaskRequestProto taskRequest,
+                       int receivedNum) {
+    getContext().getWorkerContext().getWorkerSystemMetrics().counter("query", "task").inc();
+    LOG.info("Accumulated Received Task: " + receivedNum);
+
+    TaskAttemptId taskAttemptId = new TaskAttemptId(taskRequest.getId());
+    if (getContext().getTasks().containsKey(taskAttemptId)) {
+      LOG.error("Duplicate Task Attempt: " + taskAttemptId);
+      fatalError(qmClientService, taskAttemptId, "Duplicate Task Attempt: " + taskAttemptId);
+      return;
+    }
+
+    LOG.info("Initializing: " + taskAttemptId);
+    Task task;
+    try {
+      task = new Task(getId(), getTaskBaseDir(), taskAttemptId, executionBlockContext,
+          new TaskRequestImpl(taskRequest));
+      getContext().getTasks().put(taskAttemptId, task);
+
+      task.init();
+      if (task.hasFetchPhase()) {
+        task.fetch(); // The fetch is performed in an asynchronous way.
+      }
+      // task.run() is a blocking call.
+      task.run();
+    } catch (Throwable t) {
+      LOG.error(t.getMessage(), t);
+      fatalError(qmClientService, taskAttemptId, t.getMessage());
+    }
+  }
+
   /**
    * @return true if a stop has been requested.
    */
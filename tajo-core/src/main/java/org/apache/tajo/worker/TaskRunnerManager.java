@@ -19,6 +19,7 @@
 package org.apache.tajo.worker;
 
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -34,7 +35,7 @@ import org.apache.tajo.worker.event.TaskRunnerStopEvent;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TaskRunnerManager extends CompositeService implements EventHandler<TaskRunnerEvent> {
@@ -49,6 +50,14 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
   private FinishedTaskCleanThread finishedTaskCleanThread;
   private Dispatcher dispatcher;
 
+  /**
+   * Long-lived executors shared by all task runners of all execution blocks and queries.
+   * A task runner only borrows a thread from them, so starting a task runner for
+   * a new execution block does not create any thread or thread pool.
+   */
+  private ThreadPoolExecutor taskLauncherPool;
+  private ExecutorService fetcherPool;
+
   public TaskRunnerManager(TajoWorker.WorkerContext workerContext, Dispatcher dispatcher) {
     super(TaskRunnerManager.class.getName());
 
@@ -67,6 +76,14 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
     }
     tajoConf = (TajoConf)conf;
     dispatcher.register(TaskRunnerEvent.EventType.class, this);
+
+    // idle task launcher threads are kept alive to be reused by the next execution blocks
+    taskLauncherPool = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+        tajoConf.getIntVar(TajoConf.ConfVars.WORKER_TASK_EXECUTOR_KEEP_ALIVE), TimeUnit.SECONDS,
+        new SynchronousQueue<Runnable>(),
+        new ThreadFactoryBuilder().setNameFormat("Task launcher #%d").setDaemon(true).build());
+    fetcherPool = Executors.newFixedThreadPool(tajoConf.getIntVar(TajoConf.ConfVars.WORKER_FETCHER_THREAD_NUM),
+        new ThreadFactoryBuilder().setNameFormat("Fetcher executor #%d").setDaemon(true).build());
     super.init(tajoConf);
   }
 
@@ -98,6 +115,13 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
       finishedTaskCleanThread.interrupted();
     }
 
+    if (taskLauncherPool != null) {
+      taskLauncherPool.shutdownNow();
+    }
+    if (fetcherPool != null) {
+      fetcherPool.shutdownNow();
+    }
+
     super.stop();
   }
 
@@ -107,6 +131,20 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
     taskRunner.stop();
   }
 
+  /**
+   * @return the executor running the task request loops of task runners
+   */
+  public ExecutorService getTaskLauncherPool() {
+    return taskLauncherPool;
+  }
+
+  /**
+   * @return the executor running the fetchers of all tasks in this worker
+   */
+  public ExecutorService getFetcherPool() {
+    return fetcherPool;
+  }
+
   public Collection<TaskRunner> getTaskRunners() {
     return Collections.unmodifiableCollection(taskRunnerMap.values());
   }
@@ -21,19 +21,20 @@ package org.apache.tajo.worker.event;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.plan.serder.PlanProto;
 
 public class TaskRunnerStartEvent extends TaskRunnerEvent {
 
   private final QueryContext queryContext;
   private final WorkerConnectionInfo queryMaster;
   private final String containerId;
-  private final String plan;
+  private final PlanProto.LogicalNodeTree plan;
 
   public TaskRunnerStartEvent(WorkerConnectionInfo queryMaster,
                               ExecutionBlockId executionBlockId,
                               String containerId,
                               QueryContext context,
-                              String plan) {
+                              PlanProto.LogicalNodeTree plan) {
     super(EventType.START, executionBlockId);
     this.queryMaster = queryMaster;
     this.containerId = containerId;
@@ -53,7 +54,7 @@ public class TaskRunnerStartEvent extends TaskRunnerEvent {
     return queryContext;
   }
 
-  public String getPlan() {
+  public PlanProto.LogicalNodeTree getPlan() {
     return plan;
   }
 }
@@ -414,7 +414,7 @@ public class TajoTestingCluster {
   }
 
   private void startTajoWorkers(int numSlaves) throws Exception {
-    for(int i = 0; i < 1; i++) {
+    for(int i = 0; i < numSlaves; i++) {
       TajoWorker tajoWorker = new TajoWorker();
 
       TajoConf workerConf  = new TajoConf(this.conf);
@@ -424,6 +424,10 @@ public class TajoTestingCluster {
       workerConf.setVar(ConfVars.WORKER_PEER_RPC_ADDRESS, "localhost:0");
 
       workerConf.setVar(ConfVars.WORKER_QM_RPC_ADDRESS, "localhost:0");
+      if (i > 0) {
+        // workers in the same JVM must not share their intermediate data
+        workerConf.setVar(ConfVars.WORKER_TEMPORAL_DIR, this.conf.getVar(ConfVars.WORKER_TEMPORAL_DIR) + "-" + i);
+      }
       
       tajoWorker.startWorker(workerConf, new String[0]);
 
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestCompiledEvalCache {
+  private static final Column COL1 = new Column("default.t1.col1", Type.INT4);
+  private static final Column COL2 = new Column("default.t1.col2", Type.TEXT);
+
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn(COL1);
+    schema.addColumn(COL2);
+    return schema;
+  }
+
+  private static Tuple createTuple() {
+    Tuple tuple = new VTuple(2);
+    tuple.put(0, DatumFactory.createInt4(2));
+    tuple.put(1, DatumFactory.createText("abc"));
+    return tuple;
+  }
+
+  private static EvalNode plus(int value) {
+    return new BinaryEval(EvalType.PLUS, new FieldEval(COL1), new ConstEval(DatumFactory.createInt4(value)));
+  }
+
+  private static EvalNode like(String pattern) {
+    return new LikePredicateEval(false, new FieldEval(COL2), new ConstEval(DatumFactory.createText(pattern)), false);
+  }
+
+  @Test
+  public void testReuseClassForDifferentConstants() {
+    TajoConf conf = new TajoConf();
+    CompiledEvalCache cache = new CompiledEvalCache(conf);
+    Schema schema = createSchema();
+    Tuple tuple = createTuple();
+
+    assertEquals(3, cache.compile(schema, plus(1)).eval(schema, tuple).asInt4());
+    assertEquals(1, cache.getMissNum());
+
+    // the same shape with a different constant reuses the class
+    assertEquals(12, cache.compile(schema, plus(10)).eval(schema, tuple).asInt4());
+    assertEquals(1, cache.getMissNum());
+    assertEquals(1, cache.getHitNum());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testEmbeddedConstants() {
+    TajoConf conf = new TajoConf();
+    CompiledEvalCache cache = new CompiledEvalCache(conf);
+    Schema schema = createSchema();
+    Tuple tuple = createTuple();
+
+    assertEquals(true, cache.compile(schema, like("a%")).eval(schema, tuple).asBool());
+    // a pattern is embedded in a generated class, so a class cannot be reused for another pattern
+    assertEquals(false, cache.compile(schema, like("b%")).eval(schema, tuple).asBool());
+    assertEquals(0, cache.getHitNum());
+    assertEquals(2, cache.getMissNum());
+
+    assertEquals(false, cache.compile(schema, like("b%")).eval(schema, tuple).asBool());
+    assertEquals(1, cache.getHitNum());
+  }
+
+  @Test
+  public void testEviction() {
+    TajoConf conf = new TajoConf();
+    conf.setIntVar(ConfVars.EXECUTOR_CODEGEN_CACHE_MAX_ENTRIES, 1);
+    conf.setIntVar(ConfVars.EXECUTOR_CODEGEN_CACHE_CLASSES_PER_LOADER, 1);
+    CompiledEvalCache cache = new CompiledEvalCache(conf);
+    Schema schema = createSchema();
+    Tuple tuple = createTuple();
+
+    cache.compile(schema, plus(1));
+    assertEquals(true, cache.compile(schema, like("a%")).eval(schema, tuple).asBool());
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.getEvictionNum());
+    // the loader of the evicted class is no longer used
+    assertEquals(1, cache.getReleasedLoaderNum());
+
+    assertEquals(4, cache.compile(schema, plus(2)).eval(schema, tuple).asInt4());
+    assertEquals(0, cache.getHitNum());
+  }
+}
@@ -185,6 +185,74 @@ public class TestHashJoinExec {
     assertEquals(10 / 2, count);
   }
 
+  private TableDesc createLargeTable(String name, Schema schema, int step) throws IOException {
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.CSV);
+    Path path = new Path(testDir, name + ".csv");
+    Appender appender = ((FileStorageManager)StorageManager.getFileStorageManager(conf))
+        .getAppender(meta, schema, path);
+    appender.init();
+    Tuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < 200000; i += step) {
+      tuple.put(new Datum[] { DatumFactory.createInt4(i), DatumFactory.createText("name_of_row_" + i) });
+      appender.addTuple(tuple);
+    }
+    appender.close();
+
+    TableDesc desc = CatalogUtil.newTableDesc("default." + name, schema, meta, path);
+    catalog.createTable(desc);
+    return desc;
+  }
+
+  @Test(timeout = 300000)
+  public final void testHashInnerJoinWithParallelScan() throws IOException, PlanningException {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    // both inputs are larger than two morsels of 1MB
+    TableDesc large = createLargeTable("large", schema, 1);
+    TableDesc half = createLargeTable("half", schema, 2);
+
+    Expr expr = analyzer.parse("select l.id, h.name from large as l inner join half as h on l.id = h.id");
+    LogicalNode plan = planner.createPlan(defaultContext, expr).getRootBlock().getRoot();
+
+    JoinNode joinNode = PlannerUtil.findTopNode(plan, NodeType.JOIN);
+    Enforcer enforcer = new Enforcer();
+    enforcer.enforceJoinAlgorithm(joinNode.getPID(), JoinAlgorithm.IN_MEMORY_HASH_JOIN);
+
+    FileFragment[] largeFrags = FileStorageManager.splitNG(conf, "default.l", large.getMeta(),
+        new Path(large.getPath()), Integer.MAX_VALUE);
+    FileFragment[] halfFrags = FileStorageManager.splitNG(conf, "default.h", half.getMeta(),
+        new Path(half.getPath()), Integer.MAX_VALUE);
+
+    Path workDir = CommonTestingUtil.getTestDir(TajoTestingCluster.DEFAULT_TEST_DIRECTORY +
+        "/testHashInnerJoinWithParallelScan");
+    QueryContext queryContext = new QueryContext(conf);
+    queryContext.setInt(SessionVars.SCAN_PARALLELISM, 4);
+    queryContext.setInt(SessionVars.SCAN_MORSEL_SIZE, 1);
+    TaskAttemptContext ctx = new TaskAttemptContext(queryContext,
+        LocalTajoTestingUtility.newTaskAttemptId(), TUtil.concat(largeFrags, halfFrags), workDir);
+    ctx.setEnforcer(enforcer);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+    assertNotNull(PhysicalPlanUtil.findExecutor(exec, HashJoinExec.class));
+
+    Tuple tuple;
+    int count = 0;
+    long sum = 0;
+    exec.init();
+    while ((tuple = exec.next()) != null) {
+      assertEquals("name_of_row_" + tuple.get(0).asInt4(), tuple.get(1).asChars());
+      sum += tuple.get(0).asInt4();
+      count++;
+    }
+    exec.close();
+
+    assertEquals(100000, count);
+    // the sum of even numbers less than 200000
+    assertEquals(99999L * 100000L, sum);
+  }
+
   @Test
   public final void testCheckIfInMemoryInnerJoinIsPossible() throws IOException, PlanningException {
     Expr expr = analyzer.parse(QUERIES[0]);
@@ -45,9 +45,11 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class TestSortExec {
   private static TajoConf conf;
@@ -107,7 +109,8 @@ public class TestSortExec {
   }
 
   public static String[] QUERIES = {
-      "select managerId, empId, deptName from employee order by managerId, empId desc" };
+      "select managerId, empId, deptName from employee order by managerId, empId desc",
+      "select managerId, empId, deptName from employee order by managerId, empId desc limit 10" };
 
   @Test
   public final void testNext() throws IOException, PlanningException {
@@ -139,6 +142,71 @@ public class TestSortExec {
     exec.close();
   }
 
+  private PhysicalExec createExec(String query, Class<? extends PhysicalExec> expectedSortExec)
+      throws IOException, PlanningException {
+    FileFragment[] frags = FileStorageManager.splitNG(conf, "default.employee", employeeMeta, tablePath, Integer.MAX_VALUE);
+    Path workDir = CommonTestingUtil.getTestDir(TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/TestSortExec");
+    TaskAttemptContext ctx = new TaskAttemptContext(new QueryContext(conf),
+        LocalTajoTestingUtility
+        .newTaskAttemptId(), new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr context = analyzer.parse(query);
+    LogicalPlan plan = planner.createPlan(LocalTajoTestingUtility.createDummyContext(conf), context);
+    LogicalNode rootNode = optimizer.optimize(plan);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+    assertNotNull(PhysicalPlanUtil.findExecutor(exec, expectedSortExec));
+    return exec;
+  }
+
+  private static List<Tuple> readAll(PhysicalExec exec) throws IOException {
+    List<Tuple> result = new ArrayList<Tuple>();
+    Tuple tuple;
+    while ((tuple = exec.next()) != null) {
+      result.add(new VTuple(tuple));
+    }
+    return result;
+  }
+
+  private List<Tuple> executeQuery(String query, Class<? extends PhysicalExec> expectedSortExec)
+      throws IOException, PlanningException {
+    PhysicalExec exec = createExec(query, expectedSortExec);
+    exec.init();
+    List<Tuple> result = readAll(exec);
+    exec.close();
+    return result;
+  }
+
+  @Test
+  public final void testTopN() throws IOException, PlanningException {
+    List<Tuple> expected = executeQuery(QUERIES[0], ExternalSortExec.class);
+    List<Tuple> topN = executeQuery(QUERIES[1], TopNSortExec.class);
+
+    assertEquals(10, topN.size());
+    for (int i = 0; i < topN.size(); i++) {
+      // only sort keys are compared because the order of tuples having the same sort keys is not deterministic.
+      assertEquals(expected.get(i).get(0), topN.get(i).get(0));
+      assertEquals(expected.get(i).get(1), topN.get(i).get(1));
+    }
+  }
+
+  @Test
+  public final void testTopNRescan() throws IOException, PlanningException {
+    PhysicalExec exec = createExec(QUERIES[1], TopNSortExec.class);
+    exec.init();
+    TopNSortExec sortExec = PhysicalPlanUtil.findExecutor(exec, TopNSortExec.class);
+
+    // rescan before the first next() must not fail
+    sortExec.rescan();
+    List<Tuple> first = readAll(sortExec);
+    assertEquals(10, first.size());
+
+    sortExec.rescan();
+    assertEquals(first, readAll(sortExec));
+    exec.close();
+  }
+
   @Test
   /**
    * TODO - Now, in FSM branch, TestUniformRangePartition is ported to Java.
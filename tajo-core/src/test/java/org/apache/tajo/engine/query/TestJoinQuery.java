@@ -25,8 +25,15 @@ import org.apache.tajo.TajoTestingCluster;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.plan.expr.EvalTreeUtil;
+import org.apache.tajo.plan.expr.EvalType;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.querymaster.Query;
+import org.apache.tajo.querymaster.QueryMasterTask;
+import org.apache.tajo.querymaster.Stage;
 import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.util.KeyValueSet;
+import org.apache.tajo.worker.TajoWorker;
 import org.junit.AfterClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -38,16 +45,21 @@ import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 @Category(IntegrationTest.class)
 @RunWith(Parameterized.class)
 public class TestJoinQuery extends QueryTestCaseBase {
+  private final String joinOption;
 
   public TestJoinQuery(String joinOption) {
     super(TajoConstants.DEFAULT_DATABASE_NAME);
+    this.joinOption = joinOption;
 
     testingCluster.setAllTajoDaemonConfValue(ConfVars.$TEST_BROADCAST_JOIN_ENABLED.varname,
         ConfVars.$TEST_BROADCAST_JOIN_ENABLED.defaultVal);
@@ -162,6 +174,44 @@ public class TestJoinQuery extends QueryTestCaseBase {
     cleanupQuery(res);
   }
 
+  @Test
+  public final void testJoinWithRuntimeFilter() throws Exception {
+    // In repartition joins, the key range of the first scanned table is pushed down into the scan of the other.
+    ResultSet res = executeQuery();
+    assertResultSet(res);
+    cleanupQuery(res);
+
+    if (joinOption.indexOf("NoBroadcast") >= 0) {
+      int numFilteredScans = 0;
+      for (Stage stage : getLastQuery().getStages()) {
+        if (!stage.getMasterPlan().isLeaf(stage.getBlock())) {
+          continue;
+        }
+        ScanNode scan = stage.getBlock().getScanNodes()[0];
+        if (scan.hasQual() && !EvalTreeUtil.findEvalsByType(scan.getQual(), EvalType.GEQ).isEmpty()) {
+          numFilteredScans++;
+        }
+      }
+      assertEquals(1, numFilteredScans);
+    }
+  }
+
+  private static Query getLastQuery() {
+    List<QueryMasterTask> qmTasks = new ArrayList<QueryMasterTask>();
+    for (TajoWorker worker : testingCluster.getTajoWorkers()) {
+      qmTasks.addAll(worker.getWorkerContext().getQueryMaster().getFinishedQueryMasterTasks());
+    }
+    assertFalse(qmTasks.isEmpty());
+
+    Collections.sort(qmTasks, new Comparator<QueryMasterTask>() {
+      @Override
+      public int compare(QueryMasterTask o1, QueryMasterTask o2) {
+        return o1.getQueryId().compareTo(o2.getQueryId());
+      }
+    });
+    return qmTasks.get(qmTasks.size() - 1).getQuery();
+  }
+
   @Test
   public final void testWhereClauseJoin3() throws Exception {
     ResultSet res = executeQuery();
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.query;
+
+import org.apache.tajo.IntegrationTest;
+import org.apache.tajo.QueryTestCaseBase;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.master.exec.RetainedShuffleCatalog;
+import org.apache.tajo.querymaster.Query;
+import org.apache.tajo.querymaster.QueryMasterTask;
+import org.apache.tajo.querymaster.Stage;
+import org.apache.tajo.util.TUtil;
+import org.apache.tajo.worker.TajoWorker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.sql.ResultSet;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class TestShuffleReuse extends QueryTestCaseBase {
+  private static final String GROUP_BY =
+      "select l_orderkey, sum(l_quantity) as total from lineitem group by l_orderkey";
+
+  private RetainedShuffleCatalog retainedShuffles;
+
+  public TestShuffleReuse() {
+    super(TajoConstants.DEFAULT_DATABASE_NAME);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    retainedShuffles = testingCluster.getMaster().getContext().getGlobalEngine().getRetainedShuffleCatalog();
+    retainedShuffles.clear();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    client.unsetSessionVariables(TUtil.newList(SessionVars.SHUFFLE_REUSE_ENABLED.keyname()));
+    retainedShuffles.clear();
+  }
+
+  private static void setShuffleReuse(boolean enabled) throws Exception {
+    Map<String, String> variables = new HashMap<String, String>();
+    variables.put(SessionVars.SHUFFLE_REUSE_ENABLED.keyname(), String.valueOf(enabled));
+    client.updateSessionVariables(variables);
+  }
+
+  private String executeAndGetResult(String sql) throws Exception {
+    ResultSet res = executeString(sql);
+    try {
+      return resultSetToString(res);
+    } finally {
+      cleanupQuery(res);
+    }
+  }
+
+  private static Query getLastQuery() {
+    List<QueryMasterTask> qmTasks = new ArrayList<QueryMasterTask>();
+    for (TajoWorker worker : testingCluster.getTajoWorkers()) {
+      qmTasks.addAll(worker.getWorkerContext().getQueryMaster().getFinishedQueryMasterTasks());
+    }
+    assertFalse(qmTasks.isEmpty());
+
+    Collections.sort(qmTasks, new Comparator<QueryMasterTask>() {
+      @Override
+      public int compare(QueryMasterTask o1, QueryMasterTask o2) {
+        return o1.getQueryId().compareTo(o2.getQueryId());
+      }
+    });
+    return qmTasks.get(qmTasks.size() - 1).getQuery();
+  }
+
+  private static int getRecoveredStageNum(Query query) {
+    int recovered = 0;
+    for (Stage stage : query.getStages()) {
+      if (stage.isRecovered()) {
+        recovered++;
+      }
+    }
+    return recovered;
+  }
+
+  @Test
+  public final void testReuseAcrossQueries() throws Exception {
+    setShuffleReuse(false);
+    String expected = executeAndGetResult(GROUP_BY + " order by l_orderkey");
+
+    setShuffleReuse(true);
+    executeAndGetResult(GROUP_BY);
+    assertEquals(0, getRecoveredStageNum(getLastQuery()));
+    assertTrue(retainedShuffles.size() > 0);
+
+    // the scan and the first phase of the aggregation are fetched from the output of the previous query
+    long hits = retainedShuffles.getHitNum();
+    assertEquals(expected, executeAndGetResult(GROUP_BY + " order by l_orderkey"));
+    assertEquals(1, getRecoveredStageNum(getLastQuery()));
+    assertEquals(hits + 1, retainedShuffles.getHitNum());
+  }
+
+  @Test
+  public final void testNoReuseWhenDisabled() throws Exception {
+    setShuffleReuse(true);
+    executeAndGetResult(GROUP_BY);
+
+    setShuffleReuse(false);
+    long hits = retainedShuffles.getHitNum();
+    executeAndGetResult(GROUP_BY + " order by l_orderkey");
+    assertEquals(0, getRecoveredStageNum(getLastQuery()));
+    assertEquals(hits, retainedShuffles.getHitNum());
+  }
+
+  @Test
+  public final void testLeaseReleasedAfterQuery() throws Exception {
+    setShuffleReuse(true);
+    executeAndGetResult(GROUP_BY);
+    executeAndGetResult(GROUP_BY + " order by l_orderkey");
+    assertEquals(1, getRecoveredStageNum(getLastQuery()));
+
+    // the lease of the consumer is released when TajoMaster stops the finished query,
+    // and then the evicted output is deleted
+    retainedShuffles.evictExpired(System.currentTimeMillis() + retainedShuffles.getTtlMillis() + 1000);
+    assertEquals(0, retainedShuffles.size());
+    for (int i = 0; i < 50 && retainedShuffles.getLeasedEvictionNum() > 0; i++) {
+      Thread.sleep(100);
+    }
+    assertEquals(0, retainedShuffles.getLeasedEvictionNum());
+  }
+}
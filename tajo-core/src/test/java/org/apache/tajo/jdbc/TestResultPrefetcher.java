@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.jdbc;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.ServiceException;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.client.QueryClient;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.RowStoreUtil.RowStoreEncoder;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestResultPrefetcher {
+  private static final int FETCH_ROW_NUM = 100;
+
+  private Schema schema;
+  private QueryId queryId;
+  private QueryClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    queryId = QueryIdFactory.newQueryId(System.currentTimeMillis(), 1);
+    client = mock(QueryClient.class);
+  }
+
+  private TajoMemoryResultSet newBatch(int... ids) {
+    RowStoreEncoder encoder = RowStoreUtil.createEncoder(schema);
+    List<ByteString> rows = new ArrayList<ByteString>();
+    for (int id : ids) {
+      VTuple tuple = new VTuple(1);
+      tuple.put(0, DatumFactory.createInt4(id));
+      rows.add(ByteString.copyFrom(encoder.toBytes(tuple)));
+    }
+    return new TajoMemoryResultSet(queryId, schema, rows, ids.length, new HashMap<String, String>());
+  }
+
+  private static List<Integer> readBatch(TajoMemoryResultSet batch) throws Exception {
+    List<Integer> ids = new ArrayList<Integer>();
+    while (batch.next()) {
+      ids.add(batch.getInt(1));
+    }
+    return ids;
+  }
+
+  @Test(timeout = 10000)
+  public void testSingleStreamOrder() throws Exception {
+    when(client.fetchNextQueryResult(eq(queryId), eq(FETCH_ROW_NUM), eq(0), eq(1)))
+        .thenReturn(newBatch(1, 2), newBatch(3), newBatch(4, 5), newBatch());
+
+    // the queue holds only one batch, so the stream waits for the consumer
+    ResultPrefetcher prefetcher = new ResultPrefetcher(client, queryId, FETCH_ROW_NUM, 1, 1);
+    prefetcher.start();
+
+    List<Integer> ids = new ArrayList<Integer>();
+    TajoMemoryResultSet batch;
+    while ((batch = prefetcher.take()) != null) {
+      ids.addAll(readBatch(batch));
+    }
+    prefetcher.close();
+
+    List<Integer> expected = new ArrayList<Integer>();
+    for (int i = 1; i <= 5; i++) {
+      expected.add(i);
+    }
+    assertEquals(expected, ids);
+  }
+
+  @Test(timeout = 10000)
+  public void testMultipleStreams() throws Exception {
+    when(client.fetchNextQueryResult(eq(queryId), eq(FETCH_ROW_NUM), eq(0), eq(2)))
+        .thenReturn(newBatch(1), newBatch(2), newBatch(3), newBatch());
+    when(client.fetchNextQueryResult(eq(queryId), eq(FETCH_ROW_NUM), eq(1), eq(2)))
+        .thenReturn(newBatch(11), newBatch(12), newBatch());
+
+    ResultPrefetcher prefetcher = new ResultPrefetcher(client, queryId, FETCH_ROW_NUM, 2, 2);
+    prefetcher.start();
+
+    List<Integer> stream0 = new ArrayList<Integer>();
+    List<Integer> stream1 = new ArrayList<Integer>();
+    TajoMemoryResultSet batch;
+    while ((batch = prefetcher.take()) != null) {
+      for (int id : readBatch(batch)) {
+        (id > 10 ? stream1 : stream0).add(id);
+      }
+    }
+    prefetcher.close();
+
+    // batches of different streams are interleaved, but each stream keeps its own order
+    assertEquals(3, stream0.size());
+    assertEquals(Integer.valueOf(1), stream0.get(0));
+    assertEquals(Integer.valueOf(2), stream0.get(1));
+    assertEquals(Integer.valueOf(3), stream0.get(2));
+    assertEquals(2, stream1.size());
+    assertEquals(Integer.valueOf(11), stream1.get(0));
+    assertEquals(Integer.valueOf(12), stream1.get(1));
+  }
+
+  @Test(timeout = 10000)
+  public void testStreamFailure() throws Exception {
+    when(client.fetchNextQueryResult(eq(queryId), eq(FETCH_ROW_NUM), eq(0), eq(1)))
+        .thenReturn(newBatch(1))
+        .thenThrow(new ServiceException("lost connection"));
+
+    ResultPrefetcher prefetcher = new ResultPrefetcher(client, queryId, FETCH_ROW_NUM, 1, 1);
+    prefetcher.start();
+    assertEquals(1, readBatch(prefetcher.take()).size());
+    try {
+      prefetcher.take();
+      fail("the failure of a stream must be thrown to the consumer");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("lost connection"));
+    } finally {
+      prefetcher.close();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testCloseWhileStreamsAreBlocked() throws Exception {
+    // endless streams which are blocked on the full queue
+    when(client.fetchNextQueryResult(eq(queryId), eq(FETCH_ROW_NUM), anyInt(), eq(2)))
+        .thenReturn(newBatch(1));
+
+    ResultPrefetcher prefetcher = new ResultPrefetcher(client, queryId, FETCH_ROW_NUM, 1, 2);
+    prefetcher.start();
+    assertNotNull(prefetcher.take());
+    prefetcher.close();
+  }
+}
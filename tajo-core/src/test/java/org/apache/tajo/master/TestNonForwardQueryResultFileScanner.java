@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master;
+
+import com.google.protobuf.ByteString;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.master.exec.NonForwardQueryResultFileScanner;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.RowStoreUtil.RowStoreDecoder;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestNonForwardQueryResultFileScanner {
+  private static final int FILE_NUM = 7;
+  private static final int ROWS_PER_FILE = 2;
+
+  private TajoConf conf;
+  private Schema schema;
+  private TableDesc desc;
+  private QueryId queryId;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+
+    // each file has the rows whose ids divided by 10 are the index of the file
+    Path tablePath = CommonTestingUtil.getTestDir();
+    FileSystem fs = tablePath.getFileSystem(conf);
+    for (int i = 0; i < FILE_NUM; i++) {
+      FSDataOutputStream out = fs.create(new Path(tablePath, "part-" + i));
+      for (int j = 0; j < ROWS_PER_FILE; j++) {
+        out.write(((i * 10 + j) + "|name" + j + "\n").getBytes());
+      }
+      out.close();
+    }
+
+    desc = CatalogUtil.newTableDesc("default.result", schema, CatalogUtil.newTableMeta(StoreType.CSV), tablePath);
+    queryId = QueryIdFactory.newQueryId(System.currentTimeMillis(), 1);
+  }
+
+  private List<Integer> readStream(int streamId, int streamNum) throws Exception {
+    ScanNode scanNode = LogicalPlan.createNodeWithoutPID(ScanNode.class);
+    scanNode.init(desc);
+    NonForwardQueryResultFileScanner scanner = new NonForwardQueryResultFileScanner(conf, "session", queryId,
+        scanNode, desc, Integer.MAX_VALUE, streamId, streamNum);
+    scanner.init();
+
+    RowStoreDecoder decoder = RowStoreUtil.createDecoder(schema);
+    List<Integer> ids = new ArrayList<Integer>();
+    try {
+      List<ByteString> rows;
+      while (!(rows = scanner.getNextRows(3)).isEmpty()) {
+        for (ByteString row : rows) {
+          ids.add(decoder.toTuple(row.toByteArray()).getInt4(0));
+        }
+      }
+    } finally {
+      scanner.close();
+    }
+    return ids;
+  }
+
+  @Test
+  public void testSingleStream() throws Exception {
+    assertEquals(FILE_NUM * ROWS_PER_FILE, readStream(0, 1).size());
+  }
+
+  @Test
+  public void testRoundRobinStreams() throws Exception {
+    int streamNum = 3;
+    Set<Integer> allIds = new HashSet<Integer>();
+    List<Integer> fileNums = new ArrayList<Integer>();
+    Map<Integer, Integer> streamOfFile = new HashMap<Integer, Integer>();
+
+    for (int streamId = 0; streamId < streamNum; streamId++) {
+      List<Integer> ids = readStream(streamId, streamNum);
+      Set<Integer> files = new HashSet<Integer>();
+      for (int id : ids) {
+        // the streams are disjoint
+        assertTrue(allIds.add(id));
+        files.add(id / 10);
+
+        // a file is read by only one stream
+        Integer owner = streamOfFile.put(id / 10, streamId);
+        assertTrue(owner == null || owner == streamId);
+      }
+      fileNums.add(files.size());
+    }
+
+    assertEquals(FILE_NUM * ROWS_PER_FILE, allIds.size());
+    // 7 files are divided round-robin among 3 streams
+    Collections.sort(fileNums);
+    assertEquals(Arrays.asList(2, 2, 3), fileNums);
+  }
+
+  @Test
+  public void testMoreStreamsThanFiles() throws Exception {
+    int streamNum = FILE_NUM + 2;
+    int total = 0;
+    for (int streamId = 0; streamId < streamNum; streamId++) {
+      List<Integer> ids = readStream(streamId, streamNum);
+      if (streamId < FILE_NUM) {
+        assertEquals(ROWS_PER_FILE, ids.size());
+      } else {
+        assertTrue(ids.isEmpty());
+      }
+      total += ids.size();
+    }
+    assertEquals(FILE_NUM * ROWS_PER_FILE, total);
+  }
+}
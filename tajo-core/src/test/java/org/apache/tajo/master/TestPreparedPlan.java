@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.master;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.function.FunctionLoader;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.ipc.ClientProtos.QueryParameterProto;
+import org.apache.tajo.master.exec.PreparedPlan;
+import org.apache.tajo.master.exec.PreparedQuery;
+import org.apache.tajo.plan.LogicalOptimizer;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.LogicalPlanner;
+import org.apache.tajo.plan.PlanningException;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.serder.LogicalNodeSerializer;
+import org.apache.tajo.plan.serder.PlanProto;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.apache.tajo.TajoConstants.DEFAULT_DATABASE_NAME;
+import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
+import static org.junit.Assert.*;
+
+public class TestPreparedPlan {
+  private static TajoTestingCluster util;
+  private static SQLAnalyzer analyzer;
+  private static LogicalPlanner planner;
+  private static LogicalOptimizer optimizer;
+  private static QueryContext defaultContext;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    util = new TajoTestingCluster();
+    util.startCatalogCluster();
+    CatalogService catalog = util.getMiniCatalogCluster().getCatalog();
+    catalog.createTablespace(DEFAULT_TABLESPACE_NAME, "hdfs://localhost:1234/warehouse");
+    catalog.createDatabase(DEFAULT_DATABASE_NAME, DEFAULT_TABLESPACE_NAME);
+    for (FunctionDesc funcDesc : FunctionLoader.findLegacyFunctions()) {
+      catalog.createFunction(funcDesc);
+    }
+
+    Schema schema = new Schema();
+    schema.addColumn("name", Type.TEXT);
+    schema.addColumn("empid", Type.INT4);
+    schema.addColumn("score", Type.FLOAT8);
+    TableDesc employee = new TableDesc(CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, "employee"), schema,
+        CatalogUtil.newTableMeta(StoreType.CSV), CommonTestingUtil.getTestDir().toUri());
+    catalog.createTable(employee);
+
+    analyzer = new SQLAnalyzer();
+    planner = new LogicalPlanner(catalog);
+    optimizer = new LogicalOptimizer(util.getConfiguration());
+    defaultContext = LocalTajoTestingUtility.createDummyContext(util.getConfiguration());
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    util.shutdownCatalogCluster();
+  }
+
+  private static QueryParameterProto newParam(int index, Type type, String value) {
+    return QueryParameterProto.newBuilder().setIndex(index).setType(type).setValue(value).build();
+  }
+
+  private static PreparedQuery prepare(String sql) {
+    String rewritten = PreparedQuery.replaceParameterMarkers(sql);
+    return new PreparedQuery(sql, analyzer.parse(rewritten), PreparedQuery.countParameters(rewritten));
+  }
+
+  private static LogicalPlan createPlan(Expr expr) throws PlanningException {
+    LogicalPlan plan = planner.createPlan(defaultContext, expr);
+    optimizer.optimize(defaultContext, plan);
+    return plan;
+  }
+
+  private static PlanProto.LogicalNodeTree serialize(LogicalPlan plan) {
+    return LogicalNodeSerializer.serialize(plan.getRootBlock().getRoot());
+  }
+
+  @Test
+  public final void testBind() throws PlanningException {
+    PreparedQuery preparedQuery = prepare("select name from employee where empid > ? and name = ? and score < ?");
+    List<QueryParameterProto> params = Lists.newArrayList(
+        newParam(1, Type.INT4, "10"),
+        newParam(2, Type.TEXT, "tajo"),
+        newParam(3, Type.FLOAT8, "-1.5"));
+    List<QueryParameterProto> sentinels = PreparedQuery.getSentinels(params);
+
+    LogicalPlan plan = createPlan(preparedQuery.bind(params));
+    assertTrue(PreparedPlan.isCacheable(plan));
+    PreparedPlan preparedPlan = PreparedPlan.create(serialize(plan), serialize(createPlan(preparedQuery.bind(sentinels))),
+        params, sentinels);
+    assertNotNull(preparedPlan);
+
+    // binding other values of the same types must produce the same plan as planning them
+    List<QueryParameterProto> others = Lists.newArrayList(
+        newParam(1, Type.INT4, "20"),
+        newParam(2, Type.TEXT, "hive"),
+        newParam(3, Type.FLOAT8, "-2.5"));
+    assertEquals(PreparedQuery.getPlanKey(params, defaultContext.getAllKeyValus()),
+        PreparedQuery.getPlanKey(others, defaultContext.getAllKeyValus()));
+    LogicalPlan bound = preparedPlan.bind(defaultContext, others);
+    assertEquals(serialize(createPlan(preparedQuery.bind(others))), serialize(bound));
+    assertNotNull(bound.getRootBlock().getRelation("default.employee"));
+    assertFalse(PlannerUtil.checkIfNonFromQuery(bound));
+
+    // new nodes must not share the ids of the bound nodes
+    int maxPid = -1;
+    for (LogicalNode node : PlannerUtil.findAllNodes(bound.getRootBlock().getRoot(), NodeType.values())) {
+      maxPid = Math.max(maxPid, node.getPID());
+    }
+    assertTrue(bound.newPID() > maxPid);
+  }
+
+  @Test
+  public final void testParameterWithoutSlot() throws PlanningException {
+    PreparedQuery preparedQuery = prepare("select name from employee where empid > ?");
+    List<QueryParameterProto> params = Lists.newArrayList(newParam(1, Type.INT4, "10"));
+    PlanProto.LogicalNodeTree tree = serialize(createPlan(preparedQuery.bind(params)));
+
+    // the parameter has no constant which differs between the two plans, so it must not be cached
+    assertNull(PreparedPlan.create(tree, tree, params, PreparedQuery.getSentinels(params)));
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.ipc.ClientProtos.QueryParameterProto;
+import org.apache.tajo.master.exec.PreparedQuery;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestPreparedQuery {
+  private static final SQLAnalyzer analyzer = new SQLAnalyzer();
+
+  private static QueryParameterProto newParam(int index, Type type, String value) {
+    QueryParameterProto.Builder builder = QueryParameterProto.newBuilder().setIndex(index).setType(type);
+    if (value != null) {
+      builder.setValue(value);
+    }
+    return builder.build();
+  }
+
+  private static PreparedQuery prepare(String sql) {
+    String rewritten = PreparedQuery.replaceParameterMarkers(sql);
+    return new PreparedQuery(sql, analyzer.parse(rewritten), PreparedQuery.countParameters(rewritten));
+  }
+
+  @Test
+  public final void testReplaceParameterMarkers() {
+    String rewritten = PreparedQuery.replaceParameterMarkers("select * from t1 where a = ? and b = '?' and c = ?");
+    assertEquals(2, PreparedQuery.countParameters(rewritten));
+    assertTrue(rewritten.contains("b = '?'"));
+  }
+
+  @Test
+  public final void testBind() {
+    PreparedQuery preparedQuery = prepare("select id, name from t1 where id = ? and name = ? and score > ?");
+    assertEquals(3, preparedQuery.getNumParameters());
+
+    List<QueryParameterProto> params = Lists.newArrayList(
+        newParam(1, Type.INT4, "10"),
+        newParam(2, Type.TEXT, "tajo"),
+        newParam(3, Type.FLOAT8, "-1.5"));
+    Expr expected = analyzer.parse("select id, name from t1 where id = 10 and name = 'tajo' and score > -1.5");
+    assertEquals(expected, preparedQuery.bind(params));
+
+    // the template is not changed by binding
+    params = Lists.newArrayList(
+        newParam(1, Type.INT4, "20"),
+        newParam(2, Type.TEXT, "hive"),
+        newParam(3, Type.FLOAT8, "2.5"));
+    expected = analyzer.parse("select id, name from t1 where id = 20 and name = 'hive' and score > 2.5");
+    assertEquals(expected, preparedQuery.bind(params));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public final void testMissingParameter() {
+    PreparedQuery preparedQuery = prepare("select * from t1 where id = ? and name = ?");
+    preparedQuery.bind(Lists.newArrayList(newParam(1, Type.INT4, "10")));
+  }
+
+  @Test
+  public final void testVerifiedCatalogVersion() {
+    PreparedQuery preparedQuery = prepare("select * from t1 where id = ?");
+    assertFalse(preparedQuery.isVerified(0));
+    preparedQuery.setVerified(0);
+    assertTrue(preparedQuery.isVerified(0));
+    assertFalse(preparedQuery.isVerified(1));
+
+    // an unknown catalog version is never regarded as verified
+    preparedQuery.setVerified(-1);
+    assertFalse(preparedQuery.isVerified(-1));
+  }
+
+  @Test
+  public final void testPlanKey() {
+    Map<String, String> variables = Maps.newHashMap();
+    variables.put(SessionVars.SESSION_LAST_ACCESS_TIME.keyname(), "1");
+    String key = PreparedQuery.getPlanKey(Lists.newArrayList(
+        newParam(1, Type.INT4, "10"), newParam(2, Type.TEXT, "tajo")), variables);
+    assertNotNull(key);
+
+    // the values and the access time do not matter
+    variables.put(SessionVars.SESSION_LAST_ACCESS_TIME.keyname(), "2");
+    assertEquals(key, PreparedQuery.getPlanKey(Lists.newArrayList(
+        newParam(2, Type.TEXT, "hive"), newParam(1, Type.INT4, "20")), variables));
+
+    // types, signs and session variables do
+    assertFalse(key.equals(PreparedQuery.getPlanKey(Lists.newArrayList(
+        newParam(1, Type.INT8, "10"), newParam(2, Type.TEXT, "tajo")), variables)));
+    assertFalse(key.equals(PreparedQuery.getPlanKey(Lists.newArrayList(
+        newParam(1, Type.INT4, "-10"), newParam(2, Type.TEXT, "tajo")), variables)));
+    variables.put(SessionVars.TIMEZONE.keyname(), "GMT+9");
+    assertFalse(key.equals(PreparedQuery.getPlanKey(Lists.newArrayList(
+        newParam(1, Type.INT4, "10"), newParam(2, Type.TEXT, "tajo")), variables)));
+
+    // the planner folds or casts these parameters
+    assertNull(PreparedQuery.getPlanKey(Lists.newArrayList(newParam(1, Type.NULL_TYPE, null)), variables));
+    assertNull(PreparedQuery.getPlanKey(Lists.newArrayList(newParam(1, Type.DATE, "2015-01-01")), variables));
+  }
+
+  @Test
+  public final void testSentinels() {
+    List<QueryParameterProto> params = Lists.newArrayList(
+        newParam(1, Type.INT4, "1987000001"),
+        newParam(2, Type.INT8, "-5000000000"),
+        newParam(3, Type.TEXT, "tajo"));
+    List<QueryParameterProto> sentinels = PreparedQuery.getSentinels(params);
+    assertEquals(PreparedQuery.getPlanKey(params, new HashMap<String, String>()),
+        PreparedQuery.getPlanKey(sentinels, new HashMap<String, String>()));
+    for (int i = 0; i < params.size(); i++) {
+      assertFalse(params.get(i).getValue().equals(sentinels.get(i).getValue()));
+    }
+    assertTrue(sentinels.get(1).getValue().startsWith("-"));
+  }
+
+  @Test
+  public final void testPlansInvalidatedByCatalogVersion() {
+    PreparedQuery preparedQuery = prepare("select * from t1 where id = ?");
+    preparedQuery.addPlan("key", 1, null);
+    assertTrue(preparedQuery.hasPlan("key", 1));
+    assertNull(preparedQuery.getPlan("key", 1));
+
+    // a new catalog version drops all plans
+    assertFalse(preparedQuery.hasPlan("key", 2));
+    preparedQuery.addPlan("other", 2, null);
+    assertFalse(preparedQuery.hasPlan("key", 2));
+    assertTrue(preparedQuery.hasPlan("other", 2));
+
+    // plans are not kept for unknown catalog versions
+    preparedQuery.addPlan("key", -1, null);
+    assertFalse(preparedQuery.hasPlan("key", -1));
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master;
+
+import com.google.common.collect.Sets;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TajoProtos;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.master.exec.QueryResultCache;
+import org.apache.tajo.master.exec.QueryResultCache.CacheKey;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TestQueryResultCache {
+  private TajoConf conf;
+  private Path testDir;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    conf.setBoolVar(TajoConf.ConfVars.QUERY_RESULT_CACHE_ENABLED, true);
+    conf.setIntVar(TajoConf.ConfVars.QUERY_RESULT_CACHE_MAX_ENTRIES, 2);
+    conf.setLongVar(TajoConf.ConfVars.QUERY_RESULT_CACHE_MAX_SIZE_MB, 1);
+    testDir = CommonTestingUtil.getTestDir();
+  }
+
+  private static CacheKey newKey(String fingerprint, String snapshot, String... tables) {
+    return new CacheKey(fingerprint, snapshot, Sets.newHashSet(tables));
+  }
+
+  private TableDesc newResultDesc(String name, long volume) throws IOException {
+    Path resultPath = new Path(testDir, name);
+    FileSystem.getLocal(conf).mkdirs(resultPath);
+    TableDesc desc = new TableDesc(name, new Schema(), CatalogUtil.newTableMeta(StoreType.CSV), resultPath.toUri());
+    TableStats stats = new TableStats();
+    stats.setNumBytes(volume);
+    desc.setStats(stats);
+    return desc;
+  }
+
+  private static QueryInfo newFinishedQuery(QueryId queryId, TableDesc resultDesc) {
+    QueryInfo queryInfo = new QueryInfo(queryId);
+    queryInfo.setQueryState(TajoProtos.QueryState.QUERY_SUCCEEDED);
+    queryInfo.setResultDesc(resultDesc);
+    return queryInfo;
+  }
+
+  @Test
+  public final void testHitAndMiss() throws Exception {
+    QueryResultCache cache = new QueryResultCache(conf);
+    CacheKey key = newKey("plan1", "default.t1@10,1,100;", "default.t1");
+    QueryId queryId = QueryIdFactory.newQueryId(System.currentTimeMillis(), 1);
+
+    assertNull(cache.get(key));
+    cache.reserve(queryId, key);
+    cache.queryFinished(newFinishedQuery(queryId, newResultDesc("r1", 100)));
+
+    assertNotNull(cache.get(key));
+    assertEquals(1, cache.getHitNum());
+    assertEquals(1, cache.getMissNum());
+
+    // the input table was changed after the result was cached.
+    assertNull(cache.get(newKey("plan1", "default.t1@20,2,200;", "default.t1")));
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.getInvalidationNum());
+  }
+
+  @Test
+  public final void testFailedQueryIsNotCached() throws Exception {
+    QueryResultCache cache = new QueryResultCache(conf);
+    CacheKey key = newKey("plan1", "", "default.t1");
+    QueryId queryId = QueryIdFactory.newQueryId(System.currentTimeMillis(), 1);
+
+    cache.reserve(queryId, key);
+    QueryInfo queryInfo = newFinishedQuery(queryId, newResultDesc("r1", 100));
+    queryInfo.setQueryState(TajoProtos.QueryState.QUERY_FAILED);
+    cache.queryFinished(queryInfo);
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public final void testLRUEviction() throws Exception {
+    QueryResultCache cache = new QueryResultCache(conf);
+    long seed = System.currentTimeMillis();
+    CacheKey key1 = newKey("plan1", "", "default.t1");
+    CacheKey key2 = newKey("plan2", "", "default.t1");
+    CacheKey key3 = newKey("plan3", "", "default.t2");
+
+    cache.reserve(QueryIdFactory.newQueryId(seed, 1), key1);
+    cache.queryFinished(newFinishedQuery(QueryIdFactory.newQueryId(seed, 1), newResultDesc("r1", 100)));
+    cache.reserve(QueryIdFactory.newQueryId(seed, 2), key2);
+    cache.queryFinished(newFinishedQuery(QueryIdFactory.newQueryId(seed, 2), newResultDesc("r2", 100)));
+
+    // touch key1 so that key2 becomes the least recently used entry.
+    assertNotNull(cache.get(key1));
+
+    cache.reserve(QueryIdFactory.newQueryId(seed, 3), key3);
+    cache.queryFinished(newFinishedQuery(QueryIdFactory.newQueryId(seed, 3), newResultDesc("r3", 100)));
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionNum());
+    assertNotNull(cache.get(key1));
+    assertNull(cache.get(key2));
+    assertNotNull(cache.get(key3));
+
+    // a result larger than the cache capacity is not cached.
+    CacheKey key4 = newKey("plan4", "", "default.t2");
+    cache.reserve(QueryIdFactory.newQueryId(seed, 4), key4);
+    cache.queryFinished(newFinishedQuery(QueryIdFactory.newQueryId(seed, 4), newResultDesc("r4", 2 * 1024 * 1024)));
+    assertNull(cache.get(key4));
+    assertEquals(200, cache.getCachedBytes());
+  }
+
+  @Test
+  public final void testInvalidation() throws Exception {
+    QueryResultCache cache = new QueryResultCache(conf);
+    long seed = System.currentTimeMillis();
+    CacheKey key1 = newKey("plan1", "", "default.t1", "default.t2");
+    CacheKey key2 = newKey("plan2", "", "db2.t1");
+
+    cache.reserve(QueryIdFactory.newQueryId(seed, 1), key1);
+    cache.queryFinished(newFinishedQuery(QueryIdFactory.newQueryId(seed, 1), newResultDesc("r1", 100)));
+    cache.reserve(QueryIdFactory.newQueryId(seed, 2), key2);
+    cache.queryFinished(newFinishedQuery(QueryIdFactory.newQueryId(seed, 2), newResultDesc("r2", 100)));
+    assertEquals(2, cache.size());
+
+    cache.invalidateTable("default.t2");
+    assertEquals(1, cache.size());
+    assertNull(cache.get(key1));
+
+    cache.invalidateDatabase("db2");
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getCachedBytes());
+  }
+}
@@ -0,0 +1,240 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master;
+
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.ipc.QueryCoordinatorProtocol.RetainedShuffleProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.IntermediateEntryProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.StageCheckpointProto;
+import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.master.exec.RetainedShuffleCatalog;
+import org.apache.tajo.master.exec.RetainedShuffleCatalog.RetainedShuffle;
+import org.apache.tajo.master.rm.Worker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestRetainedShuffleCatalog {
+  private TajoConf conf;
+  private Map<Integer, Worker> workers;
+  private Worker worker1;
+  private Worker worker2;
+  private QueryId consumer;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    conf.setIntVar(TajoConf.ConfVars.SHUFFLE_REUSE_TTL_SEC, 60);
+    conf.setLongVar(TajoConf.ConfVars.SHUFFLE_REUSE_MAX_SIZE_MB, 1);
+
+    workers = new HashMap<Integer, Worker>();
+    worker1 = newWorker("host1");
+    worker2 = newWorker("host2");
+    consumer = QueryIdFactory.newQueryId(System.currentTimeMillis(), 100);
+  }
+
+  private Worker newWorker(String host) {
+    Worker worker = new Worker(null, null, new WorkerConnectionInfo(host, 28091, 28092, 28093, 28094, 28080));
+    workers.put(worker.getWorkerId(), worker);
+    return worker;
+  }
+
+  private static RetainedShuffleProto newRetained(String fingerprint, ExecutionBlockId ebId, long volume,
+                                                  String... hosts) {
+    TableStats stats = new TableStats();
+    stats.setNumBytes(volume);
+    StageCheckpointProto.Builder stage = StageCheckpointProto.newBuilder()
+        .setEbId(ebId.getProto())
+        .setMasterPlanDigest(fingerprint)
+        .setResultStats(stats.getProto())
+        .setShuffleOutputNum(hosts.length);
+    for (int i = 0; i < hosts.length; i++) {
+      stage.addHashShuffleEntries(IntermediateEntryProto.newBuilder()
+          .setEbId(ebId.getProto())
+          .setTaskId(i)
+          .setAttemptId(0)
+          .setPartId(i)
+          .setHost(hosts[i] + ":28092")
+          .setVolume(volume / hosts.length));
+    }
+    return RetainedShuffleProto.newBuilder().setFingerprint(fingerprint).setStage(stage).build();
+  }
+
+  private static class RecordingListener implements RetainedShuffleCatalog.EvictionListener {
+    final List<ExecutionBlockId> evicted = new ArrayList<ExecutionBlockId>();
+    final List<Boolean> lastOfQuery = new ArrayList<Boolean>();
+
+    @Override
+    public void evicted(RetainedShuffle retained, boolean last) {
+      evicted.add(retained.getExecutionBlockId());
+      lastOfQuery.add(last);
+    }
+  }
+
+  @Test
+  public final void testRegisterAndGet() throws Exception {
+    RetainedShuffleCatalog catalog = new RetainedShuffleCatalog(conf, null);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1));
+
+    assertNull(catalog.get("subplan1", consumer, workers));
+    assertTrue(catalog.register(newRetained("subplan1", ebId, 100, "host1", "host2"), workers));
+
+    RetainedShuffleProto found = catalog.get("subplan1", consumer, workers);
+    assertNotNull(found);
+    assertEquals(ebId, new ExecutionBlockId(found.getStage().getEbId()));
+    assertEquals(1, catalog.getHitNum());
+    assertEquals(1, catalog.getMissNum());
+    assertEquals(100, catalog.getRetainedBytes());
+  }
+
+  @Test
+  public final void testUnknownHost() throws Exception {
+    RetainedShuffleCatalog catalog = new RetainedShuffleCatalog(conf, null);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1));
+
+    assertFalse(catalog.register(newRetained("subplan1", ebId, 100, "host1", "host3"), workers));
+    assertEquals(0, catalog.size());
+  }
+
+  @Test
+  public final void testExpiration() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    RetainedShuffleCatalog catalog = new RetainedShuffleCatalog(conf, listener);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1));
+    assertTrue(catalog.register(newRetained("subplan1", ebId, 100, "host1"), workers));
+
+    catalog.evictExpired(System.currentTimeMillis());
+    assertEquals(1, catalog.size());
+
+    catalog.evictExpired(System.currentTimeMillis() + 61 * 1000);
+    assertEquals(0, catalog.size());
+    assertEquals(0, catalog.getRetainedBytes());
+    assertEquals(1, listener.evicted.size());
+    assertEquals(ebId, listener.evicted.get(0));
+    assertTrue(listener.lastOfQuery.get(0));
+  }
+
+  @Test
+  public final void testSizeLimit() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    RetainedShuffleCatalog catalog = new RetainedShuffleCatalog(conf, listener);
+    QueryId queryId = QueryIdFactory.newQueryId(System.currentTimeMillis(), 1);
+    ExecutionBlockId ebId1 = QueryIdFactory.newExecutionBlockId(queryId, 1);
+    ExecutionBlockId ebId2 = QueryIdFactory.newExecutionBlockId(queryId, 2);
+    ExecutionBlockId ebId3 = QueryIdFactory.newExecutionBlockId(queryId, 3);
+
+    assertTrue(catalog.register(newRetained("subplan1", ebId1, 400 * 1024, "host1"), workers));
+    assertTrue(catalog.register(newRetained("subplan2", ebId2, 400 * 1024, "host2"), workers));
+    // make subplan1 recently used
+    assertNotNull(catalog.get("subplan1", consumer, workers));
+    assertTrue(catalog.register(newRetained("subplan3", ebId3, 400 * 1024, "host1"), workers));
+
+    assertEquals(2, catalog.size());
+    assertNull(catalog.get("subplan2", consumer, workers));
+    assertEquals(1, listener.evicted.size());
+    assertEquals(ebId2, listener.evicted.get(0));
+    assertFalse(listener.lastOfQuery.get(0));
+
+    // an output larger than the limit is not retained
+    assertFalse(catalog.register(newRetained("subplan4", ebId3, 2 * 1024 * 1024, "host1"), workers));
+  }
+
+  @Test
+  public final void testWorkerRestart() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    RetainedShuffleCatalog catalog = new RetainedShuffleCatalog(conf, listener);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1));
+    assertTrue(catalog.register(newRetained("subplan1", ebId, 100, "host1", "host2"), workers));
+
+    // a restarted worker has a new instance with the same id
+    newWorker("host2");
+    assertNull(catalog.get("subplan1", consumer, workers));
+    assertEquals(0, catalog.size());
+    assertEquals(1, listener.evicted.size());
+  }
+
+  @Test
+  public final void testLeasedEviction() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    RetainedShuffleCatalog catalog = new RetainedShuffleCatalog(conf, listener);
+    QueryId queryId = QueryIdFactory.newQueryId(System.currentTimeMillis(), 1);
+    ExecutionBlockId ebId1 = QueryIdFactory.newExecutionBlockId(queryId, 1);
+    ExecutionBlockId ebId2 = QueryIdFactory.newExecutionBlockId(queryId, 2);
+    assertTrue(catalog.register(newRetained("subplan1", ebId1, 100, "host1"), workers));
+    assertTrue(catalog.register(newRetained("subplan2", ebId2, 100, "host2"), workers));
+    assertNotNull(catalog.get("subplan1", consumer, workers));
+
+    // an expired output is not found any longer, but it is not deleted while the consumer is running
+    catalog.evictExpired(System.currentTimeMillis() + 61 * 1000);
+    assertEquals(0, catalog.size());
+    assertNull(catalog.get("subplan1", consumer, workers));
+    assertEquals(1, catalog.getLeasedEvictionNum());
+    assertEquals(1, listener.evicted.size());
+    assertEquals(ebId2, listener.evicted.get(0));
+    // the query directory must be kept for the leased output
+    assertFalse(listener.lastOfQuery.get(0));
+
+    catalog.release(QueryIdFactory.newQueryId(System.currentTimeMillis(), 101));
+    assertEquals(1, catalog.getLeasedEvictionNum());
+
+    catalog.release(consumer);
+    assertEquals(0, catalog.getLeasedEvictionNum());
+    assertEquals(2, listener.evicted.size());
+    assertEquals(ebId1, listener.evicted.get(1));
+    assertTrue(listener.lastOfQuery.get(1));
+  }
+
+  @Test
+  public final void testReleasedBeforeEviction() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    RetainedShuffleCatalog catalog = new RetainedShuffleCatalog(conf, listener);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1));
+    assertTrue(catalog.register(newRetained("subplan1", ebId, 100, "host1"), workers));
+    assertNotNull(catalog.get("subplan1", consumer, workers));
+    catalog.release(consumer);
+
+    catalog.evictExpired(System.currentTimeMillis() + 61 * 1000);
+    assertEquals(0, catalog.getLeasedEvictionNum());
+    assertEquals(1, listener.evicted.size());
+    assertTrue(listener.lastOfQuery.get(0));
+  }
+
+  @Test
+  public final void testClearLeased() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    RetainedShuffleCatalog catalog = new RetainedShuffleCatalog(conf, listener);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1));
+    assertTrue(catalog.register(newRetained("subplan1", ebId, 100, "host1"), workers));
+    assertNotNull(catalog.get("subplan1", consumer, workers));
+
+    catalog.clear();
+    assertEquals(0, catalog.getLeasedEvictionNum());
+    assertEquals(1, listener.evicted.size());
+  }
+}
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.master.event;
+
+import com.google.protobuf.RpcCallback;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.ipc.TajoWorkerProtocol.TaskRequestBatchProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.TaskRequestProto;
+import org.apache.tajo.querymaster.DefaultTaskScheduler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestTaskRequestBatch {
+  private static final ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(
+      QueryIdFactory.newQueryId(System.currentTimeMillis(), 1), 1);
+
+  private static class ResponseCollector implements RpcCallback<TaskRequestBatchProto> {
+    List<TaskRequestBatchProto> responses = new ArrayList<TaskRequestBatchProto>();
+
+    @Override
+    public void run(TaskRequestBatchProto response) {
+      responses.add(response);
+    }
+  }
+
+  private static TaskRequestProto newTaskRequest(int taskId) {
+    TaskAttemptId attemptId = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, taskId), 0);
+    return TaskRequestProto.newBuilder()
+        .setId(attemptId.getProto())
+        .setOutputTable("")
+        .setClusteredOutput(false)
+        .build();
+  }
+
+  @Test
+  public final void testRespondWhenAllSlotsAreAssigned() {
+    ResponseCollector collector = new ResponseCollector();
+    TaskRequestBatch batch = new TaskRequestBatch(1, null, ebId, 3, collector);
+
+    List<TaskRequestEvent> slots = new ArrayList<TaskRequestEvent>();
+    TaskRequestEvent slot;
+    while ((slot = batch.nextSlot()) != null) {
+      assertSame(batch, slot.getBatch());
+      slots.add(slot);
+    }
+    assertEquals(3, slots.size());
+    assertEquals(3, batch.getQueuedSlots().size());
+
+    slots.get(0).getCallback().run(newTaskRequest(0));
+    slots.get(1).getCallback().run(newTaskRequest(1));
+    assertTrue(batch.isAnswered());
+    assertFalse(batch.isResponded());
+    assertEquals(0, collector.responses.size());
+
+    slots.get(2).getCallback().run(newTaskRequest(2));
+    assertTrue(batch.isResponded());
+    assertEquals(1, collector.responses.size());
+    assertEquals(3, collector.responses.get(0).getTaskRequestsCount());
+    assertFalse(collector.responses.get(0).getShouldDie());
+  }
+
+  @Test
+  public final void testPartialResponse() {
+    ResponseCollector collector = new ResponseCollector();
+    TaskRequestBatch batch = new TaskRequestBatch(1, null, ebId, 4, collector);
+
+    TaskRequestEvent first = batch.nextSlot();
+    TaskRequestEvent second = batch.nextSlot();
+    first.getCallback().run(newTaskRequest(0));
+    // the tail limit of a scheduler stops a task runner, but the runner keeps the assigned task.
+    second.getCallback().run(DefaultTaskScheduler.stopTaskRunnerReq);
+
+    batch.respond();
+    assertNull(batch.nextSlot());
+    assertEquals(1, collector.responses.size());
+    assertEquals(1, collector.responses.get(0).getTaskRequestsCount());
+    assertFalse(collector.responses.get(0).getShouldDie());
+
+    // a batch is responded only once
+    batch.respond();
+    assertEquals(1, collector.responses.size());
+  }
+
+  @Test
+  public final void testShouldDie() {
+    ResponseCollector collector = new ResponseCollector();
+    TaskRequestBatch batch = new TaskRequestBatch(1, null, ebId, 2, collector);
+
+    batch.nextSlot().getCallback().run(DefaultTaskScheduler.stopTaskRunnerReq);
+    assertTrue(batch.isAnswered());
+    batch.respond();
+
+    assertEquals(1, collector.responses.size());
+    assertTrue(collector.responses.get(0).getShouldDie());
+    assertEquals(0, collector.responses.get(0).getTaskRequestsCount());
+  }
+
+  @Test
+  public final void testAbort() {
+    ResponseCollector collector = new ResponseCollector();
+    TaskRequestBatch batch = new TaskRequestBatch(1, null, ebId, 2, collector);
+    batch.nextSlot();
+
+    // an aborted batch does not stop the task runner even if no task is assigned
+    batch.abort();
+    assertTrue(batch.isResponded());
+    assertEquals(1, collector.responses.size());
+    assertFalse(collector.responses.get(0).getShouldDie());
+    assertEquals(0, collector.responses.get(0).getTaskRequestsCount());
+
+    batch.respond();
+    assertEquals(1, collector.responses.size());
+  }
+}
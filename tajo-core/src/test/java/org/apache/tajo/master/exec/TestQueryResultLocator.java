@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.master.exec;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.QueryTestCaseBase;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.client.TajoClient;
+import org.apache.tajo.client.TajoClientImpl;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.jdbc.DirectFetchResultSet;
+import org.apache.tajo.jdbc.FetchResultSet;
+import org.apache.tajo.pullserver.ResultAccessToken;
+import org.apache.tajo.service.ServiceTrackerFactory;
+import org.apache.tajo.util.KeyValueSet;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestQueryResultLocator extends QueryTestCaseBase {
+  private static final String QUERY =
+      "select l_orderkey, sum(l_quantity) as total from lineitem group by l_orderkey";
+
+  private TableDesc getResultDesc(QueryId queryId) {
+    return testingCluster.getMaster().getContext().getQueryJobManager().getFinishedQuery(queryId).getResultDesc();
+  }
+
+  private List<String> getResultUrls(QueryId queryId) throws Exception {
+    QueryResultLocator locator = new QueryResultLocator(testingCluster.getMaster().getContext());
+    return locator.getResultUrls(queryId, getResultDesc(queryId));
+  }
+
+  private static Map<String, String> getParams(String url) throws Exception {
+    Map<String, String> params = new HashMap<String, String>();
+    for (String param : new URL(url).getQuery().split("&")) {
+      String[] pair = param.split("=", 2);
+      params.put(pair[0], URLDecoder.decode(pair[1], "UTF-8"));
+    }
+    return params;
+  }
+
+  private static String replaceParam(String url, String name, String value) throws Exception {
+    String prefix = url.substring(0, url.indexOf('?') + 1);
+    StringBuilder sb = new StringBuilder(prefix);
+    for (Map.Entry<String, String> param : getParams(url).entrySet()) {
+      if (sb.length() > prefix.length()) {
+        sb.append("&");
+      }
+      String paramValue = param.getKey().equals(name) ? value : param.getValue();
+      sb.append(param.getKey()).append("=").append(URLEncoder.encode(paramValue, "UTF-8"));
+    }
+    return sb.toString();
+  }
+
+  private static int getResponseCode(String url) throws Exception {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    try {
+      return connection.getResponseCode();
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  /**
+   * @return the number of rows in the response
+   */
+  private static int countRows(String url) throws Exception {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+    DataInputStream in = new DataInputStream(connection.getInputStream());
+    try {
+      int rows = 0;
+      int length;
+      while ((length = in.readInt()) >= 0) {
+        in.readFully(new byte[length]);
+        rows++;
+      }
+      return rows;
+    } finally {
+      in.close();
+    }
+  }
+
+  private static List<String> toSortedRows(ResultSet res) throws SQLException {
+    List<String> rows = new ArrayList<String>();
+    while (res.next()) {
+      rows.add(res.getLong(1) + "," + res.getDouble(2));
+    }
+    Collections.sort(rows);
+    return rows;
+  }
+
+  @Test
+  public final void testResultUrls() throws Exception {
+    ResultSet res = executeString(QUERY);
+    try {
+      QueryId queryId = ((FetchResultSet) res).getQueryId();
+      long now = System.currentTimeMillis();
+      List<String> urls = getResultUrls(queryId);
+      assertFalse(urls.isEmpty());
+
+      ResultAccessToken token = ResultAccessToken.load(testingCluster.getConfiguration());
+      long ttl = testingCluster.getConfiguration().getIntVar(ConfVars.RESULT_DIRECT_FETCH_TOKEN_TTL_SEC) * 1000L;
+      for (String url : urls) {
+        Map<String, String> params = getParams(url);
+        assertEquals(queryId.toString(), params.get("qid"));
+        assertFalse(params.containsKey("meta"));
+        assertFalse(params.containsKey("schema"));
+
+        long expireTime = Long.parseLong(params.get("expire"));
+        assertTrue(expireTime >= now + ttl);
+        assertTrue(token.verify(queryId.toString(), params.get("path"), expireTime, params.get("token"), now));
+        assertFalse(token.verify(queryId.toString(), params.get("path"), expireTime, params.get("token"),
+            expireTime + 1));
+      }
+    } finally {
+      cleanupQuery(res);
+    }
+  }
+
+  @Test
+  public final void testAccessKey() throws Exception {
+    TajoConf conf = testingCluster.getConfiguration();
+    ResultAccessToken token = ResultAccessToken.getOrCreate(conf);
+    String signature = token.sign("q_1", "/result/part-0", 1000L);
+    // the key is created once, and then shared
+    assertEquals(signature, ResultAccessToken.getOrCreate(conf).sign("q_1", "/result/part-0", 1000L));
+    assertEquals(signature, ResultAccessToken.load(conf).sign("q_1", "/result/part-0", 1000L));
+
+    Path keyPath = ResultAccessToken.getKeyPath(conf);
+    FileSystem fs = keyPath.getFileSystem(conf);
+    assertEquals((short) 0600, fs.getFileStatus(keyPath).getPermission().toShort());
+    // no temporary key file is left
+    for (FileStatus status : fs.listStatus(keyPath.getParent())) {
+      assertFalse(status.getPath().getName(), status.getPath().getName().endsWith(".tmp"));
+    }
+  }
+
+  @Test
+  public final void testFetchResultFiles() throws Exception {
+    ResultSet res = executeString(QUERY);
+    try {
+      QueryId queryId = ((FetchResultSet) res).getQueryId();
+      int rows = 0;
+      for (String url : getResultUrls(queryId)) {
+        rows += countRows(url);
+      }
+      assertEquals(toSortedRows(res).size(), rows);
+    } finally {
+      cleanupQuery(res);
+    }
+  }
+
+  @Test
+  public final void testForbiddenRequests() throws Exception {
+    ResultSet res = executeString(QUERY);
+    try {
+      QueryId queryId = ((FetchResultSet) res).getQueryId();
+      String url = getResultUrls(queryId).get(0);
+      Map<String, String> params = getParams(url);
+      TajoConf conf = testingCluster.getConfiguration();
+      ResultAccessToken token = ResultAccessToken.load(conf);
+
+      // a token which is not signed by the key
+      assertEquals(HttpURLConnection.HTTP_FORBIDDEN, getResponseCode(replaceParam(url, "token", "invalid")));
+      // the token of a file is not valid for other files
+      String descPath = new Path(new Path(params.get("path")).getParent().getParent(),
+          TajoConstants.RESULT_DESC_FILE_NAME).toString();
+      assertEquals(HttpURLConnection.HTTP_FORBIDDEN, getResponseCode(replaceParam(url, "path", descPath)));
+      // the expiration time is covered by the token
+      long expireTime = Long.parseLong(params.get("expire"));
+      assertEquals(HttpURLConnection.HTTP_FORBIDDEN,
+          getResponseCode(replaceParam(url, "expire", Long.toString(expireTime + 1000))));
+
+      // an expired token
+      long expired = System.currentTimeMillis() - 1;
+      String expiredUrl = replaceParam(url, "expire", Long.toString(expired));
+      expiredUrl = replaceParam(expiredUrl, "token", token.sign(queryId.toString(), params.get("path"), expired));
+      assertEquals(HttpURLConnection.HTTP_FORBIDDEN, getResponseCode(expiredUrl));
+
+      // a valid token for a file out of the result directory
+      String signedDescUrl = replaceParam(url, "path", descPath);
+      signedDescUrl = replaceParam(signedDescUrl, "token", token.sign(queryId.toString(), descPath, expireTime));
+      assertEquals(HttpURLConnection.HTTP_FORBIDDEN, getResponseCode(signedDescUrl));
+
+      // no token
+      String noToken = url.substring(0, url.indexOf("&token="));
+      assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, getResponseCode(noToken));
+    } finally {
+      cleanupQuery(res);
+    }
+  }
+
+  @Test
+  public final void testDirectFetchResultSet() throws Exception {
+    ResultSet expected = executeString(QUERY);
+    List<String> expectedRows = toSortedRows(expected);
+    cleanupQuery(expected);
+
+    KeyValueSet props = new KeyValueSet();
+    props.setBool(ConfVars.$RESULT_SET_DIRECT_FETCH_ENABLED.keyname(), true);
+    TajoClient directClient = new TajoClientImpl(ServiceTrackerFactory.get(testingCluster.getConfiguration()),
+        getCurrentDatabase(), props);
+    try {
+      ResultSet res = directClient.executeQueryAndGetResult(QUERY);
+      try {
+        assertTrue(res instanceof DirectFetchResultSet);
+        assertEquals(expectedRows, toSortedRows(res));
+      } finally {
+        res.close();
+      }
+    } finally {
+      directClient.close();
+    }
+  }
+
+  @Test
+  public final void testDirectFetchResultSetWithInvalidToken() throws Exception {
+    ResultSet res = executeString(QUERY);
+    try {
+      QueryId queryId = ((FetchResultSet) res).getQueryId();
+      List<String> urls = new ArrayList<String>();
+      for (String url : getResultUrls(queryId)) {
+        urls.add(replaceParam(url, "token", "invalid"));
+      }
+
+      DirectFetchResultSet directResult = new DirectFetchResultSet(client, getResultDesc(queryId).getLogicalSchema(),
+          queryId, urls);
+      try {
+        directResult.next();
+        fail("The rows must not be read with an invalid token");
+      } catch (SQLException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("403"));
+      }
+    } finally {
+      cleanupQuery(res);
+    }
+  }
+}
@@ -30,7 +30,9 @@ import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -451,4 +453,83 @@ public class TestTajoResourceManager {
     }
   }
 
+  @Test
+  public void testLocalityAndLoadAwareAllocation() throws Exception {
+    TajoWorkerResourceManager tajoWorkerResourceManager = null;
+
+    try {
+      tajoWorkerResourceManager = initResourceManager();
+      QueryId queryId = QueryIdFactory.newQueryId(queryIdTime, 5);
+
+      // three fragments are located in host2, and one fragment is located in host4.
+      WorkerResourceAllocationRequest request = WorkerResourceAllocationRequest.newBuilder()
+          .setResourceRequestPriority(ResourceRequestPriority.DISK)
+          .setNumContainers(4)
+          .setQueryId(queryId.getProto())
+          .setMaxDiskSlotPerContainer(1.0f)
+          .setMinDiskSlotPerContainer(1.0f)
+          .setMinMemoryMBPerContainer(256)
+          .setMaxMemoryMBPerContainer(256)
+          .addPreferredHosts(HostLocalityProto.newBuilder().setHost("host2").setNumFragments(3))
+          .addPreferredHosts(HostLocalityProto.newBuilder().setHost("host4").setNumFragments(1))
+          .build();
+
+      List<TajoWorkerResourceManager.AllocatedWorkerResource> allocated = tajoWorkerResourceManager.chooseWorkers(
+          new TajoWorkerResourceManager.WorkerResourceRequest(queryId, false, request, null));
+      assertEquals(4, allocated.size());
+
+      Map<String, Integer> containersPerHost = new HashMap<String, Integer>();
+      for (TajoWorkerResourceManager.AllocatedWorkerResource eachAllocated : allocated) {
+        String host = eachAllocated.worker.getConnectionInfo().getHost();
+        Integer num = containersPerHost.get(host);
+        containersPerHost.put(host, num == null ? 1 : num + 1);
+      }
+      assertEquals(2, containersPerHost.size());
+      assertEquals(3, (int) containersPerHost.get("host2"));
+      assertEquals(1, (int) containersPerHost.get("host4"));
+
+      // a request without locality hints goes to the least loaded workers.
+      request = WorkerResourceAllocationRequest.newBuilder()
+          .setResourceRequestPriority(ResourceRequestPriority.MEMORY)
+          .setNumContainers(3)
+          .setQueryId(queryId.getProto())
+          .setMaxDiskSlotPerContainer(1.0f)
+          .setMinDiskSlotPerContainer(1.0f)
+          .setMinMemoryMBPerContainer(512)
+          .setMaxMemoryMBPerContainer(512)
+          .build();
+
+      allocated = tajoWorkerResourceManager.chooseWorkers(
+          new TajoWorkerResourceManager.WorkerResourceRequest(queryId, false, request, null));
+      assertEquals(3, allocated.size());
+      for (TajoWorkerResourceManager.AllocatedWorkerResource eachAllocated : allocated) {
+        String host = eachAllocated.worker.getConnectionInfo().getHost();
+        assertFalse(host, host.equals("host2") || host.equals("host4"));
+      }
+    } finally {
+      if (tajoWorkerResourceManager != null) {
+        tajoWorkerResourceManager.stop();
+      }
+    }
+  }
+
+  @Test
+  public void testTryAllocateResource() {
+    WorkerResource resource = new WorkerResource();
+    resource.setDiskSlots(1.0f);
+    resource.setMemoryMB(1024);
+
+    assertTrue(resource.tryAllocateResource(0.5f, 512));
+    assertFalse(resource.tryAllocateResource(0.6f, 256));
+    assertFalse(resource.tryAllocateResource(0.5f, 1024));
+    assertEquals(0.5f, resource.getUsedDiskSlots(), 0.0f);
+
+    // an allocation within the rounding tolerance is accepted, and releasing it must not drift the usage.
+    for (int i = 0; i < 100; i++) {
+      assertTrue(resource.tryAllocateResource(0.50005f, 256));
+      resource.releaseResource(0.50005f, 256);
+    }
+    assertEquals(0.5f, resource.getUsedDiskSlots(), 0.00001f);
+    assertEquals(512, resource.getUsedMemoryMB());
+  }
 }
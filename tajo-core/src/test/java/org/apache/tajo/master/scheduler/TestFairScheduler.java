@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.scheduler;
+
+import com.google.common.collect.Sets;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestFairScheduler {
+  private TajoConf conf;
+  private long seed;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    conf.setVar(ConfVars.FAIR_SCHEDULER_QUEUES, "etl,adhoc");
+    conf.setIntVar(ConfVars.FAIR_SCHEDULER_MAX_RUNNING, 3);
+    conf.setInt(FairScheduler.QUEUE_CONF_PREFIX + "etl" + FairScheduler.QUEUE_MAX_RUNNING_SUFFIX, 1);
+    conf.setInt(FairScheduler.QUEUE_CONF_PREFIX + "adhoc" + FairScheduler.QUEUE_WEIGHT_SUFFIX, 2);
+    seed = System.currentTimeMillis();
+  }
+
+  private QueryId newQueryId(int seq) {
+    return QueryIdFactory.newQueryId(seed, seq);
+  }
+
+  private static QueryId poll(FairScheduler scheduler, Set<QueryId> running) {
+    QueryId queryId = scheduler.pollSchedulableQuery(running);
+    if (queryId != null) {
+      running.add(queryId);
+    }
+    return queryId;
+  }
+
+  @Test
+  public final void testQueueCapacity() {
+    FairScheduler scheduler = new FairScheduler(null, conf);
+    scheduler.addQuery(newQueryId(1), "etl", "user1", 1);
+    scheduler.addQuery(newQueryId(2), "etl", "user1", 2);
+    scheduler.addQuery(newQueryId(3), "adhoc", "user2", 3);
+    scheduler.addQuery(newQueryId(4), "adhoc", "user2", 4);
+    scheduler.addQuery(newQueryId(5), "adhoc", "user2", 5);
+
+    Set<QueryId> running = Sets.newHashSet();
+    assertEquals(newQueryId(1), poll(scheduler, running));
+    // the etl queue is full, so adhoc queries run even though an older etl query is waiting.
+    assertEquals(newQueryId(3), poll(scheduler, running));
+    assertEquals(newQueryId(4), poll(scheduler, running));
+    // the maximum number of running queries
+    assertNull(poll(scheduler, running));
+    assertEquals(1, scheduler.getWaitingQueryNum("etl"));
+    assertEquals(1, scheduler.getWaitingQueryNum("adhoc"));
+    assertEquals(2, scheduler.getRunningQueryNum("adhoc"));
+
+    // the etl query is finished, and the etl queue has the smallest share.
+    running.remove(newQueryId(1));
+    assertEquals(newQueryId(2), poll(scheduler, running));
+    assertNull(poll(scheduler, running));
+    assertEquals(1, scheduler.getRunningQueryNum("etl"));
+  }
+
+  @Test
+  public final void testWeight() {
+    conf.setIntVar(ConfVars.FAIR_SCHEDULER_MAX_RUNNING, 10);
+    conf.setInt(FairScheduler.QUEUE_CONF_PREFIX + "etl" + FairScheduler.QUEUE_MAX_RUNNING_SUFFIX, 0);
+    FairScheduler scheduler = new FairScheduler(null, conf);
+    for (int i = 1; i <= 6; i++) {
+      scheduler.addQuery(newQueryId(i), i <= 3 ? "etl" : "adhoc", "user", i);
+    }
+
+    Set<QueryId> running = Sets.newHashSet();
+    assertEquals(newQueryId(1), poll(scheduler, running)); // etl 1/1, adhoc 0/2
+    assertEquals(newQueryId(4), poll(scheduler, running)); // etl 1/1, adhoc 1/2
+    assertEquals(newQueryId(5), poll(scheduler, running)); // etl 1/1, adhoc 2/2
+    assertEquals(newQueryId(2), poll(scheduler, running)); // etl 2/1, adhoc 2/2
+    assertEquals(newQueryId(6), poll(scheduler, running));
+    assertEquals(newQueryId(3), poll(scheduler, running));
+    assertNull(poll(scheduler, running));
+  }
+
+  @Test
+  public final void testUserLimitAndRouting() {
+    conf.setIntVar(ConfVars.FAIR_SCHEDULER_USER_MAX_RUNNING, 1);
+    FairScheduler scheduler = new FairScheduler(null, conf);
+    // an unknown queue is routed to the first queue
+    scheduler.addQuery(newQueryId(1), "unknown", "user1", 1);
+    scheduler.addQuery(newQueryId(2), "adhoc", "user1", 2);
+    scheduler.addQuery(newQueryId(3), "adhoc", "user2", 3);
+    assertEquals(1, scheduler.getWaitingQueryNum("etl"));
+
+    Set<QueryId> running = Sets.newHashSet();
+    assertEquals(newQueryId(1), poll(scheduler, running));
+    // user1 already runs a query
+    assertEquals(newQueryId(3), poll(scheduler, running));
+    assertNull(poll(scheduler, running));
+
+    assertTrue(scheduler.removeQuery(newQueryId(2)));
+    assertEquals(0, scheduler.getWaitingQueryNum("adhoc"));
+  }
+}
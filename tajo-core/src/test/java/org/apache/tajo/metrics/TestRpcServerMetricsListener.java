@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.metrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import org.apache.tajo.util.metrics.TajoMetrics;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TestRpcServerMetricsListener {
+  private static final String GROUP_NAME = "test";
+
+  private static Histogram getInFlights(TajoMetrics metrics, String name) {
+    return metrics.getHistogramMetrics(null).get(TajoMetrics.makeMetricsName(GROUP_NAME, "rpc", name + ".inflight"));
+  }
+
+  private static Timer getLatencies(TajoMetrics metrics, String name) {
+    return metrics.getTimerMetrics(null).get(TajoMetrics.makeMetricsName(GROUP_NAME, "rpc", name));
+  }
+
+  @Test
+  public void testMetricsOfEachMethod() {
+    TajoMetrics metrics = new TajoMetrics(GROUP_NAME);
+    RpcServerMetricsListener listener = new RpcServerMetricsListener(metrics);
+
+    listener.onCallStarted("QueryMaster", "getTasks", 1);
+    listener.onCallStarted("QueryMaster", "getTasks", 2);
+    listener.onCallStarted("QueryMaster", "statusUpdate", 1);
+    listener.onCallFinished("QueryMaster", "getTasks", TimeUnit.MILLISECONDS.toNanos(10));
+    listener.onCallFinished("QueryMaster", "getTasks", TimeUnit.MILLISECONDS.toNanos(30));
+
+    Histogram inFlights = getInFlights(metrics, "QueryMaster.getTasks");
+    assertEquals(2, inFlights.getCount());
+    assertEquals(2, inFlights.getSnapshot().getMax());
+    Timer latencies = getLatencies(metrics, "QueryMaster.getTasks");
+    assertEquals(2, latencies.getCount());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(30), latencies.getSnapshot().getMax());
+
+    // each method has its own metrics
+    assertEquals(1, getInFlights(metrics, "QueryMaster.statusUpdate").getCount());
+    assertNull(getLatencies(metrics, "QueryMaster.statusUpdate"));
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class TestDiskReadScheduler {
+  private static final String DISK1 = "/disk1";
+  private static final String DISK2 = "/disk2";
+
+  /**
+   * An executor which runs reads only when a test asks, so that a read keeps its slot until then.
+   */
+  private static class ManualExecutor implements Executor {
+    final LinkedList<Runnable> reads = new LinkedList<Runnable>();
+
+    @Override
+    public void execute(Runnable command) {
+      reads.add(command);
+    }
+
+    void runNext() {
+      reads.removeFirst().run();
+    }
+  }
+
+  private static class NamedRead implements Runnable {
+    final String name;
+    final List<String> done;
+
+    NamedRead(String name, List<String> done) {
+      this.name = name;
+      this.done = done;
+    }
+
+    @Override
+    public void run() {
+      done.add(name);
+    }
+  }
+
+  private static DiskReadScheduler newScheduler(int maxConcurrentReads, int maxPendingTransfers, int maxBandwidthMb,
+                                                Executor readers) {
+    TajoConf conf = new TajoConf();
+    conf.setIntVar(ConfVars.PULLSERVER_DISK_MAX_CONCURRENT_READS, maxConcurrentReads);
+    conf.setIntVar(ConfVars.PULLSERVER_DISK_MAX_PENDING_TRANSFERS, maxPendingTransfers);
+    conf.setIntVar(ConfVars.PULLSERVER_MAX_BANDWIDTH_MB, maxBandwidthMb);
+    List<String> mountPaths = new ArrayList<String>();
+    mountPaths.add(DISK1);
+    mountPaths.add(DISK2);
+    return new DiskReadScheduler(conf, new String[]{DISK1 + "/tajo", DISK2 + "/tajo"}, mountPaths, readers);
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    TajoConf conf = new TajoConf();
+    DiskReadScheduler scheduler = new DiskReadScheduler(conf, new String[]{DISK1 + "/tajo"},
+        new ArrayList<String>(), new ManualExecutor());
+    assertFalse(scheduler.isEnabled());
+  }
+
+  @Test
+  public void testElevatorOrder() throws Exception {
+    ManualExecutor readers = new ManualExecutor();
+    DiskReadScheduler scheduler = newScheduler(1, 0, 0, readers);
+    DiskReadScheduler.Transfer transfer = scheduler.begin(new File(DISK1 + "/tajo/b"));
+    List<String> done = new ArrayList<String>();
+
+    transfer.read(new File(DISK1 + "/tajo/b"), 50, 10, new NamedRead("b@50", done));
+    assertEquals(1, scheduler.getRunningReads(DISK1));
+
+    transfer.read(new File(DISK1 + "/tajo/a"), 0, 10, new NamedRead("a@0", done));
+    transfer.read(new File(DISK1 + "/tajo/c"), 0, 10, new NamedRead("c@0", done));
+    transfer.read(new File(DISK1 + "/tajo/b"), 100, 10, new NamedRead("b@100", done));
+    transfer.read(new File(DISK1 + "/tajo/b"), 0, 10, new NamedRead("b@0", done));
+    assertEquals(4, scheduler.getQueuedReads(DISK1));
+
+    // the reads after the last read position go first, and then it wraps around
+    for (int i = 0; i < 5; i++) {
+      readers.runNext();
+    }
+    assertEquals("[b@50, b@100, c@0, a@0, b@0]", done.toString());
+    assertEquals(0, scheduler.getQueuedReads(DISK1));
+    assertEquals(0, scheduler.getRunningReads(DISK1));
+    assertEquals(5, scheduler.getStartedReads());
+  }
+
+  @Test
+  public void testMaxConcurrentReadsPerDisk() throws Exception {
+    ManualExecutor readers = new ManualExecutor();
+    DiskReadScheduler scheduler = newScheduler(2, 0, 0, readers);
+    assertEquals(2, scheduler.getDiskNames().size());
+    List<String> done = new ArrayList<String>();
+
+    DiskReadScheduler.Transfer transfer = scheduler.begin(new File(DISK1 + "/tajo/part0"));
+    for (int i = 0; i < 3; i++) {
+      transfer.read(new File(DISK1 + "/tajo/part" + i), 0, 10, new NamedRead("disk1-" + i, done));
+    }
+    // the pieces of a transfer are read from the disks storing their files
+    transfer.read(new File(DISK2 + "/tajo/part0"), 0, 10, new NamedRead("disk2-0", done));
+
+    // each disk has its own limit
+    assertEquals(2, scheduler.getRunningReads(DISK1));
+    assertEquals(1, scheduler.getQueuedReads(DISK1));
+    assertEquals(1, scheduler.getRunningReads(DISK2));
+    assertEquals(0, scheduler.getQueuedReads(DISK2));
+
+    // a read releases its slot as soon as it returns
+    readers.runNext();
+    assertEquals(2, scheduler.getRunningReads(DISK1));
+    assertEquals(0, scheduler.getQueuedReads(DISK1));
+    assertEquals(3, readers.reads.size());
+
+    while (!readers.reads.isEmpty()) {
+      readers.runNext();
+    }
+    assertEquals(4, done.size());
+    assertEquals(0, scheduler.getRunningReads(DISK1));
+    assertEquals(0, scheduler.getRunningReads(DISK2));
+  }
+
+  @Test
+  public void testFailedReadReleasesSlot() throws Exception {
+    ManualExecutor readers = new ManualExecutor();
+    DiskReadScheduler scheduler = newScheduler(1, 0, 0, readers);
+    List<String> done = new ArrayList<String>();
+
+    DiskReadScheduler.Transfer transfer = scheduler.begin(new File(DISK1 + "/tajo/a"));
+    transfer.read(new File(DISK1 + "/tajo/a"), 0, 10, new Runnable() {
+      @Override
+      public void run() {
+        throw new RuntimeException("broken disk");
+      }
+    });
+    transfer.read(new File(DISK1 + "/tajo/b"), 0, 10, new NamedRead("b", done));
+    assertEquals(1, scheduler.getQueuedReads(DISK1));
+
+    readers.runNext();
+    readers.runNext();
+    assertEquals("[b]", done.toString());
+    assertEquals(0, scheduler.getRunningReads(DISK1));
+  }
+
+  @Test
+  public void testMaxPendingTransfers() throws Exception {
+    DiskReadScheduler scheduler = newScheduler(1, 2, 0, new ManualExecutor());
+
+    DiskReadScheduler.Transfer first = scheduler.begin(new File(DISK1 + "/tajo/a"));
+    assertNotNull(first);
+    assertNotNull(scheduler.begin(new File(DISK1 + "/tajo/b")));
+    assertNull(scheduler.begin(new File(DISK1 + "/tajo/c")));
+    // each disk has its own limit
+    assertNotNull(scheduler.begin(new File(DISK2 + "/tajo/c")));
+    assertEquals(2, scheduler.getPendingTransfers(DISK1));
+    assertEquals(1, scheduler.getRejectedTransfers());
+
+    // finishing a transfer twice frees only one place
+    first.finish();
+    first.finish();
+    assertEquals(1, scheduler.getPendingTransfers(DISK1));
+    assertNotNull(scheduler.begin(new File(DISK1 + "/tajo/c")));
+    assertNull(scheduler.begin(new File(DISK1 + "/tajo/d")));
+    assertEquals(2, scheduler.getRejectedTransfers());
+  }
+
+  @Test
+  public void testTokenBucket() throws Exception {
+    DiskReadScheduler scheduler = newScheduler(1, 0, 1, new ManualExecutor());
+    assertTrue(scheduler.isEnabled());
+    DiskReadScheduler.Transfer transfer = scheduler.begin(new File(DISK1 + "/tajo/a"));
+
+    // the bucket is full at first, and each piece is charged when it is read
+    long mb = 1024 * 1024;
+    assertEquals(0, transfer.acquire(mb / 2));
+    assertEquals(0, transfer.acquire(mb / 2));
+    long delayNanos = transfer.acquire(mb / 2);
+    assertTrue(delayNanos > 400 * 1000 * 1000L);
+    assertTrue(delayNanos <= 500 * 1000 * 1000L);
+
+    // the waiting pieces are charged in advance
+    assertTrue(transfer.acquire(mb / 2) > delayNanos);
+
+    // the read bytes are cumulative, so reading them does not reset them
+    assertEquals(2 * mb, scheduler.getReadBytes());
+    assertEquals(2 * mb, scheduler.getReadBytes());
+  }
+
+  @Test
+  public void testUnlimitedBandwidth() throws Exception {
+    DiskReadScheduler scheduler = newScheduler(1, 0, 0, new ManualExecutor());
+    DiskReadScheduler.Transfer transfer = scheduler.begin(new File(DISK1 + "/tajo/a"));
+    for (int i = 0; i < 10; i++) {
+      assertEquals(0, transfer.acquire(1024 * 1024 * 1024));
+    }
+  }
+}
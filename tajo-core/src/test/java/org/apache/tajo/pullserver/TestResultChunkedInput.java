@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.pullserver;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.RowStoreUtil.RowStoreDecoder;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class TestResultChunkedInput {
+  private Schema schema;
+  private ChannelHandlerContext ctx;
+  private ChunkedWriteHandler writer;
+  // reads chunks in the calling thread, so that a chunk is returned at once
+  private Executor directExecutor;
+
+  @Before
+  public void setUp() throws Exception {
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    ctx = mock(ChannelHandlerContext.class);
+    when(ctx.alloc()).thenReturn(UnpooledByteBufAllocator.DEFAULT);
+    writer = mock(ChunkedWriteHandler.class);
+    when(ctx.handler()).thenReturn(writer);
+    directExecutor = MoreExecutors.sameThreadExecutor();
+  }
+
+  private static Scanner newScanner(final int rowNum, final String name) throws Exception {
+    Scanner scanner = mock(Scanner.class);
+    when(scanner.next()).thenAnswer(new Answer<Tuple>() {
+      private int next = 0;
+
+      @Override
+      public Tuple answer(InvocationOnMock invocation) throws Throwable {
+        if (next >= rowNum) {
+          return null;
+        }
+        VTuple tuple = new VTuple(2);
+        tuple.put(0, DatumFactory.createInt4(next++));
+        tuple.put(1, DatumFactory.createText(name));
+        return tuple;
+      }
+    });
+    return scanner;
+  }
+
+  /**
+   * @return the ids of the rows in the chunks
+   */
+  private List<Integer> readAll(ResultChunkedInput input, List<ByteBuf> chunks) throws Exception {
+    RowStoreDecoder decoder = RowStoreUtil.createDecoder(schema);
+    List<Integer> ids = new ArrayList<Integer>();
+    while (!input.isEndOfInput()) {
+      HttpContent content = input.readChunk(ctx);
+      assertNotNull(content);
+      ByteBuf chunk = content.content();
+      chunks.add(chunk);
+      while (chunk.isReadable()) {
+        int length = chunk.readInt();
+        if (length == ResultChunkedInput.END_OF_ROWS) {
+          assertFalse(chunk.isReadable());
+          assertTrue(input.isEndOfInput());
+          assertTrue(content instanceof LastHttpContent);
+          break;
+        }
+        byte[] row = new byte[length];
+        chunk.readBytes(row);
+        ids.add(decoder.toTuple(row).getInt4(0));
+      }
+    }
+    assertNull(input.readChunk(ctx));
+    return ids;
+  }
+
+  @Test
+  public void testEmptyResult() throws Exception {
+    Scanner scanner = newScanner(0, "a");
+    ResultChunkedInput input = new ResultChunkedInput(scanner, schema, directExecutor);
+    List<ByteBuf> chunks = new ArrayList<ByteBuf>();
+    assertTrue(readAll(input, chunks).isEmpty());
+    assertEquals(1, chunks.size());
+    assertEquals(4, chunks.get(0).writerIndex());
+
+    input.close();
+    verify(scanner).close();
+  }
+
+  @Test
+  public void testMultipleChunks() throws Exception {
+    StringBuilder name = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      name.append('x');
+    }
+    int rowNum = 1000;
+    ResultChunkedInput input = new ResultChunkedInput(newScanner(rowNum, name.toString()), schema, directExecutor);
+    List<ByteBuf> chunks = new ArrayList<ByteBuf>();
+    List<Integer> ids = readAll(input, chunks);
+
+    assertEquals(rowNum, ids.size());
+    for (int i = 0; i < rowNum; i++) {
+      assertEquals(i, ids.get(i).intValue());
+    }
+    // about 1MB of rows are split into chunks of 64KB
+    assertTrue(chunks.size() > 1);
+  }
+
+  @Test
+  public void testScannerError() throws Exception {
+    Scanner scanner = mock(Scanner.class);
+    when(scanner.next()).thenThrow(new IOException("broken file"));
+    ResultChunkedInput input = new ResultChunkedInput(scanner, schema, directExecutor);
+    try {
+      input.readChunk(ctx);
+      fail("The error of the scanner must be thrown");
+    } catch (IOException e) {
+      assertEquals("broken file", e.getMessage());
+    }
+    assertFalse(input.isEndOfInput());
+  }
+
+  @Test
+  public void testReadInExecutor() throws Exception {
+    final Scanner scanner = newScanner(10, "a");
+    final CountDownLatch released = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      ResultChunkedInput input = new ResultChunkedInput(scanner, schema, new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+          executor.execute(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                released.await();
+              } catch (InterruptedException e) {
+                return;
+              }
+              command.run();
+            }
+          });
+        }
+      });
+
+      // the caller is not blocked until the chunk is read
+      assertNull(input.readChunk(ctx));
+      assertNull(input.readChunk(ctx));
+      assertFalse(input.isEndOfInput());
+      verify(writer, never()).resumeTransfer();
+
+      released.countDown();
+      verify(writer, timeout(10000)).resumeTransfer();
+      HttpContent content = input.readChunk(ctx);
+      assertTrue(content instanceof LastHttpContent);
+      assertTrue(input.isEndOfInput());
+      content.release();
+
+      input.close();
+      verify(scanner).close();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCloseWhileReading() throws Exception {
+    final Scanner scanner = newScanner(10, "a");
+    final List<Runnable> commands = new ArrayList<Runnable>();
+    ResultChunkedInput input = new ResultChunkedInput(scanner, schema, new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        commands.add(command);
+      }
+    });
+
+    assertNull(input.readChunk(ctx));
+    input.close();
+    // the scanner is still used by the chunk being read
+    verify(scanner, never()).close();
+
+    assertEquals(1, commands.size());
+    commands.get(0).run();
+    verify(scanner).close();
+    verify(writer, never()).resumeTransfer();
+    assertNull(input.readChunk(ctx));
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.fragment.Fragment;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestFragmentPacking {
+  private static final long MB = 1024 * 1024;
+
+  private static FileFragment newFragment(String path, long length, String host) {
+    return new FileFragment("t1", new Path(path), 0, length, new String[]{host});
+  }
+
+  private static long totalLength(List<Fragment> fragments) {
+    long length = 0;
+    for (Fragment fragment : fragments) {
+      length += fragment.getLength();
+    }
+    return length;
+  }
+
+  @Test
+  public void testPackSmallFragments() {
+    List<Fragment> fragments = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      fragments.add(newFragment("hdfs://localhost/t1/file" + i, 30 * MB, "host1"));
+    }
+    fragments.add(newFragment("hdfs://localhost/t1/large", 200 * MB, "host1"));
+
+    List<List<Fragment>> packed = Stage.packFragments(fragments, 128 * MB);
+    // a large fragment is not packed, and small fragments are packed by four
+    assertEquals(4, packed.size());
+    assertEquals(1, packed.get(0).size());
+    assertEquals(200 * MB, totalLength(packed.get(0)));
+    assertEquals(120 * MB, totalLength(packed.get(1)));
+    assertEquals(120 * MB, totalLength(packed.get(2)));
+    assertEquals(60 * MB, totalLength(packed.get(3)));
+  }
+
+  @Test
+  public void testNotMixDirectoriesAndHosts() {
+    List<Fragment> fragments = Lists.newArrayList();
+    fragments.add(newFragment("hdfs://localhost/t1/key=1/file1", 10 * MB, "host1"));
+    fragments.add(newFragment("hdfs://localhost/t1/key=1/file2", 10 * MB, "host1"));
+    fragments.add(newFragment("hdfs://localhost/t1/key=2/file1", 10 * MB, "host1"));
+    fragments.add(newFragment("hdfs://localhost/t1/key=1/file3", 10 * MB, "host2"));
+
+    List<List<Fragment>> packed = Stage.packFragments(fragments, 128 * MB);
+    assertEquals(3, packed.size());
+    for (List<Fragment> group : packed) {
+      Path parent = ((FileFragment) group.get(0)).getPath().getParent();
+      String host = group.get(0).getHosts()[0];
+      for (Fragment fragment : group) {
+        assertEquals(parent, ((FileFragment) fragment).getPath().getParent());
+        assertEquals(host, fragment.getHosts()[0]);
+      }
+    }
+    assertEquals(20 * MB, totalLength(packed.get(0)));
+  }
+
+  @Test
+  public void testPackingDisabled() {
+    List<Fragment> fragments = Lists.newArrayList();
+    fragments.add(newFragment("hdfs://localhost/t1/file1", 10 * MB, "host1"));
+    fragments.add(newFragment("hdfs://localhost/t1/file2", 30 * MB, "host1"));
+
+    List<List<Fragment>> packed = Stage.packFragments(fragments, 0);
+    assertEquals(2, packed.size());
+    // groups are ordered by descending length
+    assertTrue(totalLength(packed.get(0)) > totalLength(packed.get(1)));
+  }
+}
@@ -0,0 +1,299 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.*;
+import org.apache.tajo.benchmark.TPCH;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.client.TajoClient;
+import org.apache.tajo.client.TajoClientUtil;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.ipc.ClientProtos;
+import org.apache.tajo.ipc.TajoWorkerProtocol.IntermediateEntryProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.StageCheckpointProto;
+import org.apache.tajo.master.QueryInProgress;
+import org.apache.tajo.master.QueryInfo;
+import org.apache.tajo.querymaster.Task.IntermediateEntry;
+import org.apache.tajo.querymaster.Task.PullHost;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.util.Pair;
+import org.apache.tajo.worker.TajoWorker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestQueryCheckpoint {
+  private static final Log LOG = LogFactory.getLog(TestQueryCheckpoint.class);
+
+  private TajoConf conf;
+  private Path stagingDir;
+  private QueryId queryId;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    stagingDir = CommonTestingUtil.getTestDir();
+    queryId = QueryIdFactory.newQueryId(System.currentTimeMillis(), 1);
+  }
+
+  private static IntermediateEntry newEntry(int taskId, int partId, String host) {
+    IntermediateEntry entry = new IntermediateEntry(taskId, 0, partId, new PullHost(host, 28092), 1024);
+    List<Pair<Long, Integer>> pages = Lists.newArrayList();
+    pages.add(new Pair<Long, Integer>(0L, 512));
+    pages.add(new Pair<Long, Integer>(512L, 512));
+    entry.setPages(pages);
+    return entry;
+  }
+
+  private StageCheckpointProto newCheckpoint(ExecutionBlockId ebId, String digest, long numRows) {
+    TableStats stats = new TableStats();
+    stats.setNumRows(numRows);
+    stats.setNumBytes(numRows * 10);
+
+    return StageCheckpointProto.newBuilder()
+        .setEbId(ebId.getProto())
+        .setMasterPlanDigest(digest)
+        .setResultStats(stats.getProto())
+        .addHashShuffleEntries(QueryCheckpoint.toProto(ebId, newEntry(1, 3, "host1")))
+        .addTaskIntermediateEntries(QueryCheckpoint.toProto(ebId, newEntry(2, 0, "host2")))
+        .build();
+  }
+
+  @Test
+  public void testIntermediateEntryProto() {
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(queryId, 1);
+    IntermediateEntryProto proto = QueryCheckpoint.toProto(ebId, newEntry(1, 3, "host1"));
+    IntermediateEntry restored = new IntermediateEntry(proto);
+
+    // an entry without an execution block id takes the id of its stage
+    assertEquals(ebId, restored.getEbId());
+    assertEquals(1, restored.getTaskId());
+    assertEquals(0, restored.getAttemptId());
+    assertEquals(3, restored.getPartId());
+    assertEquals("host1", restored.getPullHost().getHost());
+    assertEquals(28092, restored.getPullHost().getPort());
+    assertEquals(1024, restored.getVolume());
+    assertEquals(2, restored.getPages().size());
+    assertEquals(512L, restored.getPages().get(1).getFirst().longValue());
+    assertEquals(512, restored.getPages().get(1).getSecond().intValue());
+  }
+
+  @Test
+  public void testWriteAndLoad() throws Exception {
+    ExecutionBlockId ebId1 = QueryIdFactory.newExecutionBlockId(queryId, 1);
+    ExecutionBlockId ebId2 = QueryIdFactory.newExecutionBlockId(queryId, 2);
+
+    QueryCheckpoint checkpoint = new QueryCheckpoint(conf, stagingDir, "digest");
+    checkpoint.write(newCheckpoint(ebId1, "digest", 100));
+    checkpoint.write(newCheckpoint(ebId2, "digest", 200));
+    assertEquals(2, checkpoint.size());
+
+    // a recovered QueryMaster loads checkpoints from the same staging directory
+    QueryCheckpoint recovered = new QueryCheckpoint(conf, stagingDir, "digest");
+    assertEquals(2, recovered.load());
+    assertTrue(recovered.hasCheckpoint(ebId1));
+    assertTrue(recovered.hasCheckpoint(ebId2));
+    assertFalse(recovered.hasCheckpoint(QueryIdFactory.newExecutionBlockId(queryId, 3)));
+
+    StageCheckpointProto loaded = recovered.getCheckpoint(ebId2);
+    assertEquals(200, new TableStats(loaded.getResultStats()).getNumRows().longValue());
+    assertEquals(1, loaded.getHashShuffleEntriesCount());
+    assertEquals(1, loaded.getTaskIntermediateEntriesCount());
+    assertEquals("host2", new IntermediateEntry(loaded.getTaskIntermediateEntries(0)).getPullHost().getHost());
+  }
+
+  @Test
+  public void testIgnoreCheckpointsOfDifferentPlan() throws Exception {
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(queryId, 1);
+
+    QueryCheckpoint checkpoint = new QueryCheckpoint(conf, stagingDir, "digest1");
+    checkpoint.write(newCheckpoint(ebId, "digest1", 100));
+
+    QueryCheckpoint recovered = new QueryCheckpoint(conf, stagingDir, "digest2");
+    assertEquals(0, recovered.load());
+    assertFalse(recovered.hasCheckpoint(ebId));
+  }
+
+  @Test
+  public void testLoadWithoutCheckpoints() throws Exception {
+    QueryCheckpoint checkpoint = new QueryCheckpoint(conf, stagingDir, "digest");
+    assertEquals(0, checkpoint.load());
+  }
+
+  /**
+   * It kills the worker running the QueryMaster of a query in the middle of the query. The query fails without
+   * checkpoints. With checkpoints, it is completed by a relaunched QueryMaster, which restores the checkpointed
+   * stages whose intermediate data are kept by live workers and executes the others again.
+   */
+  @Test(timeout = 300000)
+  public void testKillQueryMasterMidQuery() throws Exception {
+    TajoTestingCluster cluster = new TajoTestingCluster();
+    // a killed worker is considered lost after 3 seconds
+    cluster.getConfiguration().setIntVar(TajoConf.ConfVars.RESOURCE_TRACKER_HEARTBEAT_TIMEOUT, 3000);
+    cluster.getConfiguration().setIntVar(TajoConf.ConfVars.QUERYMASTER_FAILOVER_MAX_ATTEMPTS, 1);
+    cluster.startMiniCluster(3);
+
+    TajoClient client = cluster.newTajoClient();
+    try {
+      File file = TPCH.getDataFile("lineitem");
+      client.executeQueryAndGetResult("create external table default.lineitem (l_orderkey int, l_partkey int) "
+          + "using text location 'file://" + file.getAbsolutePath() + "'");
+      assertTrue(client.existTable("default.lineitem"));
+
+      // The inner aggregation sleeps a second for each of 5 rows, and the outer one for each of 3 groups.
+      // So, the query is still running for a few seconds after the first stage is checkpointed.
+      String query = "select l_orderkey, sum(sleep(1)) as cnt from "
+          + "(select l_orderkey, sum(sleep(1)) as s from lineitem group by l_orderkey) t "
+          + "group by l_orderkey order by l_orderkey";
+
+      Map<String, String> vars = Maps.newHashMap();
+      vars.put(SessionVars.CHECKPOINT_ENABLED.keyname(), "false");
+      client.updateSessionVariables(vars);
+
+      QueryId queryId = submitQuery(cluster, client, query);
+      getQueryMasterWorker(cluster, queryId).stopWorkerForce();
+      assertEquals(TajoProtos.QueryState.QUERY_FAILED, waitForQueryComplete(client, queryId));
+      assertEquals(1, getFinishedQuery(cluster, queryId).getQueryContext().getQueryMasterAttempt());
+
+      vars.put(SessionVars.CHECKPOINT_ENABLED.keyname(), "true");
+      client.updateSessionVariables(vars);
+
+      queryId = submitQuery(cluster, client, query);
+      TajoWorker killedWorker = getQueryMasterWorker(cluster, queryId);
+      QueryMasterTask queryMasterTask = killedWorker.getWorkerContext().getQueryMaster()
+          .getQueryMasterTask(queryId, true);
+      while (queryMasterTask.getQueryTaskContext().getCheckpoint() == null
+          || queryMasterTask.getQueryTaskContext().getCheckpoint().size() == 0) {
+        Thread.sleep(100);
+      }
+      QueryCheckpoint checkpoint = queryMasterTask.getQueryTaskContext().getCheckpoint();
+      assertFalse(TajoClientUtil.isQueryComplete(client.getQueryStatus(queryId).getState()));
+
+      long killTime = System.currentTimeMillis();
+      killedWorker.stopWorkerForce();
+      PullHost killedHost = new PullHost(killedWorker.getWorkerContext().getConnectionInfo().getHost(),
+          killedWorker.getWorkerContext().getConnectionInfo().getPullServerPort());
+
+      // the recovery time consists of the detection of the lost worker and the execution of remaining stages
+      long relaunchTime = -1;
+      TajoProtos.QueryState state = client.getQueryStatus(queryId).getState();
+      while (!TajoClientUtil.isQueryComplete(state)) {
+        if (relaunchTime < 0 && getQueryMasterAttempt(cluster, queryId) > 1) {
+          relaunchTime = System.currentTimeMillis() - killTime;
+        }
+        Thread.sleep(100);
+        state = client.getQueryStatus(queryId).getState();
+      }
+      long recoveryTime = System.currentTimeMillis() - killTime;
+      LOG.info("QueryMaster of " + queryId + " is relaunched in " + relaunchTime + " ms, and the query is recovered in "
+          + recoveryTime + " ms");
+
+      assertEquals(TajoProtos.QueryState.QUERY_SUCCEEDED, state);
+      assertEquals(2, getFinishedQuery(cluster, queryId).getQueryContext().getQueryMasterAttempt());
+      assertTrue(relaunchTime > 0);
+      assertTrue(recoveryTime < 60000);
+
+      // a checkpointed stage is restored only if all of its intermediate data are kept by live workers
+      QueryMasterTask recovered = null;
+      for (TajoWorker eachWorker : cluster.getTajoWorkers()) {
+        if (eachWorker != killedWorker) {
+          QueryMasterTask qmt = eachWorker.getWorkerContext().getQueryMaster().getQueryMasterTask(queryId, true);
+          recovered = qmt != null ? qmt : recovered;
+        }
+      }
+      assertNotNull(recovered);
+      int numCheckpointedStages = 0;
+      for (Stage stage : recovered.getQuery().getStages()) {
+        if (checkpoint.hasCheckpoint(stage.getId())) {
+          numCheckpointedStages++;
+          boolean outputAlive = !QueryCheckpoint.getPullHosts(checkpoint.getCheckpoint(stage.getId()))
+              .contains(killedHost);
+          assertEquals(stage.getId().toString(), outputAlive, stage.isRecovered());
+        } else {
+          assertFalse(stage.getId().toString(), stage.isRecovered());
+        }
+      }
+      assertTrue(numCheckpointedStages > 0);
+
+      ResultSet res = client.getQueryResult(queryId);
+      try {
+        for (int orderKey = 1; orderKey <= 3; orderKey++) {
+          assertTrue(res.next());
+          assertEquals(orderKey, res.getInt(1));
+          assertEquals(1, res.getLong(2));
+        }
+        assertFalse(res.next());
+      } finally {
+        res.close();
+      }
+    } finally {
+      client.close();
+      cluster.shutdownMiniCluster();
+    }
+  }
+
+  private static QueryId submitQuery(TajoTestingCluster cluster, TajoClient client, String query) throws Exception {
+    ClientProtos.SubmitQueryResponse response = client.executeQuery(query);
+    QueryId queryId = new QueryId(response.getQueryId());
+    cluster.waitForQuerySubmitted(queryId);
+    return queryId;
+  }
+
+  private static TajoWorker getQueryMasterWorker(TajoTestingCluster cluster, QueryId queryId) {
+    QueryInfo queryInfo = cluster.getMaster().getContext().getQueryJobManager().getQueryInProgress(queryId)
+        .getQueryInfo();
+    for (TajoWorker eachWorker : cluster.getTajoWorkers()) {
+      if (eachWorker.getWorkerContext().getConnectionInfo().getQueryMasterPort() == queryInfo.getQueryMasterPort()) {
+        return eachWorker;
+      }
+    }
+    fail("No worker runs the QueryMaster of " + queryId);
+    return null;
+  }
+
+  private static int getQueryMasterAttempt(TajoTestingCluster cluster, QueryId queryId) {
+    QueryInProgress queryInProgress = cluster.getMaster().getContext().getQueryJobManager()
+        .getQueryInProgress(queryId);
+    return queryInProgress != null ? queryInProgress.getQueryMasterAttempt() : 0;
+  }
+
+  private static TajoProtos.QueryState waitForQueryComplete(TajoClient client, QueryId queryId) throws Exception {
+    TajoProtos.QueryState state = client.getQueryStatus(queryId).getState();
+    while (!TajoClientUtil.isQueryComplete(state)) {
+      Thread.sleep(500);
+      state = client.getQueryStatus(queryId).getState();
+    }
+    return state;
+  }
+
+  private static QueryInfo getFinishedQuery(TajoTestingCluster cluster, QueryId queryId) {
+    return cluster.getMaster().getContext().getQueryJobManager().getFinishedQuery(queryId);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.benchmark.TPCH;
+import org.apache.tajo.catalog.CatalogService;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.engine.planner.global.ExecutionBlock;
+import org.apache.tajo.engine.planner.global.ExecutionBlockCursor;
+import org.apache.tajo.engine.planner.global.GlobalPlanner;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.plan.LogicalOptimizer;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.LogicalPlanner;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.tajo.TajoConstants.DEFAULT_DATABASE_NAME;
+import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
+import static org.junit.Assert.*;
+
+public class TestSubplanFingerprinter {
+  private static TajoTestingCluster util;
+  private static TajoConf conf;
+  private static CatalogService catalog;
+  private static GlobalPlanner planner;
+  private static SQLAnalyzer analyzer;
+  private static LogicalPlanner logicalPlanner;
+  private static LogicalOptimizer optimizer;
+  private static Path lineitemPath;
+
+  private static final String GROUP_BY =
+      "select l_orderkey, sum(l_quantity) from lineitem group by l_orderkey";
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    util = new TajoTestingCluster();
+    util.startCatalogCluster();
+
+    conf = util.getConfiguration();
+    conf.set(TajoConf.ConfVars.$TEST_BROADCAST_JOIN_ENABLED.varname, "false");
+
+    catalog = util.getMiniCatalogCluster().getCatalog();
+    catalog.createTablespace(DEFAULT_TABLESPACE_NAME, "hdfs://localhost:!234/warehouse");
+    catalog.createDatabase(DEFAULT_DATABASE_NAME, DEFAULT_TABLESPACE_NAME);
+    TPCH tpch = new TPCH();
+    tpch.loadSchemas();
+    tpch.loadOutSchema();
+    for (String table : new String[] {"lineitem", "orders"}) {
+      Path path = CommonTestingUtil.getTestDir();
+      writeFile(new Path(path, "data0.tbl"));
+      if (table.equals("lineitem")) {
+        lineitemPath = path;
+      }
+
+      TableMeta m = CatalogUtil.newTableMeta(CatalogProtos.StoreType.CSV);
+      TableDesc d = CatalogUtil.newTableDesc(
+          CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, table), tpch.getSchema(table), m, path);
+      TableStats stats = new TableStats();
+      stats.setNumBytes(TPCH.tableVolumes.get(table));
+      d.setStats(stats);
+      catalog.createTable(d);
+    }
+
+    analyzer = new SQLAnalyzer();
+    logicalPlanner = new LogicalPlanner(catalog);
+    optimizer = new LogicalOptimizer(conf);
+    planner = new GlobalPlanner(conf, catalog);
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    util.shutdownCatalogCluster();
+  }
+
+  private static void writeFile(Path path) throws Exception {
+    FileSystem fs = path.getFileSystem(conf);
+    FSDataOutputStream out = fs.create(path);
+    out.write("1|1|1|1|1.0\n".getBytes());
+    out.close();
+  }
+
+  private static MasterPlan buildPlan(String sql) throws Exception {
+    Expr expr = analyzer.parse(sql);
+    LogicalPlan logicalPlan = logicalPlanner.createPlan(LocalTajoTestingUtility.createDummyContext(conf), expr);
+    optimizer.optimize(logicalPlan);
+    MasterPlan plan = new MasterPlan(LocalTajoTestingUtility.newQueryId(), new QueryContext(conf), logicalPlan);
+    planner.build(plan);
+    return plan;
+  }
+
+  /**
+   * @return the fingerprints of the leaf blocks of a given query
+   */
+  private static Set<String> leafFingerprints(String sql) throws Exception {
+    MasterPlan plan = buildPlan(sql);
+    Map<ExecutionBlockId, String> fingerprints = SubplanFingerprinter.fingerprint(conf, plan);
+
+    Set<String> found = new HashSet<String>();
+    ExecutionBlockCursor cursor = new ExecutionBlockCursor(plan);
+    while (cursor.hasNext()) {
+      ExecutionBlock block = cursor.nextBlock();
+      if (plan.isLeaf(block)) {
+        assertNotNull(block.getId() + " has no fingerprint", fingerprints.get(block.getId()));
+        found.add(fingerprints.get(block.getId()));
+      }
+    }
+    return found;
+  }
+
+  @Test
+  public final void testSameAcrossQueries() throws Exception {
+    String join = "select l_orderkey, o_orderdate from lineitem join orders on l_orderkey = o_orderkey";
+    Set<String> first = leafFingerprints(join);
+    assertEquals(2, first.size());
+    assertEquals(first, leafFingerprints(join));
+  }
+
+  @Test
+  public final void testSharedSubplan() throws Exception {
+    // the scan and the first phase of the aggregation are the same, even though the final results are different
+    assertEquals(leafFingerprints(GROUP_BY), leafFingerprints(GROUP_BY + " order by l_orderkey"));
+  }
+
+  @Test
+  public final void testDifferentSubplan() throws Exception {
+    Set<String> filtered = leafFingerprints(
+        "select l_orderkey, sum(l_quantity) from lineitem where l_quantity > 10 group by l_orderkey");
+    filtered.retainAll(leafFingerprints(GROUP_BY));
+    assertTrue(filtered.isEmpty());
+
+    Set<String> otherKey = leafFingerprints("select l_partkey, sum(l_quantity) from lineitem group by l_partkey");
+    otherKey.retainAll(leafFingerprints(GROUP_BY));
+    assertTrue(otherKey.isEmpty());
+  }
+
+  @Test
+  public final void testChangedTable() throws Exception {
+    Set<String> before = leafFingerprints(GROUP_BY);
+    writeFile(new Path(lineitemPath, "data1.tbl"));
+    try {
+      Set<String> after = leafFingerprints(GROUP_BY);
+      after.retainAll(before);
+      assertTrue(after.isEmpty());
+    } finally {
+      lineitemPath.getFileSystem(conf).delete(new Path(lineitemPath, "data1.tbl"), false);
+    }
+  }
+}
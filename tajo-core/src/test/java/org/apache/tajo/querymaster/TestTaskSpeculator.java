@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.TajoProtos.TaskAttemptState;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestTaskSpeculator {
+  private static final long NOW = 1000000L;
+
+  private TajoConf conf;
+
+  @Before
+  public void setUp() {
+    conf = new TajoConf();
+    conf.setFloatVar(ConfVars.QUERYMASTER_SPECULATIVE_SLOW_TASK_RATIO, 0.5f);
+    conf.setLongVar(ConfVars.QUERYMASTER_SPECULATIVE_MIN_RUNTIME, 5000L);
+    conf.setFloatVar(ConfVars.QUERYMASTER_SPECULATIVE_MAX_TASK_RATIO, 0.1f);
+  }
+
+  private static Task succeededTask(long runningTime) {
+    Task task = mock(Task.class);
+    when(task.getState()).thenReturn(TaskState.SUCCEEDED);
+    when(task.getRunningTime()).thenReturn(runningTime);
+    return task;
+  }
+
+  private static Task runningTask(long runningTime, float progress, boolean speculated) {
+    TaskAttempt attempt = mock(TaskAttempt.class);
+    when(attempt.getState()).thenReturn(TaskAttemptState.TA_RUNNING);
+    when(attempt.getLaunchTime()).thenReturn(NOW - runningTime);
+    when(attempt.getProgress()).thenReturn(progress);
+
+    Task task = mock(Task.class);
+    when(task.getState()).thenReturn(TaskState.RUNNING);
+    when(task.getLastAttempt()).thenReturn(attempt);
+    when(task.isSpeculated()).thenReturn(speculated);
+    return task;
+  }
+
+  private TaskSpeculator newSpeculator(List<Task> tasks) {
+    Stage stage = mock(Stage.class);
+    when(stage.getTasks()).thenReturn(tasks.toArray(new Task[tasks.size()]));
+    return new TaskSpeculator(conf, stage);
+  }
+
+  @Test
+  public void testMedian() {
+    assertEquals(2.0f, TaskSpeculator.median(Lists.newArrayList(3.0f, 1.0f, 2.0f)), 0.0f);
+    assertEquals(2.5f, TaskSpeculator.median(Lists.newArrayList(4.0f, 1.0f, 2.0f, 3.0f)), 0.0f);
+  }
+
+  @Test
+  public void testSlowTaskIsSpeculated() {
+    // completed tasks took 10 seconds, so a task with 10% progress after 20 seconds is a straggler.
+    Task straggler = runningTask(20000, 0.1f, false);
+    List<Task> tasks = Lists.newArrayList(succeededTask(10000), succeededTask(10000), succeededTask(10000),
+        runningTask(6000, 0.6f, false), straggler);
+
+    assertEquals(Lists.newArrayList(straggler), newSpeculator(tasks).findStragglers(NOW));
+  }
+
+  @Test
+  public void testNoSpeculationForNormalTasks() {
+    // running slightly slower than the median is not enough
+    List<Task> tasks = Lists.newArrayList(succeededTask(10000), succeededTask(10000),
+        runningTask(10000, 0.8f, false));
+    assertTrue(newSpeculator(tasks).findStragglers(NOW).isEmpty());
+
+    // a slow task is not speculated until it runs for the minimum runtime
+    tasks = Lists.newArrayList(succeededTask(1000), succeededTask(1000), runningTask(4000, 0.01f, false));
+    assertTrue(newSpeculator(tasks).findStragglers(NOW).isEmpty());
+
+    // the median needs at least two samples
+    tasks = Lists.newArrayList(runningTask(60000, 0.01f, false));
+    assertTrue(newSpeculator(tasks).findStragglers(NOW).isEmpty());
+  }
+
+  @Test
+  public void testMaxSpeculativeTasks() {
+    List<Task> tasks = Lists.newArrayList();
+    for (int i = 0; i < 15; i++) {
+      tasks.add(succeededTask(10000));
+    }
+    Task slowest = runningTask(60000, 0.01f, false);
+    Task slower = runningTask(60000, 0.02f, false);
+    tasks.add(runningTask(60000, 0.03f, false));
+    tasks.add(slower);
+    tasks.add(runningTask(60000, 0.04f, false));
+    tasks.add(slowest);
+    tasks.add(runningTask(60000, 0.05f, false));
+
+    // at most 10% of 20 tasks, and the slowest ones first
+    assertEquals(Lists.newArrayList(slowest, slower), newSpeculator(tasks).findStragglers(NOW));
+
+    // tasks being speculated already count toward the limit
+    tasks.add(runningTask(60000, 0.01f, true));
+    tasks.remove(0);
+    assertEquals(Lists.newArrayList(slowest), newSpeculator(tasks).findStragglers(NOW));
+
+    tasks.add(runningTask(60000, 0.01f, true));
+    tasks.remove(0);
+    assertTrue(newSpeculator(tasks).findStragglers(NOW).isEmpty());
+  }
+}
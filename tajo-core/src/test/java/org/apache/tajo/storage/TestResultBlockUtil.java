@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockCodec;
+import org.apache.tajo.ipc.ClientProtos.ResultBlockProto;
+import org.apache.tajo.ipc.ClientProtos.SerializedResultSet;
+import org.apache.tajo.jdbc.TajoMemoryResultSet;
+import org.apache.tajo.storage.ResultBlockUtil.ResultBlockDecoder;
+import org.apache.tajo.storage.ResultBlockUtil.ResultBlockEncoder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestResultBlockUtil {
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.BOOLEAN);
+    schema.addColumn("col2", Type.BIT);
+    schema.addColumn("col3", Type.CHAR);
+    schema.addColumn("col4", Type.INT2);
+    schema.addColumn("col5", Type.INT4);
+    schema.addColumn("col6", Type.INT8);
+    schema.addColumn("col7", Type.FLOAT4);
+    schema.addColumn("col8", Type.FLOAT8);
+    schema.addColumn("col9", Type.TEXT);
+    schema.addColumn("col10", Type.BLOB);
+    schema.addColumn("col11", Type.INET4);
+    schema.addColumn("col12", Type.TEXT);
+    return schema;
+  }
+
+  private static Tuple createTuple(int i) {
+    Tuple tuple = new VTuple(12);
+    tuple.put(new Datum[] {
+        DatumFactory.createBool(i % 2 == 0),
+        DatumFactory.createBit((byte) i),
+        DatumFactory.createChar('7'),
+        DatumFactory.createInt2((short) i),
+        i % 3 == 0 ? NullDatum.get() : DatumFactory.createInt4(i),
+        DatumFactory.createInt8(i * 1000l),
+        DatumFactory.createFloat4(i + 0.5f),
+        DatumFactory.createFloat8(i + 0.25d),
+        // a few distinct values which are dictionary-encoded
+        DatumFactory.createText("category" + (i % 4)),
+        DatumFactory.createBlob(("blob" + i).getBytes()),
+        DatumFactory.createInet4("192.168.0." + (i % 256)),
+        // distinct values which are not dictionary-encoded
+        i % 5 == 0 ? NullDatum.get() : DatumFactory.createText("text" + i)
+    });
+    return tuple;
+  }
+
+  private static void assertRoundTrip(ResultBlockCodec codec, int rowNum) throws Exception {
+    Schema schema = createSchema();
+    ResultBlockEncoder encoder = ResultBlockUtil.createEncoder(schema);
+    for (int i = 0; i < rowNum; i++) {
+      encoder.add(createTuple(i));
+    }
+    ResultBlockProto block = encoder.build(codec);
+    assertEquals(rowNum, block.getRowNum());
+    assertEquals(0, encoder.getRowNum());
+
+    ResultBlockDecoder decoder = ResultBlockUtil.createDecoder(schema, block);
+    assertEquals(rowNum, decoder.getRowNum());
+    for (int i = 0; i < rowNum; i++) {
+      assertEquals(createTuple(i), decoder.getTuple(i));
+    }
+  }
+
+  @Test
+  public final void testEncodeAndDecode() throws Exception {
+    assertRoundTrip(ResultBlockCodec.NO_CODEC, 1);
+    assertRoundTrip(ResultBlockCodec.NO_CODEC, 1000);
+  }
+
+  @Test
+  public final void testCompression() throws Exception {
+    Schema schema = createSchema();
+    ResultBlockEncoder encoder = ResultBlockUtil.createEncoder(schema);
+    for (int i = 0; i < 1000; i++) {
+      encoder.add(createTuple(i));
+    }
+    ResultBlockProto block = encoder.build(ResultBlockCodec.DEFLATE);
+    assertEquals(ResultBlockCodec.DEFLATE, block.getCodec());
+    assertTrue(block.getData().size() < block.getRawLength());
+
+    assertRoundTrip(ResultBlockCodec.DEFLATE, 1000);
+    // a small block is not compressed
+    assertRoundTrip(ResultBlockCodec.DEFLATE, 1);
+  }
+
+  @Test
+  public final void testMemoryResultSet() throws Exception {
+    Schema schema = createSchema();
+    ResultBlockEncoder encoder = ResultBlockUtil.createEncoder(schema);
+    List<ResultBlockProto> blocks = new ArrayList<ResultBlockProto>();
+    for (int i = 0; i < 250; i++) {
+      encoder.add(createTuple(i));
+      if (encoder.getRowNum() == 100) {
+        blocks.add(encoder.build(ResultBlockCodec.NO_CODEC));
+      }
+    }
+    blocks.add(encoder.build(ResultBlockCodec.NO_CODEC));
+
+    SerializedResultSet resultSet = SerializedResultSet.newBuilder()
+        .setSchema(schema.getProto())
+        .addAllResultBlocks(blocks)
+        .build();
+    TajoMemoryResultSet rs = new TajoMemoryResultSet(null, resultSet, null);
+    assertTrue(rs.hasResult());
+
+    int i = 0;
+    while (rs.next()) {
+      assertEquals(createTuple(i), rs.getCurrentTuple());
+      assertEquals(i, rs.getShort(4));
+      i++;
+    }
+    assertEquals(250, i);
+
+    rs.beforeFirst();
+    assertTrue(rs.next());
+    assertEquals(createTuple(0), rs.getCurrentTuple());
+    rs.close();
+  }
+}
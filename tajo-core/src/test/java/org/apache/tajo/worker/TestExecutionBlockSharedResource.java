@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.function.FunctionLoader;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.ipc.TajoWorkerProtocol.RunExecutionBlockRequestProto;
+import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.plan.LogicalOptimizer;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.LogicalPlanner;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.plan.serder.LogicalNodeSerializer;
+import org.apache.tajo.plan.serder.PlanProto;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.apache.tajo.TajoConstants.DEFAULT_DATABASE_NAME;
+import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
+import static org.junit.Assert.*;
+
+public class TestExecutionBlockSharedResource {
+  private static TajoTestingCluster util;
+  private static LogicalPlanner planner;
+  private static LogicalOptimizer optimizer;
+  private static QueryContext defaultContext;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    util = new TajoTestingCluster();
+    util.startCatalogCluster();
+    CatalogService catalog = util.getMiniCatalogCluster().getCatalog();
+    catalog.createTablespace(DEFAULT_TABLESPACE_NAME, "hdfs://localhost:1234/warehouse");
+    catalog.createDatabase(DEFAULT_DATABASE_NAME, DEFAULT_TABLESPACE_NAME);
+    for (FunctionDesc funcDesc : FunctionLoader.findLegacyFunctions()) {
+      catalog.createFunction(funcDesc);
+    }
+
+    Schema schema = new Schema();
+    schema.addColumn("name", Type.TEXT);
+    schema.addColumn("empid", Type.INT4);
+    schema.addColumn("score", Type.FLOAT8);
+    TableDesc employee = new TableDesc(CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, "employee"), schema,
+        CatalogUtil.newTableMeta(StoreType.CSV), CommonTestingUtil.getTestDir().toUri());
+    catalog.createTable(employee);
+
+    planner = new LogicalPlanner(catalog);
+    optimizer = new LogicalOptimizer(util.getConfiguration());
+    defaultContext = LocalTajoTestingUtility.createDummyContext(util.getConfiguration());
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    util.shutdownCatalogCluster();
+  }
+
+  @Test
+  public void testPlanRoundTrip() throws Exception {
+    LogicalPlan plan = planner.createPlan(defaultContext, new SQLAnalyzer().parse(
+        "select name, upper(name), empid + 1 from employee where score > 1.5 and name like 'tajo%'"));
+    optimizer.optimize(defaultContext, plan);
+    PlanProto.LogicalNodeTree serializedPlan = LogicalNodeSerializer.serialize(plan.getRootBlock().getRoot());
+
+    // a plan is shipped to workers in the request to run an execution block
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1));
+    RunExecutionBlockRequestProto request = RunExecutionBlockRequestProto.newBuilder()
+        .setExecutionBlockId(ebId.getProto())
+        .setQueryMaster(new WorkerConnectionInfo("localhost", 28091, 28092, 28093, 28094, 28095).getProto())
+        .setNodeId("localhost:28091")
+        .setContainerId("container_1_0001_01_000001")
+        .setQueryContext(defaultContext.getProto())
+        .setPlan(serializedPlan)
+        .build();
+    RunExecutionBlockRequestProto received = RunExecutionBlockRequestProto.parseFrom(request.toByteArray());
+    assertEquals(serializedPlan, received.getPlan());
+
+    ExecutionBlockSharedResource resource = new ExecutionBlockSharedResource();
+    resource.initialize(new QueryContext(util.getConfiguration(), received.getQueryContext()), received.getPlan());
+    assertEquals(serializedPlan, LogicalNodeSerializer.serialize(resource.getPlan()));
+
+    // each task takes its own copy of the plan deserialized once
+    LogicalNode first = resource.copyPlan();
+    LogicalNode second = resource.copyPlan();
+    assertEquals(serializedPlan, LogicalNodeSerializer.serialize(first));
+    assertEquals(serializedPlan, LogicalNodeSerializer.serialize(second));
+    assertNotSame(resource.getPlan(), first);
+    assertNotSame(first, second);
+
+    ScanNode firstScan = PlannerUtil.findTopNode(first, NodeType.SCAN);
+    ScanNode secondScan = PlannerUtil.findTopNode(second, NodeType.SCAN);
+    assertNotSame(firstScan, secondScan);
+    assertNotSame(firstScan.getQual(), secondScan.getQual());
+    assertEquals(firstScan.getQual(), secondScan.getQual());
+  }
+}
@@ -34,6 +34,8 @@ import org.junit.*;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.*;
@@ -102,6 +104,69 @@ public class TestFetcher {
     assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
   }
 
+  private Path writeHashShuffleFile(QueryId queryId, String sid, int partId, int rowNum) throws IOException {
+    Random rnd = new Random();
+    int partParentId = HashShuffleAppenderManager.getPartParentId(partId, conf);
+    Path inputPath = new Path(conf.getVar(ConfVars.WORKER_TEMPORAL_DIR) +
+        queryId.toString() + "/output/" + sid + "/hash-shuffle/" + partParentId + "/" + partId);
+
+    FSDataOutputStream stream = FileSystem.getLocal(conf).create(inputPath, true);
+    for (int i = 0; i < rowNum; i++) {
+      stream.write(("" + rnd.nextInt()).getBytes());
+    }
+    stream.close();
+    return inputPath;
+  }
+
+  @Test
+  public void testBatchedGet() throws IOException {
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    Path part1 = writeHashShuffleFile(queryId, sid, 1, 100);
+    Path part2 = writeHashShuffleFile(queryId, sid, 2, 1000);
+
+    List<URI> uris = new ArrayList<URI>();
+    // the partition 3 does not exist
+    for (int partId : new int[]{1, 3, 2}) {
+      String params = String.format("qid=%s&sid=%s&p=%s&type=%s", queryId, sid, partId, "h");
+      uris.add(URI.create("http://127.0.0.1:" + pullServerService.getPort() + "/?" + params));
+    }
+    List<URI> batchURIs = Fetcher.createBatchURIs(uris, 64);
+    assertEquals(1, batchURIs.size());
+    assertEquals(TajoPullServerService.BATCH_URI_PATH, batchURIs.get(0).getPath());
+
+    FileChunk storeChunk = new FileChunk(new File(OUTPUT_DIR + "batch"), 0, 0);
+    storeChunk.setFromRemote(true);
+    final Fetcher fetcher = new Fetcher(conf, batchURIs.get(0), storeChunk);
+    assertNotNull(fetcher.get());
+    assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+
+    FileSystem fs = FileSystem.getLocal(new TajoConf());
+    long len1 = fs.getFileStatus(part1).getLen();
+    long len2 = fs.getFileStatus(part2).getLen();
+    assertEquals(len1, fs.getFileStatus(new Path(OUTPUT_DIR, "batch")).getLen());
+    assertEquals(len2, fs.getFileStatus(new Path(OUTPUT_DIR, "batch_1")).getLen());
+    assertEquals(len1 + len2, fetcher.getFileLen());
+  }
+
+  @Test
+  public void testCreateBatchURIs() {
+    List<URI> uris = new ArrayList<URI>();
+    for (int partId = 0; partId < 5; partId++) {
+      uris.add(URI.create("http://127.0.0.1:1234/?qid=q_1&sid=1&p=" + partId + "&type=h&offset=0&length=10"));
+    }
+    String batchKey = Fetcher.getBatchKey(uris.get(0));
+    assertEquals(batchKey, Fetcher.getBatchKey(uris.get(4)));
+    assertNull(Fetcher.getBatchKey(URI.create("http://127.0.0.1:1234/?qid=q_1&sid=1&p=0&type=r&ta=1_0")));
+
+    List<URI> batchURIs = Fetcher.createBatchURIs(uris, 2);
+    assertEquals(3, batchURIs.size());
+    assertEquals(URI.create(batchKey + "&p=0:0:10,1:0:10"), batchURIs.get(0));
+    assertEquals(URI.create(batchKey + "&p=2:0:10,3:0:10"), batchURIs.get(1));
+    // a uri left alone is not batched
+    assertEquals(uris.get(4), batchURIs.get(2));
+  }
+
   @Test
   public void testAdjustFetchProcess() {
     assertEquals(0.0f, Task.adjustFetchProcess(0, 0), 0);
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestMemoryManager {
+  private static final long MB = MemoryConsumer.REPORT_UNIT;
+
+  @Test
+  public final void testUsageAndPeak() {
+    MemoryManager manager = new MemoryManager(100 * MB);
+    MemoryConsumer consumer = manager.newConsumer("sort", true);
+
+    assertTrue(consumer.acquire(10 * MB));
+    assertTrue(consumer.acquire(5 * MB));
+    assertEquals(15 * MB, manager.getReserved());
+
+    consumer.release(10 * MB);
+    assertEquals(5 * MB, consumer.getUsed());
+    assertEquals(15 * MB, consumer.getPeak());
+    assertEquals(5 * MB, manager.getReserved());
+
+    consumer.close();
+    assertEquals(0, manager.getReserved());
+    assertEquals(0, manager.getConsumerNum());
+    assertEquals(15 * MB, consumer.getProto().getPeakBytes());
+  }
+
+  @Test
+  public final void testSpillRequestToLargestConsumer() {
+    MemoryManager manager = new MemoryManager(100 * MB);
+    MemoryConsumer smallSort = manager.newConsumer("small", true);
+    MemoryConsumer largeSort = manager.newConsumer("large", true);
+    MemoryConsumer hashTable = manager.newConsumer("hash", false);
+
+    assertTrue(smallSort.acquire(10 * MB));
+    assertTrue(largeSort.acquire(50 * MB));
+    // exceeds the capacity
+    assertTrue(hashTable.acquire(50 * MB));
+
+    assertTrue(largeSort.shouldSpill());
+    assertFalse(smallSort.shouldSpill());
+    assertFalse(hashTable.shouldSpill());
+    assertFalse(largeSort.acquire(MB));
+
+    largeSort.spilled();
+    assertFalse(largeSort.shouldSpill());
+    assertEquals(1, largeSort.getSpillCount());
+    assertEquals(60 * MB, manager.getReserved());
+  }
+
+  @Test
+  public final void testNothingToSpill() {
+    MemoryManager manager = new MemoryManager(10 * MB);
+    MemoryConsumer hashTable = manager.newConsumer("hash", false);
+
+    // non-spillable consumers are only tracked.
+    assertTrue(hashTable.acquire(20 * MB));
+    assertFalse(hashTable.shouldSpill());
+    assertEquals(20 * MB, manager.getReserved());
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.worker;
+
+import org.apache.hadoop.yarn.event.AsyncDispatcher;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.junit.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TestTaskRunnerManager {
+
+  @Test
+  public void testSharedPools() throws Exception {
+    TajoConf conf = new TajoConf();
+    conf.setIntVar(ConfVars.WORKER_FETCHER_THREAD_NUM, 2);
+    TaskRunnerManager manager = new TaskRunnerManager(null, new AsyncDispatcher());
+    manager.init(conf);
+
+    try {
+      // the pools are created once, and every task runner gets the same ones
+      ExecutorService launcherPool = manager.getTaskLauncherPool();
+      assertSame(launcherPool, manager.getTaskLauncherPool());
+      assertSame(manager.getFetcherPool(), manager.getFetcherPool());
+
+      // an idle launcher thread is reused by the next task runner
+      Callable<Thread> currentThread = new Callable<Thread>() {
+        @Override
+        public Thread call() throws Exception {
+          return Thread.currentThread();
+        }
+      };
+      final Thread first = launcherPool.submit(currentThread).get();
+      // wait until the thread goes back to the pool and waits for the next command
+      waitFor(new Callable<Boolean>() {
+        @Override
+        public Boolean call() throws Exception {
+          return first.getState() == Thread.State.TIMED_WAITING;
+        }
+      });
+      assertSame(first, launcherPool.submit(currentThread).get());
+
+      // the fetcher pool does not run more fetchers than its threads
+      assertEquals(2, runConcurrently(manager.getFetcherPool(), 8, 2));
+    } finally {
+      manager.stop();
+    }
+    assertTrue(manager.getTaskLauncherPool().isShutdown());
+    assertTrue(manager.getFetcherPool().isShutdown());
+  }
+
+  @Test
+  public void testBoundedExecutor() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      assertEquals(2, runConcurrently(new BoundedExecutor(pool, 2), 10, 2));
+      assertEquals(1, runConcurrently(new BoundedExecutor(pool, 1), 4, 1));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static void waitFor(Callable<Boolean> condition) throws Exception {
+    long deadline = System.currentTimeMillis() + 30 * 1000;
+    while (!condition.call()) {
+      assertTrue("timed out", System.currentTimeMillis() < deadline);
+      Thread.yield();
+    }
+  }
+
+  /**
+   * Runs the given number of commands which block until the expected number of them are running, and returns
+   * the maximum number of them running at the same time.
+   */
+  private static int runConcurrently(Executor executor, int numCommands, final int expected) throws Exception {
+    final AtomicInteger running = new AtomicInteger(0);
+    final AtomicInteger maxRunning = new AtomicInteger(0);
+    final CountDownLatch released = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(numCommands);
+    for (int i = 0; i < numCommands; i++) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          int current = running.incrementAndGet();
+          while (true) {
+            int max = maxRunning.get();
+            if (current <= max || maxRunning.compareAndSet(max, current)) {
+              break;
+            }
+          }
+          try {
+            released.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            running.decrementAndGet();
+            done.countDown();
+          }
+        }
+      });
+    }
+    waitFor(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return running.get() >= expected;
+      }
+    });
+    released.countDown();
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    return maxRunning.get();
+  }
+}
@@ -16,13 +16,19 @@ package org.apache.tajo.jdbc; /**
  * limitations under the License.
  */
 
+import com.google.protobuf.ServiceException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.client.TajoClient;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.ipc.ClientProtos.QueryParameterProto;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
 
@@ -31,6 +37,8 @@ import java.util.HashMap;
  *
  */
 public class TajoPreparedStatement implements PreparedStatement {
+  private static final Log LOG = LogFactory.getLog(TajoPreparedStatement.class);
+
   private JdbcConnection conn;
   private final String sql;
   private TajoClient tajoClient;
@@ -39,6 +47,21 @@ public class TajoPreparedStatement implements PreparedStatement {
    */
   private final HashMap<Integer, String> parameters=new HashMap<Integer, String>();
 
+  /**
+   * save the typed SQL parameters bound to the query prepared on TajoMaster
+   */
+  private final HashMap<Integer, QueryParameterProto> typedParameters = new HashMap<Integer, QueryParameterProto>();
+
+  /**
+   * the statement id of the query prepared on TajoMaster. It is prepared at the first execution.
+   */
+  private int statementId = -1;
+
+  /**
+   * If false, parameters are substituted on the client side.
+   */
+  private boolean serverSidePrepare = true;
+
   /**
    * We need to keep a reference to the result set to support the following:
    * <code>
@@ -82,6 +105,7 @@ public class TajoPreparedStatement implements PreparedStatement {
   @Override
   public void clearParameters() throws SQLException {
     this.parameters.clear();
+    this.typedParameters.clear();
   }
 
   @Override
@@ -107,6 +131,14 @@ public class TajoPreparedStatement implements PreparedStatement {
     }
 
     try {
+      if (serverSidePrepare && getCharIndexFromSqlByParamLocation(sql, '?', 1) > 0 &&
+          !TajoStatement.isSetVariableQuery(sql) && !TajoStatement.isUnSetVariableQuery(sql)) {
+        if (prepareOnServer(sql)) {
+          return tajoClient.executePreparedQueryAndGetResult(statementId,
+              new ArrayList<QueryParameterProto>(typedParameters.values()));
+        }
+      }
+
       if (sql.contains("?")) {
         sql = updateSql(sql, parameters);
       }
@@ -122,6 +154,31 @@ public class TajoPreparedStatement implements PreparedStatement {
     }
   }
 
+  /**
+   * Prepare the query on TajoMaster if it is not prepared yet. If TajoMaster cannot prepare it,
+   * this statement falls back to substituting parameters on the client side.
+   *
+   * @return true if the query is prepared on TajoMaster
+   */
+  private boolean prepareOnServer(String sql) {
+    if (statementId < 0) {
+      try {
+        statementId = tajoClient.prepareQuery(sql);
+      } catch (ServiceException e) {
+        LOG.warn("Cannot prepare the query on TajoMaster, so parameters are bound on the client side: " +
+            e.getMessage());
+        serverSidePrepare = false;
+      }
+    }
+    return serverSidePrepare;
+  }
+
+  private void setParameter(int parameterIndex, String literal, Type type, String value) {
+    this.parameters.put(parameterIndex, literal);
+    this.typedParameters.put(parameterIndex,
+        QueryParameterProto.newBuilder().setIndex(parameterIndex).setType(type).setValue(value).build());
+  }
+
   /**
    * update the SQL string with parameters set by setXXX methods of {@link java.sql.PreparedStatement}
    *
@@ -249,7 +306,7 @@ public class TajoPreparedStatement implements PreparedStatement {
 
   @Override
   public void setBoolean(int parameterIndex, boolean x) throws SQLException {
-    this.parameters.put(parameterIndex, "" + x);
+    setParameter(parameterIndex, "" + x, Type.BOOLEAN, "" + x);
   }
 
   @Override
@@ -306,22 +363,22 @@ public class TajoPreparedStatement implements PreparedStatement {
 
   @Override
   public void setDouble(int parameterIndex, double x) throws SQLException {
-    this.parameters.put(parameterIndex,"" + x);
+    setParameter(parameterIndex, "" + x, Type.FLOAT8, "" + x);
   }
 
   @Override
   public void setFloat(int parameterIndex, float x) throws SQLException {
-    this.parameters.put(parameterIndex,"" + x);
+    setParameter(parameterIndex, "" + x, Type.FLOAT4, "" + x);
   }
 
   @Override
   public void setInt(int parameterIndex, int x) throws SQLException {
-    this.parameters.put(parameterIndex,"" + x);
+    setParameter(parameterIndex, "" + x, Type.INT4, "" + x);
   }
 
   @Override
   public void setLong(int parameterIndex, long x) throws SQLException {
-    this.parameters.put(parameterIndex,"" + x);
+    setParameter(parameterIndex, "" + x, Type.INT8, "" + x);
   }
 
   @Override
@@ -399,13 +456,12 @@ public class TajoPreparedStatement implements PreparedStatement {
 
   @Override
   public void setShort(int parameterIndex, short x) throws SQLException {
-    this.parameters.put(parameterIndex,"" + x);
+    setParameter(parameterIndex, "" + x, Type.INT2, "" + x);
   }
 
   @Override
   public void setString(int parameterIndex, String x) throws SQLException {
-     x=x.replace("'", "\\'");
-     this.parameters.put(parameterIndex,"'" + x +"'");
+    setParameter(parameterIndex, "'" + x.replace("'", "\\'") + "'", Type.TEXT, x);
   }
 
   @Override
@@ -470,6 +526,10 @@ public class TajoPreparedStatement implements PreparedStatement {
       resultSet.close();
       resultSet = null;
     }
+    if (statementId >= 0) {
+      tajoClient.closePreparedQuery(statementId);
+      statementId = -1;
+    }
     isClosed = true;
   }
 
@@ -75,7 +75,11 @@ public class LogicalPlan {
   }
   private ExplainType explainType = ExplainType.NOT_EXPLAIN;
 
+  public LogicalPlan() {
+  }
+
   public LogicalPlan(LogicalPlanner planner) {
+    this();
   }
 
   /**
@@ -137,6 +141,16 @@ public class LogicalPlan {
     return nextPid++;
   }
 
+  /**
+   * Sets the plan node id given to the next node. It is used when a plan is built from nodes which already have
+   * their ids, e.g., deserialized nodes, so that new nodes do not share the ids of them.
+   *
+   * @param nextPid the next plan node id
+   */
+  public void setNextPID(int nextPid) {
+    this.nextPid = nextPid;
+  }
+
   public QueryBlock newQueryBlock() {
     return newAndGetBlock(NONAME_BLOCK_PREFIX + (noNameBlockId++));
   }
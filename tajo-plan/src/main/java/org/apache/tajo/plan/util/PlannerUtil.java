@@ -196,7 +196,9 @@ public class PlannerUtil {
 
     // one block, without where clause, no group-by, no-sort, no-join
     boolean isOneQueryBlock = plan.getQueryBlocks().size() == 1;
-    boolean noRelation = !plan.getRootBlock().hasAlgebraicExpr(OpType.Relation);
+    // a plan built from a plan tree has no algebraic expressions, but it keeps its relations
+    boolean noRelation = !plan.getRootBlock().hasAlgebraicExpr(OpType.Relation) &&
+        plan.getRootBlock().getRelations().isEmpty();
 
     return !checkIfDDLPlan(node) && noRelation && isOneQueryBlock;
   }
@@ -0,0 +1,409 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.storage.DiskDeviceInfo;
+import org.apache.tajo.storage.DiskMountInfo;
+import org.apache.tajo.storage.DiskUtil;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DiskReadScheduler schedules the reads of the pull server per local disk.
+ *
+ * A response is sent as a transfer, which is admitted by the disk storing its first file. A disk admits up to
+ * tajo.pullserver.disk.max-pending-transfers transfers, and the pull server rejects the others, so that
+ * requests do not wait for a disk without any response.
+ *
+ * A transfer reads its data in pieces. Each read is queued to the disk which stores its file and runs on a
+ * reader thread, and each disk runs up to tajo.pullserver.disk.max-concurrent-reads reads at a time. A read
+ * holds its slot of the disk only while it reads, so a slow client does not keep the disk from the others.
+ * The queued reads of a disk are started in the order of their files and offsets like an elevator, so that
+ * the pages of a hash shuffle file are read sequentially rather than randomly.
+ *
+ * The total bandwidth of all transfers can be limited by tajo.pullserver.max-bandwidth-mb. A token bucket is
+ * charged whenever a transfer reads a piece of its data, so that a large transfer is paced rather than sent
+ * at once after a long delay.
+ */
+public class DiskReadScheduler {
+  private static final Log LOG = LogFactory.getLog(DiskReadScheduler.class);
+
+  private final int maxConcurrentReads;
+  private final int maxPendingTransfers;
+  private final double maxBytesPerSec;
+  private final Executor readers;
+
+  /** local directory -> the disk storing it */
+  private final Map<String, Disk> localDirDisks = new LinkedHashMap<String, Disk>();
+  private final Map<String, Disk> disks = new TreeMap<String, Disk>();
+  private final AtomicLong sequence = new AtomicLong();
+
+  // token bucket for the bandwidth limit
+  private double availableBytes;
+  private long lastRefillTime;
+
+  // cumulative counters for metrics
+  private final AtomicLong startedReads = new AtomicLong();
+  private final AtomicLong totalQueueTimeNanos = new AtomicLong();
+  private final AtomicLong readBytes = new AtomicLong();
+  private final AtomicLong rejectedTransfers = new AtomicLong();
+
+  public DiskReadScheduler(TajoConf conf, String[] localDirs) {
+    this(conf, localDirs, getMountPaths(), Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("PullServer disk reader #%d").setDaemon(true).build()));
+  }
+
+  DiskReadScheduler(TajoConf conf, String[] localDirs, List<String> mountPaths, Executor readers) {
+    this.maxConcurrentReads = conf.getIntVar(ConfVars.PULLSERVER_DISK_MAX_CONCURRENT_READS);
+    this.maxPendingTransfers = conf.getIntVar(ConfVars.PULLSERVER_DISK_MAX_PENDING_TRANSFERS);
+    this.maxBytesPerSec = conf.getIntVar(ConfVars.PULLSERVER_MAX_BANDWIDTH_MB) * 1024.0 * 1024.0;
+    this.readers = readers;
+    this.availableBytes = maxBytesPerSec;
+    this.lastRefillTime = System.nanoTime();
+
+    for (String eachDir : localDirs) {
+      String localDir = new File(new Path(eachDir).toUri().getPath()).getAbsolutePath();
+      String mountPoint = null;
+      for (String mountPath : mountPaths) {
+        if (isParent(mountPath, localDir) && (mountPoint == null || mountPath.length() > mountPoint.length())) {
+          mountPoint = mountPath;
+        }
+      }
+      String diskName = mountPoint != null ? mountPoint : localDir;
+      if (!disks.containsKey(diskName)) {
+        disks.put(diskName, new Disk(diskName));
+      }
+      localDirDisks.put(localDir, disks.get(diskName));
+    }
+    if (disks.isEmpty()) {
+      disks.put("default", new Disk("default"));
+    }
+    LOG.info("Pull server disks: " + disks.keySet() + ", maxConcurrentReads=" + maxConcurrentReads
+        + ", maxPendingTransfers=" + maxPendingTransfers + ", maxBandwidth=" + (long) maxBytesPerSec + " bytes/sec");
+  }
+
+  private static List<String> getMountPaths() {
+    List<String> mountPaths = new ArrayList<String>();
+    try {
+      for (DiskDeviceInfo eachDevice : DiskUtil.getDiskDeviceInfos()) {
+        if (eachDevice.getMountInfos() != null) {
+          for (DiskMountInfo eachMount : eachDevice.getMountInfos()) {
+            mountPaths.add(eachMount.getMountPath());
+          }
+        }
+      }
+    } catch (Throwable t) {
+      LOG.warn("Cannot get the disk mount information. Each local directory is regarded as a disk: "
+          + t.getMessage());
+    }
+    return mountPaths;
+  }
+
+  private static boolean isParent(String parent, String path) {
+    return path.equals(parent) || path.startsWith(parent.endsWith("/") ? parent : parent + "/");
+  }
+
+  private Disk getDisk(File file) {
+    String path = file.getAbsolutePath();
+    for (Map.Entry<String, Disk> entry : localDirDisks.entrySet()) {
+      if (isParent(entry.getKey(), path)) {
+        return entry.getValue();
+      }
+    }
+    return disks.values().iterator().next();
+  }
+
+  public boolean isEnabled() {
+    return maxConcurrentReads > 0 || maxBytesPerSec > 0;
+  }
+
+  public void stop() {
+    if (readers instanceof ExecutorService) {
+      ((ExecutorService) readers).shutdownNow();
+    }
+  }
+
+  /**
+   * Admits a transfer which reads the given file first.
+   *
+   * @return the transfer, or null if the disk of the file has too many pending transfers
+   */
+  public Transfer begin(File file) {
+    Disk disk = getDisk(file);
+    synchronized (disk) {
+      if (maxPendingTransfers > 0 && disk.pendingTransfers >= maxPendingTransfers) {
+        rejectedTransfers.incrementAndGet();
+        return null;
+      }
+      disk.pendingTransfers++;
+    }
+    return new Transfer(disk);
+  }
+
+  private void dispatch(Disk disk) {
+    while (true) {
+      final Request request;
+      synchronized (disk) {
+        if (disk.queue.isEmpty() || (maxConcurrentReads > 0 && disk.running >= maxConcurrentReads)) {
+          return;
+        }
+        request = disk.next();
+        disk.updateBusyTime();
+        disk.running++;
+      }
+      startedReads.incrementAndGet();
+      totalQueueTimeNanos.addAndGet(System.nanoTime() - request.submitTime);
+
+      try {
+        readers.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              request.reader.run();
+            } catch (Throwable t) {
+              LOG.error("Read failed: " + request, t);
+            } finally {
+              finishRead(request.disk);
+            }
+          }
+        });
+      } catch (RuntimeException e) {
+        LOG.error("Cannot start a read: " + request, e);
+        finishRead(request.disk);
+      }
+    }
+  }
+
+  private void finishRead(Disk disk) {
+    synchronized (disk) {
+      disk.updateBusyTime();
+      disk.running--;
+    }
+    dispatch(disk);
+  }
+
+  /**
+   * @return the nanoseconds for which the given bytes have to wait for the bandwidth limit
+   */
+  private synchronized long reserveBandwidth(long bytes) {
+    if (maxBytesPerSec <= 0) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    availableBytes = Math.min(maxBytesPerSec, availableBytes + (now - lastRefillTime) * maxBytesPerSec / 1e9);
+    lastRefillTime = now;
+    availableBytes -= bytes;
+    return availableBytes >= 0 ? 0 : (long) (-availableBytes * 1e9 / maxBytesPerSec);
+  }
+
+  /**
+   * A response admitted by a disk, which reads its data in pieces.
+   */
+  public class Transfer {
+    private final Disk disk;
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+
+    private Transfer(Disk disk) {
+      this.disk = disk;
+    }
+
+    /**
+     * Charges the bandwidth limit with a piece of data which the transfer is going to read.
+     *
+     * @return the nanoseconds for which the transfer has to wait before it reads the piece
+     */
+    public long acquire(long bytes) {
+      readBytes.addAndGet(bytes);
+      return reserveBandwidth(bytes);
+    }
+
+    /**
+     * Queues a read of a piece of data to the disk storing the file. The reader runs on a reader thread when
+     * the disk is available, and the slot of the disk is released as soon as the reader returns.
+     */
+    public void read(File file, long offset, long length, Runnable reader) {
+      Disk readDisk = getDisk(file);
+      synchronized (readDisk) {
+        readDisk.queue.add(new Request(readDisk, file.getAbsolutePath(), offset, length, reader,
+            sequence.incrementAndGet()));
+      }
+      dispatch(readDisk);
+    }
+
+    /**
+     * Finishes the transfer after its response is sent or failed. Only the first call takes effect.
+     */
+    public void finish() {
+      if (finished.compareAndSet(false, true)) {
+        synchronized (disk) {
+          disk.pendingTransfers--;
+        }
+      }
+    }
+  }
+
+  public Set<String> getDiskNames() {
+    return disks.keySet();
+  }
+
+  public int getPendingTransfers(String diskName) {
+    Disk disk = disks.get(diskName);
+    synchronized (disk) {
+      return disk.pendingTransfers;
+    }
+  }
+
+  public int getQueuedReads(String diskName) {
+    Disk disk = disks.get(diskName);
+    synchronized (disk) {
+      return disk.queue.size();
+    }
+  }
+
+  public int getRunningReads(String diskName) {
+    Disk disk = disks.get(diskName);
+    synchronized (disk) {
+      return disk.running;
+    }
+  }
+
+  /**
+   * @return the total time during which a disk has been reading (ms)
+   */
+  public long getBusyTimeMs(String diskName) {
+    Disk disk = disks.get(diskName);
+    synchronized (disk) {
+      disk.updateBusyTime();
+      return disk.busyNanos / 1000000;
+    }
+  }
+
+  /**
+   * @return the number of started reads
+   */
+  public long getStartedReads() {
+    return startedReads.get();
+  }
+
+  /**
+   * @return the total time for which the started reads were queued (ms)
+   */
+  public long getTotalQueueTimeMs() {
+    return totalQueueTimeNanos.get() / 1000000;
+  }
+
+  /**
+   * @return the total bytes read by transfers
+   */
+  public long getReadBytes() {
+    return readBytes.get();
+  }
+
+  /**
+   * @return the number of transfers rejected because their disks had too many pending transfers
+   */
+  public long getRejectedTransfers() {
+    return rejectedTransfers.get();
+  }
+
+  private static class Disk {
+    final String name;
+    // ordered by file and offset
+    final TreeSet<Request> queue = new TreeSet<Request>();
+    Request lastRead;
+    int running;
+    int pendingTransfers;
+
+    long busyNanos;
+    long lastBusyUpdateTime = System.nanoTime();
+
+    Disk(String name) {
+      this.name = name;
+    }
+
+    /**
+     * @return the first request after the last read position, or the first request in the queue
+     */
+    Request next() {
+      Request next = lastRead == null ? null : queue.higher(lastRead);
+      if (next == null) {
+        next = queue.first();
+      }
+      queue.remove(next);
+      lastRead = next;
+      return next;
+    }
+
+    void updateBusyTime() {
+      long now = System.nanoTime();
+      if (running > 0) {
+        busyNanos += now - lastBusyUpdateTime;
+      }
+      lastBusyUpdateTime = now;
+    }
+  }
+
+  private static class Request implements Comparable<Request> {
+    final Disk disk;
+    final String path;
+    final long offset;
+    final long length;
+    final Runnable reader;
+    final long seq;
+    final long submitTime = System.nanoTime();
+
+    Request(Disk disk, String path, long offset, long length, Runnable reader, long seq) {
+      this.disk = disk;
+      this.path = path;
+      this.offset = offset;
+      this.length = length;
+      this.reader = reader;
+      this.seq = seq;
+    }
+
+    @Override
+    public int compareTo(Request o) {
+      int cmp = path.compareTo(o.path);
+      if (cmp != 0) {
+        return cmp;
+      }
+      if (offset != o.offset) {
+        return offset < o.offset ? -1 : 1;
+      }
+      return seq < o.seq ? -1 : (seq == o.seq ? 0 : 1);
+    }
+
+    @Override
+    public String toString() {
+      return disk.name + ":" + path + "(" + offset + ", " + length + ")";
+    }
+  }
+}
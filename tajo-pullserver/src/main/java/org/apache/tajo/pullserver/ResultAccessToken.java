@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.pullserver;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.conf.TajoConf;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * A token which allows a client to read a query result file from a pull server until it expires.
+ * A token is the HMAC-SHA256 of the query id, the file path, and the expiration time. The key is
+ * shared through a file in the system directory which only the Tajo user can read, so that only
+ * TajoMaster and workers can issue and verify tokens.
+ */
+public class ResultAccessToken {
+  public static final String KEY_FILE_NAME = "result-access.key";
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final int KEY_LENGTH = 32;
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final byte[] key;
+
+  public ResultAccessToken(byte[] key) {
+    this.key = key;
+  }
+
+  public String sign(String queryId, String path, long expireTime) {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(new SecretKeySpec(key, ALGORITHM));
+      mac.update((queryId + "\n" + path + "\n" + expireTime).getBytes(UTF8));
+      return Base64.encodeBase64URLSafeString(mac.doFinal());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return true if the token was issued for the file and has not expired at the given time
+   */
+  public boolean verify(String queryId, String path, long expireTime, String token, long now) {
+    if (token == null || expireTime < now) {
+      return false;
+    }
+    return MessageDigest.isEqual(sign(queryId, path, expireTime).getBytes(UTF8), token.getBytes(UTF8));
+  }
+
+  public static Path getKeyPath(TajoConf conf) {
+    return new Path(TajoConf.getSystemDir(conf), KEY_FILE_NAME);
+  }
+
+  /**
+   * Reads the shared key. If it does not exist, a new random key is created. The key is written to a
+   * temporary file first and renamed, so that no one reads a partially written key.
+   */
+  public static ResultAccessToken getOrCreate(TajoConf conf) throws IOException {
+    Path keyPath = getKeyPath(conf);
+    FileSystem fs = keyPath.getFileSystem(conf);
+    if (!fs.exists(keyPath)) {
+      byte[] key = new byte[KEY_LENGTH];
+      new SecureRandom().nextBytes(key);
+      Path tmpPath = new Path(keyPath.getParent(), "." + KEY_FILE_NAME + "." + UUID.randomUUID() + ".tmp");
+      FSDataOutputStream out = null;
+      try {
+        out = fs.create(tmpPath, false);
+        fs.setPermission(tmpPath, new FsPermission((short) 0600));
+        out.write(key);
+        out.close();
+        out = null;
+        // rename does not replace an existing file, so if another master created the key first, its key is used
+        if (fs.rename(tmpPath, keyPath)) {
+          return new ResultAccessToken(key);
+        }
+      } finally {
+        IOUtils.closeStream(out);
+        if (fs.exists(tmpPath)) {
+          fs.delete(tmpPath, false);
+        }
+      }
+    }
+    return load(conf);
+  }
+
+  /**
+   * Reads the shared key created by TajoMaster.
+   */
+  public static ResultAccessToken load(TajoConf conf) throws IOException {
+    Path keyPath = getKeyPath(conf);
+    FileSystem fs = keyPath.getFileSystem(conf);
+    FSDataInputStream in = fs.open(keyPath);
+    try {
+      byte[] key = new byte[KEY_LENGTH];
+      in.readFully(key);
+      return new ResultAccessToken(key);
+    } finally {
+      IOUtils.closeStream(in);
+    }
+  }
+}
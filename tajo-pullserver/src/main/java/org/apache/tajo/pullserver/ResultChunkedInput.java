@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.RowStoreUtil.RowStoreEncoder;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.Tuple;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads a query result file with a scanner, and emits its rows as HTTP chunks. Each row is written as
+ * its length followed by the bytes encoded by {@link RowStoreEncoder}, and the last chunk ends with
+ * {@link #END_OF_ROWS} so that a reader can distinguish a complete stream from a broken one.
+ *
+ * The scanner blocks on the file system, so chunks are read by the given executor instead of the event
+ * loop. Until a chunk is read, {@link #readChunk} returns null, and the transfer of
+ * {@link ChunkedWriteHandler} is resumed when the chunk is ready.
+ */
+class ResultChunkedInput implements ChunkedInput<HttpContent> {
+  private static final Log LOG = LogFactory.getLog(ResultChunkedInput.class);
+
+  public static final int END_OF_ROWS = -1;
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private final Scanner scanner;
+  private final RowStoreEncoder encoder;
+  private final Executor executor;
+
+  // guarded by this
+  private boolean reading = false;
+  private ByteBuf readChunk;
+  private boolean lastChunkRead = false;
+  private Exception error;
+  private boolean endOfInput = false;
+  private boolean closed = false;
+
+  public ResultChunkedInput(Scanner scanner, Schema schema, Executor executor) {
+    this.scanner = scanner;
+    this.encoder = RowStoreUtil.createEncoder(schema);
+    this.executor = executor;
+  }
+
+  @Override
+  public synchronized boolean isEndOfInput() throws Exception {
+    return endOfInput;
+  }
+
+  @Override
+  public void close() throws Exception {
+    boolean closeScanner;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (readChunk != null) {
+        readChunk.release();
+        readChunk = null;
+      }
+      // a chunk being read is discarded, and then the scanner is closed by the executor
+      closeScanner = !reading;
+    }
+    if (closeScanner) {
+      scanner.close();
+    }
+  }
+
+  @Override
+  public HttpContent readChunk(final ChannelHandlerContext ctx) throws Exception {
+    boolean startReading = false;
+    synchronized (this) {
+      if (!closed && !endOfInput && !reading && readChunk == null && error == null) {
+        reading = true;
+        startReading = true;
+      }
+    }
+    if (startReading) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          readAhead(ctx);
+        }
+      });
+    }
+
+    synchronized (this) {
+      if (error != null) {
+        Exception e = error;
+        error = null;
+        throw e;
+      }
+      if (readChunk == null) {
+        return null;
+      }
+      ByteBuf chunk = readChunk;
+      readChunk = null;
+      if (lastChunkRead) {
+        endOfInput = true;
+        return new DefaultLastHttpContent(chunk);
+      }
+      return new DefaultHttpContent(chunk);
+    }
+  }
+
+  private void readAhead(ChannelHandlerContext ctx) {
+    ByteBuf chunk = null;
+    boolean last = false;
+    Exception failure = null;
+    try {
+      chunk = ctx.alloc().heapBuffer(CHUNK_SIZE);
+      while (chunk.writerIndex() < CHUNK_SIZE) {
+        Tuple tuple = scanner.next();
+        if (tuple == null) {
+          chunk.writeInt(END_OF_ROWS);
+          last = true;
+          break;
+        }
+        byte[] row = encoder.toBytes(tuple);
+        chunk.writeInt(row.length);
+        chunk.writeBytes(row);
+      }
+    } catch (Exception e) {
+      if (chunk != null) {
+        chunk.release();
+        chunk = null;
+      }
+      failure = e;
+    }
+
+    boolean closeScanner;
+    synchronized (this) {
+      reading = false;
+      closeScanner = closed;
+      if (closed) {
+        if (chunk != null) {
+          chunk.release();
+        }
+      } else {
+        readChunk = chunk;
+        lastChunkRead = last;
+        error = failure;
+      }
+    }
+
+    if (closeScanner) {
+      try {
+        scanner.close();
+      } catch (IOException e) {
+        LOG.warn("Cannot close the scanner of a result file", e);
+      }
+    } else {
+      ChunkedWriteHandler writer = (ChunkedWriteHandler) ctx.handler();
+      writer.resumeTransfer();
+    }
+  }
+}
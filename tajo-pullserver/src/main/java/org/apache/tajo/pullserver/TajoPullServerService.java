@@ -19,7 +19,9 @@
 package org.apache.tajo.pullserver;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
@@ -31,6 +33,7 @@ import io.netty.handler.codec.http.*;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.GenericFutureListener;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import org.apache.commons.codec.binary.Base64;
@@ -38,6 +41,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocalDirAllocator;
 import org.apache.hadoop.fs.LocalFileSystem;
@@ -54,27 +58,38 @@ import org.apache.hadoop.metrics2.lib.MutableGaugeInt;
 import org.apache.hadoop.security.ssl.SSLFactory;
 import org.apache.hadoop.service.AbstractService;
 import org.apache.hadoop.yarn.api.records.ApplicationId;
+import org.apache.tajo.TajoConstants;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.TableDescProto;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.pullserver.retriever.FileChunk;
 import org.apache.tajo.rpc.RpcChannelFactory;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.StorageManager;
 import org.apache.tajo.storage.RowStoreUtil;
 import org.apache.tajo.storage.RowStoreUtil.RowStoreDecoder;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.TupleComparator;
+import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.index.bst.BSTIndex;
 
 import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class TajoPullServerService extends AbstractService {
@@ -91,6 +106,9 @@ public class TajoPullServerService extends AbstractService {
   private ServerBootstrap selector;
   private final ChannelGroup accepted = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
   private HttpChannelInitializer channelInitializer;
+  private DiskReadScheduler diskReadScheduler;
+  /** reads the rows of query result files, which must not block the event loops */
+  private ExecutorService resultReadExecutor;
   private int sslFileBufferSize;
 
   private ApplicationId appId;
@@ -107,6 +125,18 @@ public class TajoPullServerService extends AbstractService {
 
   public static final String PULLSERVER_SERVICEID = "tajo.pullserver";
 
+  /** The URI path from which a client reads the rows of a query result file */
+  public static final String RESULT_URI_PATH = "/result";
+
+  /** the maximum bytes of a file read at once by a scheduled transfer */
+  private static final long TRANSFER_PIECE_SIZE = 1024 * 1024;
+
+  /** The URI path from which a client fetches many hash shuffle partitions of a stage at once */
+  public static final String BATCH_URI_PATH = "/batch";
+
+  /** A partition in a batched response is preceded by its partition id (int) and its length (long) */
+  public static final int BATCH_FRAME_HEADER_SIZE = 4 + 8;
+
   private static final Map<String,String> userRsrc =
     new ConcurrentHashMap<String,String>();
   private String userName;
@@ -215,6 +245,9 @@ public class TajoPullServerService extends AbstractService {
 
     ServerBootstrap bootstrap = selector.clone();
     TajoConf tajoConf = (TajoConf)conf;
+    diskReadScheduler = new DiskReadScheduler(tajoConf, conf.getTrimmedStrings(ConfVars.WORKER_TEMPORAL_DIR.varname));
+    resultReadExecutor = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("PullServer result reader #%d").setDaemon(true).build());
     try {
       channelInitializer = new HttpChannelInitializer(tajoConf);
     } catch (Exception ex) {
@@ -298,6 +331,10 @@ public class TajoPullServerService extends AbstractService {
     return port;
   }
 
+  public DiskReadScheduler getDiskReadScheduler() {
+    return diskReadScheduler;
+  }
+
   @Override
   public void stop() {
     try {
@@ -314,6 +351,12 @@ public class TajoPullServerService extends AbstractService {
       if (channelInitializer != null) {
         channelInitializer.destroy();
       }
+      if (diskReadScheduler != null) {
+        diskReadScheduler.stop();
+      }
+      if (resultReadExecutor != null) {
+        resultReadExecutor.shutdownNow();
+      }
 
       localFS.close();
     } catch (Throwable t) {
@@ -368,9 +411,13 @@ public class TajoPullServerService extends AbstractService {
   public void completeFileChunk(FileRegion filePart,
                                    String requestUri,
                                    long startTime) {
+    completeFileChunk(filePart.position(), filePart.count(), requestUri, startTime);
+  }
+
+  public void completeFileChunk(long filePos, long fileLen, String requestUri, long startTime) {
     ProcessingStatus status = processingStatusMap.get(requestUri);
     if (status != null) {
-      status.decrementRemainFiles(filePart, startTime);
+      status.decrementRemainFiles(filePos, fileLen, startTime);
     }
   }
 
@@ -394,10 +441,10 @@ public class TajoPullServerService extends AbstractService {
       this.remainFiles = numFiles;
     }
 
-    public void decrementRemainFiles(FileRegion filePart, long fileStartTime) {
+    public void decrementRemainFiles(long filePos, long fileLen, long fileStartTime) {
       long fileSendTime = System.currentTimeMillis() - fileStartTime;
       if (fileSendTime > 20 * 1000) {
-        LOG.info("PullServer send too long time: filePos=" + filePart.position() + ", fileLen=" + filePart.count());
+        LOG.info("PullServer send too long time: filePos=" + filePos + ", fileLen=" + fileLen);
          SLOW_FILE_UPDATER.compareAndSet(this, numSlowFile, numSlowFile+ 1);
       }
       if (fileSendTime > maxTime) {
@@ -421,6 +468,7 @@ public class TajoPullServerService extends AbstractService {
   class PullServer extends SimpleChannelInboundHandler<FullHttpRequest> {
 
     private final TajoConf conf;
+    private volatile ResultAccessToken accessToken;
 //    private final IndexCache indexCache;
     private final LocalDirAllocator lDirAlloc =
       new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
@@ -451,7 +499,7 @@ public class TajoPullServerService extends AbstractService {
     }
 
     @Override
-    public void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request)
+    public void channelRead0(final ChannelHandlerContext ctx, FullHttpRequest request)
             throws Exception {
 
       if (request.getMethod() != HttpMethod.GET) {
@@ -459,6 +507,15 @@ public class TajoPullServerService extends AbstractService {
         return;
       }
 
+      QueryStringDecoder decoder = new QueryStringDecoder(request.getUri());
+      if (RESULT_URI_PATH.equals(decoder.path())) {
+        sendResult(ctx, request, decoder.parameters());
+        return;
+      } else if (BATCH_URI_PATH.equals(decoder.path())) {
+        sendBatch(ctx, request, decoder.parameters());
+        return;
+      }
+
       ProcessingStatus processingStatus = new ProcessingStatus(request.getUri().toString());
       processingStatusMap.put(request.getUri().toString(), processingStatus);
       // Parsing the URL into key-values
@@ -574,77 +631,487 @@ public class TajoPullServerService extends AbstractService {
           ctx.writeAndFlush(response);
         }
       } else {
-        FileChunk[] file = chunks.toArray(new FileChunk[chunks.size()]);
-        ChannelFuture writeFuture = null;
-        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        final String requestUri = request.getUri();
+        final boolean keepAlive = HttpHeaders.isKeepAlive(request);
         long totalSize = 0;
-        for (FileChunk chunk : file) {
+        for (FileChunk chunk : chunks) {
           totalSize += chunk.length();
         }
-        HttpHeaders.setContentLength(response, totalSize);
-
-        if (HttpHeaders.isKeepAlive(request)) {
-          response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
-        }
-        // Write the initial line and the header.
-        writeFuture = ctx.write(response);
 
-        for (FileChunk chunk : file) {
-          writeFuture = sendFile(ctx, chunk, request.getUri().toString());
-          if (writeFuture == null) {
-            sendError(ctx, HttpResponseStatus.NOT_FOUND);
+        DiskReadScheduler.Transfer transfer = null;
+        if (diskReadScheduler.isEnabled()) {
+          transfer = diskReadScheduler.begin(chunks.get(0).getFile());
+          if (transfer == null) {
+            sendBusy(ctx, requestUri);
             return;
           }
         }
-        if (ctx.pipeline().get(SslHandler.class) == null) {
-          writeFuture = ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
-        } else {
-          ctx.flush();
+        sendChunks(ctx, requestUri, keepAlive, chunks, totalSize, transfer);
+      }
+    }
+
+    /**
+     * Rejects a request whose disk has too many pending transfers. The fetcher of the request retries it later.
+     */
+    private void sendBusy(ChannelHandlerContext ctx, String requestUri) {
+      LOG.warn("Too many pending transfers of the disk. Rejected: " + requestUri);
+      processingStatusMap.remove(requestUri);
+      sendError(ctx, "Too many pending transfers", HttpResponseStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private void sendChunks(ChannelHandlerContext ctx, String requestUri, boolean keepAlive,
+                            List<FileChunk> chunks, long totalSize, DiskReadScheduler.Transfer transfer) {
+      HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+      HttpHeaders.setContentLength(response, totalSize);
+
+      if (keepAlive) {
+        response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+      }
+
+      List<Object> messages = new ArrayList<Object>();
+      messages.add(response);
+      messages.addAll(chunks);
+      messages.add(LastHttpContent.EMPTY_LAST_CONTENT);
+      new ResponseWriter(ctx, requestUri, keepAlive, messages, transfer).start();
+    }
+
+    /**
+     * Sends the rows of a query result file. Only the files in the result directory of the query
+     * under the staging directory can be read, with a token issued by TajoMaster for the file.
+     * The schema and meta of the file are read from the descriptor written by the QueryMaster.
+     */
+    private void sendResult(ChannelHandlerContext ctx, FullHttpRequest request, Map<String, List<String>> params) {
+      final List<String> qids = params.get("qid");
+      final List<String> paths = params.get("path");
+      final List<String> expires = params.get("expire");
+      final List<String> tokens = params.get("token");
+
+      if (qids == null || paths == null || expires == null || tokens == null) {
+        sendError(ctx, "Required queryId, path, expire, and token", HttpResponseStatus.BAD_REQUEST);
+        return;
+      }
+
+      Scanner scanner = null;
+      try {
+        String queryId = qids.get(0);
+        long expireTime;
+        try {
+          expireTime = Long.parseLong(expires.get(0));
+        } catch (NumberFormatException e) {
+          sendError(ctx, "Invalid expire: " + expires.get(0), HttpResponseStatus.BAD_REQUEST);
+          return;
+        }
+        if (!getAccessToken().verify(queryId, paths.get(0), expireTime, tokens.get(0),
+            System.currentTimeMillis())) {
+          LOG.warn("Invalid or expired result file request: " + request.getUri());
+          sendError(ctx, HttpResponseStatus.FORBIDDEN);
+          return;
         }
 
-        // Decide whether to close the connection or not.
+        Path path = new Path(paths.get(0));
+        FileSystem fs = path.getFileSystem(conf);
+        Path queryStagingDir = fs.makeQualified(new Path(TajoConf.getDefaultRootStagingDir(conf), queryId));
+        Path resultDir = new Path(queryStagingDir, TajoConstants.RESULT_DIR_NAME);
+        path = fs.makeQualified(path);
+        if (path.toString().contains("/../") || !path.toString().startsWith(resultDir.toString() + "/")) {
+          LOG.warn("Forbidden result file request: " + request.getUri());
+          sendError(ctx, HttpResponseStatus.FORBIDDEN);
+          return;
+        }
+
+        TableDesc resultDesc = readResultDesc(fs, new Path(queryStagingDir, TajoConstants.RESULT_DESC_FILE_NAME));
+        TableMeta meta = resultDesc.getMeta();
+        Schema schema = resultDesc.getSchema();
+        FileFragment fragment = new FileFragment(queryId, path, 0, fs.getFileStatus(path).getLen());
+        scanner = StorageManager.getStorageManager(conf, meta.getStoreType()).getScanner(meta, schema, fragment);
+        scanner.init();
+        ResultChunkedInput rows = new ResultChunkedInput(scanner, schema, resultReadExecutor);
+        scanner = null;
+
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        HttpHeaders.setTransferEncodingChunked(response);
+        response.headers().set(HttpHeaders.Names.CONTENT_TYPE, "application/octet-stream");
+        if (HttpHeaders.isKeepAlive(request)) {
+          response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+        }
+        ctx.write(response);
+        ChannelFuture writeFuture = ctx.writeAndFlush(rows);
         if (!HttpHeaders.isKeepAlive(request)) {
-          // Close the connection when the whole content is written out.
           writeFuture.addListener(ChannelFutureListener.CLOSE);
         }
+      } catch (Throwable t) {
+        LOG.error("ERROR Request: " + request.getUri(), t);
+        if (scanner != null) {
+          IOUtils.cleanup(LOG, scanner);
+        }
+        sendError(ctx, "Cannot read the result file", HttpResponseStatus.INTERNAL_SERVER_ERROR);
+      }
+    }
+
+    private ResultAccessToken getAccessToken() throws IOException {
+      // the key is created by TajoMaster when it issues the first URL, so it is loaded lazily
+      if (accessToken == null) {
+        accessToken = ResultAccessToken.load(conf);
       }
+      return accessToken;
     }
 
-    private ChannelFuture sendFile(ChannelHandlerContext ctx,
-                                   FileChunk file,
-                                   String requestUri) throws IOException {
-      long startTime = System.currentTimeMillis();
-      RandomAccessFile spill = null;      
-      ChannelFuture writeFuture;
+    private TableDesc readResultDesc(FileSystem fs, Path descPath) throws IOException {
+      FSDataInputStream in = fs.open(descPath);
       try {
-        spill = new RandomAccessFile(file.getFile(), "r");
-        if (ctx.pipeline().get(SslHandler.class) == null) {
-          final FadvisedFileRegion filePart = new FadvisedFileRegion(spill,
-              file.startOffset(), file.length(), manageOsCache, readaheadLength,
-              readaheadPool, file.getFile().getAbsolutePath());
-          writeFuture = ctx.write(filePart);
-          writeFuture.addListener(new FileCloseListener(filePart, requestUri, startTime, TajoPullServerService.this));
-        } else {
-          // HTTPS cannot be done with zero copy.
-          final FadvisedChunkedFile chunk = new FadvisedChunkedFile(spill,
-              file.startOffset(), file.length(), sslFileBufferSize,
-              manageOsCache, readaheadLength, readaheadPool,
-              file.getFile().getAbsolutePath());
-          writeFuture = ctx.write(new HttpChunkedInput(chunk));
+        return new TableDesc(TableDescProto.parseFrom(in));
+      } finally {
+        IOUtils.closeStream(in);
+      }
+    }
+
+    /**
+     * Sends the partitions of a hash shuffle requested by a single request. The parameter p is a comma
+     * separated list, each of whose entries is either a partition id or 'partition id:offset:length'.
+     *
+     * The response consists of a frame per requested partition in the requested order. A frame is its
+     * partition id (int), its length (long), and its data which are sent through a zero-copy file region.
+     * A partition which does not exist is sent as an empty frame.
+     */
+    private void sendBatch(final ChannelHandlerContext ctx, FullHttpRequest request, Map<String, List<String>> params)
+        throws IOException {
+      final List<String> types = params.get("type");
+      final List<String> qids = params.get("qid");
+      final List<String> subQueryIds = params.get("sid");
+      final List<String> partList = params.get("p");
+
+      if (types == null || subQueryIds == null || qids == null || partList == null) {
+        sendError(ctx, "Required queryId, type, subquery Id, and part ids", HttpResponseStatus.BAD_REQUEST);
+        return;
+      }
+
+      String shuffleType = types.get(0);
+      if (!shuffleType.equals("h") && !shuffleType.equals("s")) {
+        sendError(ctx, "Batched fetch is only for hash shuffles: " + shuffleType, HttpResponseStatus.BAD_REQUEST);
+        return;
+      }
+
+      final String requestUri = request.getUri();
+      final boolean keepAlive = HttpHeaders.isKeepAlive(request);
+      String stageDir = qids.get(0) + "/output/" + subQueryIds.get(0) + "/hash-shuffle/";
+      ProcessingStatus processingStatus = new ProcessingStatus(requestUri);
+
+      final List<Integer> partIds = new ArrayList<Integer>();
+      final List<FileChunk> chunks = new ArrayList<FileChunk>();
+      long totalSize = 0;
+      int numFiles = 0;
+      FileChunk first = null;
+      try {
+        for (String part : splitMaps(partList)) {
+          String[] tokens = part.split(":");
+          int partId = Integer.parseInt(tokens[0]);
+          long offset = tokens.length == 3 ? Long.parseLong(tokens[1]) : -1L;
+          long length = tokens.length == 3 ? Long.parseLong(tokens[2]) : -1L;
+
+          FileChunk chunk = null;
+          String partPath = stageDir + HashShuffleAppenderManager.getPartParentId(partId, conf) + "/" + partId;
+          if (lDirAlloc.ifExists(partPath, conf)) {
+            File file = new File(localFS.makeQualified(lDirAlloc.getLocalPathToRead(partPath, conf)).toUri());
+            long startPos = (offset >= 0 && length >= 0) ? offset : 0;
+            long readLen = (offset >= 0 && length >= 0) ? length : file.length();
+
+            if (startPos >= file.length()) {
+              String errorMessage = "Start pos[" + startPos + "] great than file length [" + file.length() + "]";
+              LOG.error(errorMessage);
+              sendError(ctx, errorMessage, HttpResponseStatus.BAD_REQUEST);
+              return;
+            }
+            if (readLen > 0) {
+              chunk = new FileChunk(file, startPos, readLen);
+              totalSize += readLen;
+              numFiles++;
+              if (first == null) {
+                first = chunk;
+              }
+            }
+          } else {
+            LOG.warn("Partition shuffle file not exists: " + partPath);
+          }
+          partIds.add(partId);
+          chunks.add(chunk);
+          totalSize += BATCH_FRAME_HEADER_SIZE;
         }
-      } catch (FileNotFoundException e) {
-        LOG.info(file.getFile() + " not found");
-        return null;
-      } catch (Throwable e) {
-        if (spill != null) {
-          //should close a opening file
-          spill.close();
+      } catch (NumberFormatException e) {
+        sendError(ctx, "Invalid part ids: " + partList, HttpResponseStatus.BAD_REQUEST);
+        return;
+      }
+
+      if (numFiles > 0) {
+        processingStatus.setNumFiles(numFiles);
+        processingStatus.makeFileListTime = System.currentTimeMillis() - processingStatus.startTime;
+        processingStatusMap.put(requestUri, processingStatus);
+      }
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Batched RequestURL: " + requestUri + ", partitions=" + partIds.size() + ", files=" + numFiles
+            + ", totalSize=" + totalSize);
+      }
+
+      DiskReadScheduler.Transfer transfer = null;
+      if (first != null && diskReadScheduler.isEnabled()) {
+        transfer = diskReadScheduler.begin(first.getFile());
+        if (transfer == null) {
+          sendBusy(ctx, requestUri);
+          return;
         }
-        return null;
       }
-      metrics.shuffleConnections.incr();
-      metrics.shuffleOutputBytes.incr(file.length()); // optimistic
-      return writeFuture;
+      sendFrames(ctx, requestUri, keepAlive, partIds, chunks, totalSize, transfer);
+    }
+
+    private void sendFrames(ChannelHandlerContext ctx, String requestUri, boolean keepAlive,
+                            List<Integer> partIds, List<FileChunk> chunks, long totalSize,
+                            DiskReadScheduler.Transfer transfer) {
+      HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+      HttpHeaders.setContentLength(response, totalSize);
+      if (keepAlive) {
+        response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+      }
+
+      List<Object> messages = new ArrayList<Object>();
+      messages.add(response);
+      for (int i = 0; i < chunks.size(); i++) {
+        FileChunk chunk = chunks.get(i);
+        ByteBuf frameHeader = ctx.alloc().buffer(BATCH_FRAME_HEADER_SIZE);
+        frameHeader.writeInt(partIds.get(i));
+        frameHeader.writeLong(chunk == null ? 0 : chunk.length());
+        messages.add(frameHeader);
+        if (chunk != null) {
+          messages.add(chunk);
+        }
+      }
+      messages.add(LastHttpContent.EMPTY_LAST_CONTENT);
+      new ResponseWriter(ctx, requestUri, keepAlive, messages, transfer).start();
+    }
+
+    /**
+     * Writes the messages of a response in order, where a {@link FileChunk} is sent from its file.
+     *
+     * Without a transfer, all messages are written at once, and a file is sent through a zero-copy file region.
+     * With a transfer of {@link DiskReadScheduler}, a file is read in pieces of at most
+     * {@link #TRANSFER_PIECE_SIZE} bytes by the reader threads of the scheduler, and each piece is written
+     * from memory. The next piece is read after the previous piece has been written and the bandwidth limit
+     * allows it, so a disk is held only while a piece is being read. The messages before a piece are flushed
+     * before the piece waits for its disk, so that the client receives the response header at once.
+     */
+    private class ResponseWriter implements ChannelFutureListener {
+      private final ChannelHandlerContext ctx;
+      private final String requestUri;
+      private final boolean keepAlive;
+      private final List<Object> messages;
+      private final DiskReadScheduler.Transfer transfer;
+      private final ChannelPromise promise;
+      private final long startTime = System.currentTimeMillis();
+
+      private int index = 0;
+      // the bytes of the current file chunk which have been written
+      private long written = 0;
+
+      ResponseWriter(ChannelHandlerContext ctx, String requestUri, boolean keepAlive, List<Object> messages,
+                     DiskReadScheduler.Transfer transfer) {
+        this.ctx = ctx;
+        this.requestUri = requestUri;
+        this.keepAlive = keepAlive;
+        this.messages = messages;
+        this.transfer = transfer;
+        this.promise = ctx.newPromise();
+      }
+
+      void start() {
+        if (transfer != null) {
+          // The next request of the channel is not read until this response is sent,
+          // so that the pieces of responses are not interleaved.
+          ctx.channel().config().setAutoRead(false);
+          promise.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+              transfer.finish();
+              ctx.channel().config().setAutoRead(true);
+            }
+          });
+        }
+        writeNext();
+      }
+
+      private void writeNext() {
+        while (index < messages.size()) {
+          Object message = messages.get(index);
+          if (message instanceof FileChunk) {
+            FileChunk chunk = (FileChunk) message;
+            if (transfer == null) {
+              if (writeFile(chunk) == null) {
+                return;
+              }
+              index++;
+              continue;
+            }
+
+            ctx.flush();
+            final int count = (int) Math.min(TRANSFER_PIECE_SIZE, chunk.length() - written);
+            long delayNanos = transfer.acquire(count);
+            if (delayNanos > 0) {
+              ctx.executor().schedule(new Runnable() {
+                @Override
+                public void run() {
+                  readPiece(count);
+                }
+              }, delayNanos, TimeUnit.NANOSECONDS);
+            } else {
+              readPiece(count);
+            }
+            return;
+          }
+
+          index++;
+          if (index < messages.size()) {
+            ctx.write(message);
+          } else {
+            ChannelFuture writeFuture = ctx.writeAndFlush(message);
+            if (!keepAlive) {
+              // Close the connection when the whole content is written out.
+              writeFuture.addListener(ChannelFutureListener.CLOSE);
+            }
+            writeFuture.addListener(new ChannelFutureListener() {
+              @Override
+              public void operationComplete(ChannelFuture future) throws Exception {
+                if (future.isSuccess()) {
+                  promise.trySuccess();
+                } else {
+                  promise.tryFailure(future.cause());
+                }
+              }
+            });
+          }
+        }
+      }
+
+      /**
+       * Queues the read of the next piece of the current file to its disk. The piece is written by the event
+       * loop of the channel after it has been read.
+       */
+      private void readPiece(final int count) {
+        final FileChunk chunk = (FileChunk) messages.get(index);
+        final long position = chunk.startOffset() + written;
+        transfer.read(chunk.getFile(), position, count, new Runnable() {
+          @Override
+          public void run() {
+            final ByteBuf piece = ctx.alloc().buffer(count);
+            RandomAccessFile file = null;
+            try {
+              file = new RandomAccessFile(chunk.getFile(), "r");
+              FileChannel channel = file.getChannel();
+              channel.position(position);
+              while (piece.writerIndex() < count) {
+                if (piece.writeBytes(channel, count - piece.writerIndex()) < 0) {
+                  throw new EOFException(chunk.getFile() + " is shorter than " + (position + count));
+                }
+              }
+            } catch (final Throwable t) {
+              piece.release();
+              ctx.executor().execute(new Runnable() {
+                @Override
+                public void run() {
+                  LOG.error("Cannot read " + chunk.getFile(), t);
+                  fail(t);
+                }
+              });
+              return;
+            } finally {
+              IOUtils.cleanup(LOG, file);
+            }
+
+            ctx.executor().execute(new Runnable() {
+              @Override
+              public void run() {
+                writePiece(piece);
+              }
+            });
+          }
+        });
+      }
+
+      private void writePiece(ByteBuf piece) {
+        if (index >= messages.size()) {
+          // the response has already failed
+          piece.release();
+          return;
+        }
+
+        FileChunk chunk = (FileChunk) messages.get(index);
+        if (written == 0) {
+          metrics.shuffleConnections.incr();
+        }
+        metrics.shuffleOutputBytes.incr(piece.readableBytes());
+        written += piece.readableBytes();
+        if (written == chunk.length()) {
+          completeFileChunk(chunk.startOffset(), chunk.length(), requestUri, startTime);
+          index++;
+          written = 0;
+        }
+        ctx.writeAndFlush(piece).addListener(this);
+      }
+
+      /**
+       * Called when a piece has been written.
+       */
+      @Override
+      public void operationComplete(ChannelFuture future) throws Exception {
+        if (!future.isSuccess()) {
+          fail(future.cause());
+          return;
+        }
+        writeNext();
+      }
+
+      /**
+       * @return the future of the write, or null if the file cannot be read
+       */
+      private ChannelFuture writeFile(FileChunk chunk) {
+        RandomAccessFile spill = null;
+        ChannelFuture writeFuture;
+        try {
+          spill = new RandomAccessFile(chunk.getFile(), "r");
+          if (ctx.pipeline().get(SslHandler.class) == null) {
+            final FadvisedFileRegion filePart = new FadvisedFileRegion(spill, chunk.startOffset(), chunk.length(),
+                manageOsCache, readaheadLength, readaheadPool, chunk.getFile().getAbsolutePath());
+            writeFuture = ctx.write(filePart);
+            writeFuture.addListener(new FileCloseListener(filePart, requestUri, startTime,
+                TajoPullServerService.this));
+          } else {
+            // HTTPS cannot be done with zero copy.
+            FadvisedChunkedFile message = new FadvisedChunkedFile(spill, chunk.startOffset(), chunk.length(),
+                sslFileBufferSize, manageOsCache, readaheadLength, readaheadPool, chunk.getFile().getAbsolutePath());
+            writeFuture = ctx.write(message);
+          }
+        } catch (Throwable e) {
+          if (e instanceof FileNotFoundException) {
+            LOG.info(chunk.getFile() + " not found");
+          } else {
+            LOG.error("Cannot send " + chunk.getFile(), e);
+          }
+          IOUtils.cleanup(LOG, spill);
+          fail(e);
+          return null;
+        }
+        metrics.shuffleConnections.incr();
+        metrics.shuffleOutputBytes.incr(chunk.length()); // optimistic
+        return writeFuture;
+      }
+
+      /**
+       * The response cannot be completed after its header has been written, so the connection is closed.
+       */
+      private void fail(Throwable cause) {
+        for (int i = index; i < messages.size(); i++) {
+          ReferenceCountUtil.release(messages.get(i));
+        }
+        index = messages.size();
+        promise.tryFailure(cause);
+        ctx.channel().close();
+      }
     }
 
     private void sendError(ChannelHandlerContext ctx,
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * It consolidates the flushes of a channel, so that many small messages are sent with fewer system calls.
+ *
+ * Flushes requested while messages are being read, such as the responses written in a read loop, are delayed
+ * until the read is completed. If a flush window is given, the other flushes are delayed by up to the window.
+ * In both cases, the pending messages are flushed as soon as the number of delayed flushes reaches a limit.
+ * All methods are called in the event loop of the channel, so no synchronization is needed.
+ */
+public class FlushConsolidationHandler extends ChannelDuplexHandler {
+  public static final int DEFAULT_MAX_PENDING_FLUSHES = 256;
+
+  private final long flushWindowNanos;
+  private final int maxPendingFlushes;
+
+  private ChannelHandlerContext ctx;
+  private boolean readInProgress = false;
+  private int pendingFlushes = 0;
+  private ScheduledFuture<?> scheduledFlush;
+
+  private final Runnable flushTask = new Runnable() {
+    @Override
+    public void run() {
+      scheduledFlush = null;
+      if (pendingFlushes > 0 && !readInProgress) {
+        flushNow(ctx);
+      }
+    }
+  };
+
+  /**
+   * @param flushWindowMicros The maximum delay of a flush requested out of a read loop. If it is 0, such flushes
+   *                          are not delayed.
+   */
+  public FlushConsolidationHandler(long flushWindowMicros) {
+    this(flushWindowMicros, DEFAULT_MAX_PENDING_FLUSHES);
+  }
+
+  public FlushConsolidationHandler(long flushWindowMicros, int maxPendingFlushes) {
+    this.flushWindowNanos = TimeUnit.MICROSECONDS.toNanos(flushWindowMicros);
+    this.maxPendingFlushes = maxPendingFlushes;
+  }
+
+  @Override
+  public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+    this.ctx = ctx;
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+    flushIfPending(ctx);
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    readInProgress = true;
+    ctx.fireChannelRead(msg);
+  }
+
+  @Override
+  public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+    readInProgress = false;
+    flushIfPending(ctx);
+    ctx.fireChannelReadComplete();
+  }
+
+  @Override
+  public void flush(ChannelHandlerContext ctx) throws Exception {
+    if (readInProgress) {
+      if (++pendingFlushes >= maxPendingFlushes) {
+        flushNow(ctx);
+      }
+    } else if (flushWindowNanos > 0) {
+      if (++pendingFlushes >= maxPendingFlushes) {
+        flushNow(ctx);
+      } else if (scheduledFlush == null) {
+        scheduledFlush = ctx.executor().schedule(flushTask, flushWindowNanos, TimeUnit.NANOSECONDS);
+      }
+    } else {
+      flushNow(ctx);
+    }
+  }
+
+  @Override
+  public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+    flushIfPending(ctx);
+    ctx.disconnect(promise);
+  }
+
+  @Override
+  public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+    flushIfPending(ctx);
+    ctx.close(promise);
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+    flushIfPending(ctx);
+    ctx.fireExceptionCaught(cause);
+  }
+
+  private void flushIfPending(ChannelHandlerContext ctx) {
+    if (pendingFlushes > 0) {
+      flushNow(ctx);
+    }
+  }
+
+  private void flushNow(ChannelHandlerContext ctx) {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    pendingFlushes = 0;
+    ctx.flush();
+  }
+}
@@ -40,6 +40,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -61,6 +63,9 @@ public class NettyServerBase {
   private InetSocketAddress initIsa;
   private Set<RpcEventListener> listeners = Collections.synchronizedSet(new HashSet<RpcEventListener>());
 
+  private volatile RpcMetricsListener metricsListener;
+  private final ConcurrentMap<String, AtomicInteger> inFlightCalls = new ConcurrentHashMap<String, AtomicInteger>();
+
   public NettyServerBase(InetSocketAddress address) {
     this.initIsa = address;
   }
@@ -233,6 +238,41 @@ public class NettyServerBase {
     }
   }
   
+  public void setMetricsListener(RpcMetricsListener metricsListener) {
+    this.metricsListener = metricsListener;
+  }
+
+  /**
+   * @return the start time of a call in nanoseconds, or 0 if no metrics listener is set
+   */
+  protected long beginCall(String methodName) {
+    RpcMetricsListener listener = metricsListener;
+    if (listener == null) {
+      return 0;
+    }
+
+    AtomicInteger inFlight = inFlightCalls.get(methodName);
+    if (inFlight == null) {
+      AtomicInteger newInFlight = new AtomicInteger(0);
+      inFlight = inFlightCalls.putIfAbsent(methodName, newInFlight);
+      if (inFlight == null) {
+        inFlight = newInFlight;
+      }
+    }
+    listener.onCallStarted(serviceName, methodName, inFlight.incrementAndGet());
+    return System.nanoTime();
+  }
+
+  protected void endCall(String methodName, long startTime) {
+    RpcMetricsListener listener = metricsListener;
+    if (startTime == 0 || listener == null) {
+      return;
+    }
+
+    inFlightCalls.get(methodName).decrementAndGet();
+    listener.onCallFinished(serviceName, methodName, System.nanoTime() - startTime);
+  }
+
   public void addListener(RpcEventListener listener) {
     listeners.add(listener);
   }
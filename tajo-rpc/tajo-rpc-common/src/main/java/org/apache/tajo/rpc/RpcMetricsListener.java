@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+/**
+ * Listener of the calls handled by an RPC server. It is called by the threads of the server,
+ * so an implementation should be thread-safe and cheap.
+ */
+public interface RpcMetricsListener {
+
+  /**
+   * Called when a call is started.
+   * @param serviceName The name of the RPC server
+   * @param methodName The called method
+   * @param inFlight The number of calls of the method in progress, including this call
+   */
+  public void onCallStarted(String serviceName, String methodName, int inFlight);
+
+  /**
+   * Called when a call is finished.
+   * @param serviceName The name of the RPC server
+   * @param methodName The called method
+   * @param elapsedNanos The elapsed time of the call in nanoseconds
+   */
+  public void onCallFinished(String serviceName, String methodName, long elapsedNanos);
+}
@@ -60,6 +60,18 @@ public class AsyncRpcClient extends NettyClientBase {
     init(new ProtoChannelInitializer(inboundHandler, RpcResponse.getDefaultInstance()));
   }
 
+  /**
+   * Create a client whose requests written in a flush window are sent together.
+   */
+  AsyncRpcClient(RpcConnectionKey rpcConnectionKey, int retries, long flushWindowMicros)
+      throws ClassNotFoundException, NoSuchMethodException {
+    super(rpcConnectionKey, retries);
+    stubMethod = getServiceClass().getMethod("newStub", RpcChannel.class);
+    rpcChannel = new ProxyRpcChannel();
+    inboundHandler = new ClientChannelInboundHandler();
+    init(new ProtoChannelInitializer(inboundHandler, RpcResponse.getDefaultInstance(), flushWindowMicros));
+  }
+
   @Override
   public <T> T getStub() {
     return getStub(stubMethod, rpcChannel);
@@ -31,12 +31,13 @@ import io.netty.util.ReferenceCountUtil;
 
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class AsyncRpcServer extends NettyServerBase {
   private static final Log LOG = LogFactory.getLog(AsyncRpcServer.class);
 
   private final Service service;
-  private final ChannelInitializer<Channel> initializer;
+  private final ProtoChannelInitializer initializer;
 
   public AsyncRpcServer(final Class<?> protocol,
                         final Object instance,
@@ -56,6 +57,14 @@ public class AsyncRpcServer extends NettyServerBase {
     super.init(this.initializer, workerNum);
   }
 
+  /**
+   * Set the maximum delay of flushing responses which are written out of a read loop.
+   * It is applied to the connections accepted later.
+   */
+  public void setFlushWindowMicros(long flushWindowMicros) {
+    initializer.setFlushWindowMicros(flushWindowMicros);
+  }
+
   @ChannelHandler.Sharable
   private class ServerHandler extends ChannelInboundHandlerAdapter {
 
@@ -102,10 +111,17 @@ public class AsyncRpcServer extends NettyServerBase {
           }
 
           final RpcController controller = new NettyRpcController();
+          final String calledMethodName = methodName;
+          final long startTime = beginCall(methodName);
+          // a call is ended only once, whether it responds or fails
+          final AtomicBoolean callEnded = new AtomicBoolean(false);
 
           RpcCallback<Message> callback = !request.hasId() ? null : new RpcCallback<Message>() {
 
             public void run(Message returnValue) {
+              if (callEnded.compareAndSet(false, true)) {
+                endCall(calledMethodName, startTime);
+              }
 
               RpcResponse.Builder builder = RpcResponse.newBuilder().setId(request.getId());
 
@@ -121,7 +137,16 @@ public class AsyncRpcServer extends NettyServerBase {
             }
           };
 
-          service.callMethod(methodDescriptor, controller, paramProto, callback);
+          boolean called = false;
+          try {
+            service.callMethod(methodDescriptor, controller, paramProto, callback);
+            called = true;
+          } finally {
+            // one-way calls do not respond, and neither do the calls which throw an exception
+            if ((callback == null || !called) && callEnded.compareAndSet(false, true)) {
+              endCall(methodName, startTime);
+            }
+          }
 
         } finally {
           ReferenceCountUtil.release(msg);
@@ -60,6 +60,18 @@ public class BlockingRpcClient extends NettyClientBase {
     init(new ProtoChannelInitializer(inboundHandler, RpcResponse.getDefaultInstance()));
   }
 
+  /**
+   * Create a client whose requests written in a flush window are sent together.
+   */
+  BlockingRpcClient(RpcConnectionKey rpcConnectionKey, int retries, long flushWindowMicros)
+      throws ClassNotFoundException, NoSuchMethodException {
+    super(rpcConnectionKey, retries);
+    stubMethod = getServiceClass().getMethod("newBlockingStub", BlockingRpcChannel.class);
+    rpcChannel = new ProxyRpcChannel();
+    inboundHandler = new ClientChannelInboundHandler();
+    init(new ProtoChannelInitializer(inboundHandler, RpcResponse.getDefaultInstance(), flushWindowMicros));
+  }
+
   @Override
   public <T> T getStub() {
     return getStub(stubMethod, rpcChannel);
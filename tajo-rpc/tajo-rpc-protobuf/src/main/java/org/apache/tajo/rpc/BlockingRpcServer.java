@@ -37,7 +37,7 @@ import java.net.InetSocketAddress;
 public class BlockingRpcServer extends NettyServerBase {
   private static Log LOG = LogFactory.getLog(BlockingRpcServer.class);
   private final BlockingService service;
-  private final ChannelInitializer<Channel> initializer;
+  private final ProtoChannelInitializer initializer;
 
   public BlockingRpcServer(final Class<?> protocol,
                            final Object instance,
@@ -61,6 +61,14 @@ public class BlockingRpcServer extends NettyServerBase {
     super.init(this.initializer, workerNum);
   }
 
+  /**
+   * Set the maximum delay of flushing responses which are written out of a read loop.
+   * It is applied to the connections accepted later.
+   */
+  public void setFlushWindowMicros(long flushWindowMicros) {
+    initializer.setFlushWindowMicros(flushWindowMicros);
+  }
+
   @ChannelHandler.Sharable
   private class ServerHandler extends ChannelInboundHandlerAdapter {
 
@@ -109,10 +117,13 @@ public class BlockingRpcServer extends NettyServerBase {
           Message returnValue;
           RpcController controller = new NettyRpcController();
 
+          long startTime = beginCall(methodName);
           try {
             returnValue = service.callBlockingMethod(methodDescriptor, controller, paramProto);
           } catch (Throwable t) {
             throw new RemoteCallException(request.getId(), methodDescriptor, t);
+          } finally {
+            endCall(methodName, startTime);
           }
 
           RpcResponse.Builder builder = RpcResponse.newBuilder().setId(request.getId());
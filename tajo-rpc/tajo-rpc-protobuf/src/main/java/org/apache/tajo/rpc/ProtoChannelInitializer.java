@@ -22,29 +22,44 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
-import io.netty.handler.codec.protobuf.ProtobufDecoder;
-import io.netty.handler.codec.protobuf.ProtobufEncoder;
-import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
-import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
 
 import com.google.protobuf.MessageLite;
 
 class ProtoChannelInitializer extends ChannelInitializer<Channel> {
+  private static final ProtoFrameEncoder ENCODER = new ProtoFrameEncoder();
+
   private final MessageLite defaultInstance;
   private final ChannelHandler handler;
+  private volatile long flushWindowMicros;
 
   public ProtoChannelInitializer(ChannelHandler handler, MessageLite defaultInstance) {
     this.handler = handler;
     this.defaultInstance = defaultInstance;
+    this.flushWindowMicros = 0;
+  }
+
+  public ProtoChannelInitializer(ChannelHandler handler, MessageLite defaultInstance, long flushWindowMicros) {
+    this.handler = handler;
+    this.defaultInstance = defaultInstance;
+    this.flushWindowMicros = flushWindowMicros;
+  }
+
+  /**
+   * Set the maximum delay of flushes requested out of a read loop, for the channels initialized later.
+   */
+  public void setFlushWindowMicros(long flushWindowMicros) {
+    this.flushWindowMicros = flushWindowMicros;
   }
 
   @Override
   protected void initChannel(Channel channel) throws Exception {
     ChannelPipeline pipeline = channel.pipeline();
-    pipeline.addLast("frameDecoder", new ProtobufVarint32FrameDecoder());
-    pipeline.addLast("protobufDecoder", new ProtobufDecoder(defaultInstance));
-    pipeline.addLast("frameEncoder", new ProtobufVarint32LengthFieldPrepender());
-    pipeline.addLast("protobufEncoder", new ProtobufEncoder());
+    pipeline.addLast("protobufDecoder", new ProtoFrameDecoder(defaultInstance));
+    pipeline.addLast("protobufEncoder", ENCODER);
+    long window = flushWindowMicros;
+    if (window > 0) {
+      pipeline.addLast("flushConsolidation", new FlushConsolidationHandler(window));
+    }
     pipeline.addLast("handler", handler);
   }
 }
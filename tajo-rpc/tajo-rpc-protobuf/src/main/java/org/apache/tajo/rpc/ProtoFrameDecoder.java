@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.util.List;
+
+/**
+ * It decodes protobuf messages, each of which is prefixed with its varint32 length.
+ *
+ * Unlike a pair of ProtobufVarint32FrameDecoder and ProtobufDecoder, a message is parsed in place from
+ * the received buffer. A frame is neither copied into a new buffer nor into a byte array, even if
+ * the buffer is a pooled direct one.
+ */
+class ProtoFrameDecoder extends ByteToMessageDecoder {
+  private final Parser<? extends MessageLite> parser;
+
+  public ProtoFrameDecoder(MessageLite defaultInstance) {
+    this.parser = defaultInstance.getParserForType();
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+    while (in.isReadable()) {
+      in.markReaderIndex();
+      int length = readRawVarint32(in);
+      if (length < 0) {
+        in.resetReaderIndex();
+        return;
+      }
+      if (in.readableBytes() < length) {
+        in.resetReaderIndex();
+        return;
+      }
+
+      MessageLite message;
+      if (in.hasArray()) {
+        message = parser.parseFrom(in.array(), in.arrayOffset() + in.readerIndex(), length);
+      } else {
+        message = parser.parseFrom(new ByteBufInputStream(in.slice(in.readerIndex(), length)));
+      }
+      in.skipBytes(length);
+      out.add(message);
+    }
+  }
+
+  /**
+   * @return the length of a frame, or -1 if the length is not received entirely yet
+   */
+  private static int readRawVarint32(ByteBuf in) {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      if (!in.isReadable()) {
+        return -1;
+      }
+      byte b = in.readByte();
+      result |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        if (result < 0) {
+          throw new CorruptedFrameException("negative length: " + result);
+        }
+        return result;
+      }
+    }
+    throw new CorruptedFrameException("length wider than 32-bit");
+  }
+}
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * It encodes a protobuf message prefixed with its varint32 length.
+ *
+ * Unlike a pair of ProtobufVarint32LengthFieldPrepender and ProtobufEncoder, a message is serialized
+ * directly into a single pooled buffer, instead of a byte array which is copied again with its length.
+ */
+@ChannelHandler.Sharable
+class ProtoFrameEncoder extends MessageToByteEncoder<MessageLite> {
+  private static final int MAX_BUFFER_SIZE = 4096;
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, MessageLite msg, ByteBuf out) throws Exception {
+    int length = msg.getSerializedSize();
+    int frameLength = CodedOutputStream.computeRawVarint32Size(length) + length;
+    out.ensureWritable(frameLength);
+
+    if (out.hasArray()) {
+      CodedOutputStream output =
+          CodedOutputStream.newInstance(out.array(), out.arrayOffset() + out.writerIndex(), frameLength);
+      output.writeRawVarint32(length);
+      msg.writeTo(output);
+      out.writerIndex(out.writerIndex() + frameLength);
+    } else {
+      CodedOutputStream output =
+          CodedOutputStream.newInstance(new ByteBufOutputStream(out), Math.min(frameLength, MAX_BUFFER_SIZE));
+      output.writeRawVarint32(length);
+      msg.writeTo(output);
+      output.flush();
+    }
+  }
+}
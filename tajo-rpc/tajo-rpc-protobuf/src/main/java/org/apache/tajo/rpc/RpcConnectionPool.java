@@ -36,6 +36,7 @@ public class RpcConnectionPool {
 
   private static RpcConnectionPool instance;
   private final Object lockObject = new Object();
+  private volatile long flushWindowMicros = 0;
 
   public final static int RPC_RETRIES = 3;
 
@@ -54,13 +55,21 @@ public class RpcConnectionPool {
       throws NoSuchMethodException, ClassNotFoundException, ConnectTimeoutException {
     NettyClientBase client;
     if(rpcConnectionKey.asyncMode) {
-      client = new AsyncRpcClient(rpcConnectionKey, RPC_RETRIES);
+      client = new AsyncRpcClient(rpcConnectionKey, RPC_RETRIES, flushWindowMicros);
     } else {
-      client = new BlockingRpcClient(rpcConnectionKey, RPC_RETRIES);
+      client = new BlockingRpcClient(rpcConnectionKey, RPC_RETRIES, flushWindowMicros);
     }
     return client;
   }
 
+  /**
+   * Set the maximum delay of flushing requests, so that the small requests sent through a connection
+   * at nearly the same time are written together. It is applied to the connections made later.
+   */
+  public void setFlushWindowMicros(long flushWindowMicros) {
+    this.flushWindowMicros = flushWindowMicros;
+  }
+
   public static final long DEFAULT_TIMEOUT = 3000;
   public static final long DEFAULT_INTERVAL = 500;
 
@@ -93,6 +102,20 @@ public class RpcConnectionPool {
     throw new ConnectTimeoutException("Failed to get connection for " + timeout + " msec");
   }
 
+  /**
+   * Make a connection which is not shared with other callers through the pool, so that its calls are not queued
+   * behind the ones of the pooled connection. The caller is responsible for closing it.
+   */
+  public NettyClientBase getDedicatedConnection(InetSocketAddress addr, Class<?> protocolClass, boolean asyncMode)
+      throws NoSuchMethodException, ClassNotFoundException, ConnectTimeoutException {
+    NettyClientBase client = makeConnection(new RpcConnectionKey(addr, protocolClass, asyncMode));
+    if (!client.acquire(DEFAULT_TIMEOUT)) {
+      client.close();
+      throw new ConnectTimeoutException("Failed to get connection for " + DEFAULT_TIMEOUT + " msec");
+    }
+    return client;
+  }
+
   public void releaseConnection(NettyClientBase client) {
     if (client != null) {
       release(client, false);
@@ -19,6 +19,7 @@
 package org.apache.tajo.rpc;
 
 import com.google.protobuf.RpcCallback;
+import com.google.protobuf.RpcController;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.rpc.test.DummyProtocol;
@@ -342,4 +343,41 @@ public class TestAsyncRpc {
     assertEquals(future.get(), echoMessage);
     assertTrue(future.isDone());
   }
+
+  @Test
+  @SetupRpcConnection(setupRpcServer=false,setupRpcClient=false)
+  public void testMetricsOfFailedCall() throws Exception {
+    service = new DummyProtocolAsyncImpl() {
+      @Override
+      public void throwException(RpcController controller, EchoMessage request, RpcCallback<EchoMessage> done) {
+        throw new RuntimeException("failed in the server");
+      }
+    };
+    final CountDownLatch finished = new CountDownLatch(1);
+    server = new AsyncRpcServer(DummyProtocol.class, service, new InetSocketAddress("127.0.0.1", 0), 2);
+    server.setMetricsListener(new RpcMetricsListener() {
+      @Override
+      public void onCallStarted(String serviceName, String methodName, int inFlight) {
+      }
+
+      @Override
+      public void onCallFinished(String serviceName, String methodName, long elapsedNanos) {
+        finished.countDown();
+      }
+    });
+    server.start();
+
+    try {
+      setUpRpcClient();
+      EchoMessage echoMessage = EchoMessage.newBuilder()
+          .setMessage(MESSAGE).build();
+      stub.throwException(null, echoMessage, new CallFuture<EchoMessage>());
+
+      // the call is never responded, but it must not remain in flight
+      assertTrue(finished.await(10, TimeUnit.SECONDS));
+    } finally {
+      tearDownRpcClient();
+      tearDownRpcServer();
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestFlushConsolidationHandler {
+  /** It responds to each message with the same message, and flushes it */
+  private static class EchoHandler extends ChannelInboundHandlerAdapter {
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+      ctx.writeAndFlush(msg);
+    }
+  }
+
+  @Test
+  public void testFlushAfterRead() {
+    EmbeddedChannel channel = new EmbeddedChannel(new FlushConsolidationHandler(0), new EchoHandler());
+
+    // the responses written while reading are flushed when the read is completed
+    channel.pipeline().fireChannelRead("first");
+    channel.pipeline().fireChannelRead("second");
+    assertNull(channel.readOutbound());
+    channel.pipeline().fireChannelReadComplete();
+    assertEquals("first", channel.readOutbound());
+    assertEquals("second", channel.readOutbound());
+    assertNull(channel.readOutbound());
+
+    // without a window, a flush out of a read is not delayed
+    channel.writeAndFlush("third");
+    assertEquals("third", channel.readOutbound());
+    assertFalse(channel.finish());
+  }
+
+  @Test
+  public void testMaxPendingFlushes() {
+    EmbeddedChannel channel = new EmbeddedChannel(new FlushConsolidationHandler(0, 3), new EchoHandler());
+
+    channel.pipeline().fireChannelRead("first");
+    channel.pipeline().fireChannelRead("second");
+    assertNull(channel.readOutbound());
+
+    // the pending messages are flushed when the number of delayed flushes reaches the limit
+    channel.pipeline().fireChannelRead("third");
+    assertEquals("first", channel.readOutbound());
+    assertEquals("second", channel.readOutbound());
+    assertEquals("third", channel.readOutbound());
+    assertNull(channel.readOutbound());
+    assertFalse(channel.finish());
+  }
+
+  @Test
+  public void testFlushOnClose() {
+    EmbeddedChannel channel = new EmbeddedChannel(new FlushConsolidationHandler(0), new EchoHandler());
+
+    channel.pipeline().fireChannelRead("delayed");
+    assertNull(channel.readOutbound());
+
+    // closing a channel flushes the delayed messages first
+    channel.close();
+    assertEquals("delayed", channel.readOutbound());
+    assertNull(channel.readOutbound());
+  }
+}
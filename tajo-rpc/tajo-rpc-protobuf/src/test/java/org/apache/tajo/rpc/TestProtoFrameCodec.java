@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.tajo.rpc.test.TestProtos.EchoMessage;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestProtoFrameCodec {
+
+  private static ByteBuf encode(EchoMessage... messages) {
+    EmbeddedChannel channel = new EmbeddedChannel(new ProtoFrameEncoder());
+    for (EchoMessage message : messages) {
+      assertTrue(channel.writeOutbound(message));
+    }
+    ByteBuf frames = Unpooled.buffer();
+    ByteBuf frame;
+    while ((frame = (ByteBuf) channel.readOutbound()) != null) {
+      frames.writeBytes(frame);
+      frame.release();
+    }
+    channel.finish();
+    return frames;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    EchoMessage small = EchoMessage.newBuilder().setMessage("small").build();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      sb.append(i);
+    }
+    EchoMessage large = EchoMessage.newBuilder().setMessage(sb.toString()).build();
+    ByteBuf frames = encode(small, large, small);
+
+    EmbeddedChannel channel = new EmbeddedChannel(new ProtoFrameDecoder(EchoMessage.getDefaultInstance()));
+    assertTrue(channel.writeInbound(frames));
+    assertEquals(small, channel.readInbound());
+    assertEquals(large, channel.readInbound());
+    assertEquals(small, channel.readInbound());
+    assertNull(channel.readInbound());
+    assertFalse(channel.finish());
+  }
+
+  @Test
+  public void testPartialFrames() {
+    EchoMessage message = EchoMessage.newBuilder().setMessage("TestProtoFrameCodec").build();
+    ByteBuf frames = encode(message, message);
+    int length = frames.readableBytes();
+
+    EmbeddedChannel channel = new EmbeddedChannel(new ProtoFrameDecoder(EchoMessage.getDefaultInstance()));
+    // the first frame is split in its middle
+    assertFalse(channel.writeInbound(frames.readBytes(5)));
+    assertNull(channel.readInbound());
+    assertTrue(channel.writeInbound(frames.readBytes(length - 6)));
+    assertEquals(message, channel.readInbound());
+    assertNull(channel.readInbound());
+    assertTrue(channel.writeInbound(frames.readBytes(1)));
+    assertEquals(message, channel.readInbound());
+    frames.release();
+    assertFalse(channel.finish());
+  }
+
+  @Test
+  public void testDirectBuffer() {
+    EchoMessage message = EchoMessage.newBuilder().setMessage("TestProtoFrameCodec").build();
+    ByteBuf frames = encode(message);
+    ByteBuf direct = Unpooled.directBuffer(frames.readableBytes());
+    direct.writeBytes(frames);
+    frames.release();
+
+    EmbeddedChannel channel = new EmbeddedChannel(new ProtoFrameDecoder(EchoMessage.getDefaultInstance()));
+    assertTrue(channel.writeInbound(direct));
+    assertEquals(message, channel.readInbound());
+    assertFalse(channel.finish());
+  }
+}
@@ -78,6 +78,12 @@ public abstract class StorageManager {
     }
   };
 
+  public static final PathFilter fileStatsFilter = new PathFilter() {
+    public boolean accept(Path p) {
+      return StorageUtil.isFileStatsPath(p);
+    }
+  };
+
   protected TajoConf conf;
   protected StoreType storeType;
 
@@ -700,6 +706,9 @@ public abstract class StorageManager {
                 for (FileStatus status : fs.listStatus(finalOutputDir, StorageManager.hiddenFileFilter)) {
                   fs.rename(status.getPath(), oldTableDir);
                 }
+                for (FileStatus status : fs.listStatus(finalOutputDir, StorageManager.fileStatsFilter)) {
+                  fs.rename(status.getPath(), oldTableDir);
+                }
 
                 movedToOldTable = fs.exists(oldTableDir);
               } else { // if the parent does not exist, make its parent directory.
@@ -722,6 +731,9 @@ public abstract class StorageManager {
                 for (FileStatus status : fs.listStatus(finalOutputDir, StorageManager.hiddenFileFilter)) {
                   fs.delete(status.getPath(), true);
                 }
+                for (FileStatus status : fs.listStatus(finalOutputDir, StorageManager.fileStatsFilter)) {
+                  fs.delete(status.getPath(), true);
+                }
 
                 for (FileStatus status : fs.listStatus(oldTableDir)) {
                   fs.rename(status.getPath(), finalOutputDir);
@@ -751,7 +763,7 @@ public abstract class StorageManager {
             } else {
               int maxSeq = StorageUtil.getMaxFileSequence(fs, finalOutputDir, false) + 1;
               for(FileStatus eachFile: fs.listStatus(stagingResultDir)) {
-                if (eachFile.getPath().getName().startsWith("_")) {
+                if (eachFile.getPath().getName().startsWith("_") || StorageUtil.isFileStatsPath(eachFile.getPath())) {
                   continue;
                 }
                 moveResultFromStageToFinal(fs, stagingResultDir, eachFile, finalOutputDir, fmt, maxSeq++, changeFileSeq);
@@ -815,7 +827,7 @@ public abstract class StorageManager {
         }
         int maxSeq = StorageUtil.getMaxFileSequence(fs, finalSubPath, false);
         for (FileStatus eachFile : fs.listStatus(fileStatus.getPath())) {
-          if (eachFile.getPath().getName().startsWith("_")) {
+          if (eachFile.getPath().getName().startsWith("_") || StorageUtil.isFileStatsPath(eachFile.getPath())) {
             continue;
           }
           moveResultFromStageToFinal(fs, stagingResultDir, eachFile, finalOutputPath, nf, ++maxSeq, changeFileSeq);
@@ -840,6 +852,11 @@ public abstract class StorageManager {
         if (success) {
           LOG.info("Moving staging file[" + fileStatus.getPath() + "] + " +
               "to final output[" + finalSubPath + "]");
+          // the statistics file follows the renamed data file
+          Path statsPath = StorageUtil.getFileStatsPath(fileStatus.getPath());
+          if (fs.exists(statsPath)) {
+            fs.rename(statsPath, StorageUtil.getFileStatsPath(finalSubPath));
+          }
         } else {
           LOG.error("Can't move staging file[" + fileStatus.getPath() + "] + " +
               "to final output[" + finalSubPath + "]");
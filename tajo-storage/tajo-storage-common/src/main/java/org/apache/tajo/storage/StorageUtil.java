@@ -31,6 +31,7 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 
 public class StorageUtil extends StorageConstants {
+  public static final String FILE_STATS_SUFFIX = ".stats";
 
   public static int getColByteSize(Column col) {
     switch (col.getDataType().getType()) {
@@ -135,6 +136,22 @@ public class StorageUtil extends StorageConstants {
     return maxValue;
   }
 
+  /**
+   * Returns the path of a hidden file which keeps the statistics of a given data file.
+   * It is located in the same directory as the data file, so it is moved together on commit.
+   *
+   * @param dataFilePath The path of a data file
+   * @return The path of the statistics file
+   */
+  public static Path getFileStatsPath(Path dataFilePath) {
+    return new Path(dataFilePath.getParent(), "." + dataFilePath.getName() + FILE_STATS_SUFFIX);
+  }
+
+  public static boolean isFileStatsPath(Path path) {
+    String name = path.getName();
+    return name.startsWith(".") && name.endsWith(FILE_STATS_SUFFIX);
+  }
+
   // 0.8: pathName = part-<ExecutionBlockId.seq>-<TaskId.seq>
   // 0.9: pathName = part-<ExecutionBlockId.seq>-<TaskId.seq>-<Sequence>
   private static int getSequence(String name) {
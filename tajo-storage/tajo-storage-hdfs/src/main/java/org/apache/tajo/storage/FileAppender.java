@@ -79,6 +79,10 @@ public abstract class FileAppender implements Appender {
     this.enabledStats = true;
   }
 
+  public Path getPath() {
+    return path;
+  }
+
   public long getEstimatedOutputSize() throws IOException {
     return getOffset();
   }
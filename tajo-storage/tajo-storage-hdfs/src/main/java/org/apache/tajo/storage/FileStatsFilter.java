@@ -0,0 +1,255 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import com.google.common.collect.Maps;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.*;
+import org.apache.tajo.catalog.proto.CatalogProtos.TableStatsProto;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.expr.*;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FileStatsFilter decides whether a data file can be skipped for a scan qual.
+ *
+ * When a table is written, the statistics of each data file (i.e., min/max values and the number of nulls
+ * of each column) are kept in a hidden file next to the data file. When a table is split into fragments,
+ * a data file is skipped if its value ranges cannot satisfy the qual. The length and the modification time of
+ * the data file are kept together in the statistics file, and the statistics are ignored if either of them differs,
+ * i.e., the data file has been rewritten since its statistics were written.
+ */
+public class FileStatsFilter {
+  private static final Log LOG = LogFactory.getLog(FileStatsFilter.class);
+
+  private final EvalNode [] conjuncts;
+  /** statistics file paths for each directory */
+  private final Map<Path, Set<Path>> statsFileMap = Maps.newHashMap();
+
+  public FileStatsFilter(EvalNode qual) {
+    this.conjuncts = AlgebraicUtil.toConjunctiveNormalFormArray(qual);
+  }
+
+  /**
+   * Writes the statistics of a data file written by a given appender.
+   */
+  public static void writeFileStats(Appender appender) {
+    if (!(appender instanceof FileAppender) || appender.getStats() == null) {
+      return;
+    }
+
+    FileAppender fileAppender = (FileAppender) appender;
+    Path dataFile = fileAppender.getPath();
+    FSDataOutputStream out = null;
+    try {
+      FileSystem fs = dataFile.getFileSystem(fileAppender.conf);
+      FileStatus status = fs.getFileStatus(dataFile);
+
+      out = fs.create(StorageUtil.getFileStatsPath(dataFile), true);
+      DataOutputStream dos = new DataOutputStream(out);
+      dos.writeLong(status.getLen());
+      dos.writeLong(status.getModificationTime());
+      appender.getStats().getProto().writeTo(dos);
+      dos.flush();
+    } catch (IOException e) {
+      // the statistics file is optional, so the failure does not affect the query.
+      LOG.warn("Cannot write the statistics of " + dataFile + ": " + e.getMessage());
+    } finally {
+      org.apache.hadoop.io.IOUtils.closeStream(out);
+    }
+  }
+
+  /**
+   * Reads the statistics of a given data file.
+   *
+   * @return The statistics of the data file. If it does not exist or is outdated, it returns null.
+   */
+  public static TableStats readFileStats(FileSystem fs, FileStatus dataFile) throws IOException {
+    Path statsPath = StorageUtil.getFileStatsPath(dataFile.getPath());
+    FSDataInputStream in = null;
+    try {
+      in = fs.open(statsPath);
+      DataInputStream dis = new DataInputStream(in);
+      if (dis.readLong() != dataFile.getLen() || dis.readLong() != dataFile.getModificationTime()) {
+        return null;
+      }
+      return new TableStats(TableStatsProto.parseFrom(dis));
+    } finally {
+      org.apache.hadoop.io.IOUtils.closeStream(in);
+    }
+  }
+
+  /**
+   * Returns true if no row in a given data file can satisfy the qual.
+   */
+  public boolean canSkip(FileSystem fs, FileStatus dataFile) {
+    if (!hasStatsFile(fs, dataFile.getPath())) {
+      return false;
+    }
+
+    try {
+      TableStats stats = readFileStats(fs, dataFile);
+      return stats != null && canSkip(stats);
+    } catch (IOException e) {
+      LOG.warn("Cannot read the statistics of " + dataFile.getPath() + ": " + e.getMessage());
+      return false;
+    }
+  }
+
+  private boolean hasStatsFile(FileSystem fs, Path dataFile) {
+    Path dir = dataFile.getParent();
+    Set<Path> statsFiles = statsFileMap.get(dir);
+    if (statsFiles == null) {
+      statsFiles = new HashSet<Path>();
+      try {
+        for (FileStatus status : fs.listStatus(dir, StorageManager.fileStatsFilter)) {
+          statsFiles.add(status.getPath());
+        }
+      } catch (IOException e) {
+        LOG.warn("Cannot list the statistics files in " + dir + ": " + e.getMessage());
+      }
+      statsFileMap.put(dir, statsFiles);
+    }
+    return statsFiles.contains(StorageUtil.getFileStatsPath(dataFile));
+  }
+
+  public boolean canSkip(TableStats stats) {
+    for (EvalNode conjunct : conjuncts) {
+      if (isAlwaysFalse(conjunct, stats)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isAlwaysFalse(EvalNode eval, TableStats stats) {
+    if (eval.getType() == EvalType.BETWEEN) {
+      BetweenPredicateEval between = (BetweenPredicateEval) eval;
+      if (between.isNot() || between.isSymmetric() || between.getPredicand().getType() != EvalType.FIELD ||
+          between.getBegin().getType() != EvalType.CONST || between.getEnd().getType() != EvalType.CONST) {
+        return false;
+      }
+      ColumnStats range = findColumnStats(stats, (FieldEval) between.getPredicand());
+      Datum begin = ((ConstEval) between.getBegin()).getValue();
+      Datum end = ((ConstEval) between.getEnd()).getValue();
+      return range != null && isComparable(range, begin) && isComparable(range, end) &&
+          (range.getMaxValue().compareTo(begin) < 0 || range.getMinValue().compareTo(end) > 0);
+    }
+
+    if (!(eval instanceof BinaryEval)) {
+      return false;
+    }
+
+    BinaryEval binary = (BinaryEval) eval;
+    EvalType type = binary.getType();
+    FieldEval field;
+    ConstEval constant;
+    if (binary.getLeftExpr().getType() == EvalType.FIELD && binary.getRightExpr().getType() == EvalType.CONST) {
+      field = binary.getLeftExpr();
+      constant = binary.getRightExpr();
+    } else if (binary.getLeftExpr().getType() == EvalType.CONST &&
+        binary.getRightExpr().getType() == EvalType.FIELD) {
+      field = binary.getRightExpr();
+      constant = binary.getLeftExpr();
+      type = flip(type);
+    } else {
+      return false;
+    }
+
+    ColumnStats range = findColumnStats(stats, field);
+    Datum value = constant.getValue();
+    if (range == null || !isComparable(range, value)) {
+      return false;
+    }
+
+    switch (type) {
+    case EQUAL:
+      return range.getMinValue().compareTo(value) > 0 || range.getMaxValue().compareTo(value) < 0;
+    case LTH:
+      return range.getMinValue().compareTo(value) >= 0;
+    case LEQ:
+      return range.getMinValue().compareTo(value) > 0;
+    case GTH:
+      return range.getMaxValue().compareTo(value) <= 0;
+    case GEQ:
+      return range.getMaxValue().compareTo(value) < 0;
+    default:
+      return false;
+    }
+  }
+
+  private static EvalType flip(EvalType type) {
+    switch (type) {
+    case LTH:
+      return EvalType.GTH;
+    case LEQ:
+      return EvalType.GEQ;
+    case GTH:
+      return EvalType.LTH;
+    case GEQ:
+      return EvalType.LEQ;
+    default:
+      return type;
+    }
+  }
+
+  private static ColumnStats findColumnStats(TableStats stats, FieldEval field) {
+    String name = field.getColumnRef().getSimpleName();
+    for (ColumnStats columnStats : stats.getColumnStats()) {
+      if (columnStats.getColumn().getSimpleName().equals(name)) {
+        if (columnStats.minIsNotSet() || columnStats.maxIsNotSet()) {
+          return null;
+        }
+        return columnStats;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isComparable(ColumnStats range, Datum value) {
+    if (value.isNull()) {
+      return false;
+    }
+    Type statsType = range.getMinValue().type();
+    return statsType == value.type() || (isNumeric(statsType) && isNumeric(value.type()));
+  }
+
+  private static boolean isNumeric(Type type) {
+    switch (type) {
+    case INT2:
+    case INT4:
+    case INT8:
+    case FLOAT4:
+    case FLOAT8:
+      return true;
+    default:
+      return false;
+    }
+  }
+}
@@ -519,11 +519,23 @@ public class FileStorageManager extends StorageManager {
    */
   public List<Fragment> getSplits(String tableName, TableMeta meta, Schema schema, Path... inputs)
       throws IOException {
+    return getSplits(tableName, meta, schema, null, inputs);
+  }
+
+  /**
+   * Generate the list of files and make them into FileSplits.
+   * Files whose statistics cannot satisfy a given filter are skipped.
+   *
+   * @throws IOException
+   */
+  public List<Fragment> getSplits(String tableName, TableMeta meta, Schema schema, FileStatsFilter filter,
+                                  Path... inputs) throws IOException {
     // generate splits'
 
     List<Fragment> splits = Lists.newArrayList();
     List<Fragment> volumeSplits = Lists.newArrayList();
     List<BlockLocation> blockLocations = Lists.newArrayList();
+    int skippedFileNum = 0;
 
     for (Path p : inputs) {
       FileSystem fs = p.getFileSystem(conf);
@@ -539,6 +551,10 @@ public class FileStorageManager extends StorageManager {
       for (FileStatus file : files) {
         Path path = file.getPath();
         long length = file.getLen();
+        if (filter != null && length > 0 && filter.canSkip(fs, file)) {
+          skippedFileNum++;
+          continue;
+        }
         if (length > 0) {
           // Get locations of blocks of file
           BlockLocation[] blkLocations = fs.getFileBlockLocations(file, 0, length);
@@ -601,6 +617,9 @@ public class FileStorageManager extends StorageManager {
     // Combine original fileFragments with new VolumeId information
     setVolumeMeta(volumeSplits, blockLocations);
     splits.addAll(volumeSplits);
+    if (skippedFileNum > 0) {
+      LOG.info("# of files skipped by file statistics: " + skippedFileNum);
+    }
     LOG.info("Total # of splits: " + splits.size());
     return splits;
   }
@@ -663,7 +682,20 @@ public class FileStorageManager extends StorageManager {
 
   @Override
   public List<Fragment> getSplits(String tableName, TableDesc table, ScanNode scanNode) throws IOException {
-    return getSplits(tableName, table.getMeta(), table.getSchema(), new Path(table.getPath()));
+    return getSplits(tableName, table.getMeta(), table.getSchema(), createFileStatsFilter(scanNode),
+        new Path(table.getPath()));
+  }
+
+  /**
+   * Creates a filter to skip data files by the qual of a given scan node.
+   *
+   * @return A filter if the scan node has a qual and file statistics are enabled. Otherwise, null.
+   */
+  public FileStatsFilter createFileStatsFilter(ScanNode scanNode) {
+    if (scanNode == null || !scanNode.hasQual() || !conf.getBoolVar(TajoConf.ConfVars.FILE_STATS_ENABLED)) {
+      return null;
+    }
+    return new FileStatsFilter(scanNode.getQual());
   }
 
   @Override
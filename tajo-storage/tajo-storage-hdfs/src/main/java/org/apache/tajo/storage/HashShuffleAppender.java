@@ -44,6 +44,9 @@ public class HashShuffleAppender implements Appender {
   //<taskId,<page start offset,<task start, task end>>>
   private Map<TaskAttemptId, List<Pair<Long, Pair<Integer, Integer>>>> taskTupleIndexes;
 
+  //<taskId,<page start offset,<task start, task end>>> of succeeded tasks, which can be invalidated later
+  private Map<TaskAttemptId, List<Pair<Long, Pair<Integer, Integer>>>> finishedTaskTupleIndexes;
+
   //page start offset, length
   private List<Pair<Long, Integer>> pages = new ArrayList<Pair<Long, Integer>>();
 
@@ -70,6 +73,7 @@ public class HashShuffleAppender implements Appender {
   public void init() throws IOException {
     currentPage = new Pair(0L, 0);
     taskTupleIndexes = new HashMap<TaskAttemptId, List<Pair<Long, Pair<Integer, Integer>>>>();
+    finishedTaskTupleIndexes = new HashMap<TaskAttemptId, List<Pair<Long, Pair<Integer, Integer>>>>();
     rowNumInPage = 0;
   }
 
@@ -203,7 +207,28 @@ public class HashShuffleAppender implements Appender {
     return merged;
   }
 
+  /**
+   * Marks the tuples written by a given task as valid.
+   */
   public void taskFinished(TaskAttemptId taskId) {
-    taskTupleIndexes.remove(taskId);
+    synchronized(appender) {
+      List<Pair<Long, Pair<Integer, Integer>>> taskIndexes = taskTupleIndexes.remove(taskId);
+      if (taskIndexes != null) {
+        finishedTaskTupleIndexes.put(taskId, taskIndexes);
+      }
+    }
+  }
+
+  /**
+   * Marks the tuples written by a given finished task as invalid again. It is used when another attempt
+   * of the same task is chosen by QueryMaster, so that pull servers skip the tuples of this attempt.
+   */
+  public void taskInvalidated(TaskAttemptId taskId) {
+    synchronized(appender) {
+      List<Pair<Long, Pair<Integer, Integer>>> taskIndexes = finishedTaskTupleIndexes.remove(taskId);
+      if (taskIndexes != null) {
+        taskTupleIndexes.put(taskId, taskIndexes);
+      }
+    }
   }
 }
@@ -18,6 +18,7 @@
 
 package org.apache.tajo.storage;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FileStatus;
@@ -33,10 +34,7 @@ import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.util.Pair;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class HashShuffleAppenderManager {
@@ -44,6 +42,8 @@ public class HashShuffleAppenderManager {
 
   private Map<ExecutionBlockId, Map<Integer, PartitionAppenderMeta>> appenderMap =
       new ConcurrentHashMap<ExecutionBlockId, Map<Integer, PartitionAppenderMeta>>();
+  /** task attempts whose output must be skipped though they may have succeeded */
+  private Set<TaskAttemptId> invalidatedTasks = new HashSet<TaskAttemptId>();
   private TajoConf systemConf;
   private FileSystem defaultFS;
   private FileSystem localFS;
@@ -126,6 +126,12 @@ public class HashShuffleAppenderManager {
     Map<Integer, PartitionAppenderMeta> partitionAppenderMap = null;
     synchronized (appenderMap) {
       partitionAppenderMap = appenderMap.remove(ebId);
+      Iterator<TaskAttemptId> it = invalidatedTasks.iterator();
+      while (it.hasNext()) {
+        if (it.next().getTaskId().getExecutionBlockId().equals(ebId)) {
+          it.remove();
+        }
+      }
     }
 
     if (partitionAppenderMap == null) {
@@ -154,11 +160,15 @@ public class HashShuffleAppenderManager {
     return intermediateEntries;
   }
 
+  /**
+   * Marks the output of a succeeded task as valid. The output of a task which is not finalized is
+   * reported as failure ranges, and pull servers skip them.
+   */
   public void finalizeTask(TaskAttemptId taskId) {
     synchronized (appenderMap) {
       Map<Integer, PartitionAppenderMeta> partitionAppenderMap =
         appenderMap.get(taskId.getTaskId().getExecutionBlockId());
-      if (partitionAppenderMap == null) {
+      if (partitionAppenderMap == null || invalidatedTasks.contains(taskId)) {
         return;
       }
 
@@ -168,6 +178,34 @@ public class HashShuffleAppenderManager {
     }
   }
 
+  /**
+   * Invalidates the output of a task attempt whether it is finalized or not. It is called when the attempt
+   * is killed, for example, because another speculative attempt of the same task has already succeeded.
+   * A kill is ignored if its execution block has no open output, which is the case after the block is closed.
+   */
+  public void invalidateTask(TaskAttemptId taskId) {
+    synchronized (appenderMap) {
+      Map<Integer, PartitionAppenderMeta> partitionAppenderMap =
+          appenderMap.get(taskId.getTaskId().getExecutionBlockId());
+      if (partitionAppenderMap == null) {
+        // the attempt has written nothing to finalize, and its entry would never be removed by close()
+        return;
+      }
+
+      invalidatedTasks.add(taskId);
+      for (PartitionAppenderMeta eachAppender: partitionAppenderMap.values()) {
+        eachAppender.appender.taskInvalidated(taskId);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  boolean isInvalidated(TaskAttemptId taskId) {
+    synchronized (appenderMap) {
+      return invalidatedTasks.contains(taskId);
+    }
+  }
+
   public static class HashShuffleIntermediate {
     private int partId;
 
@@ -0,0 +1,339 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.fragment.Fragment;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ParallelScanner reads the fragments of a task with multiple threads.
+ *
+ * Splittable file fragments are divided into morsels of a given size. Reader threads take morsels one by one from
+ * a queue shared by the readers of a scanner, so a reader finishing early takes over the remaining morsels of slower
+ * readers. Tuples decoded by readers are handed over to the task thread in batches.
+ *
+ * Each scanner has its own reader threads, and they are started when the first tuple is requested. A reader blocks
+ * while the batches of its scanner are not consumed, e.g., the probe side of a hash join while the build side is
+ * being read. So, readers must never occupy threads which other scanners need to make progress.
+ *
+ * The order of output tuples is not kept, so it must be used only for inputs whose order does not matter.
+ */
+public class ParallelScanner implements Scanner {
+  private static final Log LOG = LogFactory.getLog(ParallelScanner.class);
+
+  private static final int BATCH_SIZE = 1024;
+  private static final int QUEUED_BATCHES_PER_READER = 4;
+  private static final long OFFER_TIMEOUT_MS = 100;
+  /** a marker meaning that all readers are finished */
+  private static final List<Tuple> END_OF_DATA = Collections.emptyList();
+
+  private final TajoConf conf;
+  private final Schema schema;
+  private final TableMeta meta;
+  private Schema target;
+  private final List<Fragment> morsels;
+  private final int parallelism;
+
+  private ExecutorService readers;
+  private ScanRun currentRun;
+  private Iterator<Tuple> currentBatch;
+  private boolean finished;
+
+  private final TableStats tableStats;
+  private final AtomicLong readBytes = new AtomicLong(0);
+  private final AtomicLong numRows = new AtomicLong(0);
+  private float progress;
+
+  public ParallelScanner(TajoConf conf, Schema schema, TableMeta meta, List<Fragment> morsels, Schema target,
+                         int parallelism) {
+    this.conf = conf;
+    this.schema = schema;
+    this.meta = meta;
+    this.target = target;
+    this.morsels = morsels;
+    this.parallelism = Math.max(1, Math.min(parallelism, morsels.size()));
+
+    long numBytes = 0;
+    for (Fragment morsel : morsels) {
+      numBytes += StorageManager.getFragmentLength(conf, morsel);
+    }
+    tableStats = new TableStats();
+    tableStats.setNumBytes(numBytes);
+    tableStats.setNumBlocks(morsels.size());
+  }
+
+  /**
+   * Divides splittable file fragments into morsels whose size is at most a given size.
+   * Fragments of non-splittable formats are kept as they are.
+   */
+  public static List<Fragment> splitIntoMorsels(TajoConf conf, TableMeta meta, Schema schema,
+                                                List<Fragment> fragments, long morselSize) throws IOException {
+    List<Fragment> morsels = new ArrayList<Fragment>();
+    for (Fragment fragment : fragments) {
+      if (!(fragment instanceof FileFragment) || fragment.getLength() <= morselSize ||
+          !isSplittable(conf, meta, schema, fragment)) {
+        morsels.add(fragment);
+        continue;
+      }
+
+      FileFragment fileFragment = (FileFragment) fragment;
+      long end = fileFragment.getStartKey() + fileFragment.getLength();
+      for (long start = fileFragment.getStartKey(); start < end; start += morselSize) {
+        morsels.add(new FileFragment(fileFragment.getTableName(), fileFragment.getPath(), start,
+            Math.min(morselSize, end - start), fileFragment.getHosts(), fileFragment.getDiskIds()));
+      }
+    }
+    return morsels;
+  }
+
+  private static boolean isSplittable(TajoConf conf, TableMeta meta, Schema schema, Fragment fragment)
+      throws IOException {
+    Scanner scanner = StorageManager.getStorageManager(conf, meta.getStoreType()).getScanner(meta, schema, fragment);
+    try {
+      return scanner.isSplittable();
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Override
+  public void init() throws IOException {
+    progress = 0.0f;
+    finished = false;
+    currentBatch = null;
+  }
+
+  private void start() {
+    if (readers == null) {
+      readers = Executors.newFixedThreadPool(parallelism,
+          new ThreadFactoryBuilder().setNameFormat("Parallel Scanner #%d").setDaemon(true).build());
+    }
+    currentRun = new ScanRun();
+    for (int i = 0; i < parallelism; i++) {
+      readers.execute(currentRun.newReader());
+    }
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (currentRun == null && !finished) {
+      start();
+    }
+
+    while (currentBatch == null || !currentBatch.hasNext()) {
+      if (finished) {
+        return null;
+      }
+
+      List<Tuple> batch;
+      try {
+        batch = currentRun.output.take();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+
+      if (batch == END_OF_DATA) {
+        finished = true;
+        if (currentRun.error != null) {
+          throw new IOException(currentRun.error);
+        }
+        return null;
+      }
+      currentBatch = batch.iterator();
+    }
+    return currentBatch.next();
+  }
+
+  @Override
+  public void reset() throws IOException {
+    if (currentRun != null) {
+      currentRun.stop();
+      currentRun = null;
+    }
+    finished = false;
+    currentBatch = null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (currentRun != null) {
+      currentRun.stop();
+      currentRun = null;
+    }
+    if (readers != null) {
+      // interrupts the readers waiting for the queue, and the others exit by themselves after a stop
+      readers.shutdownNow();
+      readers = null;
+    }
+    currentBatch = null;
+    progress = 1.0f;
+  }
+
+  @Override
+  public boolean isProjectable() {
+    return true;
+  }
+
+  @Override
+  public void setTarget(Column[] targets) {
+    this.target = new Schema(targets);
+  }
+
+  @Override
+  public boolean isSelectable() {
+    return false;
+  }
+
+  @Override
+  public void setSearchCondition(Object expr) {
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+
+  @Override
+  public boolean isSplittable() {
+    return false;
+  }
+
+  @Override
+  public float getProgress() {
+    if (currentRun != null && tableStats.getNumBytes() > 0) {
+      return Math.min(1.0f, (float) readBytes.get() / (float) tableStats.getNumBytes());
+    } else {
+      return progress;
+    }
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    tableStats.setReadBytes(readBytes.get());
+    tableStats.setNumRows(numRows.get());
+    return tableStats;
+  }
+
+  /**
+   * A single pass over all morsels. A new pass is started whenever the scanner is reset.
+   */
+  private class ScanRun {
+    private final Queue<Fragment> pending = new ConcurrentLinkedQueue<Fragment>(morsels);
+    private final BlockingQueue<List<Tuple>> output =
+        new LinkedBlockingQueue<List<Tuple>>(parallelism * QUEUED_BATCHES_PER_READER);
+    private final AtomicInteger runningReaders = new AtomicInteger(parallelism);
+    private volatile boolean stopped = false;
+    private volatile Throwable error;
+
+    Runnable newReader() {
+      return new Runnable() {
+        @Override
+        public void run() {
+          try {
+            Fragment morsel;
+            while (!stopped && (morsel = pending.poll()) != null) {
+              readMorsel(morsel);
+            }
+          } catch (Throwable t) {
+            // a stopped run is not read anymore, so errors caused by interrupting its readers are ignored
+            if (!stopped) {
+              LOG.error(t.getMessage(), t);
+              error = t;
+            }
+            pending.clear();
+          } finally {
+            if (runningReaders.decrementAndGet() == 0) {
+              put(END_OF_DATA);
+            }
+          }
+        }
+      };
+    }
+
+    private void readMorsel(Fragment morsel) throws IOException {
+      Scanner scanner = StorageManager.getStorageManager(conf, meta.getStoreType()).getScanner(meta, schema, morsel,
+          target);
+      scanner.init();
+      try {
+        List<Tuple> batch = new ArrayList<Tuple>(BATCH_SIZE);
+        Tuple tuple;
+        while (!stopped && (tuple = scanner.next()) != null) {
+          // scanners may reuse a tuple instance
+          Tuple copy = new VTuple(tuple);
+          copy.setOffset(tuple.getOffset());
+          batch.add(copy);
+
+          if (batch.size() >= BATCH_SIZE) {
+            put(batch);
+            batch = new ArrayList<Tuple>(BATCH_SIZE);
+          }
+        }
+        if (!batch.isEmpty()) {
+          put(batch);
+        }
+      } finally {
+        scanner.close();
+        TableStats stats = scanner.getInputStats();
+        if (stats != null) {
+          readBytes.addAndGet(stats.getReadBytes());
+          numRows.addAndGet(stats.getNumRows());
+        }
+      }
+    }
+
+    /**
+     * Waits until the task thread takes the batch. It gives up when this run is stopped, because nobody will take
+     * the batch anymore.
+     */
+    private void put(List<Tuple> batch) {
+      try {
+        while (!stopped) {
+          if (output.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            return;
+          }
+        }
+      } catch (InterruptedException e) {
+        stopped = true;
+      }
+    }
+
+    void stop() {
+      stopped = true;
+      output.clear();
+    }
+  }
+}
@@ -24,6 +24,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hdfs.*;
 import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
@@ -31,6 +32,7 @@ import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.*;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.util.CommonTestingUtil;
@@ -100,6 +102,66 @@ public class TestFileStorageManager {
 		assertEquals(4,i);
 	}
 
+  @Test
+  public void testGetSplitWithFileStats() throws Exception {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.CSV);
+
+    Path tablePath = StorageUtil.concatPath(testDir, "testGetSplitWithFileStats");
+    fs.mkdirs(tablePath);
+    FileStorageManager sm = (FileStorageManager)StorageManager.getFileStorageManager(conf);
+
+    // each file has ids in [i * 10, i * 10 + 9]
+    for (int i = 0; i < 3; i++) {
+      Appender appender = sm.getAppender(meta, schema, new Path(tablePath, "part-01-00000" + i));
+      appender.enableStats();
+      appender.init();
+      for (int j = 0; j < 10; j++) {
+        Tuple tuple = new VTuple(2);
+        tuple.put(new Datum[] {DatumFactory.createInt4(i * 10 + j), DatumFactory.createText("name" + j)});
+        appender.addTuple(tuple);
+      }
+      appender.close();
+      FileStatsFilter.writeFileStats(appender);
+    }
+    assertEquals(3, fs.listStatus(tablePath, StorageManager.fileStatsFilter).length);
+
+    // 15 <= id and id < 20 can be satisfied only by the second file.
+    FieldEval id = new FieldEval(new Column("id", Type.INT4));
+    EvalNode qual = new BinaryEval(EvalType.AND,
+        new BinaryEval(EvalType.GEQ, id, new ConstEval(DatumFactory.createInt4(15))),
+        new BinaryEval(EvalType.LTH, id, new ConstEval(DatumFactory.createInt4(20))));
+    List<Fragment> splits = sm.getSplits("data", meta, schema, new FileStatsFilter(qual), tablePath);
+    assertEquals(1, splits.size());
+    assertEquals("part-01-000001", ((FileFragment) splits.get(0)).getPath().getName());
+
+    // a constant on the left side
+    qual = new BinaryEval(EvalType.GTH, new ConstEval(DatumFactory.createInt4(10)), id);
+    splits = sm.getSplits("data", meta, schema, new FileStatsFilter(qual), tablePath);
+    assertEquals(1, splits.size());
+    assertEquals("part-01-000000", ((FileFragment) splits.get(0)).getPath().getName());
+
+    // no file can satisfy the qual
+    qual = new BinaryEval(EvalType.EQUAL, id, new ConstEval(DatumFactory.createInt4(100)));
+    assertEquals(0, sm.getSplits("data", meta, schema, new FileStatsFilter(qual), tablePath).size());
+
+    // the statistics of a changed file are ignored.
+    Appender appender = sm.getAppender(meta, schema, new Path(tablePath, "part-01-000000"));
+    appender.init();
+    Tuple tuple = new VTuple(2);
+    tuple.put(new Datum[] {DatumFactory.createInt4(100), DatumFactory.createText("changed")});
+    appender.addTuple(tuple);
+    appender.close();
+    assertEquals(1, sm.getSplits("data", meta, schema, new FileStatsFilter(qual), tablePath).size());
+
+    // a file rewritten with the same length is detected by its modification time.
+    Path rewritten = new Path(tablePath, "part-01-000001");
+    fs.setTimes(rewritten, fs.getFileStatus(rewritten).getModificationTime() + 10000, -1);
+    assertEquals(2, sm.getSplits("data", meta, schema, new FileStatsFilter(qual), tablePath).size());
+  }
+
   @Test
   public void testGetSplit() throws Exception {
     final Configuration conf = new HdfsConfiguration();
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.TaskId;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.HashShuffleAppenderManager.HashShuffleIntermediate;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestHashShuffleAppenderManager {
+  private static String TEST_PATH = "target/test-data/TestHashShuffleAppenderManager";
+  private TajoConf conf;
+  private Schema schema;
+  private TableMeta meta;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    Path testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    conf.setVar(ConfVars.WORKER_TEMPORAL_DIR, testDir.toUri().getPath());
+
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    meta = CatalogUtil.newTableMeta(StoreType.RAW);
+  }
+
+  private static List<Tuple> newTuples(int num) {
+    List<Tuple> tuples = Lists.newArrayList();
+    for (int i = 0; i < num; i++) {
+      VTuple tuple = new VTuple(1);
+      tuple.put(0, DatumFactory.createInt4(i));
+      tuples.add(tuple);
+    }
+    return tuples;
+  }
+
+  @Test
+  public final void testInvalidateSpeculativeAttempt() throws Exception {
+    HashShuffleAppenderManager manager = new HashShuffleAppenderManager(conf);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(
+        QueryIdFactory.newQueryId(System.currentTimeMillis(), 1), 1);
+    TaskId taskId = QueryIdFactory.newTaskId(ebId, 0);
+    TaskAttemptId original = QueryIdFactory.newTaskAttemptId(taskId, 0);
+    TaskAttemptId speculative = QueryIdFactory.newTaskAttemptId(taskId, 1);
+    TaskAttemptId failed = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, 1), 0);
+
+    HashShuffleAppender appender = manager.getAppender(conf, ebId, 0, meta, schema);
+    appender.addTuples(original, newTuples(10));
+    appender.addTuples(speculative, newTuples(10));
+    appender.addTuples(failed, newTuples(5));
+
+    // both attempts finish, but the speculative attempt loses the race after it is finalized.
+    manager.finalizeTask(speculative);
+    manager.finalizeTask(original);
+    manager.invalidateTask(speculative);
+
+    List<HashShuffleIntermediate> intermediates = manager.close(ebId);
+    assertEquals(1, intermediates.size());
+    // the tuples of the killed attempt and the failed attempt are skipped.
+    assertEquals(2, intermediates.get(0).getFailureTskTupleIndexes().size());
+  }
+
+  @Test
+  public final void testKilledAttemptIsNotFinalized() throws Exception {
+    HashShuffleAppenderManager manager = new HashShuffleAppenderManager(conf);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(
+        QueryIdFactory.newQueryId(System.currentTimeMillis(), 2), 1);
+    TaskAttemptId attemptId = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, 0), 0);
+
+    HashShuffleAppender appender = manager.getAppender(conf, ebId, 0, meta, schema);
+    appender.addTuples(attemptId, newTuples(10));
+
+    // the kill request arrives before the attempt is finalized
+    manager.invalidateTask(attemptId);
+    manager.finalizeTask(attemptId);
+
+    List<HashShuffleIntermediate> intermediates = manager.close(ebId);
+    assertEquals(1, intermediates.get(0).getFailureTskTupleIndexes().size());
+  }
+  @Test
+  public final void testKillAfterClose() throws Exception {
+    HashShuffleAppenderManager manager = new HashShuffleAppenderManager(conf);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(
+        QueryIdFactory.newQueryId(System.currentTimeMillis(), 3), 1);
+    TaskAttemptId killed = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, 0), 0);
+    TaskAttemptId late = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, 1), 0);
+
+    HashShuffleAppender appender = manager.getAppender(conf, ebId, 0, meta, schema);
+    appender.addTuples(killed, newTuples(10));
+    manager.invalidateTask(killed);
+    assertTrue(manager.isInvalidated(killed));
+
+    // closing the execution block removes the kills of its attempts
+    manager.close(ebId);
+    assertFalse(manager.isInvalidated(killed));
+
+    // a kill which arrives after the execution block is closed is ignored
+    manager.invalidateTask(late);
+    assertFalse(manager.isInvalidated(late));
+  }
+}
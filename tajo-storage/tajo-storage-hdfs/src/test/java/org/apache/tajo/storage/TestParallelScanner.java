@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.fragment.Fragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.util.TUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestParallelScanner {
+  private static final String TEST_PATH = "target/test-data/TestParallelScanner";
+  private static final int TUPLE_NUM = 20000;
+
+  private TajoConf conf;
+  private Path testDir;
+  private FileSystem fs;
+  private Schema schema;
+
+  @Before
+  public void setup() throws Exception {
+    conf = new TajoConf();
+    conf.setVar(ConfVars.ROOT_DIR, TEST_PATH);
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    fs = testDir.getFileSystem(conf);
+
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+  }
+
+  private Fragment writeTable(TableMeta meta, String name) throws IOException {
+    Path tablePath = new Path(testDir, name);
+    Appender appender = StorageManager.getFileStorageManager(conf).getAppender(null, null, meta, schema, tablePath);
+    appender.init();
+    for (int i = 0; i < TUPLE_NUM; i++) {
+      VTuple tuple = new VTuple(2);
+      tuple.put(0, DatumFactory.createInt4(i + 1));
+      tuple.put(1, DatumFactory.createText("tajo"));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+    return new FileFragment(name, tablePath, 0, fs.getFileStatus(tablePath).getLen());
+  }
+
+  private static long sumOfIds(Scanner scanner) throws IOException {
+    long sum = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      sum += tuple.get(0).asInt4();
+    }
+    return sum;
+  }
+
+  @Test
+  public void testScanMorsels() throws IOException {
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.CSV);
+    Fragment fragment = writeTable(meta, "csv_table");
+
+    List<Fragment> morsels = ParallelScanner.splitIntoMorsels(conf, meta, schema, TUtil.newList(fragment), 16 * 1024);
+    assertTrue(morsels.size() > 1);
+
+    ParallelScanner scanner = new ParallelScanner(conf, schema, meta, morsels, schema, 4);
+    scanner.init();
+    long expected = (long) TUPLE_NUM * (TUPLE_NUM + 1) / 2;
+    assertEquals(expected, sumOfIds(scanner));
+    assertEquals(TUPLE_NUM, scanner.getInputStats().getNumRows().longValue());
+
+    // it reads all morsels again after reset.
+    scanner.reset();
+    assertEquals(expected, sumOfIds(scanner));
+    scanner.close();
+  }
+
+  @Test(timeout = 120000)
+  public void testScannersConsumedOneByOne() throws IOException {
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.CSV);
+    Fragment fragment = writeTable(meta, "csv_table");
+    List<Fragment> morsels = ParallelScanner.splitIntoMorsels(conf, meta, schema, TUtil.newList(fragment), 16 * 1024);
+
+    // more scanners than processors are opened at once, and each is read only after the previous one is drained,
+    // like the probe side of a hash join. An unconsumed scanner must not block the others.
+    List<ParallelScanner> scanners = new ArrayList<ParallelScanner>();
+    for (int i = 0; i < Runtime.getRuntime().availableProcessors() + 2; i++) {
+      ParallelScanner scanner = new ParallelScanner(conf, schema, meta, morsels, schema, 4);
+      scanner.init();
+      scanners.add(scanner);
+    }
+    for (ParallelScanner scanner : scanners) {
+      assertNotNull(scanner.next());
+    }
+
+    long expected = (long) TUPLE_NUM * (TUPLE_NUM + 1) / 2;
+    for (ParallelScanner scanner : scanners) {
+      scanner.reset();
+      assertEquals(expected, sumOfIds(scanner));
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testNonSplittableFile() throws IOException {
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    Fragment fragment = writeTable(meta, "raw_table");
+
+    List<Fragment> morsels = ParallelScanner.splitIntoMorsels(conf, meta, schema, TUtil.newList(fragment), 16 * 1024);
+    assertEquals(1, morsels.size());
+  }
+}